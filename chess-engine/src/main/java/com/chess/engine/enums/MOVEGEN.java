@@ -0,0 +1,16 @@
+package com.chess.engine.enums;
+
+/**
+ * Перечисление режимов генерации ходов
+ */
+public enum MOVEGEN {
+
+    /** Все псевдолегальные ходы */
+    ALL,
+    /** Только взятия и превращения пешек */
+    CAPTURES,
+    /** Только тихие ходы (без взятий и превращений) */
+    QUIETS,
+    /** Только ходы, уводящие короля из-под шаха */
+    EVASIONS
+}
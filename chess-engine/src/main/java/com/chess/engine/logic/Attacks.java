@@ -0,0 +1,253 @@
+package com.chess.engine.logic;
+
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.enums.ID;
+import com.chess.engine.pieces.PieceKind;
+
+import java.util.Objects;
+
+/**
+ * Класс для поиска фигур, которые бьют или могут занять указанное поле
+ * Поиск ведется от поля наружу по линиям, диагоналям и прыжкам коня,
+ * поэтому не требует генерации ходов всех фигур
+ */
+public class Attacks {
+
+    private static final String nullPosition = "Позиция не может быть null.";
+
+    /** Направления вдоль вертикалей и горизонталей */
+    static final int[][] LINES = {{0, 1}, {0, -1}, {1, 0}, {-1, 0}};
+    /** Направления вдоль диагоналей */
+    static final int[][] DIAGONALS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+    /** Прыжки коня */
+    static final int[][] KNIGHT_JUMPS = {{1, 2}, {-1, 2}, {1, -2}, {-1, -2}, {2, 1}, {2, -1}, {-2, 1}, {-2, -1}};
+
+    private static final int RANKS = Coordinate.SQUARES / Coordinate.WIDTH;
+
+    /**
+     * Проверяет, ходит ли фигура указанного типа вдоль вертикалей и горизонталей на любое расстояние
+     * @param name тип фигуры
+     * @return true для ладьи, ферзя, боевой машины и жирафа
+     */
+    public static boolean slidesOnLines(ID name) {
+        return Movement.of(name).slidesOnLines();
+    }
+
+    /**
+     * Проверяет, ходит ли фигура указанного типа по диагоналям на любое расстояние
+     * @param name тип фигуры
+     * @return true для слона, ферзя, визиря и жирафа
+     */
+    public static boolean slidesOnDiagonals(ID name) {
+        return Movement.of(name).slidesOnDiagonals();
+    }
+
+    /**
+     * Проверяет, ходит ли фигура указанного типа прыжком коня
+     * @param name тип фигуры
+     * @return true для коня, боевой машины, визиря и жирафа
+     */
+    public static boolean leapsAsKnight(ID name) {
+        return Movement.of(name).leapsAsKnight();
+    }
+
+    /**
+     * Находит все фигуры указанного цвета, которые бьют поле
+     * @param position текущая позиция
+     * @param square номер поля для проверки
+     * @param colour цвет нападающих фигур
+     * @return множество полей нападающих фигур
+     */
+    public static SquareSet attackers(Position position, int square, COLOUR colour) {
+
+        Objects.requireNonNull(position, nullPosition);
+
+        SquareSet found = new SquareSet();
+        collectPieces(position, square, colour, true, found);
+
+        int back = -pawnDirection(colour);
+        for (int side = -1; side <= 1; side += 2) {
+            int from = shift(square, side, back);
+            if (isPiece(position, from, colour, ID.PAWN))
+                found.add(from);
+        }
+        return found;
+    }
+
+    /**
+     * Проверяет, бьет ли хотя бы одна фигура указанного цвета поле
+     * В отличие от {@link #attackers} останавливается на первом найденном нападающем:
+     * сначала проверяются пешки и прыжки коня, затем лучи вдоль линий и диагоналей
+     * @param position текущая позиция
+     * @param square номер поля для проверки
+     * @param byColour цвет нападающих фигур
+     * @return true если поле атаковано
+     */
+    public static boolean isSquareAttacked(Position position, int square, COLOUR byColour) {
+
+        Objects.requireNonNull(position, nullPosition);
+
+        int back = -pawnDirection(byColour);
+        for (int side = -1; side <= 1; side += 2) {
+            if (isPiece(position, shift(square, side, back), byColour, ID.PAWN))
+                return true;
+        }
+
+        for (int[] jump : KNIGHT_JUMPS) {
+            int from = shift(square, jump[0], jump[1]);
+            if (from >= 0) {
+                PieceKind kind = position.get(from);
+                if (kind != null && kind.getColour() == byColour && leapsAsKnight(kind.getName()))
+                    return true;
+            }
+        }
+
+        return isRayAttacked(position, square, byColour, LINES, true)
+                || isRayAttacked(position, square, byColour, DIAGONALS, false);
+    }
+
+    /**
+     * Находит все фигуры указанного цвета, кроме короля, которые могут пойти на пустое поле
+     * Используется для поиска ходов, перекрывающих линию шаха
+     * @param position текущая позиция
+     * @param square номер пустого поля назначения
+     * @param colour цвет фигур
+     * @return множество полей фигур
+     */
+    public static SquareSet movers(Position position, int square, COLOUR colour) {
+
+        Objects.requireNonNull(position, nullPosition);
+
+        SquareSet found = new SquareSet();
+        collectPieces(position, square, colour, false, found);
+
+        int from = shift(square, 0, -pawnDirection(colour));
+        if (isPiece(position, from, colour, ID.PAWN))
+            found.add(from);
+        return found;
+    }
+
+    /**
+     * Получает направление хода пешек указанного цвета по горизонталям
+     * @param colour цвет пешек
+     * @return 1 для белых, -1 для черных
+     */
+    static int pawnDirection(COLOUR colour) {
+        return colour == COLOUR.W ? 1 : -1;
+    }
+
+    /**
+     * Сдвигает поле на указанное число вертикалей и горизонталей
+     * @param square номер поля
+     * @param fileStep сдвиг по вертикалям
+     * @param rankStep сдвиг по горизонталям
+     * @return номер нового поля или -1, если оно вне доски
+     */
+    static int shift(int square, int fileStep, int rankStep) {
+        int file = square % Coordinate.WIDTH + fileStep;
+        int rank = square / Coordinate.WIDTH + rankStep;
+        if (file < 0 || file >= Coordinate.WIDTH || rank < 0 || rank >= RANKS)
+            return -1;
+        return file + rank * Coordinate.WIDTH;
+    }
+
+    /**
+     * Собирает дальнобойные фигуры, фигуры с прыжком коня и, при необходимости, короля
+     * @param position текущая позиция
+     * @param square номер поля для проверки
+     * @param colour цвет фигур
+     * @param includeKing учитывать ли короля на соседних полях
+     * @param found множество для найденных полей
+     */
+    private static void collectPieces(Position position, int square, COLOUR colour,
+                                      boolean includeKing, SquareSet found) {
+        collectSliders(position, square, colour, LINES, true, includeKing, found);
+        collectSliders(position, square, colour, DIAGONALS, false, includeKing, found);
+
+        for (int[] jump : KNIGHT_JUMPS) {
+            int from = shift(square, jump[0], jump[1]);
+            if (from >= 0) {
+                PieceKind kind = position.get(from);
+                if (kind != null && kind.getColour() == colour && leapsAsKnight(kind.getName()))
+                    found.add(from);
+            }
+        }
+    }
+
+    /**
+     * Идет от поля по указанным направлениям до первой фигуры и проверяет, ходит ли она в эту сторону
+     * @param position текущая позиция
+     * @param square номер поля для проверки
+     * @param colour цвет фигур
+     * @param directions направления поиска
+     * @param lines true для вертикалей и горизонталей, false для диагоналей
+     * @param includeKing учитывать ли короля на соседних полях
+     * @param found множество для найденных полей
+     */
+    private static void collectSliders(Position position, int square, COLOUR colour, int[][] directions,
+                                       boolean lines, boolean includeKing, SquareSet found) {
+        for (int[] direction : directions) {
+            int from = shift(square, direction[0], direction[1]);
+            int distance = 1;
+            while (from >= 0) {
+                PieceKind kind = position.get(from);
+                if (kind != null) {
+                    if (kind.getColour() == colour) {
+                        ID name = kind.getName();
+                        boolean slides = lines ? slidesOnLines(name) : slidesOnDiagonals(name);
+                        if (slides || (includeKing && distance == 1 && name == ID.KING))
+                            found.add(from);
+                    }
+                    break;
+                }
+                from = shift(from, direction[0], direction[1]);
+                distance++;
+            }
+        }
+    }
+
+    /**
+     * Проверяет, бьет ли поле дальнобойная фигура или король с одного из лучей
+     * @param position текущая позиция
+     * @param square номер поля для проверки
+     * @param colour цвет нападающих фигур
+     * @param directions направления лучей
+     * @param lines true для вертикалей и горизонталей, false для диагоналей
+     * @return true если на одном из лучей первой стоит нападающая фигура
+     */
+    private static boolean isRayAttacked(Position position, int square, COLOUR colour, int[][] directions, boolean lines) {
+        for (int[] direction : directions) {
+            int from = shift(square, direction[0], direction[1]);
+            int distance = 1;
+            while (from >= 0) {
+                PieceKind kind = position.get(from);
+                if (kind != null) {
+                    if (kind.getColour() == colour) {
+                        ID name = kind.getName();
+                        if ((lines ? slidesOnLines(name) : slidesOnDiagonals(name)) || (distance == 1 && name == ID.KING))
+                            return true;
+                    }
+                    break;
+                }
+                from = shift(from, direction[0], direction[1]);
+                distance++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Проверяет, стоит ли на поле фигура указанного цвета и типа
+     * @param position текущая позиция
+     * @param square номер поля или -1 для поля вне доски
+     * @param colour цвет фигуры
+     * @param name тип фигуры
+     * @return true если на поле стоит такая фигура
+     */
+    private static boolean isPiece(Position position, int square, COLOUR colour, ID name) {
+        if (square < 0)
+            return false;
+        PieceKind kind = position.get(square);
+        return kind != null && kind.getColour() == colour && kind.getName() == name;
+    }
+}
@@ -0,0 +1,129 @@
+package com.chess.engine.logic;
+
+import com.chess.engine.enums.COLOUR;
+
+import java.util.Arrays;
+
+/**
+ * Класс с правилами рокировки на доске 10x10
+ * Права рокировки хранятся четырьмя битами: по одному на каждый фланг каждого цвета.
+ * Король стоит на вертикали f. При рокировке в сторону королевского фланга король идет
+ * на h, а ладья с j встает на g; в сторону ферзевого фланга король идет на d, а ладья с a встает на e.
+ * Право теряется, когда с исходного поля уходит король или ладья либо ладью на нем берут.
+ */
+public class Castling {
+
+    /** Рокировка белых в сторону королевского фланга */
+    public static final int WHITE_KING_SIDE = 1;
+    /** Рокировка белых в сторону ферзевого фланга */
+    public static final int WHITE_QUEEN_SIDE = 1 << 1;
+    /** Рокировка черных в сторону королевского фланга */
+    public static final int BLACK_KING_SIDE = 1 << 2;
+    /** Рокировка черных в сторону ферзевого фланга */
+    public static final int BLACK_QUEEN_SIDE = 1 << 3;
+    /** Все права рокировки */
+    public static final int ALL = WHITE_KING_SIDE | WHITE_QUEEN_SIDE | BLACK_KING_SIDE | BLACK_QUEEN_SIDE;
+
+    private static final int KING_FILE = 'f' - 'a';
+    private static final int KING_SIDE_ROOK_FILE = Coordinate.WIDTH - 1;
+    private static final int QUEEN_SIDE_ROOK_FILE = 0;
+    private static final int KING_STEP = 2;
+
+    /** Права, которые сохраняются после хода с поля или на поле (по номеру поля) */
+    private static final int[] KEEP = new int[Coordinate.SQUARES];
+
+    static {
+        Arrays.fill(KEEP, ALL);
+        for (COLOUR colour : COLOUR.values()) {
+            KEEP[kingFrom(colour)] &= ~(right(colour, true) | right(colour, false));
+            KEEP[rookFrom(colour, true)] &= ~right(colour, true);
+            KEEP[rookFrom(colour, false)] &= ~right(colour, false);
+        }
+    }
+
+    /**
+     * Получает бит права рокировки
+     * @param colour цвет стороны
+     * @param kingSide true для королевского фланга, false для ферзевого
+     * @return бит права рокировки
+     */
+    public static int right(COLOUR colour, boolean kingSide) {
+        int white = kingSide ? WHITE_KING_SIDE : WHITE_QUEEN_SIDE;
+        return colour == COLOUR.W ? white : white << 2;
+    }
+
+    /**
+     * Пересчитывает права рокировки после хода
+     * @param rights права до хода
+     * @param from номер поля отправления
+     * @param to номер поля назначения
+     * @return права после хода
+     */
+    public static int update(int rights, int from, int to) {
+        return rights & KEEP[from] & KEEP[to];
+    }
+
+    /**
+     * Получает исходное поле короля
+     * @param colour цвет короля
+     * @return номер поля
+     */
+    public static int kingFrom(COLOUR colour) {
+        return homeRank(colour) + KING_FILE;
+    }
+
+    /**
+     * Получает поле короля после рокировки
+     * @param colour цвет короля
+     * @param kingSide true для королевского фланга, false для ферзевого
+     * @return номер поля
+     */
+    public static int kingTo(COLOUR colour, boolean kingSide) {
+        return kingFrom(colour) + (kingSide ? KING_STEP : -KING_STEP);
+    }
+
+    /**
+     * Получает исходное поле ладьи
+     * @param colour цвет ладьи
+     * @param kingSide true для королевского фланга, false для ферзевого
+     * @return номер поля
+     */
+    public static int rookFrom(COLOUR colour, boolean kingSide) {
+        return homeRank(colour) + (kingSide ? KING_SIDE_ROOK_FILE : QUEEN_SIDE_ROOK_FILE);
+    }
+
+    /**
+     * Получает поле ладьи после рокировки (поле, через которое проходит король)
+     * @param colour цвет ладьи
+     * @param kingSide true для королевского фланга, false для ферзевого
+     * @return номер поля
+     */
+    public static int rookTo(COLOUR colour, boolean kingSide) {
+        return kingFrom(colour) + (kingSide ? 1 : -1);
+    }
+
+    /**
+     * Проверяет, является ли ход короля рокировкой по полям
+     * @param colour цвет короля
+     * @param from номер поля отправления
+     * @param to номер поля назначения
+     * @return true если король идет с исходного поля на поле рокировки
+     */
+    public static boolean isCastlingMove(COLOUR colour, int from, int to) {
+        return from == kingFrom(colour) && (to == kingTo(colour, true) || to == kingTo(colour, false));
+    }
+
+    /**
+     * Определяет фланг рокировки по полю назначения короля
+     * @param from номер поля отправления короля
+     * @param to номер поля назначения короля
+     * @return true для королевского фланга
+     */
+    public static boolean isKingSide(int from, int to) {
+        return to > from;
+    }
+
+    private static int homeRank(COLOUR colour) {
+        return colour == COLOUR.W ? 0 : Coordinate.SQUARES - Coordinate.WIDTH;
+    }
+}
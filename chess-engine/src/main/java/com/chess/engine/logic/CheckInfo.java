@@ -0,0 +1,178 @@
+package com.chess.engine.logic;
+
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.enums.ID;
+import com.chess.engine.pieces.PieceKind;
+
+/**
+ * Класс с заранее вычисленными данными о шахах для одной позиции
+ * Хранит поля, с которых фигура каждого вида объявит шах королю соперника,
+ * и фигуры, уход которых откроет линию своей дальнобойной фигуре (вскрытый шах).
+ * Вычисляется один раз на позицию и используется для всех ходов стороны.
+ */
+class CheckInfo {
+
+    private final long positionId;
+    private final COLOUR colour;
+    private final int kingSquare;
+    private final SquareSet lineSquares = new SquareSet();
+    private final SquareSet diagonalSquares = new SquareSet();
+    private final SquareSet knightSquares = new SquareSet();
+    private final SquareSet pawnSquares = new SquareSet();
+    /** Направление луча от короля для своих фигур, первыми стоящих на нем (по номеру поля) */
+    private final int[][] blockers = new int[Coordinate.SQUARES][];
+    /** Направление линии для своих фигур, закрывающих линию своей дальнобойной фигуры к королю */
+    private final int[][] discoverers = new int[Coordinate.SQUARES][];
+
+    /**
+     * Вычисляет данные о шахах
+     * @param position текущая позиция
+     * @param colour цвет стороны, объявляющей шах
+     * @param positionId номер позиции, для которой выполнено вычисление
+     */
+    CheckInfo(Position position, COLOUR colour, long positionId) {
+        this.positionId = positionId;
+        this.colour = colour;
+        this.kingSquare = position.kingSquare(COLOUR.not(colour));
+        if (kingSquare < 0)
+            return;
+
+        collectRays(position, Attacks.LINES, lineSquares, true);
+        collectRays(position, Attacks.DIAGONALS, diagonalSquares, false);
+
+        for (int[] jump : Attacks.KNIGHT_JUMPS) {
+            int square = Attacks.shift(kingSquare, jump[0], jump[1]);
+            if (square >= 0)
+                knightSquares.add(square);
+        }
+
+        // Пешка бьет вперед по диагонали, поэтому шахует с полей позади короля относительно своего хода
+        int back = -Attacks.pawnDirection(colour);
+        for (int side = -1; side <= 1; side += 2) {
+            int square = Attacks.shift(kingSquare, side, back);
+            if (square >= 0)
+                pawnSquares.add(square);
+        }
+    }
+
+    /**
+     * Проверяет, вычислены ли данные для указанной позиции и стороны
+     * @param positionId номер позиции
+     * @param colour цвет стороны, объявляющей шах
+     * @return true если данные можно использовать
+     */
+    boolean isValidFor(long positionId, COLOUR colour) {
+        return this.positionId == positionId && this.colour == colour;
+    }
+
+    /**
+     * Проверяет, объявляет ли ход шах, не делая его
+     * @param move упакованный ход стороны, для которой вычислены данные
+     * @return true если после хода король соперника окажется под шахом
+     */
+    boolean givesCheck(int move) {
+        if (kingSquare < 0)
+            return false;
+
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        ID name = PackedMove.isPromotion(move) ? PackedMove.promotion(move) : PackedMove.piece(move);
+
+        if (Attacks.leapsAsKnight(name) && knightSquares.contains(to))
+            return true;
+        if (name == ID.PAWN && pawnSquares.contains(to))
+            return true;
+        if (Attacks.slidesOnLines(name) && (lineSquares.contains(to) || slidesAlongOwnRay(from, to, true)))
+            return true;
+        if (Attacks.slidesOnDiagonals(name) && (diagonalSquares.contains(to) || slidesAlongOwnRay(from, to, false)))
+            return true;
+
+        int[] direction = discoverers[from];
+        return direction != null && !onRay(direction, to);
+    }
+
+    /**
+     * Проверяет случай, когда фигура сама закрывала луч к королю и отходит по нему дальше
+     * (например, превращающаяся пешка или ладья, отступающая по вертикали короля)
+     * @param from номер поля отправления
+     * @param to номер поля назначения
+     * @param lines true для вертикалей и горизонталей, false для диагоналей
+     * @return true если фигура продолжает стоять на открытом луче к королю
+     */
+    private boolean slidesAlongOwnRay(int from, int to, boolean lines) {
+        int[] direction = blockers[from];
+        if (direction == null || isLine(direction) != lines)
+            return false;
+        return onRay(direction, to);
+    }
+
+    /**
+     * Проходит лучи от короля: пустые поля и первое занятое поле становятся полями шаха,
+     * своя фигура на луче запоминается, а если за ней стоит своя дальнобойная фигура
+     * нужного вида, то фигура запоминается как открывающая шах
+     * @param position текущая позиция
+     * @param directions направления лучей
+     * @param squares множество для полей шаха
+     * @param lines true для вертикалей и горизонталей, false для диагоналей
+     */
+    private void collectRays(Position position, int[][] directions, SquareSet squares, boolean lines) {
+        for (int[] direction : directions) {
+            int square = Attacks.shift(kingSquare, direction[0], direction[1]);
+            while (square >= 0) {
+                squares.add(square);
+                PieceKind kind = position.get(square);
+                if (kind != null) {
+                    if (kind.getColour() == colour) {
+                        blockers[square] = direction;
+                        if (isSliderBehind(position, square, direction, lines))
+                            discoverers[square] = direction;
+                    }
+                    break;
+                }
+                square = Attacks.shift(square, direction[0], direction[1]);
+            }
+        }
+    }
+
+    /**
+     * Проверяет, стоит ли за полем первой на луче своя дальнобойная фигура нужного вида
+     * @param position текущая позиция
+     * @param square номер поля закрывающей фигуры
+     * @param direction направление луча от короля
+     * @param lines true для вертикалей и горизонталей, false для диагоналей
+     * @return true если уход фигуры с поля откроет линию к королю
+     */
+    private boolean isSliderBehind(Position position, int square, int[] direction, boolean lines) {
+        int behind = Attacks.shift(square, direction[0], direction[1]);
+        while (behind >= 0) {
+            PieceKind kind = position.get(behind);
+            if (kind != null) {
+                ID name = kind.getName();
+                return kind.getColour() == colour
+                        && (lines ? Attacks.slidesOnLines(name) : Attacks.slidesOnDiagonals(name));
+            }
+            behind = Attacks.shift(behind, direction[0], direction[1]);
+        }
+        return false;
+    }
+
+    /**
+     * Проверяет, лежит ли поле на луче от короля в указанном направлении
+     * @param direction направление луча
+     * @param square номер поля для проверки
+     * @return true если поле лежит на луче
+     */
+    private boolean onRay(int[] direction, int square) {
+        int fileDiff = square % Coordinate.WIDTH - kingSquare % Coordinate.WIDTH;
+        int rankDiff = square / Coordinate.WIDTH - kingSquare / Coordinate.WIDTH;
+        if (fileDiff == 0 && rankDiff == 0)
+            return false;
+        return fileDiff * direction[1] == rankDiff * direction[0]
+                && Integer.signum(fileDiff) == direction[0]
+                && Integer.signum(rankDiff) == direction[1];
+    }
+
+    private static boolean isLine(int[] direction) {
+        return direction[0] == 0 || direction[1] == 0;
+    }
+}
@@ -14,6 +14,10 @@ public class Coordinate {
     public int rank;
     /** Пустая координата */
     public static Coordinate emptyCoordinate = new Coordinate((char) 0,0);
+    /** Количество вертикалей доски */
+    public static final int WIDTH = BOARD.LAST_FILE.getFileVal() - BOARD.FIRST_FILE.getFileVal() + 1;
+    /** Количество полей доски */
+    public static final int SQUARES = WIDTH * (BOARD.LAST_RANK.getRankVal() - BOARD.FIRST_RANK.getRankVal() + 1);
 
     /**
      * Конструктор координаты
@@ -41,9 +45,11 @@ public class Coordinate {
      */
     public Coordinate (String coordinate) {
 
-        if (coordinate.length() == 2 && Character.isLetter(coordinate.charAt(0)) && Character.isDigit(coordinate.charAt(1))) {
+        int length = coordinate.length();
+        if ((length == 2 || length == 3) && Character.isLetter(coordinate.charAt(0))
+                && Character.isDigit(coordinate.charAt(1)) && Character.isDigit(coordinate.charAt(length - 1))) {
             file = Character.toLowerCase(coordinate.charAt(0));
-            rank = Character.getNumericValue(coordinate.charAt(1));
+            rank = Integer.parseInt(coordinate.substring(1));
         }
         else {
             System.out.println("Некорректная координата. Используется пустая координата.");
@@ -90,6 +96,25 @@ public class Coordinate {
                 && coordRank <= BOARD.LAST_RANK.getRankVal());
     }
 
+    /**
+     * Получает порядковый номер поля на доске (0 для a1, 99 для j10)
+     * Используется для индексации таблиц в поиске
+     * @return номер поля от 0 до 99
+     */
+    public int toIndex() {
+        return (file - BOARD.FIRST_FILE.getFileVal()) + (rank - BOARD.FIRST_RANK.getRankVal()) * WIDTH;
+    }
+
+    /**
+     * Создает координату по порядковому номеру поля
+     * @param index номер поля от 0 до 99
+     * @return координата поля
+     */
+    public static Coordinate fromIndex(int index) {
+        return new Coordinate((char) (BOARD.FIRST_FILE.getFileVal() + index % WIDTH),
+                BOARD.FIRST_RANK.getRankVal() + index / WIDTH);
+    }
+
     @Override
     public String toString() {
         return file + "" + rank;
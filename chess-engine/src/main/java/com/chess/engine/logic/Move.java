@@ -1,6 +1,7 @@
 package com.chess.engine.logic;
 
 import com.chess.engine.enums.COLOUR;
+import com.chess.engine.enums.MOVEGEN;
 import com.chess.engine.pieces.Piece;
 import java.util.ArrayList;
 import java.util.Objects;
@@ -50,6 +51,18 @@ public class Move {
      * @return список координат возможных ходов вперед
      */
     public static ArrayList<Coordinate> frontFree(Pieces pieces, Piece piece, int limit) {
+        return frontFree(pieces, piece, limit, MOVEGEN.ALL);
+    }
+
+    /**
+     * Получает список возможных ходов вперед от фигуры
+     * @param pieces текущее состояние доски
+     * @param piece фигура, для которой определяются ходы
+     * @param limit максимальное расстояние для хода
+     * @param mode режим генерации: взятия, тихие ходы или все ходы
+     * @return список координат возможных ходов вперед
+     */
+    public static ArrayList<Coordinate> frontFree(Pieces pieces, Piece piece, int limit, MOVEGEN mode) {
 
         ArrayList<Coordinate> moves = new ArrayList<>();
         int factor;
@@ -65,12 +78,13 @@ public class Move {
             if (Coordinate.inBoard(checkCoord)) {
                 boolean occupiedTile = tileFull(pieces, checkCoord);
                 if (occupiedTile && isNotTileColour(pieces, checkCoord, piece.getColour())) {
-                    moves.add(checkCoord);
+                    if (mode != MOVEGEN.QUIETS)
+                        moves.add(checkCoord);
                     return moves;
                 }
                 else if (occupiedTile)
                     return moves;
-                else
+                else if (mode != MOVEGEN.CAPTURES)
                     moves.add(checkCoord);
             }
         }
@@ -86,6 +100,18 @@ public class Move {
      * @return список координат возможных ходов назад
      */
     public static ArrayList<Coordinate> backFree(Pieces pieces, Piece piece, int limit) {
+        return backFree(pieces, piece, limit, MOVEGEN.ALL);
+    }
+
+    /**
+     * Получает список возможных ходов назад от фигуры
+     * @param pieces текущее состояние доски
+     * @param piece фигура, для которой определяются ходы
+     * @param limit максимальное расстояние для хода
+     * @param mode режим генерации: взятия, тихие ходы или все ходы
+     * @return список координат возможных ходов назад
+     */
+    public static ArrayList<Coordinate> backFree(Pieces pieces, Piece piece, int limit, MOVEGEN mode) {
 
         ArrayList<Coordinate> moves = new ArrayList<>();
         int factor;
@@ -101,12 +127,13 @@ public class Move {
             if (Coordinate.inBoard(checkCoord)) {
                 boolean occupiedTile = tileFull(pieces, checkCoord);
                 if (occupiedTile && isNotTileColour(pieces, checkCoord, piece.getColour())) {
-                    moves.add(checkCoord);
+                    if (mode != MOVEGEN.QUIETS)
+                        moves.add(checkCoord);
                     return moves;
                 }
                 else if (occupiedTile)
                     return moves;
-                else
+                else if (mode != MOVEGEN.CAPTURES)
                     moves.add(checkCoord);
             }
         }
@@ -125,6 +152,18 @@ public class Move {
      * @return список координат возможных ходов вправо
      */
     public static ArrayList<Coordinate> rightFree(Pieces pieces, Piece piece, int limit) {
+        return rightFree(pieces, piece, limit, MOVEGEN.ALL);
+    }
+
+    /**
+     * Получает список возможных ходов вправо от фигуры
+     * @param pieces текущее состояние доски
+     * @param piece фигура, для которой определяются ходы
+     * @param limit максимальное расстояние для хода
+     * @param mode режим генерации: взятия, тихие ходы или все ходы
+     * @return список координат возможных ходов вправо
+     */
+    public static ArrayList<Coordinate> rightFree(Pieces pieces, Piece piece, int limit, MOVEGEN mode) {
 
         ArrayList<Coordinate> moves = new ArrayList<>();
         int factor;
@@ -140,12 +179,13 @@ public class Move {
             if (Coordinate.inBoard(checkCoord)) {
                 boolean occupiedTile = tileFull(pieces, checkCoord);
                 if (occupiedTile && isNotTileColour(pieces, checkCoord, piece.getColour())) {
-                    moves.add(checkCoord);
+                    if (mode != MOVEGEN.QUIETS)
+                        moves.add(checkCoord);
                     return moves;
                 }
                 else if (occupiedTile)
                     return moves;
-                else
+                else if (mode != MOVEGEN.CAPTURES)
                     moves.add(checkCoord);
             }
         }
@@ -160,6 +200,18 @@ public class Move {
      * @return список координат возможных ходов влево
      */
     public static ArrayList<Coordinate> leftFree(Pieces pieces, Piece piece, int limit) {
+        return leftFree(pieces, piece, limit, MOVEGEN.ALL);
+    }
+
+    /**
+     * Получает список возможных ходов влево от фигуры
+     * @param pieces текущее состояние доски
+     * @param piece фигура, для которой определяются ходы
+     * @param limit максимальное расстояние для хода
+     * @param mode режим генерации: взятия, тихие ходы или все ходы
+     * @return список координат возможных ходов влево
+     */
+    public static ArrayList<Coordinate> leftFree(Pieces pieces, Piece piece, int limit, MOVEGEN mode) {
 
         ArrayList<Coordinate> moves = new ArrayList<>();
         int factor;
@@ -175,12 +227,13 @@ public class Move {
             if (Coordinate.inBoard(checkCoord)) {
                 boolean occupiedTile = tileFull(pieces, checkCoord);
                 if (occupiedTile && isNotTileColour(pieces, checkCoord, piece.getColour())) {
-                    moves.add(checkCoord);
+                    if (mode != MOVEGEN.QUIETS)
+                        moves.add(checkCoord);
                     return moves;
                 }
                 else if (occupiedTile)
                     return moves;
-                else
+                else if (mode != MOVEGEN.CAPTURES)
                     moves.add(checkCoord);
             }
         }
@@ -195,6 +248,18 @@ public class Move {
      * @return список координат возможных ходов по диагонали вперед-вправо
      */
     public static ArrayList<Coordinate> frontRDigFree(Pieces pieces, Piece piece, int limit) {
+        return frontRDigFree(pieces, piece, limit, MOVEGEN.ALL);
+    }
+
+    /**
+     * Получает список возможных ходов по диагонали вперед-вправо от фигуры
+     * @param pieces текущее состояние доски
+     * @param piece фигура, для которой определяются ходы
+     * @param limit максимальное расстояние для хода
+     * @param mode режим генерации: взятия, тихие ходы или все ходы
+     * @return список координат возможных ходов по диагонали вперед-вправо
+     */
+    public static ArrayList<Coordinate> frontRDigFree(Pieces pieces, Piece piece, int limit, MOVEGEN mode) {
 
         ArrayList<Coordinate> moves = new ArrayList<>();
         int factorV;
@@ -216,12 +281,13 @@ public class Move {
             if (Coordinate.inBoard(checkCoord)) {
                 boolean occupiedTile = tileFull(pieces, checkCoord);
                 if (occupiedTile && isNotTileColour(pieces, checkCoord, piece.getColour())) {
-                    moves.add(checkCoord);
+                    if (mode != MOVEGEN.QUIETS)
+                        moves.add(checkCoord);
                     return moves;
                 }
                 else if (occupiedTile)
                     return moves;
-                else if (!tileFull(pieces, checkCoord))
+                else if (mode != MOVEGEN.CAPTURES)
                     moves.add(checkCoord);
             }
         }
@@ -236,6 +302,18 @@ public class Move {
      * @return список координат возможных ходов по диагонали назад-вправо
      */
     public static ArrayList<Coordinate> backRDigFree(Pieces pieces, Piece piece, int limit) {
+        return backRDigFree(pieces, piece, limit, MOVEGEN.ALL);
+    }
+
+    /**
+     * Получает список возможных ходов по диагонали назад-вправо от фигуры
+     * @param pieces текущее состояние доски
+     * @param piece фигура, для которой определяются ходы
+     * @param limit максимальное расстояние для хода
+     * @param mode режим генерации: взятия, тихие ходы или все ходы
+     * @return список координат возможных ходов по диагонали назад-вправо
+     */
+    public static ArrayList<Coordinate> backRDigFree(Pieces pieces, Piece piece, int limit, MOVEGEN mode) {
 
         ArrayList<Coordinate> moves = new ArrayList<>();
         int factorV;
@@ -257,12 +335,13 @@ public class Move {
             if (Coordinate.inBoard(checkCoord)) {
                 boolean occupiedTile = tileFull(pieces, checkCoord);
                 if (occupiedTile && isNotTileColour(pieces, checkCoord, piece.getColour())) {
-                    moves.add(checkCoord);
+                    if (mode != MOVEGEN.QUIETS)
+                        moves.add(checkCoord);
                     return moves;
                 }
                 else if (occupiedTile)
                     return moves;
-                else
+                else if (mode != MOVEGEN.CAPTURES)
                     moves.add(checkCoord);
             }
         }
@@ -278,6 +357,18 @@ public class Move {
      * @return список координат возможных ходов по диагонали назад-влево
      */
     public static ArrayList<Coordinate> backLDigFree(Pieces pieces, Piece piece, int limit) {
+        return backLDigFree(pieces, piece, limit, MOVEGEN.ALL);
+    }
+
+    /**
+     * Получает список возможных ходов по диагонали назад-влево от фигуры
+     * @param pieces текущее состояние доски
+     * @param piece фигура, для которой определяются ходы
+     * @param limit максимальное расстояние для хода
+     * @param mode режим генерации: взятия, тихие ходы или все ходы
+     * @return список координат возможных ходов по диагонали назад-влево
+     */
+    public static ArrayList<Coordinate> backLDigFree(Pieces pieces, Piece piece, int limit, MOVEGEN mode) {
 
         ArrayList<Coordinate> moves = new ArrayList<>();
         int factorV;
@@ -299,12 +390,13 @@ public class Move {
             if (Coordinate.inBoard(checkCoord)) {
                 boolean occupiedTile = tileFull(pieces, checkCoord);
                 if (occupiedTile && isNotTileColour(pieces, checkCoord, piece.getColour())) {
-                    moves.add(checkCoord);
+                    if (mode != MOVEGEN.QUIETS)
+                        moves.add(checkCoord);
                     return moves;
                 }
                 else if (occupiedTile)
                     return moves;
-                else
+                else if (mode != MOVEGEN.CAPTURES)
                     moves.add(checkCoord);
             }
         }
@@ -319,6 +411,18 @@ public class Move {
      * @return список координат возможных ходов по диагонали вперед-влево
      */
     public static ArrayList<Coordinate> frontLDigFree(Pieces pieces, Piece piece, int limit) {
+        return frontLDigFree(pieces, piece, limit, MOVEGEN.ALL);
+    }
+
+    /**
+     * Получает список возможных ходов по диагонали вперед-влево от фигуры
+     * @param pieces текущее состояние доски
+     * @param piece фигура, для которой определяются ходы
+     * @param limit максимальное расстояние для хода
+     * @param mode режим генерации: взятия, тихие ходы или все ходы
+     * @return список координат возможных ходов по диагонали вперед-влево
+     */
+    public static ArrayList<Coordinate> frontLDigFree(Pieces pieces, Piece piece, int limit, MOVEGEN mode) {
 
         ArrayList<Coordinate> moves = new ArrayList<>();
         int factorV;
@@ -340,12 +444,13 @@ public class Move {
             if (Coordinate.inBoard(checkCoord)) {
                 boolean occupiedTile = tileFull(pieces, checkCoord);
                 if (occupiedTile && isNotTileColour(pieces, checkCoord, piece.getColour())) {
-                    moves.add(checkCoord);
+                    if (mode != MOVEGEN.QUIETS)
+                        moves.add(checkCoord);
                     return moves;
                 }
                 else if (occupiedTile)
                     return moves;
-                else
+                else if (mode != MOVEGEN.CAPTURES)
                     moves.add(checkCoord);
             }
         }
@@ -363,6 +468,17 @@ public class Move {
      * @return список координат возможных ходов коня вперед
      */
     public static ArrayList<Coordinate> frontKnight(Pieces pieces, Piece piece) {
+        return frontKnight(pieces, piece, MOVEGEN.ALL);
+    }
+
+    /**
+     * Получает список возможных ходов коня вперед
+     * @param pieces текущее состояние доски
+     * @param piece конь, для которого определяются ходы
+     * @param mode режим генерации: взятия, тихие ходы или все ходы
+     * @return список координат возможных ходов коня вперед
+     */
+    public static ArrayList<Coordinate> frontKnight(Pieces pieces, Piece piece, MOVEGEN mode) {
 
         ArrayList<Coordinate> moves = new ArrayList<>();
         int factor;
@@ -383,13 +499,17 @@ public class Move {
 
         if (Coordinate.inBoard(frontLeft)) {
             boolean occupiedTile = tileFull(pieces, frontLeft);
-            if (!occupiedTile || isNotTileColour(pieces, frontLeft, piece.getColour()))
+            if (occupiedTile && mode != MOVEGEN.QUIETS && isNotTileColour(pieces, frontLeft, piece.getColour()))
+                moves.add(frontLeft);
+            else if (!occupiedTile && mode != MOVEGEN.CAPTURES)
                 moves.add(frontLeft);
         }
 
         if (Coordinate.inBoard(frontRight)) {
             boolean occupiedTile = tileFull(pieces, frontRight);
-            if (!occupiedTile || isNotTileColour(pieces, frontRight, piece.getColour()))
+            if (occupiedTile && mode != MOVEGEN.QUIETS && isNotTileColour(pieces, frontRight, piece.getColour()))
+                moves.add(frontRight);
+            else if (!occupiedTile && mode != MOVEGEN.CAPTURES)
                 moves.add(frontRight);
         }
         return moves;
@@ -402,6 +522,17 @@ public class Move {
      * @return список координат возможных ходов коня назад
      */
     public static ArrayList<Coordinate> backKnight(Pieces pieces, Piece piece) {
+        return backKnight(pieces, piece, MOVEGEN.ALL);
+    }
+
+    /**
+     * Получает список возможных ходов коня назад
+     * @param pieces текущее состояние доски
+     * @param piece конь, для которого определяются ходы
+     * @param mode режим генерации: взятия, тихие ходы или все ходы
+     * @return список координат возможных ходов коня назад
+     */
+    public static ArrayList<Coordinate> backKnight(Pieces pieces, Piece piece, MOVEGEN mode) {
 
         ArrayList<Coordinate> moves = new ArrayList<>();
         int factor;
@@ -422,13 +553,17 @@ public class Move {
 
         if (Coordinate.inBoard(backLeft)) {
             boolean occupiedTile = tileFull(pieces, backLeft);
-            if (!occupiedTile || isNotTileColour(pieces, backLeft, piece.getColour()))
+            if (occupiedTile && mode != MOVEGEN.QUIETS && isNotTileColour(pieces, backLeft, piece.getColour()))
+                moves.add(backLeft);
+            else if (!occupiedTile && mode != MOVEGEN.CAPTURES)
                 moves.add(backLeft);
         }
 
         if (Coordinate.inBoard(backRight)) {
             boolean occupiedTile = tileFull(pieces, backRight);
-            if (!occupiedTile || isNotTileColour(pieces, backRight, piece.getColour()))
+            if (occupiedTile && mode != MOVEGEN.QUIETS && isNotTileColour(pieces, backRight, piece.getColour()))
+                moves.add(backRight);
+            else if (!occupiedTile && mode != MOVEGEN.CAPTURES)
                 moves.add(backRight);
         }
         return moves;
@@ -445,6 +580,17 @@ public class Move {
      * @return список координат возможных ходов коня вправо
      */
     public static ArrayList<Coordinate> rightKnight(Pieces pieces, Piece piece) {
+        return rightKnight(pieces, piece, MOVEGEN.ALL);
+    }
+
+    /**
+     * Получает список возможных ходов коня вправо
+     * @param pieces текущее состояние доски
+     * @param piece конь, для которого определяются ходы
+     * @param mode режим генерации: взятия, тихие ходы или все ходы
+     * @return список координат возможных ходов коня вправо
+     */
+    public static ArrayList<Coordinate> rightKnight(Pieces pieces, Piece piece, MOVEGEN mode) {
 
         ArrayList<Coordinate> moves = new ArrayList<>();
         int factor;
@@ -465,13 +611,17 @@ public class Move {
 
         if (Coordinate.inBoard(rightTop)) {
             boolean occupiedTile = tileFull(pieces, rightTop);
-            if (!occupiedTile || isNotTileColour(pieces, rightTop, piece.getColour()))
+            if (occupiedTile && mode != MOVEGEN.QUIETS && isNotTileColour(pieces, rightTop, piece.getColour()))
+                moves.add(rightTop);
+            else if (!occupiedTile && mode != MOVEGEN.CAPTURES)
                 moves.add(rightTop);
         }
 
         if (Coordinate.inBoard(rightBottom)) {
             boolean occupiedTile = tileFull(pieces, rightBottom);
-            if (!occupiedTile || isNotTileColour(pieces, rightBottom, piece.getColour()))
+            if (occupiedTile && mode != MOVEGEN.QUIETS && isNotTileColour(pieces, rightBottom, piece.getColour()))
+                moves.add(rightBottom);
+            else if (!occupiedTile && mode != MOVEGEN.CAPTURES)
                 moves.add(rightBottom);
         }
         return moves;
@@ -484,6 +634,17 @@ public class Move {
      * @return список координат возможных ходов коня влево
      */
     public static ArrayList<Coordinate> leftKnight(Pieces pieces, Piece piece) {
+        return leftKnight(pieces, piece, MOVEGEN.ALL);
+    }
+
+    /**
+     * Получает список возможных ходов коня влево
+     * @param pieces текущее состояние доски
+     * @param piece конь, для которого определяются ходы
+     * @param mode режим генерации: взятия, тихие ходы или все ходы
+     * @return список координат возможных ходов коня влево
+     */
+    public static ArrayList<Coordinate> leftKnight(Pieces pieces, Piece piece, MOVEGEN mode) {
 
         ArrayList<Coordinate> moves = new ArrayList<>();
         int factor;
@@ -504,13 +665,17 @@ public class Move {
 
         if (Coordinate.inBoard(leftBottom)) {
             boolean occupiedTile = tileFull(pieces, leftBottom);
-            if (!occupiedTile || isNotTileColour(pieces, leftBottom, piece.getColour()))
+            if (occupiedTile && mode != MOVEGEN.QUIETS && isNotTileColour(pieces, leftBottom, piece.getColour()))
+                moves.add(leftBottom);
+            else if (!occupiedTile && mode != MOVEGEN.CAPTURES)
                 moves.add(leftBottom);
         }
 
         if (Coordinate.inBoard(leftTop)) {
             boolean occupiedTile = tileFull(pieces, leftTop);
-            if (!occupiedTile || isNotTileColour(pieces, leftTop, piece.getColour()))
+            if (occupiedTile && mode != MOVEGEN.QUIETS && isNotTileColour(pieces, leftTop, piece.getColour()))
+                moves.add(leftTop);
+            else if (!occupiedTile && mode != MOVEGEN.CAPTURES)
                 moves.add(leftTop);
         }
         return moves;
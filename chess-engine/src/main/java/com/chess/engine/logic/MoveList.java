@@ -0,0 +1,185 @@
+package com.chess.engine.logic;
+
+import java.util.Arrays;
+
+/**
+ * Класс для списка упакованных ходов на основе массива int
+ * Список растет по мере необходимости и может переиспользоваться после {@link #clear()},
+ * поэтому генерация ходов в поиске не создает объектов.
+ */
+public class MoveList {
+
+    private static final int DEFAULT_CAPACITY = 128;
+
+    private int[] moves;
+    private int size;
+
+    /**
+     * Конструктор пустого списка
+     */
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Конструктор пустого списка с заданной начальной емкостью
+     * @param capacity начальная емкость
+     */
+    public MoveList(int capacity) {
+        moves = new int[Math.max(1, capacity)];
+    }
+
+    /**
+     * Конструктор копирования списка
+     * @param original оригинальный список для копирования
+     */
+    public MoveList(MoveList original) {
+        moves = Arrays.copyOf(original.moves, Math.max(1, original.size));
+        size = original.size;
+    }
+
+    /**
+     * Добавляет ход в конец списка
+     * @param move упакованный ход
+     */
+    public void add(int move) {
+        if (size == moves.length)
+            moves = Arrays.copyOf(moves, moves.length * 2);
+        moves[size++] = move;
+    }
+
+    /**
+     * Добавляет в конец списка все ходы другого списка
+     * @param other другой список
+     */
+    public void addAll(MoveList other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.moves[i]);
+        }
+    }
+
+    /**
+     * Получает ход по номеру
+     * @param index номер хода в списке
+     * @return упакованный ход
+     * @throws IndexOutOfBoundsException если номер вне списка
+     */
+    public int get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Номер " + index + " вне списка из " + size + " ходов.");
+        return moves[index];
+    }
+
+    /**
+     * Заменяет ход по номеру
+     * @param index номер хода в списке
+     * @param move новый упакованный ход
+     */
+    public void set(int index, int move) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Номер " + index + " вне списка из " + size + " ходов.");
+        moves[index] = move;
+    }
+
+    /**
+     * Меняет местами два хода
+     * @param first номер первого хода
+     * @param second номер второго хода
+     */
+    public void swap(int first, int second) {
+        int move = moves[first];
+        moves[first] = moves[second];
+        moves[second] = move;
+    }
+
+    /**
+     * Удаляет последний ход списка
+     * @return удаленный ход
+     */
+    public int removeLast() {
+        if (size == 0)
+            throw new IndexOutOfBoundsException("Список ходов пуст.");
+        return moves[--size];
+    }
+
+    /**
+     * Находит номер хода в списке
+     * @param move упакованный ход
+     * @return номер хода или -1, если хода нет в списке
+     */
+    public int indexOf(int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Проверяет, есть ли ход в списке
+     * @param move упакованный ход
+     * @return true если ход есть в списке
+     */
+    public boolean contains(int move) {
+        return indexOf(move) >= 0;
+    }
+
+    /**
+     * Получает количество ходов в списке
+     * @return количество ходов
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Проверяет, пуст ли список
+     * @return true если в списке нет ходов
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Очищает список, сохраняя выделенный массив
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Получает копию ходов списка в виде массива
+     * @return массив упакованных ходов
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(moves, size);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder str = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0)
+                str.append(", ");
+            str.append(PackedMove.toString(moves[i]));
+        }
+        return str.append("]").toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        MoveList that = (MoveList) o;
+        return Arrays.equals(toArray(), that.toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + moves[i];
+        }
+        return hash;
+    }
+}
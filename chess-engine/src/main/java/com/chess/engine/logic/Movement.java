@@ -0,0 +1,234 @@
+package com.chess.engine.logic;
+
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.enums.ID;
+import com.chess.engine.enums.MOVEGEN;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.PieceKind;
+
+import java.util.ArrayList;
+import java.util.Objects;
+
+/**
+ * Класс с описанием ходов каждого вида фигур
+ * Фигура задается направлениями, вдоль которых она ходит на любое расстояние,
+ * и смещениями, на которые она прыгает. Пешка дополнительно имеет тихие ходы
+ * и взятия, которые отсчитываются вперед по направлению ее движения.
+ * Все ходы генерирует один цикл {@link #generate}, поэтому новая фигура
+ * добавляется записью в таблицу без нового класса генерации.
+ */
+public class Movement {
+
+    private static final int[][] NONE = {};
+    private static final int[][] ALL_DIRECTIONS = {
+            {0, 1}, {0, -1}, {1, 0}, {-1, 0}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+    private static final int[][] PAWN_PUSHES = {{0, 1}};
+    private static final int[][] PAWN_CAPTURES = {{-1, 1}, {1, 1}};
+
+    private static final Movement[] TABLE = new Movement[ID.values().length];
+
+    static {
+        TABLE[ID.KING.ordinal()] = new Movement(NONE, ALL_DIRECTIONS, NONE, NONE);
+        TABLE[ID.QUEEN.ordinal()] = new Movement(ALL_DIRECTIONS, NONE, NONE, NONE);
+        TABLE[ID.ROOK.ordinal()] = new Movement(Attacks.LINES, NONE, NONE, NONE);
+        TABLE[ID.BISHOP.ordinal()] = new Movement(Attacks.DIAGONALS, NONE, NONE, NONE);
+        TABLE[ID.KNIGHT.ordinal()] = new Movement(NONE, Attacks.KNIGHT_JUMPS, NONE, NONE);
+        TABLE[ID.PAWN.ordinal()] = new Movement(NONE, NONE, PAWN_PUSHES, PAWN_CAPTURES);
+        TABLE[ID.VIZAR.ordinal()] = new Movement(Attacks.DIAGONALS, Attacks.KNIGHT_JUMPS, NONE, NONE);
+        TABLE[ID.WARCAR.ordinal()] = new Movement(Attacks.LINES, Attacks.KNIGHT_JUMPS, NONE, NONE);
+        TABLE[ID.GIRAFFE.ordinal()] = new Movement(ALL_DIRECTIONS, Attacks.KNIGHT_JUMPS, NONE, NONE);
+    }
+
+    private final int[][] slides;
+    private final int[][] leaps;
+    private final int[][] pushes;
+    private final int[][] captures;
+    private final boolean slidesOnLines;
+    private final boolean slidesOnDiagonals;
+    private final boolean leapsAsKnight;
+
+    /**
+     * Конструктор описания ходов
+     * @param slides направления ходов на любое расстояние
+     * @param leaps смещения прыжков (ход и взятие)
+     * @param pushes смещения только тихих ходов вперед по направлению движения (пешка)
+     * @param captures смещения только взятий вперед по направлению движения (пешка)
+     */
+    private Movement(int[][] slides, int[][] leaps, int[][] pushes, int[][] captures) {
+        this.slides = slides;
+        this.leaps = leaps;
+        this.pushes = pushes;
+        this.captures = captures;
+
+        boolean lines = false;
+        boolean diagonals = false;
+        for (int[] direction : slides) {
+            if (direction[0] == 0 || direction[1] == 0)
+                lines = true;
+            else
+                diagonals = true;
+        }
+        boolean knight = false;
+        for (int[] leap : leaps) {
+            if (Math.abs(leap[0] * leap[1]) == 2)
+                knight = true;
+        }
+        slidesOnLines = lines;
+        slidesOnDiagonals = diagonals;
+        leapsAsKnight = knight;
+    }
+
+    /**
+     * Получает описание ходов фигуры указанного вида
+     * @param name тип фигуры
+     * @return описание ходов
+     */
+    public static Movement of(ID name) {
+        Objects.requireNonNull(name, "Тип фигуры не может быть null.");
+        return TABLE[name.ordinal()];
+    }
+
+    /**
+     * Проверяет, ходит ли фигура вдоль вертикалей и горизонталей на любое расстояние
+     * @return true если среди направлений есть линии
+     */
+    public boolean slidesOnLines() {
+        return slidesOnLines;
+    }
+
+    /**
+     * Проверяет, ходит ли фигура по диагоналям на любое расстояние
+     * @return true если среди направлений есть диагонали
+     */
+    public boolean slidesOnDiagonals() {
+        return slidesOnDiagonals;
+    }
+
+    /**
+     * Проверяет, прыгает ли фигура как конь
+     * @return true если среди прыжков есть ходы коня
+     */
+    public boolean leapsAsKnight() {
+        return leapsAsKnight;
+    }
+
+    /**
+     * Генерирует ходы фигуры без учета шаха по ее описанию из таблицы
+     * Поля назначения добавляются в переданный список, который можно переиспользовать между вызовами
+     * @param pieces текущее состояние доски
+     * @param piece фигура, для которой определяются ходы
+     * @param mode режим генерации: взятия, тихие ходы или все ходы
+     * @param moves список, в который добавляются поля назначения
+     */
+    public static void generate(Pieces pieces, Piece piece, MOVEGEN mode, ArrayList<Coordinate> moves) {
+
+        Objects.requireNonNull(pieces, "Нельзя передать null объект в параметре pieces.");
+        Objects.requireNonNull(piece, "Фигура не может быть null.");
+
+        if (!Coordinate.inBoard(piece.getCoords()))
+            return;
+        SquareSet targets = new SquareSet();
+        generate(pieces.getPosition(), piece.getCoords().toIndex(), PieceKind.of(piece), mode, targets);
+        for (int square = targets.next(0); square >= 0; square = targets.next(square + 1)) {
+            moves.add(Coordinate.fromIndex(square));
+        }
+    }
+
+    /**
+     * Генерирует ходы фигуры указанного вида с поля без учета шаха
+     * Занятость полей берется из компактной позиции, объекты фигур не используются
+     * @param position текущая позиция
+     * @param square номер поля фигуры
+     * @param kind вид фигуры
+     * @param mode режим генерации: взятия, тихие ходы или все ходы
+     * @param targets множество, в которое добавляются поля назначения
+     */
+    public static void generate(Position position, int square, PieceKind kind, MOVEGEN mode, SquareSet targets) {
+
+        Objects.requireNonNull(position, "Позиция не может быть null.");
+        Objects.requireNonNull(kind, "Вид фигуры не может быть null.");
+
+        Movement movement = TABLE[kind.getName().ordinal()];
+        COLOUR colour = kind.getColour();
+        int file = square % Coordinate.WIDTH;
+        int rank = square / Coordinate.WIDTH;
+        boolean withCaptures = mode != MOVEGEN.QUIETS;
+        boolean withQuiets = mode != MOVEGEN.CAPTURES;
+
+        for (int[] direction : movement.slides) {
+            int toFile = file + direction[0];
+            int toRank = rank + direction[1];
+            while (inBoard(toFile, toRank)) {
+                int to = toFile + toRank * Coordinate.WIDTH;
+                PieceKind target = position.get(to);
+                if (target != null) {
+                    if (withCaptures && target.getColour() != colour)
+                        targets.add(to);
+                    break;
+                }
+                if (withQuiets)
+                    targets.add(to);
+                toFile += direction[0];
+                toRank += direction[1];
+            }
+        }
+
+        for (int[] leap : movement.leaps) {
+            int toFile = file + leap[0];
+            int toRank = rank + leap[1];
+            if (inBoard(toFile, toRank)) {
+                int to = toFile + toRank * Coordinate.WIDTH;
+                PieceKind target = position.get(to);
+                if (target == null ? withQuiets : withCaptures && target.getColour() != colour)
+                    targets.add(to);
+            }
+        }
+
+        int forward = Attacks.pawnDirection(colour);
+        int lastRank = lastRank(colour);
+
+        for (int[] push : movement.pushes) {
+            int toFile = file + push[0];
+            int toRank = rank + push[1] * forward;
+            if (inBoard(toFile, toRank)) {
+                int to = toFile + toRank * Coordinate.WIDTH;
+                // Превращение считается взятием: оно меняет материал так же, как взятие
+                boolean promotion = toRank == lastRank;
+                if (position.get(to) == null && (promotion ? withCaptures : withQuiets))
+                    targets.add(to);
+            }
+        }
+
+        if (!withCaptures)
+            return;
+
+        for (int[] capture : movement.captures) {
+            int toFile = file + capture[0];
+            int toRank = rank + capture[1] * forward;
+            if (inBoard(toFile, toRank)) {
+                int to = toFile + toRank * Coordinate.WIDTH;
+                PieceKind target = position.get(to);
+                if (target != null ? target.getColour() != colour : to == position.getEnPassant())
+                    targets.add(to);
+            }
+        }
+    }
+
+    /**
+     * Проверяет, является ли поле последней горизонталью для пешек указанного цвета
+     * @param colour цвет пешек
+     * @param square номер поля
+     * @return true если пешка на этом поле превращается
+     */
+    static boolean isPromotionSquare(COLOUR colour, int square) {
+        return square / Coordinate.WIDTH == lastRank(colour);
+    }
+
+    private static int lastRank(COLOUR colour) {
+        return colour == COLOUR.W ? Coordinate.SQUARES / Coordinate.WIDTH - 1 : 0;
+    }
+
+    private static boolean inBoard(int file, int rank) {
+        return file >= 0 && file < Coordinate.WIDTH && rank >= 0 && rank < Coordinate.SQUARES / Coordinate.WIDTH;
+    }
+}
@@ -0,0 +1,194 @@
+package com.chess.engine.logic;
+
+import com.chess.engine.enums.ID;
+
+/**
+ * Класс для работы с ходом, упакованным в одно число int
+ * Раскладка битов:
+ * 0-6 поле отправления, 7-13 поле назначения (номера {@link Coordinate#toIndex()}),
+ * 14-17 тип ходящей фигуры, 18-21 тип взятой фигуры, 22-25 тип фигуры превращения,
+ * 26-31 флаги. Для взятой фигуры и превращения хранится порядковый номер ID плюс один,
+ * ноль означает их отсутствие. Цвет не хранится: он известен стороне, делающей ход.
+ */
+public class PackedMove {
+
+    /** Отсутствие хода */
+    public static final int NONE = 0;
+
+    /** Флаг рокировки */
+    public static final int CASTLING = 1;
+    /** Флаг взятия на проходе */
+    public static final int EN_PASSANT = 1 << 1;
+    /** Флаг хода пешки на два поля */
+    public static final int DOUBLE_PUSH = 1 << 2;
+
+    private static final int SQUARE_BITS = 7;
+    private static final int SQUARE_MASK = (1 << SQUARE_BITS) - 1;
+    private static final int ID_BITS = 4;
+    private static final int ID_MASK = (1 << ID_BITS) - 1;
+    private static final int TO_SHIFT = SQUARE_BITS;
+    private static final int PIECE_SHIFT = TO_SHIFT + SQUARE_BITS;
+    private static final int CAPTURED_SHIFT = PIECE_SHIFT + ID_BITS;
+    private static final int PROMOTION_SHIFT = CAPTURED_SHIFT + ID_BITS;
+    private static final int FLAGS_SHIFT = PROMOTION_SHIFT + ID_BITS;
+
+    private static final ID[] IDS = ID.values();
+
+    /**
+     * Упаковывает ход без флагов
+     * @param from номер поля отправления
+     * @param to номер поля назначения
+     * @param piece тип ходящей фигуры
+     * @param captured тип взятой фигуры или null
+     * @param promotion тип фигуры превращения или null
+     * @return упакованный ход
+     */
+    public static int of(int from, int to, ID piece, ID captured, ID promotion) {
+        return of(from, to, piece, captured, promotion, 0);
+    }
+
+    /**
+     * Упаковывает ход
+     * @param from номер поля отправления
+     * @param to номер поля назначения
+     * @param piece тип ходящей фигуры
+     * @param captured тип взятой фигуры или null
+     * @param promotion тип фигуры превращения или null
+     * @param flags флаги хода ({@link #CASTLING}, {@link #EN_PASSANT}, {@link #DOUBLE_PUSH})
+     * @return упакованный ход
+     */
+    public static int of(int from, int to, ID piece, ID captured, ID promotion, int flags) {
+        return from
+                | to << TO_SHIFT
+                | piece.ordinal() << PIECE_SHIFT
+                | (captured == null ? 0 : captured.ordinal() + 1) << CAPTURED_SHIFT
+                | (promotion == null ? 0 : promotion.ordinal() + 1) << PROMOTION_SHIFT
+                | flags << FLAGS_SHIFT;
+    }
+
+    /**
+     * Получает номер поля отправления
+     * @param move упакованный ход
+     * @return номер поля от 0 до 99
+     */
+    public static int from(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    /**
+     * Получает номер поля назначения
+     * @param move упакованный ход
+     * @return номер поля от 0 до 99
+     */
+    public static int to(int move) {
+        return (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    /**
+     * Получает координату поля отправления
+     * @param move упакованный ход
+     * @return координата поля отправления
+     */
+    public static Coordinate fromCoordinate(int move) {
+        return Coordinate.fromIndex(from(move));
+    }
+
+    /**
+     * Получает координату поля назначения
+     * @param move упакованный ход
+     * @return координата поля назначения
+     */
+    public static Coordinate toCoordinate(int move) {
+        return Coordinate.fromIndex(to(move));
+    }
+
+    /**
+     * Получает тип ходящей фигуры
+     * @param move упакованный ход
+     * @return тип фигуры
+     */
+    public static ID piece(int move) {
+        return IDS[(move >>> PIECE_SHIFT) & ID_MASK];
+    }
+
+    /**
+     * Получает тип взятой фигуры
+     * @param move упакованный ход
+     * @return тип фигуры или null, если ход не является взятием
+     */
+    public static ID captured(int move) {
+        int code = (move >>> CAPTURED_SHIFT) & ID_MASK;
+        return code == 0 ? null : IDS[code - 1];
+    }
+
+    /**
+     * Получает тип фигуры превращения
+     * @param move упакованный ход
+     * @return тип фигуры или null, если превращения нет
+     */
+    public static ID promotion(int move) {
+        int code = (move >>> PROMOTION_SHIFT) & ID_MASK;
+        return code == 0 ? null : IDS[code - 1];
+    }
+
+    /**
+     * Получает флаги хода
+     * @param move упакованный ход
+     * @return флаги хода
+     */
+    public static int flags(int move) {
+        return move >>> FLAGS_SHIFT;
+    }
+
+    /**
+     * Проверяет, установлен ли у хода флаг
+     * @param move упакованный ход
+     * @param flag проверяемый флаг
+     * @return true если флаг установлен
+     */
+    public static boolean hasFlag(int move, int flag) {
+        return (flags(move) & flag) != 0;
+    }
+
+    /**
+     * Проверяет, является ли ход взятием
+     * @param move упакованный ход
+     * @return true если ход берет фигуру соперника
+     */
+    public static boolean isCapture(int move) {
+        return ((move >>> CAPTURED_SHIFT) & ID_MASK) != 0;
+    }
+
+    /**
+     * Проверяет, является ли ход превращением пешки
+     * @param move упакованный ход
+     * @return true если пешка превращается в другую фигуру
+     */
+    public static boolean isPromotion(int move) {
+        return ((move >>> PROMOTION_SHIFT) & ID_MASK) != 0;
+    }
+
+    /**
+     * Проверяет, является ли ход тактическим (взятие или превращение)
+     * @param move упакованный ход
+     * @return true если ход является взятием или превращением
+     */
+    public static boolean isTactical(int move) {
+        return isCapture(move) || isPromotion(move);
+    }
+
+    /**
+     * Получает строковое представление хода в виде полей отправления и назначения (например, "e3e4", "c9c10Q")
+     * @param move упакованный ход
+     * @return строковое представление хода
+     */
+    public static String toString(int move) {
+        if (move == NONE)
+            return "-";
+        String str = fromCoordinate(move).toString() + toCoordinate(move).toString();
+        ID promotion = promotion(move);
+        if (promotion != null)
+            str += promotion.toString();
+        return str;
+    }
+}
@@ -2,10 +2,11 @@ package com.chess.engine.logic;
 
 import com.chess.engine.enums.COLOUR;
 import com.chess.engine.enums.ID;
+import com.chess.engine.enums.MOVEGEN;
 import com.chess.engine.pieces.Bishop;
-import com.chess.engine.pieces.King;
 import com.chess.engine.pieces.Pawn;
 import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.PieceKind;
 
 import java.util.*;
 
@@ -15,20 +16,38 @@ import java.util.*;
  */
 public class Pieces {
 
+    /** Фигуры, в которые может превратиться пешка, в порядке генерации ходов */
+    private static final ID[] PROMOTIONS = {ID.QUEEN, ID.ROOK, ID.BISHOP, ID.KNIGHT, ID.VIZAR, ID.WARCAR, ID.GIRAFFE};
+
     private HashMap<Coordinate, Piece> pieces;
-    private HashMap<Coordinate, Piece> previousPieces;
+    private Position position;
+    private Position previousPosition;
     private boolean isCapture;
-    private boolean isGUIGame;
-    private ArrayList<HashMap<Coordinate,Piece>> gameProgress = new ArrayList<>();
+    private ArrayList<Position> gameProgress = new ArrayList<>();
+    private MoveList moveHistory = new MoveList();
+    /**
+     * Состояние для отмены хода: бит 0 - ходила ли фигура, бит 1 - ходила ли взятая фигура,
+     * биты 2-5 - права рокировки, биты 6 и выше - поле взятия на проходе плюс один
+     */
+    private final ArrayDeque<Integer> undoStates = new ArrayDeque<>();
+    private final ArrayDeque<Long> undoPositionIds = new ArrayDeque<>();
+    private long positionId;
+    private long positionCounter;
+    private CheckInfo checkInfo;
+
+    /** Порядок проверки фигур при поиске легального хода: король и дешевые фигуры первыми */
+    private static final List<ID> LEGAL_MOVE_ORDER = Arrays.asList(
+            ID.KING, ID.PAWN, ID.KNIGHT, ID.BISHOP, ID.ROOK, ID.VIZAR, ID.WARCAR, ID.QUEEN, ID.GIRAFFE);
 
     /**
      * Конструктор, создающий начальную позицию доски
      */
     public Pieces() {
         pieces = Boards.getChessBoard();
-        previousPieces = copyHashMap(pieces);
-        gameProgress.add(copyHashMap(pieces));
-        updatePotentials();
+        position = Position.of(pieces);
+        previousPosition = new Position(position);
+        gameProgress.add(new Position(position));
+        updatePotentials(position.getSideToMove());
     }
 
     /**
@@ -37,67 +56,89 @@ public class Pieces {
      */
     public Pieces(HashMap<Coordinate, Piece> newBoard) {
         pieces = newBoard;
-        previousPieces = copyHashMap(pieces);
-        gameProgress.add(copyHashMap(pieces));
-        updatePotentials();
+        position = Position.of(pieces);
+        previousPosition = new Position(position);
+        gameProgress.add(new Position(position));
+        updatePotentials(position.getSideToMove());
     }
 
     /**
-     * Конструктор копирования
-     * @param original оригинальный объект Pieces для копирования
+     * Конструктор по компактной позиции
+     * Копируются только массивы позиции: очередь хода, права рокировки и поле взятия на проходе берутся из нее,
+     * а карта фигур создается при первом обращении к ней
+     * @param original позиция, которая копируется
      */
-    public Pieces (Pieces original) {
-        this.pieces = copyHashMap(original.getPieces());
-        this.previousPieces = original.previousPieces;
-        this.isCapture = original.isCapture;
-        this.isGUIGame = original.isGUIGame;
-        this.gameProgress = copyArrayHash(original.getGameProgress());
+    public Pieces(Position original) {
+        position = new Position(original);
+        previousPosition = new Position(position);
+        gameProgress.add(new Position(position));
     }
 
     /**
-     * Создает глубокую копию карты координат и фигур
-     * @param original оригинальная карта для копирования
-     * @return новая карта с копиями всех фигур и координат
+     * Конструктор копирования
+     * Копируются только массивы позиций и история ходов; карта фигур копии создается заново
+     * при первом обращении к ней, поэтому ее фигуры - новые объекты
+     * @param original оригинальный объект Pieces для копирования
      */
-    private HashMap<Coordinate, Piece> copyHashMap (HashMap<Coordinate, Piece> original) {
-
-        HashMap<Coordinate, Piece> copyMap = new HashMap<>();
-        for (Coordinate key : original.keySet()) {
-            Coordinate newKey = new Coordinate(key);
-            Piece newPiece = original.get(key).makeCopy();
-            copyMap.put(newKey,newPiece);
-        }
-
-        return copyMap;
+    public Pieces (Pieces original) {
+        this.position = new Position(original.position);
+        this.previousPosition = new Position(original.previousPosition);
+        this.isCapture = original.isCapture;
+        this.gameProgress = new ArrayList<>(original.getGameProgress());
+        this.moveHistory = new MoveList(original.moveHistory);
     }
 
     /**
-     * Создает глубокую копию списка карт координат и фигур
-     * @param original оригинальный список для копирования
-     * @return новый список с копиями всех карт
+     * Получает карту фигур, создавая ее по позиции при первом обращении
+     * Возможные ходы созданных фигур вычисляются для стороны, которая ходит
+     * @return карта координат и фигур
      */
-    private ArrayList<HashMap<Coordinate,Piece>> copyArrayHash (ArrayList<HashMap<Coordinate,Piece>> original) {
-        ArrayList<HashMap<Coordinate,Piece>> copyList = new ArrayList<>();
-        for (HashMap<Coordinate,Piece> game : original) {
-            copyList.add(copyHashMap(game));
+    private HashMap<Coordinate, Piece> board() {
+        if (pieces == null) {
+            pieces = new HashMap<>();
+            for (COLOUR colour : COLOUR.values()) {
+                SquareSet own = position.occupied(colour);
+                for (int square = own.next(0); square >= 0; square = own.next(square + 1)) {
+                    Coordinate coordinate = Coordinate.fromIndex(square);
+                    Piece piece = position.get(square).newPiece(coordinate);
+                    if (position.hasMoved(square))
+                        piece.setHasMoved();
+                    pieces.put(coordinate, piece);
+                }
+            }
+            updatePotentials(position.getSideToMove());
         }
-
-        return copyList;
+        return pieces;
     }
 
     /**
      * Получает карту всех фигур на доске
+     * Доска, созданная по позиции или копированием, создает карту при первом вызове
      * @return карта координат и фигур
      */
     public HashMap<Coordinate, Piece> getPieces() {
-        return pieces;
+        return board();
     }
 
     /**
      * Устанавливает карту фигур на доске
      * @param pieces карта координат и фигур
      */
-    public void setPieces(HashMap<Coordinate,Piece> pieces) {this.pieces = pieces;}
+    public void setPieces(HashMap<Coordinate,Piece> pieces) {
+        this.pieces = pieces;
+        this.position = Position.of(pieces);
+        positionChanged();
+    }
+
+    /**
+     * Получает компактное представление текущей позиции
+     * Поиск, генерация ходов и проверка атак работают с этим представлением,
+     * а карта фигур остается для нотации и интерфейса
+     * @return текущая позиция
+     */
+    public Position getPosition() {
+        return position;
+    }
 
     /**
      * Проверяет, был ли последний ход взятием фигуры
@@ -116,35 +157,60 @@ public class Pieces {
     }
 
     /**
-     * Получает карту фигур предыдущего хода
-     * @return карта координат и фигур предыдущего состояния
+     * Получает позицию перед последним ходом makeMove
+     * Хранится копия массивов позиции, объекты фигур не копируются
+     * @return позиция перед последним ходом
+     */
+    public Position getPreviousPosition() {
+        return previousPosition;
+    }
+
+    /**
+     * Устанавливает позицию перед последним ходом
+     * @param previousPosition позиция, которая копируется
+     */
+    public void setPreviousPosition(Position previousPosition) {
+        Objects.requireNonNull(previousPosition, "Позиция не может быть null.");
+        this.previousPosition = new Position(previousPosition);
+    }
+
+    /**
+     * Получает цвет стороны, которая делает ход
+     * @return цвет стороны, чья очередь хода
      */
-    public HashMap<Coordinate, Piece> getPreviousPieces() {
-        return previousPieces;
+    public COLOUR getSideToMove() {
+        return position.getSideToMove();
     }
 
     /**
-     * Устанавливает карту фигур предыдущего хода
-     * @param previousPieces карта координат и фигур предыдущего состояния
+     * Передает очередь хода указанной стороне и пересчитывает возможные ходы ее фигур
+     * Используется при расстановке позиции, когда первой ходит не сторона по умолчанию
+     * @param colour цвет стороны, чья очередь хода
      */
-    public void setPreviousPieces(HashMap<Coordinate, Piece> previousPieces) {
-        this.previousPieces = copyHashMap(previousPieces);
+    public void setSideToMove(COLOUR colour) {
+        Objects.requireNonNull(colour, "Цвет фигуры должен быть определен.");
+        if (colour == position.getSideToMove())
+            return;
+        position.setSideToMove(colour);
+        positionChanged();
+        updatePotentials(colour);
     }
 
     /**
      * Получает историю всех позиций партии
-     * @return список карт координат и фигур для каждой позиции
+     * Каждая позиция - копия массивов, объекты фигур не копируются
+     * @return список позиций партии
      */
-    public ArrayList<HashMap<Coordinate, Piece>> getGameProgress() {
+    public ArrayList<Position> getGameProgress() {
         return gameProgress;
     }
 
     /**
-     * Устанавливает режим игры (GUI или консольный)
-     * @param GUIStatus true если игра в GUI режиме
+     * Получает ходы, сделанные в партии методом makeMove
+     * @return список упакованных ходов в порядке их выполнения
      */
-    public void setGUIGame (boolean GUIStatus) {
-        isGUIGame = GUIStatus;
+    public MoveList getMoveHistory() {
+        return moveHistory;
     }
 
     /**
@@ -153,7 +219,10 @@ public class Pieces {
      * @param piece фигура для добавления
      */
     public void addPiece(Coordinate coordinate, Piece piece) {
-        pieces.put(coordinate,piece);
+        board().put(coordinate,piece);
+        if (Coordinate.inBoard(coordinate))
+            position.put(coordinate.toIndex(), PieceKind.of(piece), piece.getHasMoved());
+        positionChanged();
     }
 
     /**
@@ -165,9 +234,9 @@ public class Pieces {
 
         Objects.requireNonNull(piece, "Фигура не может быть null.");
 
-        for (Coordinate key : pieces.keySet()) {
-            if (pieces.get(key).equals(piece))
-                return key;
+        for (Map.Entry<Coordinate, Piece> entry : board().entrySet()) {
+            if (entry.getValue().equals(piece))
+                return entry.getKey();
         }
         System.err.println(piece.getName().toFullString() +" не найдена на доске.");
         return Coordinate.emptyCoordinate;
@@ -179,11 +248,9 @@ public class Pieces {
      * @return координата короля или пустая координата, если король не найден
      */
     public Coordinate findKing(COLOUR colour) {
-        for (Coordinate key : pieces.keySet()) {
-            Piece potentialKing = pieces.get(key);
-            if (potentialKing.getName().equals(ID.KING) && (potentialKing.getColour() == colour))
-                return key;
-        }
+        int square = position.kingSquare(colour);
+        if (square >= 0)
+            return Coordinate.fromIndex(square);
         String pieceNotInBoard = "Король не найден на доске.";
         System.err.println(pieceNotInBoard);
         return Coordinate.emptyCoordinate;
@@ -198,10 +265,9 @@ public class Pieces {
 
         Objects.requireNonNull(coordinate, "Координата не может быть null.");
 
-        for (Coordinate key : pieces.keySet()) {
-            if (key.equals(coordinate))
-                return pieces.get(key);
-        }
+        Piece piece = board().get(coordinate);
+        if (piece != null)
+            return piece;
         System.err.println("На указанной координате нет фигуры.");
         return Piece.emptyPiece;
     }
@@ -213,10 +279,9 @@ public class Pieces {
      */
     public HashMap<Coordinate, Piece> getColourPieces(COLOUR colour) {
         HashMap<Coordinate,Piece> colours = new HashMap<>();
-        for (Coordinate key : pieces.keySet()) {
-            Piece piece = pieces.get(key);
-            if (piece.getColour() == colour)
-                colours.put(key,piece);
+        for (Map.Entry<Coordinate, Piece> entry : board().entrySet()) {
+            if (entry.getValue().getColour() == colour)
+                colours.put(entry.getKey(), entry.getValue());
         }
         return colours;
     }
@@ -227,10 +292,29 @@ public class Pieces {
      * @return множество координат всех возможных ходов
      */
     public HashSet<Coordinate> allColouredPotentials (COLOUR colour) {
-        HashSet<Coordinate> allMoves = new HashSet<>();
-        HashMap<Coordinate, Piece> allColoured = getColourPieces(colour);
-        for (Piece piece : allColoured.values()){
-            allMoves.addAll(piece.getPotentialMoves());
+        return allColouredPotentialSquares(colour).toCoordinates();
+    }
+
+    /**
+     * Получает поля всех возможных ходов фигур указанного цвета (с учетом шаха)
+     * Для стороны, которая ходит, используются сохраненные ходы фигур,
+     * для соперника ходы вычисляются по запросу и не сохраняются
+     * @param colour цвет фигур
+     * @return множество полей всех возможных ходов
+     */
+    public SquareSet allColouredPotentialSquares (COLOUR colour) {
+        SquareSet allMoves = new SquareSet();
+        for (Piece piece : board().values()) {
+            if (piece.getColour() != colour)
+                continue;
+            if (colour == getSideToMove()) {
+                allMoves.addAll(piece.getPotentialSquares());
+            }
+            else {
+                for (Coordinate destination : piece.removeOwnCheck(this)) {
+                    allMoves.add(destination);
+                }
+            }
         }
         return allMoves;
     }
@@ -241,24 +325,357 @@ public class Pieces {
      * @return множество координат всех возможных ходов
      */
     public HashSet<Coordinate> allColouredRaws (COLOUR colour) {
-        HashSet<Coordinate> allMoves = new HashSet<>();
-        HashMap<Coordinate, Piece> allColoured = getColourPieces(colour);
-        for (Piece piece : allColoured.values()){
-            allMoves.addAll(piece.getRawMoves(this));
+        return allColouredRawSquares(colour).toCoordinates();
+    }
+
+    /**
+     * Получает поля всех возможных ходов фигур указанного цвета (без учета шаха)
+     * @param colour цвет фигур
+     * @return множество полей всех возможных ходов
+     */
+    public SquareSet allColouredRawSquares (COLOUR colour) {
+        SquareSet allMoves = new SquareSet();
+        SquareSet own = position.occupied(colour);
+        for (int square = own.next(0); square >= 0; square = own.next(square + 1)) {
+            Movement.generate(position, square, position.get(square), MOVEGEN.ALL, allMoves);
         }
         return allMoves;
     }
 
     /**
-     * Обновляет предыдущие координаты всех пешек после хода
+     * Генерирует все псевдолегальные ходы фигур указанного цвета (без учета шаха)
+     * @param colour цвет фигур
+     * @return список упакованных ходов с заполненными взятыми фигурами и превращениями
+     */
+    public MoveList generateMoves(COLOUR colour) {
+        return generateMoves(colour, MOVEGEN.ALL);
+    }
+
+    /**
+     * Генерирует псевдолегальные ходы указанного вида для стороны, которая ходит
+     * @param mode режим генерации: все ходы, взятия и превращения, тихие ходы или уходы от шаха
+     * @return список упакованных ходов с заполненными взятыми фигурами и превращениями
+     */
+    public MoveList generateMoves(MOVEGEN mode) {
+        return generateMoves(getSideToMove(), mode);
+    }
+
+    /**
+     * Генерирует псевдолегальные ходы указанного вида для фигур указанного цвета
+     * Каждый режим строит только свои ходы, без фильтрации полного списка
+     * @param colour цвет фигур
+     * @param mode режим генерации: все ходы, взятия и превращения, тихие ходы или уходы от шаха
+     * @return список упакованных ходов с заполненными взятыми фигурами и превращениями
+     */
+    public MoveList generateMoves(COLOUR colour, MOVEGEN mode) {
+        MoveList moves = new MoveList();
+        generateMoves(colour, mode, moves);
+        return moves;
+    }
+
+    /**
+     * Генерирует псевдолегальные ходы указанного вида в переданный список
+     * Список предварительно очищается, поэтому его можно переиспользовать на каждом полуходе поиска
+     * @param colour цвет фигур
+     * @param mode режим генерации: все ходы, взятия и превращения, тихие ходы или уходы от шаха
+     * @param moves список, в который записываются упакованные ходы
+     */
+    public void generateMoves(COLOUR colour, MOVEGEN mode, MoveList moves) {
+
+        Objects.requireNonNull(moves, "Список ходов не может быть null.");
+
+        moves.clear();
+        if (mode == MOVEGEN.EVASIONS && generateEvasions(colour, moves))
+            return;
+
+        MOVEGEN pieceMode = mode == MOVEGEN.EVASIONS ? MOVEGEN.ALL : mode;
+        SquareSet own = position.occupied(colour);
+        SquareSet targets = new SquareSet();
+        for (int from = own.next(0); from >= 0; from = own.next(from + 1)) {
+            targets.clear();
+            Movement.generate(position, from, position.get(from), pieceMode, targets);
+            addMoves(from, targets, moves);
+        }
+        if (pieceMode != MOVEGEN.CAPTURES)
+            addMoves(position.kingSquare(colour), castlingSquares(colour), moves);
+    }
+
+    /**
+     * Получает поля, на которые король может пойти рокировкой
+     * @param colour цвет короля
+     * @return множество полей назначения короля (пустое, если рокировка невозможна)
+     */
+    public SquareSet castlingSquares(COLOUR colour) {
+        SquareSet squares = new SquareSet();
+        for (boolean kingSide : new boolean[] {true, false}) {
+            if (canCastle(colour, kingSide))
+                squares.add(Castling.kingTo(colour, kingSide));
+        }
+        return squares;
+    }
+
+    /**
+     * Проверяет, возможна ли рокировка
+     * Право берется из маски прав позиции, поля между королем и ладьей должны быть пусты,
+     * а поле короля, поле, через которое он проходит, и поле назначения не должны быть атакованы
+     * @param colour цвет короля
+     * @param kingSide true для королевского фланга, false для ферзевого
+     * @return true если рокировка возможна
+     */
+    public boolean canCastle(COLOUR colour, boolean kingSide) {
+        if ((position.getCastlingRights() & Castling.right(colour, kingSide)) == 0)
+            return false;
+
+        int king = Castling.kingFrom(colour);
+        int rook = Castling.rookFrom(colour, kingSide);
+        if (position.get(king) != PieceKind.of(colour, ID.KING) || position.get(rook) != PieceKind.of(colour, ID.ROOK))
+            return false;
+
+        int step = kingSide ? 1 : -1;
+        for (int square = king + step; square != rook; square += step) {
+            if (position.get(square) != null)
+                return false;
+        }
+
+        COLOUR enemy = COLOUR.not(colour);
+        for (int square = king; square != Castling.kingTo(colour, kingSide) + step; square += step) {
+            if (Attacks.isSquareAttacked(position, square, enemy))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Добавляет в список ходы фигуры с поля на каждое поле множества
+     * @param from номер поля отправления
+     * @param targets поля назначения
+     * @param moves список, в который записываются упакованные ходы
+     */
+    private void addMoves(int from, SquareSet targets, MoveList moves) {
+        for (int to = targets.next(0); to >= 0; to = targets.next(to + 1)) {
+            addMove(from, to, moves);
+        }
+    }
+
+    /**
+     * Добавляет в список ход фигуры; превращение пешки добавляется для каждой фигуры превращения
+     * @param from номер поля отправления
+     * @param to номер поля назначения
+     * @param moves список, в который записываются упакованные ходы
+     */
+    private void addMove(int from, int to, MoveList moves) {
+        int move = createMove(from, to);
+        if (PackedMove.isPromotion(move)) {
+            for (ID promotion : PROMOTIONS) {
+                moves.add(withPromotion(move, promotion));
+            }
+        }
+        else
+            moves.add(move);
+    }
+
+    /**
+     * Генерирует псевдолегальные ходы, уводящие короля из-под шаха:
+     * ходы короля, взятия шахующей фигуры и перекрытия линии шаха.
+     * При двойном шахе остаются только ходы короля
+     * @param colour цвет короля под шахом
+     * @param moves список, в который записываются упакованные ходы
+     * @return false если шаха нет (или нет короля) и нужно сгенерировать все ходы
+     */
+    private boolean generateEvasions(COLOUR colour, MoveList moves) {
+        int king = position.kingSquare(colour);
+        if (king < 0)
+            return false;
+
+        SquareSet checkers = Attacks.attackers(position, king, COLOUR.not(colour));
+        if (checkers.isEmpty())
+            return false;
+
+        SquareSet targets = new SquareSet();
+        Movement.generate(position, king, position.get(king), MOVEGEN.ALL, targets);
+        addMoves(king, targets, moves);
+
+        if (checkers.size() > 1)
+            return true;
+
+        int checker = checkers.next(0);
+        SquareSet defenders = Attacks.attackers(position, checker, colour);
+        defenders.remove(king);
+        for (int from = defenders.next(0); from >= 0; from = defenders.next(from + 1)) {
+            addMove(from, checker, moves);
+        }
+
+        int fileDiff = checker % Coordinate.WIDTH - king % Coordinate.WIDTH;
+        int rankDiff = checker / Coordinate.WIDTH - king / Coordinate.WIDTH;
+        boolean onLine = fileDiff == 0 || rankDiff == 0 || Math.abs(fileDiff) == Math.abs(rankDiff);
+        if (onLine) {
+            int fileStep = Integer.signum(fileDiff);
+            int rankStep = Integer.signum(rankDiff);
+            for (int between = Attacks.shift(king, fileStep, rankStep); between != checker;
+                 between = Attacks.shift(between, fileStep, rankStep)) {
+                SquareSet blockers = Attacks.movers(position, between, colour);
+                for (int from = blockers.next(0); from >= 0; from = blockers.next(from + 1)) {
+                    addMove(from, between, moves);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Создает упакованный ход фигуры, стоящей на поле отправления, с учетом взятия и превращения
+     * @param from поле отправления
+     * @param to поле назначения
+     * @return упакованный ход
+     * @throws IllegalArgumentException если на поле отправления нет фигуры
      */
-    public void updatePreviousMovePawns () {
-        for (Piece potentialPawn : pieces.values()){
-            if (potentialPawn.getName() == ID.PAWN) {
-                Pawn pawn = (Pawn) potentialPawn;
-                pawn.setPreviousCoordinate(pawn.getCoords());
+    public int createMove(Coordinate from, Coordinate to) {
+
+        Objects.requireNonNull(from, "Координата не может быть null.");
+        Objects.requireNonNull(to, "Координата не может быть null.");
+
+        if (position.get(from) == null)
+            throw new IllegalArgumentException("На поле " + from + " нет фигуры.");
+        return createMove(from.toIndex(), to.toIndex());
+    }
+
+    /**
+     * Создает упакованный ход фигуры, стоящей на поле отправления, с выбранной фигурой превращения
+     * @param from поле отправления
+     * @param to поле назначения
+     * @param promotion тип фигуры, в которую превращается пешка (не учитывается, если ход не превращение)
+     * @return упакованный ход
+     * @throws IllegalArgumentException если на поле отправления нет фигуры или в выбранную фигуру пешка превращаться не может
+     */
+    public int createMove(Coordinate from, Coordinate to, ID promotion) {
+        int move = createMove(from, to);
+        return PackedMove.isPromotion(move) ? withPromotion(move, promotion) : move;
+    }
+
+    /**
+     * Создает упакованный ход по номерам полей с выбранной фигурой превращения
+     * Используется при чтении ходов, записанных только полями (архив партий, книга дебютов)
+     * @param from номер поля отправления от 0 до 99
+     * @param to номер поля назначения от 0 до 99
+     * @param promotion тип фигуры превращения (не учитывается, если ход не превращение)
+     * @return упакованный ход
+     * @throws IllegalArgumentException если на поле отправления нет фигуры или в выбранную фигуру пешка превращаться не может
+     */
+    public int createMove(int from, int to, ID promotion) {
+        if (from < 0 || from >= Coordinate.SQUARES || to < 0 || to >= Coordinate.SQUARES || position.get(from) == null)
+            throw new IllegalArgumentException("На поле с номером " + from + " нет фигуры.");
+        int move = createMove(from, to);
+        return PackedMove.isPromotion(move) ? withPromotion(move, promotion) : move;
+    }
+
+    /**
+     * Заменяет фигуру превращения в упакованном ходе
+     * @param move ход пешки на последнюю горизонталь
+     * @param promotion тип фигуры, в которую превращается пешка
+     * @return упакованный ход с выбранным превращением
+     * @throws IllegalArgumentException если в выбранную фигуру пешка превращаться не может
+     */
+    private static int withPromotion(int move, ID promotion) {
+        if (!isPromotionChoice(promotion))
+            throw new IllegalArgumentException("Пешка не может превратиться в " + promotion + ".");
+        return PackedMove.of(PackedMove.from(move), PackedMove.to(move), PackedMove.piece(move),
+                PackedMove.captured(move), promotion, PackedMove.flags(move));
+    }
+
+    /**
+     * Проверяет, может ли пешка превратиться в фигуру указанного типа
+     * @param promotion тип фигуры
+     * @return true для всех фигур, кроме короля и пешки
+     */
+    private static boolean isPromotionChoice(ID promotion) {
+        return promotion != null && promotion != ID.KING && promotion != ID.PAWN;
+    }
+
+    /**
+     * Создает упакованный ход фигуры с поля на поле по текущей позиции с учетом взятия и превращения в ферзя
+     * @param from номер поля отправления, на котором стоит фигура
+     * @param to номер поля назначения
+     * @return упакованный ход
+     */
+    private int createMove(int from, int to) {
+        PieceKind kind = position.get(from);
+        PieceKind target = position.get(to);
+        ID captured = target == null ? null : target.getName();
+        ID promotion = null;
+        int flags = PackedMove.NONE;
+        if (kind.getName() == ID.KING && Castling.isCastlingMove(kind.getColour(), from, to)) {
+            flags = PackedMove.CASTLING;
+        }
+        else if (kind.getName() == ID.PAWN) {
+            if (Movement.isPromotionSquare(kind.getColour(), to))
+                promotion = ID.QUEEN;
+            if (Math.abs(to - from) == 2 * Coordinate.WIDTH) {
+                flags = PackedMove.DOUBLE_PUSH;
+            }
+            else if (target == null && to == position.getEnPassant() && to % Coordinate.WIDTH != from % Coordinate.WIDTH) {
+                flags = PackedMove.EN_PASSANT;
+                captured = ID.PAWN;
             }
         }
+        return PackedMove.of(from, to, kind.getName(), captured, promotion, flags);
+    }
+
+    /**
+     * Получает поле пешки, взятой на проходе: вертикаль поля назначения, горизонталь поля отправления
+     * @param from номер поля отправления бьющей пешки
+     * @param to номер поля назначения бьющей пешки
+     * @return номер поля взятой пешки
+     */
+    private static int enPassantVictim(int from, int to) {
+        return to % Coordinate.WIDTH + from / Coordinate.WIDTH * Coordinate.WIDTH;
+    }
+
+    /**
+     * Определяет поле взятия на проходе после сделанного хода
+     * Поле запоминается, только если рядом с пешкой стоит пешка соперника,
+     * поэтому одинаковые позиции без возможности взятия остаются равными
+     * @param move последний сделанный упакованный ход
+     * @return номер поля или -1
+     */
+    private int enPassantAfter(int move) {
+        if (!PackedMove.hasFlag(move, PackedMove.DOUBLE_PUSH))
+            return -1;
+        int to = PackedMove.to(move);
+        PieceKind enemy = PieceKind.of(COLOUR.not(position.get(to).getColour()), ID.PAWN);
+        for (int side = -1; side <= 1; side += 2) {
+            int square = Attacks.shift(to, side, 0);
+            if (square >= 0 && position.get(square) == enemy)
+                return (PackedMove.from(move) + to) / 2;
+        }
+        return -1;
+    }
+
+    /**
+     * Проверяет, возможен ли ход в текущей позиции без учета шаха
+     * Используется для ходов, взятых из других позиций (ход из таблицы, ходы-убийцы)
+     * @param colour цвет стороны, делающей ход
+     * @param move упакованный ход для проверки
+     * @return true если фигура этого цвета стоит на поле отправления и ход совпадает с генерируемым
+     */
+    public boolean isPseudoLegal(COLOUR colour, int move) {
+        if (move == PackedMove.NONE)
+            return false;
+        int from = PackedMove.from(move);
+        PieceKind kind = position.get(from);
+        if (kind == null || kind.getColour() != colour || kind.getName() != PackedMove.piece(move))
+            return false;
+        int to = PackedMove.to(move);
+        int expected = createMove(from, to);
+        if (PackedMove.isPromotion(expected)) {
+            if (!isPromotionChoice(PackedMove.promotion(move)))
+                return false;
+            expected = withPromotion(expected, PackedMove.promotion(move));
+        }
+        if (expected != move)
+            return false;
+        SquareSet targets = new SquareSet();
+        Movement.generate(position, from, kind, MOVEGEN.ALL, targets);
+        return targets.contains(to);
     }
 
     /**
@@ -304,14 +721,14 @@ public class Pieces {
      * @return true если другая фигура того же типа может сделать ход на эту координату
      */
     public boolean pieceToSameCoordinate (Coordinate coordinate, Piece piece) {
-        assert piece.getPotentialMoves().contains(coordinate);
+        assert piece.getPotentialSquares().contains(coordinate);
 
         if (piece.getName() == ID.KING)
             return false;
 
         HashMap <Coordinate, Piece> coloured = getColourPieces(piece.getColour());
         for (Piece value : coloured.values()) {
-            if (value.getName() == piece.getName() && value.getPotentialMoves().contains(coordinate) && !value.equals(piece))
+            if (value.getName() == piece.getName() && value.getPotentialSquares().contains(coordinate) && !value.equals(piece))
                 return true;
         }
         return false;
@@ -329,8 +746,21 @@ public class Pieces {
         if (kingPosition.equals(Coordinate.emptyCoordinate))
             throw new IllegalArgumentException("Король не найден на доске!");
 
-        HashSet<Coordinate> dangerMoves = allColouredPotentials(COLOUR.not(colour));
-        return (dangerMoves.contains(kingPosition));
+        return isSquareAttacked(kingPosition, COLOUR.not(colour));
+    }
+
+    /**
+     * Проверяет, бьет ли хотя бы одна фигура указанного цвета поле
+     * Проверка идет лучами от поля и не генерирует ходы фигур
+     * @param square поле для проверки
+     * @param byColour цвет нападающих фигур
+     * @return true если поле атаковано
+     */
+    public boolean isSquareAttacked(Coordinate square, COLOUR byColour) {
+        Objects.requireNonNull(square, "Координата не может быть null.");
+        if (!Coordinate.inBoard(square))
+            return false;
+        return Attacks.isSquareAttacked(position, square.toIndex(), byColour);
     }
 
     /**
@@ -339,8 +769,55 @@ public class Pieces {
      * @return true если король под матом
      */
     public boolean isMate(COLOUR colour) {
-        HashSet<Coordinate> allMoves = allColouredPotentials(colour);
-        return isCheck(colour) && (allMoves.size() == 0);
+        return isCheck(colour) && !hasLegalMove(colour);
+    }
+
+    /**
+     * Проверяет, есть ли у указанного цвета хотя бы один легальный ход
+     * Поиск останавливается на первом найденном ходе. Первыми проверяются король
+     * и дешевые фигуры: у короля мало ходов, а пешки и легкие фигуры чаще могут закрыться от шаха
+     * @param colour цвет фигур
+     * @return true если есть ход, не оставляющий короля под шахом
+     */
+    public boolean hasLegalMove(COLOUR colour) {
+        SquareSet own = position.occupied(colour);
+        int kingSquare = position.kingSquare(colour);
+        SquareSet targets = new SquareSet();
+
+        for (ID name : LEGAL_MOVE_ORDER) {
+            for (int from = own.next(0); from >= 0; from = own.next(from + 1)) {
+                PieceKind kind = position.get(from);
+                if (kind.getName() != name)
+                    continue;
+                targets.clear();
+                Movement.generate(position, from, kind, MOVEGEN.ALL, targets);
+                for (int to = targets.next(0); to >= 0; to = targets.next(to + 1)) {
+                    if (kingSquare < 0 || isLegal(createMove(from, to)))
+                        return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Проверяет, не оставляет ли псевдолегальный ход своего короля под шахом
+     * Ход выполняется и отменяется через doMove/undoMove, карта фигур не меняется
+     * @param move псевдолегальный упакованный ход в текущей позиции
+     * @return true если после хода свой король не атакован (или короля нет на доске)
+     * @throws IllegalArgumentException если на поле отправления нет фигуры
+     */
+    public boolean isLegal(int move) {
+        PieceKind kind = position.get(PackedMove.from(move));
+        if (kind == null)
+            throw new IllegalArgumentException("На поле " + PackedMove.fromCoordinate(move) + " нет фигуры.");
+        COLOUR colour = kind.getColour();
+        if (position.kingSquare(colour) < 0)
+            return true;
+        doMove(move);
+        boolean legal = !Attacks.isSquareAttacked(position, position.kingSquare(colour), COLOUR.not(colour));
+        undoMove(move);
+        return legal;
     }
 
     /**
@@ -390,9 +867,9 @@ public class Pieces {
             return twoKings && sameColourBishops;
         }
         else if (n >= 3){
-            for (HashMap<Coordinate, Piece> currentGame : gameProgress) {
+            for (Position currentGame : gameProgress) {
                 int counter = 0;
-                for (HashMap<Coordinate, Piece> checkGame : gameProgress) {
+                for (Position checkGame : gameProgress) {
                     if (currentGame.equals(checkGame)) {
                         counter++;
                     }
@@ -413,8 +890,7 @@ public class Pieces {
      * @return true если позиция является патом (нет ходов, но нет шаха)
      */
     public boolean isStalemate(COLOUR colour) {
-        HashSet<Coordinate> allMoves = allColouredPotentials(COLOUR.not(colour));
-        return allMoves.size() == 0 && !isCheck(COLOUR.not(colour));
+        return !isCheck(COLOUR.not(colour)) && !hasLegalMove(COLOUR.not(colour));
 
     }
 
@@ -428,46 +904,86 @@ public class Pieces {
         addPiece(coordinate, piece);
         piece.setCoords(coordinate);
         piece.setHasMoved();
-        pieces.remove(pieceCoord);
+        board().remove(pieceCoord);
+        if (Coordinate.inBoard(pieceCoord))
+            position.remove(pieceCoord.toIndex());
+        if (Coordinate.inBoard(coordinate))
+            position.setMoved(coordinate.toIndex(), true);
+        positionChanged();
     }
 
     /**
-     * Выполняет ход фигуры на указанную координату
-     * Обрабатывает специальные случаи: рокировку, продвижение пешки
+     * Выполняет ход фигуры на указанную координату, пешка на последней горизонтали превращается в ферзя
      * @param coordinate координата назначения
      * @param piece фигура, делающая ход
+     * @throws IllegalStateException если ходит не та сторона, чья очередь хода
      */
     public void makeMove (Coordinate coordinate, Piece piece) {
+        makeMove(coordinate, piece, ID.QUEEN);
+    }
+
+    /**
+     * Выполняет упакованный ход, в том числе превращение в записанную в нем фигуру
+     * @param move упакованный ход
+     * @throws IllegalArgumentException если на поле отправления нет фигуры
+     * @throws IllegalStateException если ходит не та сторона, чья очередь хода
+     */
+    public void makeMove (int move) {
+        Piece piece = board().get(PackedMove.fromCoordinate(move));
+        if (piece == null)
+            throw new IllegalArgumentException("На поле " + PackedMove.fromCoordinate(move) + " нет фигуры.");
+        ID promotion = PackedMove.promotion(move);
+        makeMove(PackedMove.toCoordinate(move), piece, promotion == null ? ID.QUEEN : promotion);
+    }
+
+    /**
+     * Выполняет ход фигуры на указанную координату
+     * Обрабатывает специальные случаи: рокировку, взятие на проходе, превращение пешки
+     * @param coordinate координата назначения
+     * @param piece фигура, делающая ход
+     * @param promotion тип фигуры, в которую превращается пешка на последней горизонтали
+     * @throws IllegalArgumentException если в выбранную фигуру пешка превращаться не может
+     * @throws IllegalStateException если ходит не та сторона, чья очередь хода;
+     * в расставленной позиции очередь задается заранее методом {@link #setSideToMove}
+     */
+    public void makeMove (Coordinate coordinate, Piece piece, ID promotion) {
+
+        if (piece.getColour() != getSideToMove())
+            throw new IllegalStateException("Ход не в очередь: сейчас ходят " + getSideToMove() + ".");
 
         if (piece.isValidMove(coordinate, piece.getColour())) {
-            setPreviousPieces(this.getPieces());
+            Coordinate from = findPiece(piece);
+            int move = createMove(from, coordinate, promotion);
+            moveHistory.add(move);
+            previousPosition = new Position(position);
             isCapture = Move.tileFull(this, coordinate) && Move.isNotTileColour(this,coordinate, piece.getColour());
-            if (piece.getName() == ID.KING) {
-                King castleKing = (King) piece;
-                pieceMove(coordinate, castleKing);
+            position.setCastlingRights(Castling.update(position.getCastlingRights(), from.toIndex(), coordinate.toIndex()));
+            if (PackedMove.hasFlag(move, PackedMove.EN_PASSANT)) {
+                int victim = enPassantVictim(from.toIndex(), coordinate.toIndex());
+                board().remove(Coordinate.fromIndex(victim));
+                position.remove(victim);
+                isCapture = true;
+            }
+            if (PackedMove.hasFlag(move, PackedMove.CASTLING)) {
+                // Рокировка - один ход: король и ладья переставляются вместе
+                boolean kingSide = Castling.isKingSide(from.toIndex(), coordinate.toIndex());
+                Piece rook = board().get(Coordinate.fromIndex(Castling.rookFrom(piece.getColour(), kingSide)));
+                pieceMove(coordinate, piece);
+                pieceMove(Coordinate.fromIndex(Castling.rookTo(piece.getColour(), kingSide)), rook);
+            }
+            else if (piece.getName() == ID.KING) {
+                pieceMove(coordinate, piece);
             }
             else if (piece.getName() == ID.PAWN) {
                 Pawn pawn = (Pawn) piece;
 
-                updatePreviousMovePawns();
-                if (Math.abs(coordinate.getRank() - pawn.getRank()) == 2)
-                    pawn.setHasMovedTwo();
-
-                if (pawn.canPromoteBlack(coordinate) || pawn.canPromoteWhite(coordinate)) {
-                    Piece toPromote;
-
-                    if (isGUIGame) {
-                        toPromote = pawn.getPromotedPiece();
-                        if (toPromote == null) {
-                            toPromote = pawn.promotionQuery(coordinate);
-                        }
-                    }
-                    else {
-                        toPromote = pawn.promotionQuery(coordinate);
-                    }
+                if (PackedMove.isPromotion(move)) {
+                    Piece toPromote = PieceKind.of(pawn.getColour(), PackedMove.promotion(move)).newPiece(coordinate);
+                    toPromote.setHasMoved();
                     Coordinate pieceCoord = findPiece(piece);
                     addPiece(coordinate, toPromote);
-                    pieces.remove(pieceCoord);
+                    board().remove(pieceCoord);
+                    position.remove(pieceCoord.toIndex());
                 }
                 else {
                     pieceMove(coordinate, pawn);
@@ -476,26 +992,166 @@ public class Pieces {
             else {
                 pieceMove(coordinate, piece);
             }
+            position.setEnPassant(enPassantAfter(move));
+            position.switchSide();
         }
         else
             System.err.println(piece.getName().toFullString() + " не может сделать ход на " + coordinate.toString() + ".");
 
-        gameProgress.add(copyHashMap(pieces));
-        updatePotentials();
+        positionChanged();
+        gameProgress.add(new Position(position));
+        updatePotentials(getSideToMove());
+
+    }
+
+    /**
+     * Выполняет ход без проверки, записи истории и пересчета возможных ходов
+     * Меняются только массивы позиции, карта и объекты фигур остаются прежними.
+     * Используется поиском вместе с undoMove для перебора позиций на одной доске
+     * @param move упакованный ход для выполнения
+     */
+    public void doMove(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        PieceKind kind = position.get(from);
+        if (kind == null)
+            throw new IllegalArgumentException("На поле " + Coordinate.fromIndex(from) + " нет фигуры.");
+
+        int rights = position.getCastlingRights();
+        int victim = PackedMove.hasFlag(move, PackedMove.EN_PASSANT) ? enPassantVictim(from, to) : to;
+        undoStates.push((position.hasMoved(from) ? 1 : 0) | (position.hasMoved(victim) ? 2 : 0)
+                | rights << 2 | (position.getEnPassant() + 1) << 6);
+        undoPositionIds.push(positionId);
+        positionId = ++positionCounter;
+
+        position.remove(from);
+        position.remove(victim);
+        PieceKind placed = PackedMove.isPromotion(move) ? PieceKind.of(kind.getColour(), PackedMove.promotion(move)) : kind;
+        position.put(to, placed, true);
+        if (PackedMove.hasFlag(move, PackedMove.CASTLING)) {
+            boolean kingSide = Castling.isKingSide(from, to);
+            PieceKind rook = position.remove(Castling.rookFrom(kind.getColour(), kingSide));
+            position.put(Castling.rookTo(kind.getColour(), kingSide), rook, true);
+        }
+        position.setCastlingRights(Castling.update(rights, from, to));
+        position.setEnPassant(enPassantAfter(move));
+        position.switchSide();
+    }
+
+    /**
+     * Отменяет ход, выполненный методом doMove
+     * @param move последний выполненный упакованный ход
+     */
+    public void undoMove(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        COLOUR colour = position.get(to).getColour();
+        int state = undoStates.pop();
+
+        if (PackedMove.hasFlag(move, PackedMove.CASTLING)) {
+            boolean kingSide = Castling.isKingSide(from, to);
+            PieceKind rook = position.remove(Castling.rookTo(colour, kingSide));
+            position.put(Castling.rookFrom(colour, kingSide), rook, false);
+        }
+        position.remove(to);
+        ID captured = PackedMove.captured(move);
+        if (captured != null) {
+            int victim = PackedMove.hasFlag(move, PackedMove.EN_PASSANT) ? enPassantVictim(from, to) : to;
+            position.put(victim, PieceKind.of(COLOUR.not(colour), captured), (state & 2) != 0);
+        }
+        position.put(from, PieceKind.of(colour, PackedMove.piece(move)), (state & 1) != 0);
+        position.setCastlingRights((state >> 2) & Castling.ALL);
+        position.setEnPassant((state >> 6) - 1);
+        position.switchSide();
+        positionId = undoPositionIds.pop();
+    }
 
+    /**
+     * Передает ход сопернику без хода фигурой (нулевой ход)
+     * Используется поиском вместе с undoNullMove
+     */
+    public void doNullMove() {
+        undoStates.push((position.getEnPassant() + 1) << 6);
+        undoPositionIds.push(positionId);
+        positionId = ++positionCounter;
+        position.setEnPassant(-1);
+        position.switchSide();
     }
 
     /**
-     * Обновляет список возможных ходов для всех фигур на доске
+     * Отменяет нулевой ход, выполненный методом doNullMove
+     */
+    public void undoNullMove() {
+        position.switchSide();
+        position.setEnPassant((undoStates.pop() >> 6) - 1);
+        positionId = undoPositionIds.pop();
+    }
+
+    /**
+     * Проверяет, объявляет ли ход шах королю соперника, не делая его
+     * Учитываются прямые шахи всех фигур, включая сложные, и вскрытые шахи дальнобойных фигур.
+     * Поля шаха и фигуры, открывающие линии, вычисляются один раз на позицию
+     * @param move псевдолегальный упакованный ход в текущей позиции
+     * @return true если после хода король соперника окажется под шахом
+     * @throws IllegalArgumentException если на поле отправления нет фигуры
+     */
+    public boolean givesCheck(int move) {
+
+        PieceKind kind = position.get(PackedMove.from(move));
+        if (kind == null)
+            throw new IllegalArgumentException("На поле " + PackedMove.fromCoordinate(move) + " нет фигуры.");
+
+        COLOUR colour = kind.getColour();
+        if (PackedMove.hasFlag(move, PackedMove.CASTLING | PackedMove.EN_PASSANT)) {
+            // Шах рокировкой дает ладья, а взятие на проходе снимает с доски вторую пешку;
+            // такие ходы редки, поэтому проверяются прямо
+            doMove(move);
+            int enemyKing = position.kingSquare(COLOUR.not(colour));
+            boolean check = enemyKing >= 0 && Attacks.isSquareAttacked(position, enemyKing, colour);
+            undoMove(move);
+            return check;
+        }
+        if (checkInfo == null || !checkInfo.isValidFor(positionId, colour))
+            checkInfo = new CheckInfo(position, colour, positionId);
+        return checkInfo.givesCheck(move);
+    }
+
+    /**
+     * Отмечает изменение позиции вне doMove/undoMove, чтобы сбросить вычисленные для нее данные
+     */
+    private void positionChanged() {
+        positionId = ++positionCounter;
+    }
+
+    /**
+     * Обновляет список возможных ходов для всех фигур на доске обеих сторон
+     * Используется после ручной расстановки фигур; после хода makeMove пересчитывает только сторону, которая ходит
      */
     public void updatePotentials() {
 
-        for (Piece value : pieces.values()) {
+        for (Piece value : new ArrayList<>(board().values())) {
             value.clearMoves();
             value.updatePotentialMoves(this);
         }
     }
 
+    /**
+     * Обновляет список возможных ходов фигур указанного цвета, у фигур соперника список очищается
+     * Атаки соперника при этом не нужны: шах проверяется запросом атаки на поле
+     * @param colour цвет стороны, которая ходит
+     */
+    private void updatePotentials(COLOUR colour) {
+
+        // Карты еще нет: возможные ходы будут вычислены при ее создании
+        if (pieces == null)
+            return;
+        for (Piece value : new ArrayList<>(pieces.values())) {
+            value.clearMoves();
+            if (value.getColour() == colour)
+                value.updatePotentialMoves(this);
+        }
+    }
+
     /**
      * Возвращает строковое представление всех фигур на доске
      * @return строковое представление с идентификаторами фигур и их координатами
@@ -504,7 +1160,7 @@ public class Pieces {
     public String toString() {
         StringBuilder str = new StringBuilder();
 
-        pieces.forEach((coord, piece) -> str.append(piece.getPieceID())
+        board().forEach((coord, piece) -> str.append(piece.getPieceID())
                 .append(" на ")
                 .append(coord.toString())
                 .append("\n"));
@@ -522,7 +1178,7 @@ public class Pieces {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Pieces pieces1 = (Pieces) o;
-        return Objects.equals(pieces, pieces1.pieces);
+        return Objects.equals(board(), pieces1.board());
     }
 
     /**
@@ -531,6 +1187,6 @@ public class Pieces {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(pieces);
+        return Objects.hash(board());
     }
 }
@@ -0,0 +1,305 @@
+package com.chess.engine.logic;
+
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.enums.ID;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.PieceKind;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Класс компактного представления позиции в массивах
+ * Поле с номером {@link Coordinate#toIndex()} хранит общий вид фигуры {@link PieceKind} или null.
+ * Признак хода фигур, занятые поля каждого цвета и поля каждого вида фигур хранятся в множествах полей,
+ * а поля королей, очередь хода, права рокировки и поле взятия на проходе запоминаются отдельно. Копия позиции - это копия массива и нескольких чисел.
+ * Ключ Зобриста ({@link Zobrist}) обновляется при каждом изменении позиции.
+ */
+public class Position {
+
+    private final PieceKind[] squares = new PieceKind[Coordinate.SQUARES];
+    private final SquareSet moved = new SquareSet();
+    private final SquareSet[] occupied = {new SquareSet(), new SquareSet()};
+    private final SquareSet[] byKind = new SquareSet[PieceKind.count()];
+    private final int[] kings = {-1, -1};
+    private COLOUR sideToMove = COLOUR.W;
+    private int castlingRights;
+    private int enPassant = -1;
+    private long key;
+
+    /**
+     * Конструктор пустой позиции
+     */
+    public Position() {
+        for (int i = 0; i < byKind.length; i++)
+            byKind[i] = new SquareSet();
+    }
+
+    /**
+     * Конструктор копирования позиции
+     * @param original оригинальная позиция для копирования
+     */
+    public Position(Position original) {
+        Objects.requireNonNull(original, "Нельзя создать копию из null объекта");
+        for (int i = 0; i < byKind.length; i++)
+            byKind[i] = new SquareSet(original.byKind[i]);
+        System.arraycopy(original.squares, 0, squares, 0, squares.length);
+        moved.addAll(original.moved);
+        for (int i = 0; i < occupied.length; i++) {
+            occupied[i].addAll(original.occupied[i]);
+        }
+        kings[0] = original.kings[0];
+        kings[1] = original.kings[1];
+        sideToMove = original.sideToMove;
+        castlingRights = original.castlingRights;
+        enPassant = original.enPassant;
+        key = original.key;
+    }
+
+    /**
+     * Создает позицию по карте фигур, ход белых
+     * Фигуры с координатами вне доски пропускаются. Право рокировки дается, если король
+     * и ладья стоят на исходных полях и еще не ходили
+     * @param board карта координат и фигур
+     * @return новая позиция
+     */
+    public static Position of(Map<Coordinate, Piece> board) {
+        Objects.requireNonNull(board, "Карта фигур не может быть null.");
+        Position position = new Position();
+        for (Map.Entry<Coordinate, Piece> entry : board.entrySet()) {
+            if (Coordinate.inBoard(entry.getKey())) {
+                Piece piece = entry.getValue();
+                position.put(entry.getKey().toIndex(), PieceKind.of(piece), piece.getHasMoved());
+            }
+        }
+        for (COLOUR colour : COLOUR.values()) {
+            for (boolean kingSide : new boolean[] {true, false}) {
+                if (position.isUnmoved(Castling.kingFrom(colour), PieceKind.of(colour, ID.KING))
+                        && position.isUnmoved(Castling.rookFrom(colour, kingSide), PieceKind.of(colour, ID.ROOK)))
+                    position.setCastlingRights(position.castlingRights | Castling.right(colour, kingSide));
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Получает вид фигуры на поле
+     * @param square номер поля от 0 до 99
+     * @return вид фигуры или null, если поле пусто
+     */
+    public PieceKind get(int square) {
+        return squares[square];
+    }
+
+    /**
+     * Получает вид фигуры на поле
+     * @param coordinate координата поля
+     * @return вид фигуры или null, если поле пусто или находится вне доски
+     */
+    public PieceKind get(Coordinate coordinate) {
+        return Coordinate.inBoard(coordinate) ? squares[coordinate.toIndex()] : null;
+    }
+
+    /**
+     * Ставит фигуру на поле, заменяя стоявшую там фигуру
+     * @param square номер поля от 0 до 99
+     * @param kind вид фигуры
+     * @param hasMoved делала ли фигура ход
+     * @return вид снятой с поля фигуры или null
+     */
+    public PieceKind put(int square, PieceKind kind, boolean hasMoved) {
+        Objects.requireNonNull(kind, "Вид фигуры не может быть null.");
+        PieceKind previous = remove(square);
+        squares[square] = kind;
+        key ^= Zobrist.piece(kind, square);
+        occupied[kind.getColour().ordinal()].add(square);
+        byKind[kind.index()].add(square);
+        if (hasMoved)
+            moved.add(square);
+        if (kind.getName() == ID.KING)
+            kings[kind.getColour().ordinal()] = square;
+        return previous;
+    }
+
+    /**
+     * Снимает фигуру с поля
+     * @param square номер поля от 0 до 99
+     * @return вид снятой фигуры или null, если поле было пусто
+     */
+    public PieceKind remove(int square) {
+        PieceKind kind = squares[square];
+        if (kind == null)
+            return null;
+        squares[square] = null;
+        key ^= Zobrist.piece(kind, square);
+        occupied[kind.getColour().ordinal()].remove(square);
+        byKind[kind.index()].remove(square);
+        moved.remove(square);
+        if (kings[kind.getColour().ordinal()] == square)
+            kings[kind.getColour().ordinal()] = -1;
+        return kind;
+    }
+
+    /**
+     * Проверяет, делала ли ход фигура на поле
+     * @param square номер поля от 0 до 99
+     * @return true если фигура уже делала ход
+     */
+    public boolean hasMoved(int square) {
+        return moved.contains(square);
+    }
+
+    /**
+     * Устанавливает признак хода фигуры на поле
+     * @param square номер поля от 0 до 99
+     * @param hasMoved делала ли фигура ход
+     */
+    public void setMoved(int square, boolean hasMoved) {
+        if (hasMoved)
+            moved.add(square);
+        else
+            moved.remove(square);
+    }
+
+    /**
+     * Получает поле короля указанного цвета
+     * @param colour цвет короля
+     * @return номер поля или -1, если короля нет на доске
+     */
+    public int kingSquare(COLOUR colour) {
+        return kings[colour.ordinal()];
+    }
+
+    /**
+     * Получает цвет стороны, которая делает ход
+     * @return цвет стороны, чья очередь хода
+     */
+    public COLOUR getSideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * Устанавливает сторону, которая делает ход
+     * @param sideToMove цвет стороны, чья очередь хода
+     */
+    public void setSideToMove(COLOUR sideToMove) {
+        Objects.requireNonNull(sideToMove, "Цвет фигуры должен быть определен.");
+        if (this.sideToMove != sideToMove)
+            key ^= Zobrist.side();
+        this.sideToMove = sideToMove;
+    }
+
+    /**
+     * Передает очередь хода другой стороне
+     */
+    public void switchSide() {
+        sideToMove = COLOUR.not(sideToMove);
+        key ^= Zobrist.side();
+    }
+
+    /**
+     * Получает права рокировки
+     * @return биты прав {@link Castling#WHITE_KING_SIDE} и остальных
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    /**
+     * Устанавливает права рокировки
+     * @param castlingRights биты прав рокировки
+     */
+    public void setCastlingRights(int castlingRights) {
+        key ^= Zobrist.castling(this.castlingRights) ^ Zobrist.castling(castlingRights);
+        this.castlingRights = castlingRights & Castling.ALL;
+    }
+
+    /**
+     * Получает поле, через которое пешка прошла ходом на два поля и на котором ее можно взять на проходе
+     * @return номер поля или -1, если взятия на проходе нет
+     */
+    public int getEnPassant() {
+        return enPassant;
+    }
+
+    /**
+     * Устанавливает поле взятия на проходе
+     * @param enPassant номер поля или -1, если взятия на проходе нет
+     */
+    public void setEnPassant(int enPassant) {
+        key ^= Zobrist.enPassant(this.enPassant) ^ Zobrist.enPassant(enPassant);
+        this.enPassant = enPassant;
+    }
+
+    /**
+     * Получает 64-битный ключ Зобриста позиции
+     * Равные по {@link #equals} позиции имеют равные ключи
+     * @return ключ позиции
+     */
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * Получает поля, занятые фигурами указанного цвета
+     * Возвращается само множество позиции, его нельзя изменять
+     * @param colour цвет фигур
+     * @return множество занятых полей
+     */
+    public SquareSet occupied(COLOUR colour) {
+        return occupied[colour.ordinal()];
+    }
+
+    /**
+     * Получает поля, занятые фигурами указанного вида
+     * Возвращается само множество позиции, его нельзя изменять
+     * @param kind вид фигуры
+     * @return множество полей
+     */
+    public SquareSet pieces(PieceKind kind) {
+        return byKind[kind.index()];
+    }
+
+    /**
+     * Получает количество фигур на доске
+     * @return количество фигур
+     */
+    public int size() {
+        return occupied[0].size() + occupied[1].size();
+    }
+
+    /**
+     * Сравнивает расстановку фигур, очередь хода, права рокировки и поле взятия на проходе
+     * (признаки хода фигур не учитываются)
+     * @param o объект для сравнения
+     * @return true если на всех полях стоят фигуры одного вида, ходит одна и та же сторона и права совпадают
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Position position = (Position) o;
+        return sideToMove == position.sideToMove && castlingRights == position.castlingRights
+                && enPassant == position.enPassant && Arrays.equals(squares, position.squares);
+    }
+
+    @Override
+    public int hashCode() {
+        return ((31 * Arrays.hashCode(squares) + sideToMove.ordinal()) * 31 + castlingRights) * 31 + enPassant;
+    }
+
+    private boolean isUnmoved(int square, PieceKind kind) {
+        return squares[square] == kind && !moved.contains(square);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder str = new StringBuilder();
+        for (int square = 0; square < squares.length; square++) {
+            if (squares[square] != null)
+                str.append(squares[square]).append(" на ").append(Coordinate.fromIndex(square)).append("\n");
+        }
+        return str.toString();
+    }
+}
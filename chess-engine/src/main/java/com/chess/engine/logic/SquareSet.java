@@ -0,0 +1,303 @@
+package com.chess.engine.logic;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+
+/**
+ * Класс для множества полей доски, хранящегося в двух числах long
+ * Поле с номером {@link Coordinate#toIndex()} соответствует одному биту:
+ * номера 0-63 лежат в младшем слове, 64-99 в старшем. Добавление, проверка,
+ * объединение и пересечение выполняются за O(1), размер считается подсчетом битов.
+ */
+public class SquareSet implements Iterable<Integer> {
+
+    private static final int WORD = Long.SIZE;
+
+    private long low;
+    private long high;
+
+    /**
+     * Конструктор пустого множества
+     */
+    public SquareSet() {
+    }
+
+    /**
+     * Конструктор копирования множества
+     * @param original оригинальное множество для копирования
+     */
+    public SquareSet(SquareSet original) {
+        Objects.requireNonNull(original, "Нельзя создать копию из null объекта");
+        low = original.low;
+        high = original.high;
+    }
+
+    /**
+     * Создает множество из набора координат
+     * @param coordinates координаты полей
+     * @return множество полей
+     */
+    public static SquareSet of(Collection<Coordinate> coordinates) {
+        Objects.requireNonNull(coordinates, "Набор координат не может быть null.");
+        SquareSet set = new SquareSet();
+        for (Coordinate coordinate : coordinates) {
+            set.add(coordinate);
+        }
+        return set;
+    }
+
+    /**
+     * Создает множество полей горизонтали
+     * @param rank номер горизонтали от 1 до 10
+     * @return множество полей
+     * @throws IllegalArgumentException если горизонтали нет на доске
+     */
+    public static SquareSet rank(int rank) {
+        int ranks = Coordinate.SQUARES / Coordinate.WIDTH;
+        if (rank < 1 || rank > ranks)
+            throw new IllegalArgumentException("Горизонтали " + rank + " нет на доске.");
+        SquareSet set = new SquareSet();
+        for (int file = 0; file < Coordinate.WIDTH; file++)
+            set.add(file + (rank - 1) * Coordinate.WIDTH);
+        return set;
+    }
+
+    /**
+     * Создает множество полей вертикали
+     * @param file буква вертикали от 'a' до 'j'
+     * @return множество полей
+     * @throws IllegalArgumentException если вертикали нет на доске
+     */
+    public static SquareSet file(char file) {
+        int index = file - 'a';
+        if (index < 0 || index >= Coordinate.WIDTH)
+            throw new IllegalArgumentException("Вертикали " + file + " нет на доске.");
+        SquareSet set = new SquareSet();
+        for (int square = index; square < Coordinate.SQUARES; square += Coordinate.WIDTH)
+            set.add(square);
+        return set;
+    }
+
+    /**
+     * Добавляет поле в множество
+     * @param square номер поля от 0 до 99
+     * @throws IllegalArgumentException если номер поля вне доски
+     */
+    public void add(int square) {
+        checkSquare(square);
+        if (square < WORD)
+            low |= 1L << square;
+        else
+            high |= 1L << (square - WORD);
+    }
+
+    /**
+     * Добавляет поле в множество
+     * @param coordinate координата поля
+     */
+    public void add(Coordinate coordinate) {
+        add(coordinate.toIndex());
+    }
+
+    /**
+     * Удаляет поле из множества
+     * @param square номер поля от 0 до 99
+     */
+    public void remove(int square) {
+        checkSquare(square);
+        if (square < WORD)
+            low &= ~(1L << square);
+        else
+            high &= ~(1L << (square - WORD));
+    }
+
+    /**
+     * Удаляет поле из множества
+     * @param coordinate координата поля
+     */
+    public void remove(Coordinate coordinate) {
+        remove(coordinate.toIndex());
+    }
+
+    /**
+     * Проверяет, входит ли поле в множество
+     * @param square номер поля
+     * @return true если поле входит в множество (для номеров вне доски всегда false)
+     */
+    public boolean contains(int square) {
+        if (square < 0 || square >= Coordinate.SQUARES)
+            return false;
+        if (square < WORD)
+            return (low & (1L << square)) != 0;
+        return (high & (1L << (square - WORD))) != 0;
+    }
+
+    /**
+     * Проверяет, входит ли поле в множество
+     * @param coordinate координата поля
+     * @return true если поле входит в множество
+     */
+    public boolean contains(Coordinate coordinate) {
+        return Coordinate.inBoard(coordinate) && contains(coordinate.toIndex());
+    }
+
+    /**
+     * Добавляет в множество все поля другого множества (объединение)
+     * @param other другое множество
+     */
+    public void addAll(SquareSet other) {
+        low |= other.low;
+        high |= other.high;
+    }
+
+    /**
+     * Оставляет в множестве только поля, входящие в другое множество (пересечение)
+     * @param other другое множество
+     */
+    public void retainAll(SquareSet other) {
+        low &= other.low;
+        high &= other.high;
+    }
+
+    /**
+     * Удаляет из множества все поля другого множества (разность)
+     * @param other другое множество
+     */
+    public void removeAll(SquareSet other) {
+        low &= ~other.low;
+        high &= ~other.high;
+    }
+
+    /**
+     * Проверяет, есть ли у множеств общие поля
+     * @param other другое множество
+     * @return true если пересечение не пусто
+     */
+    public boolean intersects(SquareSet other) {
+        return (low & other.low) != 0 || (high & other.high) != 0;
+    }
+
+    /**
+     * Проверяет, входят ли в множество все поля другого множества
+     * @param other другое множество
+     * @return true если другое множество является подмножеством этого
+     */
+    public boolean containsAll(SquareSet other) {
+        return (other.low & ~low) == 0 && (other.high & ~high) == 0;
+    }
+
+    /**
+     * Удаляет все поля из множества
+     */
+    public void clear() {
+        low = 0;
+        high = 0;
+    }
+
+    /**
+     * Получает количество полей в множестве
+     * @return количество полей
+     */
+    public int size() {
+        return Long.bitCount(low) + Long.bitCount(high);
+    }
+
+    /**
+     * Проверяет, пусто ли множество
+     * @return true если в множестве нет полей
+     */
+    public boolean isEmpty() {
+        return low == 0 && high == 0;
+    }
+
+    /**
+     * Находит поле множества с наименьшим номером, не меньшим указанного
+     * Позволяет обходить множество без итератора:
+     * {@code for (int sq = set.next(0); sq >= 0; sq = set.next(sq + 1))}
+     * @param from номер поля, с которого начинается поиск
+     * @return номер найденного поля или -1, если таких полей нет
+     */
+    public int next(int from) {
+        if (from < WORD) {
+            long bits = from <= 0 ? low : low & (-1L << from);
+            if (bits != 0)
+                return Long.numberOfTrailingZeros(bits);
+            from = WORD;
+        }
+        if (from - WORD >= WORD)
+            return -1;
+        long bits = high & (-1L << (from - WORD));
+        return bits != 0 ? WORD + Long.numberOfTrailingZeros(bits) : -1;
+    }
+
+    /**
+     * Получает итератор по номерам полей в порядке возрастания
+     * Метод {@link PrimitiveIterator.OfInt#nextInt()} не упаковывает номера в Integer
+     * @return итератор по номерам полей
+     */
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int square = SquareSet.this.next(0);
+
+            @Override
+            public boolean hasNext() {
+                return square >= 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (square < 0)
+                    throw new NoSuchElementException("В множестве больше нет полей.");
+                int current = square;
+                square = SquareSet.this.next(current + 1);
+                return current;
+            }
+        };
+    }
+
+    /**
+     * Преобразует множество в множество координат
+     * @return новое множество координат
+     */
+    public HashSet<Coordinate> toCoordinates() {
+        HashSet<Coordinate> coordinates = new HashSet<>();
+        for (int square = next(0); square >= 0; square = next(square + 1)) {
+            coordinates.add(Coordinate.fromIndex(square));
+        }
+        return coordinates;
+    }
+
+    private static void checkSquare(int square) {
+        if (square < 0 || square >= Coordinate.SQUARES)
+            throw new IllegalArgumentException("Поле " + square + " находится вне доски.");
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder str = new StringBuilder("[");
+        for (int square = next(0); square >= 0; square = next(square + 1)) {
+            if (str.length() > 1)
+                str.append(", ");
+            str.append(Coordinate.fromIndex(square));
+        }
+        return str.append("]").toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SquareSet that = (SquareSet) o;
+        return low == that.low &&
+                high == that.high;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(low, high);
+    }
+}
@@ -0,0 +1,96 @@
+package com.chess.engine.logic;
+
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.pieces.PieceKind;
+
+/**
+ * Класс случайных чисел Зобриста для 64-битного ключа позиции
+ * Ключ - это исключающее ИЛИ чисел всех фигур на своих полях, числа очереди хода черных,
+ * числа прав рокировки и числа поля взятия на проходе. Числа получаются генератором SplitMix64
+ * с постоянным начальным значением, поэтому ключи совпадают при каждом запуске
+ * и их можно хранить в файлах. Позиция обновляет свой ключ сама при каждом изменении.
+ */
+public final class Zobrist {
+
+    private static final long SEED = 0x4752454154434853L;
+
+    private static final long[] PIECES = new long[PieceKind.count() * Coordinate.SQUARES];
+    private static final long[] CASTLING = new long[Castling.ALL + 1];
+    /** Числа полей взятия на проходе со сдвигом на единицу; для -1 (взятия нет) число нулевое */
+    private static final long[] EN_PASSANT = new long[Coordinate.SQUARES + 1];
+    private static final long SIDE;
+
+    static {
+        long state = SEED;
+        for (int i = 0; i < PIECES.length; i++)
+            PIECES[i] = mix(state += 0x9E3779B97F4A7C15L);
+        for (int i = 1; i < CASTLING.length; i++)
+            CASTLING[i] = mix(state += 0x9E3779B97F4A7C15L);
+        for (int i = 1; i < EN_PASSANT.length; i++)
+            EN_PASSANT[i] = mix(state += 0x9E3779B97F4A7C15L);
+        SIDE = mix(state + 0x9E3779B97F4A7C15L);
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Получает число фигуры на поле
+     * @param kind вид фигуры
+     * @param square номер поля от 0 до 99
+     * @return число Зобриста
+     */
+    public static long piece(PieceKind kind, int square) {
+        return PIECES[kind.index() * Coordinate.SQUARES + square];
+    }
+
+    /**
+     * Получает число очереди хода черных
+     * @return число Зобриста
+     */
+    public static long side() {
+        return SIDE;
+    }
+
+    /**
+     * Получает число прав рокировки
+     * @param rights биты прав рокировки
+     * @return число Зобриста, для отсутствия прав 0
+     */
+    public static long castling(int rights) {
+        return CASTLING[rights & Castling.ALL];
+    }
+
+    /**
+     * Получает число поля взятия на проходе
+     * @param square номер поля или -1, если взятия на проходе нет
+     * @return число Зобриста, для -1 это 0
+     */
+    public static long enPassant(int square) {
+        return EN_PASSANT[square + 1];
+    }
+
+    /**
+     * Вычисляет ключ позиции заново по всем полям
+     * Используется для проверки ключа, который позиция обновляет сама
+     * @param position позиция
+     * @return 64-битный ключ
+     */
+    public static long compute(Position position) {
+        long key = 0;
+        for (int square = 0; square < Coordinate.SQUARES; square++) {
+            PieceKind kind = position.get(square);
+            if (kind != null)
+                key ^= piece(kind, square);
+        }
+        if (position.getSideToMove() != COLOUR.W)
+            key ^= SIDE;
+        return key ^ castling(position.getCastlingRights()) ^ enPassant(position.getEnPassant());
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,12 +1,10 @@
 package com.chess.engine.notation;
 
-import com.chess.engine.enums.COLOUR;
-import com.chess.engine.enums.ID;
 import com.chess.engine.logic.Coordinate;
+import com.chess.engine.logic.MoveList;
 import com.chess.engine.logic.Pieces;
-import com.chess.engine.pieces.King;
-import com.chess.engine.pieces.Pawn;
 import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.PieceKind;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
@@ -22,81 +20,29 @@ public class ChessIO {
     private static final String errorSave = "$$$";
 
     /**
-     * Форматирует ход в строковое представление в шахматной нотации
+     * Форматирует ход в короткой алгебраической нотации
+     * Запись строит {@link SanWriter#toSan(Pieces, int)} по позиции до хода и упакованному ходу:
+     * ход, который еще не сделан, записывается по текущей позиции, а сделанный ход берется
+     * из истории ходов доски и записывается по позиции перед ним
      * @param pieces текущее состояние доски
      * @param coordinate координата назначения
      * @param piece фигура, делающая ход
      * @return строковое представление хода
+     * @throws IllegalArgumentException если фигура уже ушла со своего поля, а в истории доски нет ходов
      */
     public static String moveString (Pieces pieces, Coordinate coordinate, Piece piece) {
 
-        boolean isCastle = false;
+        Objects.requireNonNull(pieces, "Доска не может быть null.");
+        Objects.requireNonNull(piece, "Фигура не может быть null.");
 
-        StringBuilder str = new StringBuilder();
-        Pieces previousBoard = new Pieces(pieces.getPreviousPieces());
-        Coordinate previousCoordinate = previousBoard.findPiece(piece);
-        Piece previousPiece = previousBoard.getPiece(previousCoordinate);
+        Coordinate from = piece.getCoords();
+        if (!from.equals(coordinate) && pieces.getPosition().get(from.toIndex()) == PieceKind.of(piece))
+            return SanWriter.toSan(pieces, pieces.createMove(from, coordinate));
 
-        if (piece.getName() != ID.KING) {
-            str.append(piece.getName().toString());
-        }
-        else {
-            King king = (King) piece;
-            King previousKing = (King) previousPiece;
-
-            if (coordinate.equals(king.getCastleCoordKingQ()) && previousKing.canCastleQueen(previousBoard)) {
-                str.append("O-O-O");
-                isCastle = true;
-            }
-            else if (coordinate.equals(king.getCastleCoordKingK()) && previousKing.canCastleKing(previousBoard)) {
-                str.append("O-O");
-                isCastle = true;
-            }
-            else
-                str.append(piece.getName().toString());
-        }
-
-        str.append(removeAmbiguous(previousBoard, coordinate, previousPiece));
-
-        if (pieces.getIsCapture()) {
-            if (piece.getName() == ID.PAWN) {
-                assert piece instanceof Pawn;
-                Pawn pawn = (Pawn) piece;
-                str.append(pawn.getPreviousCoordinate().getFile()).append("x");
-            }
-            else
-                str.append("x");
-        }
-
-        if (!isCastle) {
-            str.append(coordinate.toString());
-        }
-
-        if (piece.getName() == ID.PAWN) {
-            Pawn pawn = (Pawn) piece;
-            if (pawn.canPromoteBlack(coordinate) || pawn.canPromoteWhite(coordinate))
-                str.append("=").append(pawn.getPromotedPiece().getName().toString());
-        }
-
-        if (pieces.isMate(COLOUR.not(piece.getColour())))
-            str.append("#");
-        else if (pieces.isCheck(COLOUR.not(piece.getColour())))
-            str.append("+");
-
-        return str.toString();
-    }
-
-    public static String removeAmbiguous (Pieces pieces, Coordinate coordinate, Piece piece) {
-        if (pieces.pieceToSameCoordinate(coordinate, piece)) {
-            if (pieces.pieceInSameRank(piece))
-                return piece.getFile() + "";
-            else if (pieces.pieceInSameFile(piece))
-                return piece.getRank() + "";
-            else
-                return "";
-        }
-        else
-            return "";
+        MoveList history = pieces.getMoveHistory();
+        if (history.isEmpty())
+            throw new IllegalArgumentException("Ход на " + coordinate + " не найден в истории доски.");
+        return SanWriter.toSan(new Pieces(pieces.getPreviousPosition()), history.get(history.size() - 1));
     }
 
     /**
@@ -0,0 +1,422 @@
+package com.chess.engine.notation;
+
+import com.chess.engine.enums.ID;
+import com.chess.engine.logic.Coordinate;
+import com.chess.engine.logic.MoveList;
+import com.chess.engine.logic.PackedMove;
+import com.chess.engine.logic.Pieces;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Класс двоичного архива партий с дозаписью и произвольным доступом
+ * Архив состоит из файла данных и соседнего файла указателя с расширением ".idx".
+ * Файл данных начинается с сигнатуры и версии, затем подряд идут записи партий: число заголовков,
+ * заголовки (длина и байты UTF-8 имени и значения), код результата и ходы. В версии 2 ходы сжаты
+ * номерами в списке легальных ходов ({@link MoveIndexCodec}, около байта на полуход), в версии 1 записаны
+ * числом полуходов и двумя байтами на ход. Новые архивы создаются в версии 2, архивы версии 1
+ * читаются и дописываются в своей версии.
+ * Указатель хранит для каждой партии смещение и длину записи по {@value #INDEX_ENTRY} байт,
+ * поэтому партия с номером id читается одним позиционным чтением указателя и одним чтением данных.
+ * Запись сначала дописывается в файл данных, затем в указатель; при открытии для записи неполный хвост
+ * файла данных отбрасывается. Открытие только для чтения файлы не меняет и видит партии, записанные
+ * в указатель к моменту открытия, поэтому его можно использовать одновременно с дозаписью другим объектом.
+ * Методы синхронизированы, один объект можно использовать из нескольких потоков.
+ */
+public class GameArchive implements Closeable {
+
+    /** Расширение файла указателя */
+    public static final String INDEX_SUFFIX = ".idx";
+
+    private static final int MAGIC = 0x47434841;
+    private static final int VERSION = 2;
+    private static final int FIELD_CODE_VERSION = 1;
+    private static final int HEADER = 8;
+    private static final int INDEX_ENTRY = 12;
+    private static final int MAX_SHORT = 0xFFFF;
+
+    /** Бит хода превращения; в битах поля назначения тогда хранятся вертикаль и тип фигуры */
+    private static final int PROMOTION_BIT = 1 << 14;
+    private static final int SQUARE_BITS = 7;
+    private static final int SQUARE_MASK = (1 << SQUARE_BITS) - 1;
+    private static final int RANKS = Coordinate.SQUARES / Coordinate.WIDTH;
+    private static final ID[] IDS = ID.values();
+
+    private final FileChannel data;
+    private final FileChannel index;
+    private final boolean readOnly;
+    private final Pieces pieces = new Pieces();
+    private final MoveIndexCodec codec = new MoveIndexCodec();
+    private int version;
+    private long dataEnd;
+    private long games;
+
+    private GameArchive(FileChannel data, FileChannel index, boolean readOnly) {
+        this.data = data;
+        this.index = index;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Открывает архив, создавая его файлы при необходимости
+     * @param file путь к файлу данных; указатель лежит рядом с расширением {@value #INDEX_SUFFIX}
+     * @return открытый архив
+     * @throws IOException если файлы не удалось открыть или файл данных не является архивом
+     */
+    public static GameArchive open(Path file) throws IOException {
+        return open(file, false, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Открывает существующий архив только для чтения
+     * Файлы не создаются и не обрезаются; партия, которую другой объект дописывает в этот момент,
+     * не видна, пока ее запись в указателе не завершена
+     * @param file путь к файлу данных; указатель лежит рядом с расширением {@value #INDEX_SUFFIX}
+     * @return архив, открытый только для чтения
+     * @throws IOException если файлов нет, их не удалось открыть или файл данных не является архивом
+     */
+    public static GameArchive openReadOnly(Path file) throws IOException {
+        return open(file, true, StandardOpenOption.READ);
+    }
+
+    private static GameArchive open(Path file, boolean readOnly, StandardOpenOption... options) throws IOException {
+
+        Objects.requireNonNull(file, "Путь к файлу не может быть null.");
+
+        FileChannel data = FileChannel.open(file, options);
+        FileChannel index;
+        try {
+            index = FileChannel.open(indexPath(file), options);
+        }
+        catch (IOException e) {
+            data.close();
+            throw e;
+        }
+        GameArchive archive = new GameArchive(data, index, readOnly);
+        try {
+            if (readOnly)
+                archive.load();
+            else
+                archive.recover();
+        }
+        catch (IOException | RuntimeException e) {
+            archive.close();
+            throw e;
+        }
+        return archive;
+    }
+
+    /**
+     * Получает путь к файлу указателя архива
+     * @param file путь к файлу данных
+     * @return путь к файлу указателя
+     */
+    public static Path indexPath(Path file) {
+        return file.resolveSibling(file.getFileName() + INDEX_SUFFIX);
+    }
+
+    /**
+     * Получает количество партий в архиве
+     * Для архива, открытого только для чтения, - количество партий на момент открытия
+     * @return количество партий
+     */
+    public synchronized long size() {
+        return games;
+    }
+
+    /**
+     * Дописывает партию в конец архива
+     * @param game запись партии; ходы должны быть легальными от начальной позиции
+     * @return номер партии в архиве
+     * @throws IOException если запись не удалась
+     * @throws IllegalArgumentException если заголовок длиннее 65535 байт, заголовков или ходов больше 65535
+     * @throws IllegalStateException если архив открыт только для чтения
+     */
+    public synchronized long append(GameRecord game) throws IOException {
+
+        Objects.requireNonNull(game, "Запись партии не может быть null.");
+        if (readOnly)
+            throw new IllegalStateException("Архив открыт только для чтения.");
+
+        ByteBuffer record = encode(game);
+        int length = record.remaining();
+        writeFully(data, record, dataEnd);
+
+        ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY);
+        entry.putLong(dataEnd).putInt(length).flip();
+        writeFully(index, entry, games * INDEX_ENTRY);
+
+        dataEnd += length;
+        return games++;
+    }
+
+    /**
+     * Читает партию по номеру
+     * @param id номер партии от 0 до {@link #size()} - 1
+     * @return запись партии с полными упакованными ходами
+     * @throws IOException если чтение не удалось или запись повреждена
+     * @throws IndexOutOfBoundsException если партии с таким номером нет
+     */
+    public GameRecord read(long id) throws IOException {
+        return read(id, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Читает партию по номеру только с первыми ходами
+     * Остальные ходы не восстанавливаются, что быстрее для построения дебютных таблиц и указателей
+     * @param id номер партии от 0 до {@link #size()} - 1
+     * @param maxPlies наибольшее количество читаемых полуходов
+     * @return запись партии с не более чем maxPlies ходами
+     * @throws IOException если чтение не удалось или запись повреждена
+     * @throws IndexOutOfBoundsException если партии с таким номером нет
+     * @throws IllegalArgumentException если maxPlies отрицательно
+     */
+    public synchronized GameRecord read(long id, int maxPlies) throws IOException {
+
+        if (maxPlies < 0)
+            throw new IllegalArgumentException("Количество полуходов не может быть отрицательным.");
+        if (id < 0 || id >= games)
+            throw new IndexOutOfBoundsException("Партии с номером " + id + " нет в архиве.");
+
+        ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY);
+        readFully(index, entry, id * INDEX_ENTRY);
+        entry.flip();
+        long offset = entry.getLong();
+        int length = entry.getInt();
+
+        ByteBuffer record = ByteBuffer.allocate(length);
+        readFully(data, record, offset);
+        record.flip();
+        try {
+            return decode(record, maxPlies);
+        }
+        catch (RuntimeException e) {
+            throw new IOException("Запись партии " + id + " повреждена.", e);
+        }
+    }
+
+    /**
+     * Сбрасывает записанные данные на диск
+     * @throws IOException если сброс не удался
+     */
+    public synchronized void flush() throws IOException {
+        if (readOnly)
+            return;
+        data.force(false);
+        index.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            data.close();
+        }
+        finally {
+            index.close();
+        }
+    }
+
+    /**
+     * Кодирует ход двумя байтами: поле отправления и поле назначения по 7 бит;
+     * у превращения вместо поля назначения записываются вертикаль и тип фигуры,
+     * а горизонталь назначения восстанавливается по горизонтали отправления
+     * @param move упакованный ход
+     * @return код хода от 0 до 32767
+     */
+    static int encodeMove(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        if (!PackedMove.isPromotion(move))
+            return from | to << SQUARE_BITS;
+        int target = to % Coordinate.WIDTH + PackedMove.promotion(move).ordinal() * Coordinate.WIDTH;
+        return from | target << SQUARE_BITS | PROMOTION_BIT;
+    }
+
+    /**
+     * Восстанавливает упакованный ход по коду в текущей позиции доски
+     * @param pieces доска в позиции до хода
+     * @param code код хода
+     * @return упакованный ход
+     * @throws IllegalArgumentException если на поле отправления нет фигуры
+     */
+    static int decodeMove(Pieces pieces, int code) {
+        int from = code & SQUARE_MASK;
+        int target = code >> SQUARE_BITS & SQUARE_MASK;
+        if ((code & PROMOTION_BIT) == 0)
+            return pieces.createMove(from, target, null);
+        int toRank = from / Coordinate.WIDTH > RANKS / 2 ? RANKS - 1 : 0;
+        int to = target % Coordinate.WIDTH + toRank * Coordinate.WIDTH;
+        return pieces.createMove(from, to, IDS[target / Coordinate.WIDTH]);
+    }
+
+    private ByteBuffer encode(GameRecord game) {
+
+        byte[] compressed = null;
+        int size = 2 + 1;
+        if (version == FIELD_CODE_VERSION) {
+            checkShort(game.getMoves().size(), "Слишком много ходов");
+            size += 2 + game.getMoves().size() * 2;
+        }
+        else {
+            compressed = codec.encode(game.getMoves());
+            size += compressed.length;
+        }
+
+        byte[][] tags = new byte[game.getTags().size() * 2][];
+        int i = 0;
+        for (Map.Entry<String, String> tag : game.getTags().entrySet()) {
+            tags[i] = tag.getKey().getBytes(StandardCharsets.UTF_8);
+            tags[i + 1] = tag.getValue().getBytes(StandardCharsets.UTF_8);
+            size += 4 + tags[i].length + tags[i + 1].length;
+            i += 2;
+        }
+        checkShort(tags.length / 2, "Слишком много заголовков");
+
+        ByteBuffer record = ByteBuffer.allocate(size);
+        record.putShort((short) (tags.length / 2));
+        for (byte[] text : tags) {
+            checkShort(text.length, "Слишком длинный заголовок");
+            record.putShort((short) text.length).put(text);
+        }
+        record.put((byte) GameRecord.resultCode(game.getResult()));
+        if (compressed != null) {
+            record.put(compressed);
+        }
+        else {
+            record.putShort((short) game.getMoves().size());
+            for (int m = 0; m < game.getMoves().size(); m++)
+                record.putShort((short) encodeMove(game.getMoves().get(m)));
+        }
+        return record.flip();
+    }
+
+    private GameRecord decode(ByteBuffer record, int maxPlies) {
+
+        LinkedHashMap<String, String> tags = new LinkedHashMap<>();
+        int tagCount = record.getShort() & MAX_SHORT;
+        for (int i = 0; i < tagCount; i++) {
+            String name = readText(record);
+            tags.put(name, readText(record));
+        }
+        String result = GameRecord.RESULTS[record.get()];
+
+        if (version != FIELD_CODE_VERSION) {
+            MoveList moves = new MoveList();
+            codec.decode(record.array(), record.position(), record.remaining(), moves, maxPlies);
+            return new GameRecord(tags, moves, result);
+        }
+
+        int plies = Math.min(record.getShort() & MAX_SHORT, maxPlies);
+        MoveList moves = new MoveList(plies);
+        try {
+            for (int i = 0; i < plies; i++) {
+                int move = decodeMove(pieces, record.getShort() & MAX_SHORT);
+                pieces.doMove(move);
+                moves.add(move);
+            }
+        }
+        finally {
+            for (int i = moves.size() - 1; i >= 0; i--)
+                pieces.undoMove(moves.get(i));
+        }
+        return new GameRecord(tags, moves, result);
+    }
+
+    private static String readText(ByteBuffer record) {
+        byte[] text = new byte[record.getShort() & MAX_SHORT];
+        record.get(text);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+
+    private static void checkShort(int value, String message) {
+        if (value > MAX_SHORT)
+            throw new IllegalArgumentException(message + ": " + value + " > " + MAX_SHORT + ".");
+    }
+
+    /**
+     * Проверяет сигнатуру и приводит файлы к последней полностью записанной партии
+     * @throws IOException если файл данных не является архивом
+     */
+    private void recover() throws IOException {
+        if (data.size() == 0) {
+            version = VERSION;
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            writeFully(data, header, 0);
+            index.truncate(0);
+        }
+        else
+            readHeader();
+
+        readIndex();
+        index.truncate(games * INDEX_ENTRY);
+        data.truncate(dataEnd);
+    }
+
+    /**
+     * Проверяет сигнатуру и находит последнюю полностью записанную партию, не меняя файлы
+     * Пустой файл данных - архив, который другой объект только что создал и еще не дописал заголовок
+     * @throws IOException если файл данных не является архивом
+     */
+    private void load() throws IOException {
+        if (data.size() == 0) {
+            version = VERSION;
+            dataEnd = HEADER;
+            return;
+        }
+        readHeader();
+        readIndex();
+    }
+
+    private void readHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        readFully(data, header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC)
+            throw new IOException("Файл не является архивом партий.");
+        version = header.getInt();
+        if (version != VERSION && version != FIELD_CODE_VERSION)
+            throw new IOException("Неизвестная версия архива партий: " + version + ".");
+    }
+
+    /**
+     * Считает партии по целым записям указателя; неполная последняя запись не учитывается
+     * @throws IOException если указатель ссылается за конец файла данных
+     */
+    private void readIndex() throws IOException {
+        games = index.size() / INDEX_ENTRY;
+        dataEnd = HEADER;
+        if (games > 0) {
+            ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY);
+            readFully(index, entry, (games - 1) * INDEX_ENTRY);
+            entry.flip();
+            dataEnd = entry.getLong() + entry.getInt();
+            if (dataEnd > data.size())
+                throw new IOException("Указатель архива ссылается за конец файла данных.");
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining())
+            position += channel.write(buffer, position);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0)
+                throw new EOFException("Неожиданный конец файла архива.");
+            position += read;
+        }
+    }
+}
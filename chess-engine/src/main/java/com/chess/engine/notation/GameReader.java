@@ -0,0 +1,395 @@
+package com.chess.engine.notation;
+
+import com.chess.engine.logic.MoveList;
+import com.chess.engine.logic.PackedMove;
+import com.chess.engine.logic.Pieces;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Класс для потокового чтения файлов со многими партиями
+ * Файл читается кусками фиксированного размера через канал NIO, поэтому память не зависит от размера файла.
+ * Формат - как в PGN: заголовки вида [Имя "Значение"], затем ходы в короткой нотации с номерами,
+ * комментариями {...} и ;..., вариантами (...) и результатом 1-0, 0-1, 1/2-1/2 или *.
+ * Лексемы собираются в переиспользуемые буферы и передаются обработчику как {@link CharSequence},
+ * строка на лексему не создается. Каждая партия проигрывается от начальной позиции через doMove/undoMove,
+ * так что недопустимые ходы обнаруживаются при чтении.
+ * Текст ходов читается побайтно как Latin-1, а имена и значения заголовков декодируются как UTF-8 -
+ * в той же кодировке заголовки хранит {@link GameArchive}. Объект не потокобезопасен: на каждый поток нужен свой.
+ */
+public class GameReader {
+
+    /** Размер куска чтения по умолчанию */
+    public static final int DEFAULT_CHUNK = 1 << 20;
+
+    private static final String UNFINISHED = "*";
+
+    private static final int MOVETEXT = 0;
+    private static final int COMMENT = 1;
+    private static final int LINE_COMMENT = 2;
+    private static final int TAG_NAME = 3;
+    private static final int TAG_BEFORE_VALUE = 4;
+    private static final int TAG_VALUE = 5;
+    private static final int TAG_ESCAPE = 6;
+    private static final int TAG_END = 7;
+
+    /**
+     * Обработчик прочитанных партий
+     * Переданные строки действительны только во время вызова: буферы переиспользуются
+     */
+    public interface Handler {
+
+        /**
+         * Получает заголовок партии, декодированный как UTF-8
+         * @param name имя заголовка
+         * @param value значение заголовка
+         */
+        default void tag(CharSequence name, CharSequence value) {
+        }
+
+        /**
+         * Получает проверенный ход партии
+         * @param pieces доска в позиции до хода; менять ее можно только парами doMove/undoMove
+         * @param move легальный упакованный ход
+         */
+        default void move(Pieces pieces, int move) {
+        }
+
+        /**
+         * Получает запись, которая не соответствует легальному ходу; остальные ходы партии пропускаются
+         * @param token запись хода
+         * @param ply номер полухода от нуля
+         */
+        default void invalid(CharSequence token, int ply) {
+        }
+
+        /**
+         * Получает конец партии
+         * @param result результат партии ("1-0", "0-1", "1/2-1/2" или "*")
+         * @param plies количество проверенных полуходов
+         * @param valid true если все ходы партии легальны
+         */
+        void game(CharSequence result, int plies, boolean valid);
+    }
+
+    private final ByteBuffer buffer;
+    private final Pieces pieces = new Pieces();
+    private final SanParser parser = new SanParser();
+    private final MoveList played = new MoveList();
+    private final Text token = new Text();
+    private final Text name = new Text();
+    private final Text value = new Text();
+
+    private Handler handler;
+    private int state;
+    private int depth;
+    private boolean inGame;
+    private boolean valid;
+    private long games;
+
+    /**
+     * Конструктор с куском чтения по умолчанию
+     */
+    public GameReader() {
+        this(DEFAULT_CHUNK);
+    }
+
+    /**
+     * Конструктор с заданным размером куска чтения
+     * @param chunkSize размер куска в байтах
+     * @throws IllegalArgumentException если размер не положителен
+     */
+    public GameReader(int chunkSize) {
+        if (chunkSize <= 0)
+            throw new IllegalArgumentException("Размер куска чтения должен быть положительным.");
+        buffer = ByteBuffer.allocate(chunkSize);
+    }
+
+    /**
+     * Читает все партии файла
+     * @param file путь к файлу
+     * @param handler обработчик партий
+     * @return количество прочитанных партий
+     * @throws IOException если файл не удалось прочитать
+     */
+    public long read(Path file, Handler handler) throws IOException {
+        Objects.requireNonNull(file, "Путь к файлу не может быть null.");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return read(channel, handler);
+        }
+    }
+
+    /**
+     * Читает все партии из канала до его конца
+     * @param channel канал с текстом партий
+     * @param handler обработчик партий
+     * @return количество прочитанных партий
+     * @throws IOException если канал не удалось прочитать
+     */
+    public long read(ReadableByteChannel channel, Handler handler) throws IOException {
+
+        Objects.requireNonNull(channel, "Канал не может быть null.");
+        this.handler = Objects.requireNonNull(handler, "Обработчик не может быть null.");
+
+        state = MOVETEXT;
+        depth = 0;
+        inGame = false;
+        games = 0;
+        token.clear();
+
+        byte[] bytes = buffer.array();
+        buffer.clear();
+        while (channel.read(buffer) >= 0) {
+            int limit = buffer.position();
+            for (int i = 0; i < limit; i++)
+                accept(bytes[i]);
+            buffer.clear();
+        }
+        accept((byte) '\n');
+        if (inGame)
+            endGame(UNFINISHED);
+        return games;
+    }
+
+    /**
+     * Обрабатывает очередной байт текста
+     * @param b байт
+     */
+    private void accept(byte b) {
+        switch (state) {
+            case MOVETEXT:
+                acceptMovetext(b);
+                break;
+            case COMMENT:
+                if (b == '}')
+                    state = MOVETEXT;
+                break;
+            case LINE_COMMENT:
+                if (b == '\n')
+                    state = MOVETEXT;
+                break;
+            case TAG_NAME:
+                if (b == '"') {
+                    state = TAG_VALUE;
+                }
+                else if (b == ']') {
+                    emitTag();
+                }
+                else if (isSpace(b)) {
+                    if (name.length() > 0)
+                        state = TAG_BEFORE_VALUE;
+                }
+                else
+                    name.append(b);
+                break;
+            case TAG_BEFORE_VALUE:
+                if (b == '"')
+                    state = TAG_VALUE;
+                else if (b == ']')
+                    emitTag();
+                break;
+            case TAG_VALUE:
+                if (b == '\\')
+                    state = TAG_ESCAPE;
+                else if (b == '"')
+                    state = TAG_END;
+                else
+                    value.append(b);
+                break;
+            case TAG_ESCAPE:
+                value.append(b);
+                state = TAG_VALUE;
+                break;
+            default:
+                if (b == ']')
+                    emitTag();
+                break;
+        }
+    }
+
+    private void acceptMovetext(byte b) {
+        if (isSpace(b)) {
+            finishToken();
+        }
+        else if (b == '{') {
+            finishToken();
+            state = COMMENT;
+        }
+        else if (b == ';') {
+            finishToken();
+            state = LINE_COMMENT;
+        }
+        else if (b == '(') {
+            finishToken();
+            depth++;
+        }
+        else if (b == ')') {
+            finishToken();
+            if (depth > 0)
+                depth--;
+        }
+        else if (b == '[' && token.length() == 0 && depth == 0) {
+            // Заголовок после ходов без результата начинает новую партию
+            if (inGame && played.size() > 0)
+                endGame(UNFINISHED);
+            name.clear();
+            value.clear();
+            state = TAG_NAME;
+        }
+        else
+            token.append(b);
+    }
+
+    private void emitTag() {
+        state = MOVETEXT;
+        startGame();
+        // Байты многобайтовых символов UTF-8 не совпадают с кавычками и скобками, поэтому разбор по байтам верен
+        handler.tag(name.decode(), value.decode());
+    }
+
+    /**
+     * Разбирает собранную лексему текста ходов: результат, номер хода, оценку или сам ход
+     */
+    private void finishToken() {
+        int length = token.length();
+        if (length == 0)
+            return;
+        if (depth > 0) {
+            token.clear();
+            return;
+        }
+
+        if (token.is("1-0") || token.is("0-1") || token.is("1/2-1/2") || token.is(UNFINISHED)) {
+            endGame(token);
+            token.clear();
+            return;
+        }
+
+        // Номер хода "12." или "12..." может быть записан слитно с ходом
+        int start = 0;
+        while (start < length && isDigit(token.charAt(start)))
+            start++;
+        if (start > 0 && start < length && token.charAt(start) == '.') {
+            while (start < length && token.charAt(start) == '.')
+                start++;
+        }
+        else
+            start = 0;
+
+        if (start < length && token.charAt(start) != '$') {
+            startGame();
+            if (valid)
+                playMove(start, length);
+        }
+        token.clear();
+    }
+
+    private void playMove(int start, int end) {
+        parser.index(pieces);
+        int move = parser.parse(token, start, end);
+        if (move == PackedMove.NONE) {
+            valid = false;
+            handler.invalid(token, played.size());
+            return;
+        }
+        handler.move(pieces, move);
+        pieces.doMove(move);
+        played.add(move);
+    }
+
+    /**
+     * Отмечает начало партии, если она еще не начата
+     */
+    private void startGame() {
+        if (!inGame) {
+            inGame = true;
+            valid = true;
+        }
+    }
+
+    /**
+     * Завершает партию, сообщает о ней обработчику и возвращает доску в начальную позицию
+     * @param result результат партии
+     */
+    private void endGame(CharSequence result) {
+        startGame();
+        handler.game(result, played.size(), valid);
+        while (!played.isEmpty())
+            pieces.undoMove(played.removeLast());
+        inGame = false;
+        games++;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Переиспользуемый буфер байтов, который читается как строка символов Latin-1
+     */
+    private static final class Text implements CharSequence {
+
+        private byte[] bytes = new byte[64];
+        private int length;
+
+        void append(byte b) {
+            if (length == bytes.length)
+                bytes = Arrays.copyOf(bytes, length * 2);
+            bytes[length++] = b;
+        }
+
+        void clear() {
+            length = 0;
+        }
+
+        boolean is(String text) {
+            if (text.length() != length)
+                return false;
+            for (int i = 0; i < length; i++) {
+                if (text.charAt(i) != charAt(i))
+                    return false;
+            }
+            return true;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes[index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
+
+        /**
+         * Декодирует собранные байты как UTF-8
+         * @return строка символов
+         */
+        String decode() {
+            return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
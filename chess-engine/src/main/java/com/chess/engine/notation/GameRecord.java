@@ -0,0 +1,90 @@
+package com.chess.engine.notation;
+
+import com.chess.engine.logic.MoveList;
+
+import java.util.LinkedHashMap;
+import java.util.Objects;
+
+/**
+ * Класс записи партии: заголовки, ходы от начальной позиции и результат
+ */
+public class GameRecord {
+
+    /** Допустимые результаты партии в порядке их кодов в архиве */
+    static final String[] RESULTS = {"*", "1-0", "0-1", "1/2-1/2"};
+
+    private final LinkedHashMap<String, String> tags;
+    private final MoveList moves;
+    private final String result;
+
+    /**
+     * Конструктор записи партии
+     * @param tags заголовки в порядке записи
+     * @param moves упакованные ходы от начальной позиции
+     * @param result результат партии ("1-0", "0-1", "1/2-1/2" или "*")
+     * @throws IllegalArgumentException если результат не из списка допустимых
+     */
+    public GameRecord(LinkedHashMap<String, String> tags, MoveList moves, String result) {
+        this.tags = Objects.requireNonNull(tags, "Заголовки не могут быть null.");
+        this.moves = Objects.requireNonNull(moves, "Список ходов не может быть null.");
+        Objects.requireNonNull(result, "Результат не может быть null.");
+        if (resultCode(result) < 0)
+            throw new IllegalArgumentException("Неизвестный результат партии: " + result);
+        this.result = result;
+    }
+
+    /**
+     * Получает заголовки партии
+     * @return карта имен и значений заголовков в порядке записи
+     */
+    public LinkedHashMap<String, String> getTags() {
+        return tags;
+    }
+
+    /**
+     * Получает ходы партии
+     * @return список упакованных ходов от начальной позиции
+     */
+    public MoveList getMoves() {
+        return moves;
+    }
+
+    /**
+     * Получает результат партии
+     * @return "1-0", "0-1", "1/2-1/2" или "*"
+     */
+    public String getResult() {
+        return result;
+    }
+
+    /**
+     * Получает код результата для архива
+     * @param result результат партии
+     * @return номер в {@link #RESULTS} или -1
+     */
+    static int resultCode(CharSequence result) {
+        for (int i = 0; i < RESULTS.length; i++) {
+            if (RESULTS[i].contentEquals(result))
+                return i;
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        GameRecord that = (GameRecord) o;
+        return tags.equals(that.tags) && moves.equals(that.moves) && result.equals(that.result);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(tags, moves, result);
+    }
+
+    @Override
+    public String toString() {
+        return tags + " " + moves + " " + result;
+    }
+}
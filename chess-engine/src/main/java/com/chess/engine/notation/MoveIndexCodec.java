@@ -0,0 +1,426 @@
+package com.chess.engine.notation;
+
+import com.chess.engine.enums.ID;
+import com.chess.engine.enums.MOVEGEN;
+import com.chess.engine.logic.Coordinate;
+import com.chess.engine.logic.MoveList;
+import com.chess.engine.logic.PackedMove;
+import com.chess.engine.logic.Pieces;
+import com.chess.engine.search.Evaluation;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+/**
+ * Класс сжатия ходов партии номерами в упорядоченном списке легальных ходов
+ * Легальные ходы каждой позиции упорядочиваются детерминированно: сначала взятия и превращения
+ * по схеме "самая ценная жертва - наименее ценный нападающий", затем тихие ходы к центру доски,
+ * при равенстве - в порядке генерации. Сыгранный ход почти всегда стоит в начале списка,
+ * поэтому номер кодируется каноническим кодом Хаффмана в среднем короче байта.
+ * Модель задается частотами номеров: по умолчанию используется убывающее распределение,
+ * а точную модель можно собрать по своим партиям через {@link #countIndices}.
+ * Партия записывается как число полуходов (по 7 бит в байте) и поток кодов, дополненный до байта.
+ * Объект хранит свою доску и не потокобезопасен: на каждый поток нужен свой.
+ */
+public class MoveIndexCodec {
+
+    /** Количество различимых номеров хода */
+    public static final int SYMBOLS = 1024;
+
+    private static final int MAX_BITS = 24;
+    private static final int CAPTURE_BONUS = 1 << 20;
+    /** Удвоенное расстояние поля до центра доски (по номеру поля) */
+    private static final int[] CENTER_DISTANCE = new int[Coordinate.SQUARES];
+
+    static {
+        int ranks = Coordinate.SQUARES / Coordinate.WIDTH;
+        for (int square = 0; square < Coordinate.SQUARES; square++) {
+            int file = square % Coordinate.WIDTH;
+            int rank = square / Coordinate.WIDTH;
+            CENTER_DISTANCE[square] = Math.abs(2 * file - (Coordinate.WIDTH - 1)) + Math.abs(2 * rank - (ranks - 1));
+        }
+    }
+
+    private final int[] codes = new int[SYMBOLS];
+    private final int[] lengths = new int[SYMBOLS];
+    /** Символы в порядке канонических кодов и данные для декодирования по длинам */
+    private final int[] sorted = new int[SYMBOLS];
+    private final int[] firstCode = new int[MAX_BITS + 1];
+    private final int[] countByLength = new int[MAX_BITS + 1];
+    private final int[] offsetByLength = new int[MAX_BITS + 1];
+
+    private final Pieces pieces = new Pieces();
+    private final MoveList moves = new MoveList();
+    private int[] scores = new int[0];
+
+    /**
+     * Конструктор с моделью по умолчанию
+     */
+    public MoveIndexCodec() {
+        this(defaultFrequencies());
+    }
+
+    /**
+     * Конструктор с моделью по частотам номеров
+     * @param frequencies частоты номеров от 0 до {@link #SYMBOLS} - 1; нулевые частоты допускаются
+     * @throws IllegalArgumentException если массив другой длины или содержит отрицательные частоты
+     */
+    public MoveIndexCodec(long[] frequencies) {
+        Objects.requireNonNull(frequencies, "Частоты не могут быть null.");
+        if (frequencies.length != SYMBOLS)
+            throw new IllegalArgumentException("Нужно " + SYMBOLS + " частот, передано " + frequencies.length + ".");
+        long[] weights = new long[SYMBOLS];
+        for (int i = 0; i < SYMBOLS; i++) {
+            if (frequencies[i] < 0)
+                throw new IllegalArgumentException("Частота не может быть отрицательной.");
+            // Любой номер должен оставаться кодируемым
+            weights[i] = frequencies[i] + 1;
+        }
+        buildCode(weights);
+    }
+
+    /**
+     * Сжимает ходы партии от начальной позиции
+     * @param game легальные упакованные ходы от начальной позиции
+     * @return сжатые ходы
+     * @throws IllegalArgumentException если ход нелегален в своей позиции
+     */
+    public byte[] encode(MoveList game) {
+
+        Objects.requireNonNull(game, "Список ходов не может быть null.");
+
+        BitWriter out = new BitWriter(game.size() + 8);
+        int plies = game.size();
+        do {
+            out.writeByte((plies & 0x7F) | (plies > 0x7F ? 0x80 : 0));
+            plies >>>= 7;
+        } while (plies > 0);
+
+        int played = 0;
+        try {
+            for (; played < game.size(); played++) {
+                int index = indexOf(game.get(played));
+                if (index >= SYMBOLS)
+                    throw new IllegalArgumentException("Номер хода " + index + " не помещается в модель.");
+                out.write(codes[index], lengths[index]);
+                pieces.doMove(game.get(played));
+            }
+        }
+        finally {
+            undo(game, played);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Восстанавливает ходы партии
+     * @param data сжатые ходы
+     * @return упакованные ходы от начальной позиции
+     * @throws IllegalArgumentException если данные повреждены
+     */
+    public MoveList decode(byte[] data) {
+        MoveList game = new MoveList();
+        decode(data, 0, data.length, game);
+        return game;
+    }
+
+    /**
+     * Восстанавливает ходы партии из части массива
+     * @param data массив со сжатыми ходами
+     * @param offset начало сжатых ходов
+     * @param length длина сжатых ходов в байтах
+     * @param game список, в который записываются упакованные ходы (очищается)
+     * @throws IllegalArgumentException если данные повреждены
+     */
+    public void decode(byte[] data, int offset, int length, MoveList game) {
+        decode(data, offset, length, game, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Восстанавливает первые ходы партии из части массива
+     * Остальные ходы не разбираются, поэтому начало длинной партии восстанавливается быстро
+     * @param data массив со сжатыми ходами
+     * @param offset начало сжатых ходов
+     * @param length длина сжатых ходов в байтах
+     * @param game список, в который записываются упакованные ходы (очищается)
+     * @param maxPlies наибольшее количество восстанавливаемых полуходов
+     * @throws IllegalArgumentException если данные повреждены
+     */
+    public void decode(byte[] data, int offset, int length, MoveList game, int maxPlies) {
+
+        Objects.requireNonNull(data, "Данные не могут быть null.");
+        Objects.requireNonNull(game, "Список ходов не может быть null.");
+
+        int end = offset + length;
+        int plies = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (offset >= end || shift > 28)
+                throw new IllegalArgumentException("Поврежденная запись числа полуходов.");
+            b = data[offset++] & 0xFF;
+            plies |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+
+        plies = Math.min(plies, maxPlies);
+        game.clear();
+        long bit = (long) offset * 8;
+        long endBit = (long) end * 8;
+        try {
+            for (int ply = 0; ply < plies; ply++) {
+                int code = 0;
+                int symbol = -1;
+                for (int len = 1; len <= MAX_BITS; len++) {
+                    if (bit >= endBit)
+                        throw new IllegalArgumentException("Сжатые ходы обрываются на полуходе " + ply + ".");
+                    code = code << 1 | (data[(int) (bit >>> 3)] >> (7 - (int) (bit & 7)) & 1);
+                    bit++;
+                    int index = code - firstCode[len];
+                    if (index >= 0 && index < countByLength[len]) {
+                        symbol = sorted[offsetByLength[len] + index];
+                        break;
+                    }
+                }
+                if (symbol < 0)
+                    throw new IllegalArgumentException("Неизвестный код хода на полуходе " + ply + ".");
+                int move = moveAt(symbol);
+                pieces.doMove(move);
+                game.add(move);
+            }
+        }
+        finally {
+            undo(game, game.size());
+        }
+    }
+
+    /**
+     * Добавляет к частотам номера ходов партии (для сбора своей модели)
+     * @param game легальные упакованные ходы от начальной позиции
+     * @param counts частоты номеров длиной {@link #SYMBOLS}
+     * @throws IllegalArgumentException если ход нелегален в своей позиции
+     */
+    public void countIndices(MoveList game, long[] counts) {
+        Objects.requireNonNull(game, "Список ходов не может быть null.");
+        Objects.requireNonNull(counts, "Частоты не могут быть null.");
+        int played = 0;
+        try {
+            for (; played < game.size(); played++) {
+                int index = indexOf(game.get(played));
+                if (index < counts.length)
+                    counts[index]++;
+                pieces.doMove(game.get(played));
+            }
+        }
+        finally {
+            undo(game, played);
+        }
+    }
+
+    /**
+     * Получает длину кода номера хода
+     * @param index номер хода от 0 до {@link #SYMBOLS} - 1
+     * @return длина кода в битах
+     */
+    public int codeLength(int index) {
+        return lengths[index];
+    }
+
+    /**
+     * Находит номер хода в упорядоченном списке легальных ходов текущей позиции
+     * Легальность проверяется только у ходов, стоящих в порядке выше
+     * @param move упакованный ход
+     * @return номер хода
+     * @throws IllegalArgumentException если ход нелегален
+     */
+    private int indexOf(int move) {
+        generate();
+        int position = moves.indexOf(move);
+        if (position < 0 || !pieces.isLegal(move))
+            throw new IllegalArgumentException("Ход " + PackedMove.toString(move) + " нелегален в позиции.");
+        int score = scores[position];
+        int index = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            if ((scores[i] > score || scores[i] == score && i < position) && pieces.isLegal(moves.get(i)))
+                index++;
+        }
+        return index;
+    }
+
+    /**
+     * Находит легальный ход с указанным номером в упорядоченном списке текущей позиции
+     * Ходы выбираются по убыванию оценки, поэтому для частых малых номеров список не сортируется целиком
+     * @param index номер хода
+     * @return упакованный ход
+     * @throws IllegalArgumentException если легальных ходов меньше
+     */
+    private int moveAt(int index) {
+        generate();
+        int found = 0;
+        for (int picked = 0; picked < moves.size(); picked++) {
+            int best = 0;
+            for (int i = 1; i < moves.size(); i++) {
+                if (scores[i] > scores[best])
+                    best = i;
+            }
+            int move = moves.get(best);
+            scores[best] = Integer.MIN_VALUE;
+            if (pieces.isLegal(move) && found++ == index)
+                return move;
+        }
+        throw new IllegalArgumentException("В позиции нет легального хода с номером " + index + ".");
+    }
+
+    /**
+     * Генерирует ходы стороны, чья очередь хода, и оценивает их для упорядочивания
+     */
+    private void generate() {
+        pieces.generateMoves(pieces.getSideToMove(), MOVEGEN.ALL, moves);
+        if (scores.length < moves.size())
+            scores = new int[moves.size() * 2];
+        for (int i = 0; i < moves.size(); i++)
+            scores[i] = score(moves.get(i));
+    }
+
+    /**
+     * Оценивает ход для упорядочивания
+     * @param move упакованный ход
+     * @return чем больше, тем раньше ход в списке
+     */
+    private static int score(int move) {
+        ID promotion = PackedMove.promotion(move);
+        if (PackedMove.isCapture(move) || promotion != null) {
+            int score = CAPTURE_BONUS;
+            if (PackedMove.isCapture(move))
+                score += Evaluation.pieceValue(PackedMove.captured(move)) * 16 - Evaluation.pieceValue(PackedMove.piece(move));
+            if (promotion != null)
+                score += Evaluation.pieceValue(promotion) * 16;
+            return score;
+        }
+        return CENTER_DISTANCE[PackedMove.from(move)] - CENTER_DISTANCE[PackedMove.to(move)];
+    }
+
+    private void undo(MoveList game, int played) {
+        for (int i = played - 1; i >= 0; i--)
+            pieces.undoMove(game.get(i));
+    }
+
+    /**
+     * Строит канонический код Хаффмана; если коды выходят длиннее {@value #MAX_BITS} бит,
+     * частоты сглаживаются и код строится заново
+     * @param weights положительные веса символов
+     */
+    private void buildCode(long[] weights) {
+        while (!buildLengths(weights)) {
+            for (int i = 0; i < SYMBOLS; i++)
+                weights[i] = (weights[i] >> 1) + 1;
+        }
+
+        Integer[] order = new Integer[SYMBOLS];
+        for (int i = 0; i < SYMBOLS; i++)
+            order[i] = i;
+        Arrays.sort(order, (a, b) -> lengths[a] != lengths[b] ? lengths[a] - lengths[b] : a - b);
+
+        int code = 0;
+        int previous = 0;
+        for (int i = 0; i < SYMBOLS; i++) {
+            int symbol = order[i];
+            int len = lengths[symbol];
+            code <<= len - previous;
+            previous = len;
+            if (countByLength[len]++ == 0) {
+                firstCode[len] = code;
+                offsetByLength[len] = i;
+            }
+            sorted[i] = symbol;
+            codes[symbol] = code++;
+        }
+    }
+
+    /**
+     * Вычисляет длины кодов по весам
+     * @param weights положительные веса символов
+     * @return false если какая-то длина больше {@value #MAX_BITS}
+     */
+    private boolean buildLengths(long[] weights) {
+        int nodes = 2 * SYMBOLS - 1;
+        long[] weight = Arrays.copyOf(weights, nodes);
+        int[] parent = new int[nodes];
+        PriorityQueue<Integer> queue = new PriorityQueue<>(SYMBOLS,
+                (a, b) -> weight[a] != weight[b] ? Long.compare(weight[a], weight[b]) : a - b);
+        for (int i = 0; i < SYMBOLS; i++)
+            queue.add(i);
+        for (int next = SYMBOLS; next < nodes; next++) {
+            int a = queue.poll();
+            int b = queue.poll();
+            weight[next] = weight[a] + weight[b];
+            parent[a] = next;
+            parent[b] = next;
+            queue.add(next);
+        }
+
+        int[] depth = new int[nodes];
+        for (int node = nodes - 2; node >= 0; node--)
+            depth[node] = depth[parent[node]] + 1;
+        for (int i = 0; i < SYMBOLS; i++) {
+            if (depth[i] > MAX_BITS)
+                return false;
+            lengths[i] = depth[i];
+        }
+        return true;
+    }
+
+    /**
+     * Частоты по умолчанию: номер хода встречается тем реже, чем дальше он от начала списка
+     * @return частоты номеров
+     */
+    private static long[] defaultFrequencies() {
+        long[] frequencies = new long[SYMBOLS];
+        for (int i = 0; i < SYMBOLS; i++)
+            frequencies[i] = (1L << 24) / ((long) (i + 4) * (i + 4));
+        return frequencies;
+    }
+
+    /**
+     * Запись потока битов в растущий массив байтов
+     */
+    private static final class BitWriter {
+
+        private byte[] bytes;
+        private int size;
+        private long buffer;
+        private int bits;
+
+        BitWriter(int capacity) {
+            bytes = new byte[Math.max(8, capacity)];
+        }
+
+        void writeByte(int value) {
+            write(value & 0xFF, 8);
+        }
+
+        void write(int code, int length) {
+            buffer = buffer << length | code;
+            bits += length;
+            while (bits >= 8) {
+                bits -= 8;
+                put((int) (buffer >>> bits));
+            }
+        }
+
+        private void put(int value) {
+            if (size == bytes.length)
+                bytes = Arrays.copyOf(bytes, size * 2);
+            bytes[size++] = (byte) value;
+        }
+
+        byte[] toByteArray() {
+            if (bits > 0) {
+                put((int) (buffer << (8 - bits)));
+                bits = 0;
+            }
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+}
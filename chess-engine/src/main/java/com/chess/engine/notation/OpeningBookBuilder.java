@@ -0,0 +1,137 @@
+package com.chess.engine.notation;
+
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.logic.Pieces;
+import com.chess.engine.search.OpeningBook;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Класс построения дебютной книги ({@link OpeningBook}) по архиву партий
+ * Сначала по архиву строится дебютная таблица ({@link OpeningExplorer}), затем таблица обходится
+ * от начальной позиции по сыгранным ходам, чтобы знать, чей ход в каждой позиции.
+ * В книгу попадают ходы, сыгранные не менее чем в заданном числе партий и набравшие очки:
+ * вес хода - 2 очка за победу стороны, сделавшей ход, и 1 за ничью (при переполнении веса масштабируются),
+ * значение обучения - результат хода для этой стороны в промилле среди законченных партий.
+ */
+public class OpeningBookBuilder {
+
+    private final OpeningExplorer explorer;
+    private final int minGames;
+    private final Pieces pieces = new Pieces();
+    private final Set<Long> visited = new HashSet<>();
+    private long[] keys = new long[256];
+    private int[] moves = new int[keys.length];
+    private long[] scores = new long[keys.length];
+    private int[] learn = new int[keys.length];
+    private int size;
+
+    private OpeningBookBuilder(OpeningExplorer explorer, int minGames) {
+        this.explorer = explorer;
+        this.minGames = minGames;
+    }
+
+    /**
+     * Строит дебютную книгу по архиву партий
+     * @param archive путь к файлу данных архива партий
+     * @param book путь к файлу книги; существующий файл заменяется
+     * @param maxPly глубина книги в полуходах
+     * @param minGames наименьшее количество партий с ходом, чтобы он попал в книгу
+     * @param parallelism количество потоков построения дебютной таблицы
+     * @return количество записей книги
+     * @throws IOException если архив не удалось прочитать или книгу записать
+     * @throws IllegalArgumentException если глубина отрицательна, а количество партий или потоков не положительно
+     */
+    public static int build(Path archive, Path book, int maxPly, int minGames, int parallelism) throws IOException {
+
+        Objects.requireNonNull(book, "Путь к книге не может быть null.");
+        if (minGames <= 0)
+            throw new IllegalArgumentException("Наименьшее количество партий должно быть положительным.");
+
+        Path table = Files.createTempFile(book.toAbsolutePath().getParent(), "openings", ".tmp");
+        OpeningExplorer explorer;
+        try {
+            OpeningExplorer.build(archive, table, maxPly, parallelism);
+            explorer = OpeningExplorer.open(table);
+        }
+        finally {
+            Files.deleteIfExists(table);
+        }
+
+        OpeningBookBuilder builder = new OpeningBookBuilder(explorer, minGames);
+        builder.walk(0, maxPly);
+        return builder.write(book);
+    }
+
+    /**
+     * Обходит ходы таблицы из текущей позиции доски, каждую позицию один раз
+     * @param ply номер полухода текущей позиции
+     * @param maxPly глубина книги
+     */
+    private void walk(int ply, int maxPly) {
+        if (ply >= maxPly || !visited.add(pieces.getPosition().getKey()))
+            return;
+        COLOUR colour = pieces.getSideToMove();
+        for (OpeningExplorer.Child child : explorer.children(pieces.getPosition())) {
+            if (child.getGames() < minGames)
+                continue;
+            int wins = colour == COLOUR.W ? child.getWhiteWins() : child.getBlackWins();
+            int losses = colour == COLOUR.W ? child.getBlackWins() : child.getWhiteWins();
+            long score = 2L * wins + child.getDraws();
+            if (score > 0)
+                add(pieces.getPosition().getKey(), child.getMove(), score,
+                        (int) (score * 500 / (wins + losses + child.getDraws())));
+            pieces.doMove(child.getMove());
+            walk(ply + 1, maxPly);
+            pieces.undoMove(child.getMove());
+        }
+    }
+
+    private void add(long key, int move, long score, int moveLearn) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            moves = Arrays.copyOf(moves, size * 2);
+            scores = Arrays.copyOf(scores, size * 2);
+            learn = Arrays.copyOf(learn, size * 2);
+        }
+        keys[size] = key;
+        moves[size] = move;
+        scores[size] = score;
+        learn[size++] = moveLearn;
+    }
+
+    /**
+     * Сортирует ходы по ключу и ходу, масштабирует веса и записывает книгу
+     * @return количество записей
+     */
+    private int write(Path book) throws IOException {
+        long maxScore = 1;
+        for (int i = 0; i < size; i++)
+            maxScore = Math.max(maxScore, scores[i]);
+
+        long[] sortKeys = Arrays.copyOf(keys, size);
+        long[] order = new long[size];
+        for (int i = 0; i < size; i++)
+            order[i] = (long) moves[i] << 32 | i;
+        PositionIndex.sort(sortKeys, order, 0, size - 1);
+
+        int[] sortedMoves = new int[size];
+        int[] weights = new int[size];
+        int[] sortedLearn = new int[size];
+        for (int i = 0; i < size; i++) {
+            int entry = (int) order[i];
+            sortedMoves[i] = moves[entry];
+            long weight = maxScore > OpeningBook.MAX_WEIGHT ? scores[entry] * OpeningBook.MAX_WEIGHT / maxScore : scores[entry];
+            weights[i] = (int) Math.max(1, weight);
+            sortedLearn[i] = learn[entry];
+        }
+        OpeningBook.write(book, sortKeys, sortedMoves, weights, sortedLearn, size);
+        return size;
+    }
+}
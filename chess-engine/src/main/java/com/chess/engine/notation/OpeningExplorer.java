@@ -0,0 +1,484 @@
+package com.chess.engine.notation;
+
+import com.chess.engine.logic.MoveList;
+import com.chess.engine.logic.PackedMove;
+import com.chess.engine.logic.Pieces;
+import com.chess.engine.logic.Position;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Класс дебютной таблицы: для каждой позиции первых полуходов архива - сыгранные в ней ходы,
+ * количество партий и их результаты
+ * Таблица строится разбиением архива на отрезки в пуле fork-join: каждый отрезок разбирается своей доской
+ * ходами doMove без истории партии, счетчики пар (ключ позиции, ход) собираются в хеш-таблице
+ * на примитивных массивах, а таблицы отрезков сливаются при возврате задач.
+ * Файл таблицы состоит из заголовка и записей по {@value #ENTRY} байт, отсортированных по ключу и ходу:
+ * ключ, ход и количество партий с каждым результатом в порядке {@link GameRecord#RESULTS}.
+ * Открытая таблица целиком читается в память и потокобезопасна.
+ */
+public class OpeningExplorer {
+
+    /** Размер записи таблицы в байтах */
+    public static final int ENTRY = Long.BYTES + Integer.BYTES * (1 + 4);
+
+    private static final int MAGIC = 0x47434F45;
+    private static final int VERSION = 1;
+    private static final int HEADER = 28;
+    private static final int RESULTS = GameRecord.RESULTS.length;
+    private static final int UNFINISHED = 0;
+    private static final int WHITE = 1;
+    private static final int BLACK = 2;
+    private static final int DRAW = 3;
+    /** Количество партий, которые разбираются одной задачей без деления */
+    private static final int LEAF = 1024;
+    private static final int IO_BUFFER = 1 << 16;
+
+    private final long[] keys;
+    private final int[] moves;
+    private final int[] counts;
+    private final long games;
+    private final int maxPly;
+
+    private OpeningExplorer(long[] keys, int[] moves, int[] counts, long games, int maxPly) {
+        this.keys = keys;
+        this.moves = moves;
+        this.counts = counts;
+        this.games = games;
+        this.maxPly = maxPly;
+    }
+
+    /**
+     * Строит дебютную таблицу по архиву партий
+     * @param archive путь к файлу данных архива партий
+     * @param output путь к файлу таблицы; существующий файл заменяется
+     * @param maxPly количество первых полуходов каждой партии, попадающих в таблицу
+     * @param parallelism количество потоков пула
+     * @return количество записей таблицы
+     * @throws IOException если архив не удалось прочитать или таблицу записать
+     * @throws IllegalArgumentException если глубина отрицательна или количество потоков не положительно
+     */
+    public static int build(Path archive, Path output, int maxPly, int parallelism) throws IOException {
+        return build(archive, output, maxPly, parallelism, LEAF);
+    }
+
+    /**
+     * Строит дебютную таблицу с указанным размером неделимой задачи
+     * @param leaf количество партий, которые разбираются одной задачей без деления
+     */
+    static int build(Path archive, Path output, int maxPly, int parallelism, int leaf) throws IOException {
+
+        Objects.requireNonNull(archive, "Путь к архиву не может быть null.");
+        Objects.requireNonNull(output, "Путь к таблице не может быть null.");
+        if (maxPly < 0 || parallelism <= 0 || leaf <= 0)
+            throw new IllegalArgumentException("Глубина должна быть неотрицательной, а количество потоков положительным.");
+        if (!Files.exists(archive))
+            throw new NoSuchFileException(archive.toString());
+
+        long games;
+        try (GameArchive source = GameArchive.openReadOnly(archive)) {
+            games = source.size();
+        }
+
+        MoveCounts table;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            table = pool.invoke(new Replay(archive, maxPly, leaf, 0, games));
+        }
+        catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        finally {
+            pool.shutdownNow();
+        }
+        return table.write(output, maxPly, games);
+    }
+
+    /**
+     * Открывает дебютную таблицу
+     * @param file путь к файлу таблицы
+     * @return таблица
+     * @throws IOException если файл не удалось прочитать или он не является дебютной таблицей
+     */
+    public static OpeningExplorer open(Path file) throws IOException {
+
+        Objects.requireNonNull(file, "Путь к файлу не может быть null.");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            PositionIndex.readFully(channel, header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION)
+                throw new IOException("Файл не является дебютной таблицей версии " + VERSION + ".");
+            int maxPly = header.getInt();
+            long games = header.getLong();
+            long size = header.getLong();
+            if (size < 0 || size > Integer.MAX_VALUE || HEADER + size * ENTRY != channel.size())
+                throw new IOException("Дебютная таблица повреждена.");
+
+            long[] keys = new long[(int) size];
+            int[] moves = new int[(int) size];
+            int[] counts = new int[(int) size * RESULTS];
+            ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER - IO_BUFFER % ENTRY);
+            long position = HEADER;
+            int entry = 0;
+            while (entry < size) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), (size - entry) * ENTRY));
+                PositionIndex.readFully(channel, buffer, position);
+                position += buffer.limit();
+                buffer.flip();
+                for (; buffer.hasRemaining(); entry++) {
+                    keys[entry] = buffer.getLong();
+                    moves[entry] = buffer.getInt();
+                    for (int r = 0; r < RESULTS; r++)
+                        counts[entry * RESULTS + r] = buffer.getInt();
+                }
+            }
+            return new OpeningExplorer(keys, moves, counts, games, maxPly);
+        }
+    }
+
+    /**
+     * Получает ходы, сыгранные в позиции, по убыванию количества партий
+     * @param key ключ Зобриста позиции ({@link Position#getKey()})
+     * @return ходы со статистикой; пустой список, если позиции нет в таблице
+     */
+    public List<Child> children(long key) {
+        int from = lowerBound(key);
+        int to = from;
+        while (to < keys.length && keys[to] == key)
+            to++;
+        List<Child> children = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++)
+            children.add(new Child(moves[i], Arrays.copyOfRange(counts, i * RESULTS, (i + 1) * RESULTS)));
+        children.sort((a, b) -> a.getGames() != b.getGames() ? Long.compare(b.getGames(), a.getGames())
+                : Integer.compare(a.getMove(), b.getMove()));
+        return children;
+    }
+
+    /**
+     * Получает ходы, сыгранные в позиции, по убыванию количества партий
+     * @param position позиция
+     * @return ходы со статистикой
+     */
+    public List<Child> children(Position position) {
+        Objects.requireNonNull(position, "Позиция не может быть null.");
+        return children(position.getKey());
+    }
+
+    /**
+     * Получает количество записей таблицы
+     * @return количество пар (позиция, ход)
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Получает количество партий архива, по которому построена таблица
+     * @return количество партий
+     */
+    public long games() {
+        return games;
+    }
+
+    /**
+     * Получает глубину таблицы
+     * @return количество первых полуходов каждой партии, попавших в таблицу
+     */
+    public int getMaxPly() {
+        return maxPly;
+    }
+
+    private int lowerBound(long key) {
+        int from = 0;
+        int to = keys.length;
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (keys[middle] < key)
+                from = middle + 1;
+            else
+                to = middle;
+        }
+        return from;
+    }
+
+    /**
+     * Класс статистики хода в позиции
+     */
+    public static final class Child {
+
+        private final int move;
+        private final int[] counts;
+
+        private Child(int move, int[] counts) {
+            this.move = move;
+            this.counts = counts;
+        }
+
+        /**
+         * Получает ход
+         * @return упакованный ход
+         */
+        public int getMove() {
+            return move;
+        }
+
+        /**
+         * Получает количество партий с этим ходом
+         * @return количество партий
+         */
+        public long getGames() {
+            long games = 0;
+            for (int count : counts)
+                games += count;
+            return games;
+        }
+
+        /**
+         * Получает количество побед белых
+         * @return количество партий с результатом "1-0"
+         */
+        public int getWhiteWins() {
+            return counts[WHITE];
+        }
+
+        /**
+         * Получает количество ничьих
+         * @return количество партий с результатом "1/2-1/2"
+         */
+        public int getDraws() {
+            return counts[DRAW];
+        }
+
+        /**
+         * Получает количество побед черных
+         * @return количество партий с результатом "0-1"
+         */
+        public int getBlackWins() {
+            return counts[BLACK];
+        }
+
+        /**
+         * Получает процент побед белых среди законченных партий
+         * @return процент от 0 до 100; 0, если законченных партий нет
+         */
+        public double whitePercent() {
+            return percent(counts[WHITE]);
+        }
+
+        /**
+         * Получает процент ничьих среди законченных партий
+         * @return процент от 0 до 100; 0, если законченных партий нет
+         */
+        public double drawPercent() {
+            return percent(counts[DRAW]);
+        }
+
+        /**
+         * Получает процент побед черных среди законченных партий
+         * @return процент от 0 до 100; 0, если законченных партий нет
+         */
+        public double blackPercent() {
+            return percent(counts[BLACK]);
+        }
+
+        private double percent(int count) {
+            long finished = getGames() - counts[UNFINISHED];
+            return finished == 0 ? 0 : 100.0 * count / finished;
+        }
+
+        @Override
+        public String toString() {
+            return PackedMove.toString(move) + " " + getGames() + " (" + counts[WHITE] + "/"
+                    + counts[DRAW] + "/" + counts[BLACK] + ")";
+        }
+    }
+
+    /**
+     * Задача fork-join: делит отрезок номеров партий пополам, пока он не станет не больше неделимого
+     */
+    private static final class Replay extends RecursiveTask<MoveCounts> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Path archive;
+        private final int maxPly;
+        private final int leaf;
+        private final long from;
+        private final long to;
+
+        Replay(Path archive, int maxPly, int leaf, long from, long to) {
+            this.archive = archive;
+            this.maxPly = maxPly;
+            this.leaf = leaf;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected MoveCounts compute() {
+            if (to - from <= leaf) {
+                try {
+                    return scan();
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            long middle = (from + to) >>> 1;
+            Replay left = new Replay(archive, maxPly, leaf, from, middle);
+            left.fork();
+            MoveCounts right = new Replay(archive, maxPly, leaf, middle, to).compute();
+            MoveCounts joined = left.join();
+            // Меньшая таблица переливается в большую
+            if (joined.size < right.size) {
+                right.addAll(joined);
+                return right;
+            }
+            joined.addAll(right);
+            return joined;
+        }
+
+        private MoveCounts scan() throws IOException {
+            MoveCounts table = new MoveCounts();
+            if (from >= to)
+                return table;
+            Pieces pieces = new Pieces();
+            try (GameArchive source = GameArchive.openReadOnly(archive)) {
+                for (long id = from; id < to; id++) {
+                    GameRecord game = source.read(id, maxPly);
+                    int result = GameRecord.resultCode(game.getResult());
+                    MoveList played = game.getMoves();
+                    int ply = 0;
+                    try {
+                        for (; ply < played.size(); ply++) {
+                            table.add(pieces.getPosition().getKey(), played.get(ply), result);
+                            pieces.doMove(played.get(ply));
+                        }
+                    }
+                    finally {
+                        for (int i = ply - 1; i >= 0; i--)
+                            pieces.undoMove(played.get(i));
+                    }
+                }
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Хеш-таблица счетчиков пар (ключ позиции, ход) с открытой адресацией на примитивных массивах
+     * Пустая ячейка отмечается ходом {@link PackedMove#NONE}
+     */
+    private static final class MoveCounts {
+
+        private long[] keys = new long[1 << 10];
+        private int[] moves = new int[keys.length];
+        private int[] counts = new int[keys.length * RESULTS];
+        private int size;
+
+        void add(long key, int move, int result) {
+            addCount(key, move, result, 1);
+        }
+
+        void addAll(MoveCounts other) {
+            for (int slot = 0; slot < other.moves.length; slot++) {
+                if (other.moves[slot] == 0)
+                    continue;
+                for (int r = 0; r < RESULTS; r++) {
+                    int count = other.counts[slot * RESULTS + r];
+                    if (count != 0)
+                        addCount(other.keys[slot], other.moves[slot], r, count);
+                }
+            }
+        }
+
+        private void addCount(long key, int move, int result, int count) {
+            int slot = find(key, move);
+            if (moves[slot] == 0) {
+                keys[slot] = key;
+                moves[slot] = move;
+                if (++size * 2 > moves.length) {
+                    grow();
+                    slot = find(key, move);
+                }
+            }
+            counts[slot * RESULTS + result] += count;
+        }
+
+        private int find(long key, int move) {
+            int mask = moves.length - 1;
+            long hash = (key ^ move * 0x9E3779B97F4A7C15L) * 0xBF58476D1CE4E5B9L;
+            int slot = (int) (hash >>> 32) & mask;
+            while (moves[slot] != 0 && (moves[slot] != move || keys[slot] != key))
+                slot = (slot + 1) & mask;
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldMoves = moves;
+            int[] oldCounts = counts;
+            keys = new long[oldKeys.length * 2];
+            moves = new int[keys.length];
+            counts = new int[keys.length * RESULTS];
+            for (int slot = 0; slot < oldMoves.length; slot++) {
+                if (oldMoves[slot] == 0)
+                    continue;
+                int target = find(oldKeys[slot], oldMoves[slot]);
+                keys[target] = oldKeys[slot];
+                moves[target] = oldMoves[slot];
+                System.arraycopy(oldCounts, slot * RESULTS, counts, target * RESULTS, RESULTS);
+            }
+        }
+
+        /**
+         * Записывает счетчики в файл таблицы по возрастанию ключа и хода
+         * @return количество записей
+         */
+        int write(Path output, int maxPly, long games) throws IOException {
+            // Ход и номер ячейки упаковываются в одно число, чтобы сортировать пары примитивных массивов
+            long[] sortKeys = new long[size];
+            long[] slots = new long[size];
+            int n = 0;
+            for (int slot = 0; slot < moves.length; slot++) {
+                if (moves[slot] != 0) {
+                    sortKeys[n] = keys[slot];
+                    slots[n++] = (long) moves[slot] << 32 | slot;
+                }
+            }
+            PositionIndex.sort(sortKeys, slots, 0, n - 1);
+
+            try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER);
+                buffer.putInt(MAGIC).putInt(VERSION).putInt(maxPly).putLong(games).putLong(n);
+                for (int i = 0; i < n; i++) {
+                    if (buffer.remaining() < ENTRY)
+                        PositionIndex.drain(channel, buffer);
+                    int slot = (int) slots[i];
+                    buffer.putLong(keys[slot]).putInt(moves[slot]);
+                    for (int r = 0; r < RESULTS; r++)
+                        buffer.putInt(counts[slot * RESULTS + r]);
+                }
+                PositionIndex.drain(channel, buffer);
+            }
+            return n;
+        }
+    }
+}
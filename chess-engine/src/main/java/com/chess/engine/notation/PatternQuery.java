@@ -0,0 +1,108 @@
+package com.chess.engine.notation;
+
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.enums.ID;
+import com.chess.engine.logic.Coordinate;
+import com.chess.engine.logic.Position;
+import com.chess.engine.logic.SquareSet;
+import com.chess.engine.pieces.PieceKind;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Класс запроса по расстановке фигур, например "белый жираф на e5 и черный король на 10-й горизонтали"
+ * Условие на поле требует фигуру указанного вида на этом поле, условие на множество полей -
+ * хотя бы одну такую фигуру на одном из полей. Все условия должны выполняться одновременно.
+ * Проверка позиции - это несколько операций И над множествами полей: сначала занятые поля каждого цвета
+ * сравниваются со всеми полями условий, что отбрасывает большинство позиций, затем проверяются поля видов фигур.
+ * Условия добавляются цепочкой вызовов; после начала поиска запрос не изменяется.
+ */
+public class PatternQuery {
+
+    /** Поля, на которых должна стоять фигура каждого вида */
+    private final SquareSet[] exact = new SquareSet[PieceKind.count()];
+    /** Все поля условий на поле для каждого цвета */
+    private final SquareSet[] required = {new SquareSet(), new SquareSet()};
+    private PieceKind[] anyKinds = new PieceKind[0];
+    private SquareSet[] anySquares = new SquareSet[0];
+    private int[] exactKinds = new int[0];
+
+    /**
+     * Конструктор пустого запроса, которому подходит любая позиция
+     */
+    public PatternQuery() {
+    }
+
+    /**
+     * Добавляет условие: на поле стоит фигура указанного типа и цвета
+     * @param name тип фигуры
+     * @param colour цвет фигуры
+     * @param coordinate поле
+     * @return этот же запрос
+     * @throws IllegalArgumentException если поле вне доски
+     */
+    public PatternQuery require(ID name, COLOUR colour, Coordinate coordinate) {
+        Objects.requireNonNull(coordinate, "Координата не может быть null.");
+        if (!Coordinate.inBoard(coordinate))
+            throw new IllegalArgumentException("Поле " + coordinate + " находится вне доски.");
+        PieceKind kind = PieceKind.of(colour, name);
+        if (exact[kind.index()] == null) {
+            exact[kind.index()] = new SquareSet();
+            exactKinds = Arrays.copyOf(exactKinds, exactKinds.length + 1);
+            exactKinds[exactKinds.length - 1] = kind.index();
+        }
+        exact[kind.index()].add(coordinate);
+        required[colour.ordinal()].add(coordinate);
+        return this;
+    }
+
+    /**
+     * Добавляет условие: хотя бы на одном из полей стоит фигура указанного типа и цвета
+     * @param name тип фигуры
+     * @param colour цвет фигуры
+     * @param squares множество полей, например {@link SquareSet#rank(int)}
+     * @return этот же запрос
+     * @throws IllegalArgumentException если множество полей пусто
+     */
+    public PatternQuery requireAny(ID name, COLOUR colour, SquareSet squares) {
+        Objects.requireNonNull(squares, "Множество полей не может быть null.");
+        if (squares.isEmpty())
+            throw new IllegalArgumentException("Множество полей условия не может быть пустым.");
+        anyKinds = Arrays.copyOf(anyKinds, anyKinds.length + 1);
+        anyKinds[anyKinds.length - 1] = PieceKind.of(colour, name);
+        anySquares = Arrays.copyOf(anySquares, anySquares.length + 1);
+        anySquares[anySquares.length - 1] = new SquareSet(squares);
+        return this;
+    }
+
+    /**
+     * Проверяет, подходит ли позиция под запрос
+     * @param position позиция
+     * @return true если выполняются все условия
+     */
+    public boolean matches(Position position) {
+        if (!position.occupied(COLOUR.W).containsAll(required[COLOUR.W.ordinal()])
+                || !position.occupied(COLOUR.B).containsAll(required[COLOUR.B.ordinal()]))
+            return false;
+        for (int kind : exactKinds) {
+            if (!position.pieces(PieceKind.byIndex(kind)).containsAll(exact[kind]))
+                return false;
+        }
+        for (int i = 0; i < anyKinds.length; i++) {
+            if (!position.pieces(anyKinds[i]).intersects(anySquares[i]))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder str = new StringBuilder();
+        for (int kind : exactKinds)
+            str.append(PieceKind.byIndex(kind)).append(" на ").append(exact[kind]).append("; ");
+        for (int i = 0; i < anyKinds.length; i++)
+            str.append(anyKinds[i]).append(" на одном из ").append(anySquares[i]).append("; ");
+        return str.toString();
+    }
+}
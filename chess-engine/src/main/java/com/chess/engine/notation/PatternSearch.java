@@ -0,0 +1,126 @@
+package com.chess.engine.notation;
+
+import com.chess.engine.logic.MoveList;
+import com.chess.engine.logic.Pieces;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Класс поиска позиций по расстановке фигур ({@link PatternQuery}) в архиве партий
+ * Архив делится на отрезки подряд идущих номеров партий, отрезки разбираются параллельно,
+ * каждый своим объектом архива и своей доской. Все позиции партии от начальной до последней
+ * проверяются запросом, найденные вхождения упаковываются так же, как в {@link PositionIndex}.
+ */
+public class PatternSearch {
+
+    /** Количество отрезков архива на один поток, чтобы потоки заканчивали работу примерно вместе */
+    private static final int SEGMENTS_PER_THREAD = 4;
+
+    private PatternSearch() {
+    }
+
+    /**
+     * Находит все позиции архива, подходящие под запрос
+     * @param archive путь к файлу данных архива партий
+     * @param query запрос
+     * @param threads количество потоков
+     * @return вхождения по возрастанию номера партии и полухода;
+     * разбираются {@link PositionIndex#game} и {@link PositionIndex#ply}
+     * @throws IOException если архив не удалось прочитать
+     * @throws IllegalArgumentException если количество потоков не положительно
+     */
+    public static long[] search(Path archive, PatternQuery query, int threads) throws IOException {
+
+        Objects.requireNonNull(archive, "Путь к архиву не может быть null.");
+        Objects.requireNonNull(query, "Запрос не может быть null.");
+        if (threads <= 0)
+            throw new IllegalArgumentException("Количество потоков должно быть положительным.");
+        if (!Files.exists(archive))
+            throw new NoSuchFileException(archive.toString());
+
+        long games;
+        try (GameArchive source = GameArchive.openReadOnly(archive)) {
+            games = source.size();
+        }
+        long segment = Math.max(1, (games + (long) threads * SEGMENTS_PER_THREAD - 1) / ((long) threads * SEGMENTS_PER_THREAD));
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<long[]>> parts = new ArrayList<>();
+            for (long first = 0; first < games; first += segment) {
+                long from = first;
+                long to = Math.min(games, first + segment);
+                parts.add(pool.submit(() -> scan(archive, query, from, to)));
+            }
+
+            long[][] found = new long[parts.size()][];
+            int total = 0;
+            for (int i = 0; i < found.length; i++) {
+                found[i] = PositionIndex.await(parts.get(i));
+                total += found[i].length;
+            }
+            long[] result = new long[total];
+            int size = 0;
+            for (long[] part : found) {
+                System.arraycopy(part, 0, result, size, part.length);
+                size += part.length;
+            }
+            return result;
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Проверяет позиции партий одного отрезка архива, открытого только для чтения
+     * @param from номер первой партии отрезка
+     * @param to номер партии после отрезка
+     * @return вхождения отрезка по возрастанию
+     */
+    private static long[] scan(Path archive, PatternQuery query, long from, long to) throws IOException {
+
+        long[] found = new long[16];
+        int size = 0;
+        Pieces pieces = new Pieces();
+
+        try (GameArchive source = GameArchive.openReadOnly(archive)) {
+            for (long id = from; id < to; id++) {
+                if (Thread.currentThread().isInterrupted())
+                    throw new InterruptedIOException("Поиск прерван.");
+                MoveList moves = source.read(id).getMoves();
+                int plies = Math.min(moves.size(), PositionIndex.MAX_PLY);
+                int played = 0;
+                try {
+                    for (int ply = 0; ply <= plies; ply++) {
+                        if (query.matches(pieces.getPosition())) {
+                            if (size == found.length)
+                                found = Arrays.copyOf(found, size * 2);
+                            found[size++] = PositionIndex.occurrence(id, ply);
+                        }
+                        if (ply < plies) {
+                            pieces.doMove(moves.get(ply));
+                            played++;
+                        }
+                    }
+                }
+                finally {
+                    for (int i = played - 1; i >= 0; i--)
+                        pieces.undoMove(moves.get(i));
+                }
+            }
+        }
+        return Arrays.copyOf(found, size);
+    }
+}
@@ -0,0 +1,535 @@
+package com.chess.engine.notation;
+
+import com.chess.engine.logic.MoveList;
+import com.chess.engine.logic.Pieces;
+import com.chess.engine.logic.Position;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Класс указателя позиций архива партий: по ключу Зобриста позиции находятся все партии,
+ * в которых она встретилась, и номера полуходов
+ * Файл указателя состоит из заголовка, записей по {@value #ENTRY} байт (ключ позиции и вхождение),
+ * отсортированных по ключу, и каталога блоков - первых ключей каждых {@value #BLOCK} записей.
+ * Каталог читается в память при открытии, записи отображаются в память, поэтому поиск - это двоичный поиск
+ * по каталогу и одному блоку и чтение подряд идущих записей.
+ * Указатель строится внешней сортировкой: несколько потоков разбирают партии архива,
+ * сортируют записи порциями и пишут их во временные файлы, затем порции сливаются в один файл.
+ * Открытый указатель только читается и потокобезопасен.
+ */
+public class PositionIndex implements Closeable {
+
+    /** Размер записи указателя в байтах */
+    public static final int ENTRY = 16;
+    /** Количество записей в блоке каталога */
+    public static final int BLOCK = 256;
+    /** Наибольшая глубина указателя в полуходах */
+    public static final int MAX_PLY = 0xFFFF;
+
+    private static final int MAGIC = 0x47435049;
+    private static final int VERSION = 1;
+    private static final int HEADER = 32;
+    private static final int PLY_BITS = 16;
+    private static final int SEGMENT_SHIFT = 26;
+    private static final int SEGMENT_ENTRIES = 1 << SEGMENT_SHIFT;
+    private static final int DEFAULT_RUN = 1 << 20;
+    private static final int IO_BUFFER = 1 << 16;
+
+    private final MappedByteBuffer[] segments;
+    private final long[] blockKeys;
+    private final long entries;
+    private final long games;
+    private final int maxPly;
+
+    private PositionIndex(MappedByteBuffer[] segments, long[] blockKeys, long entries, long games, int maxPly) {
+        this.segments = segments;
+        this.blockKeys = blockKeys;
+        this.entries = entries;
+        this.games = games;
+        this.maxPly = maxPly;
+    }
+
+    /**
+     * Строит указатель позиций архива
+     * @param archive путь к файлу данных архива партий
+     * @param output путь к файлу указателя; существующий файл заменяется
+     * @param maxPly глубина указателя: записываются позиции от начальной до полухода maxPly включительно
+     * @param threads количество потоков разбора партий
+     * @return количество записей в указателе
+     * @throws IOException если архив не удалось прочитать или указатель записать
+     * @throws IllegalArgumentException если глубина или количество потоков вне допустимых значений
+     */
+    public static long build(Path archive, Path output, int maxPly, int threads) throws IOException {
+        return build(archive, output, maxPly, threads, DEFAULT_RUN);
+    }
+
+    /**
+     * Строит указатель позиций архива с указанным размером порции сортировки
+     * @param runEntries количество записей, сортируемых в памяти одним потоком
+     */
+    static long build(Path archive, Path output, int maxPly, int threads, int runEntries) throws IOException {
+
+        Objects.requireNonNull(archive, "Путь к архиву не может быть null.");
+        Objects.requireNonNull(output, "Путь к указателю не может быть null.");
+        if (maxPly < 0 || maxPly > MAX_PLY)
+            throw new IllegalArgumentException("Глубина указателя должна быть от 0 до " + MAX_PLY + ".");
+        if (threads <= 0 || runEntries <= 0)
+            throw new IllegalArgumentException("Количество потоков и размер порции должны быть положительными.");
+        if (!Files.exists(archive))
+            throw new NoSuchFileException(archive.toString());
+
+        long games;
+        try (GameArchive source = GameArchive.openReadOnly(archive)) {
+            games = source.size();
+        }
+
+        Path parent = output.toAbsolutePath().getParent();
+        Path temp = Files.createTempDirectory(parent, "positions");
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Path> runs = new ArrayList<>();
+        try {
+            AtomicLong next = new AtomicLong();
+            List<Future<List<Path>>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++)
+                workers.add(pool.submit(() -> collect(archive, temp, maxPly, runEntries, next, games)));
+            for (Future<List<Path>> worker : workers)
+                runs.addAll(await(worker));
+
+            Path partial = temp.resolve("index.tmp");
+            long written = merge(runs, partial, maxPly, games);
+            Files.move(partial, output, StandardCopyOption.REPLACE_EXISTING);
+            return written;
+        }
+        finally {
+            pool.shutdownNow();
+            try (Stream<Path> files = Files.list(temp)) {
+                for (Path file : (Iterable<Path>) files::iterator)
+                    Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Открывает указатель позиций
+     * @param file путь к файлу указателя
+     * @return открытый указатель
+     * @throws IOException если файл не удалось прочитать или он не является указателем позиций
+     */
+    public static PositionIndex open(Path file) throws IOException {
+
+        Objects.requireNonNull(file, "Путь к файлу не может быть null.");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            readFully(channel, header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION)
+                throw new IOException("Файл не является указателем позиций версии " + VERSION + ".");
+            int maxPly = header.getInt();
+            int block = header.getInt();
+            long entries = header.getLong();
+            long games = header.getLong();
+            long blocks = (entries + BLOCK - 1) / BLOCK;
+            if (block != BLOCK || entries < 0 || HEADER + entries * ENTRY + blocks * Long.BYTES != channel.size())
+                throw new IOException("Указатель позиций поврежден.");
+
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((entries + SEGMENT_ENTRIES - 1) >> SEGMENT_SHIFT)];
+            for (int i = 0; i < segments.length; i++) {
+                long first = (long) i << SEGMENT_SHIFT;
+                long size = Math.min(SEGMENT_ENTRIES, entries - first) * ENTRY;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER + first * ENTRY, size);
+            }
+
+            ByteBuffer directory = ByteBuffer.allocate((int) (blocks * Long.BYTES));
+            readFully(channel, directory, HEADER + entries * ENTRY);
+            directory.flip();
+            long[] blockKeys = new long[(int) blocks];
+            directory.asLongBuffer().get(blockKeys);
+            return new PositionIndex(segments, blockKeys, entries, games, maxPly);
+        }
+    }
+
+    /**
+     * Находит все вхождения позиции
+     * @param key ключ Зобриста позиции ({@link Position#getKey()})
+     * @return вхождения по возрастанию номера партии и полухода; разбираются {@link #game} и {@link #ply}
+     */
+    public long[] find(long key) {
+
+        int block = lowerBound(blockKeys, key);
+        long from = Math.max(block - 1, 0) * (long) BLOCK;
+        long to = Math.min((long) block * BLOCK, entries);
+        while (from < to) {
+            long middle = (from + to) >>> 1;
+            if (keyAt(middle) < key)
+                from = middle + 1;
+            else
+                to = middle;
+        }
+
+        long end = from;
+        while (end < entries && keyAt(end) == key)
+            end++;
+        long[] found = new long[(int) (end - from)];
+        for (int i = 0; i < found.length; i++)
+            found[i] = occurrenceAt(from + i);
+        return found;
+    }
+
+    /**
+     * Находит все вхождения позиции
+     * @param position позиция
+     * @return вхождения по возрастанию номера партии и полухода
+     */
+    public long[] find(Position position) {
+        Objects.requireNonNull(position, "Позиция не может быть null.");
+        return find(position.getKey());
+    }
+
+    /**
+     * Упаковывает вхождение позиции
+     * @param game номер партии
+     * @param ply номер полухода от 0 до {@value #MAX_PLY}
+     * @return вхождение
+     */
+    static long occurrence(long game, int ply) {
+        return game << PLY_BITS | ply;
+    }
+
+    /**
+     * Получает номер партии вхождения
+     * @param occurrence вхождение из {@link #find}
+     * @return номер партии в архиве
+     */
+    public static long game(long occurrence) {
+        return occurrence >>> PLY_BITS;
+    }
+
+    /**
+     * Получает номер полухода вхождения: 0 - начальная позиция, n - позиция после n-го полухода
+     * @param occurrence вхождение из {@link #find}
+     * @return номер полухода
+     */
+    public static int ply(long occurrence) {
+        return (int) (occurrence & MAX_PLY);
+    }
+
+    /**
+     * Получает количество записей указателя
+     * @return количество записей
+     */
+    public long size() {
+        return entries;
+    }
+
+    /**
+     * Получает количество партий архива, по которому построен указатель
+     * @return количество партий
+     */
+    public long games() {
+        return games;
+    }
+
+    /**
+     * Получает глубину указателя
+     * @return наибольший номер записанного полухода
+     */
+    public int getMaxPly() {
+        return maxPly;
+    }
+
+    /**
+     * Закрывает указатель; отображение файла освобождается сборщиком мусора
+     */
+    @Override
+    public void close() {
+        Arrays.fill(segments, null);
+    }
+
+    private long keyAt(long entry) {
+        return segments[(int) (entry >>> SEGMENT_SHIFT)].getLong((int) (entry & (SEGMENT_ENTRIES - 1)) * ENTRY);
+    }
+
+    private long occurrenceAt(long entry) {
+        return segments[(int) (entry >>> SEGMENT_SHIFT)].getLong((int) (entry & (SEGMENT_ENTRIES - 1)) * ENTRY + Long.BYTES);
+    }
+
+    private static int lowerBound(long[] keys, long key) {
+        int from = 0;
+        int to = keys.length;
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (keys[middle] < key)
+                from = middle + 1;
+            else
+                to = middle;
+        }
+        return from;
+    }
+
+    /**
+     * Разбирает партии архива, пока они не закончатся, и пишет отсортированные порции записей
+     * Каждый поток открывает архив сам только для чтения, потому что чтение общего архива синхронизировано
+     * @return пути к файлам порций
+     */
+    private static List<Path> collect(Path archive, Path temp, int maxPly, int runEntries,
+                                      AtomicLong next, long games) throws IOException {
+
+        List<Path> runs = new ArrayList<>();
+        long[] keys = new long[runEntries];
+        long[] occurrences = new long[runEntries];
+        int size = 0;
+        Pieces pieces = new Pieces();
+
+        try (GameArchive source = GameArchive.openReadOnly(archive)) {
+            for (long id = next.getAndIncrement(); id < games; id = next.getAndIncrement()) {
+                if (Thread.currentThread().isInterrupted())
+                    throw new InterruptedIOException("Построение указателя прервано.");
+                MoveList moves = source.read(id, maxPly).getMoves();
+                int plies = moves.size();
+                int played = 0;
+                try {
+                    for (int ply = 0; ply <= plies; ply++) {
+                        if (size == runEntries) {
+                            runs.add(writeRun(temp, keys, occurrences, size));
+                            size = 0;
+                        }
+                        keys[size] = pieces.getPosition().getKey();
+                        occurrences[size++] = occurrence(id, ply);
+                        if (ply < plies) {
+                            pieces.doMove(moves.get(ply));
+                            played++;
+                        }
+                    }
+                }
+                finally {
+                    for (int i = played - 1; i >= 0; i--)
+                        pieces.undoMove(moves.get(i));
+                }
+            }
+        }
+        if (size > 0)
+            runs.add(writeRun(temp, keys, occurrences, size));
+        return runs;
+    }
+
+    private static Path writeRun(Path temp, long[] keys, long[] occurrences, int size) throws IOException {
+        sort(keys, occurrences, 0, size - 1);
+        Path run = Files.createTempFile(temp, "run", ".tmp");
+        try (FileChannel channel = FileChannel.open(run, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER);
+            for (int i = 0; i < size; i++) {
+                if (buffer.remaining() < ENTRY)
+                    drain(channel, buffer);
+                buffer.putLong(keys[i]).putLong(occurrences[i]);
+            }
+            drain(channel, buffer);
+        }
+        return run;
+    }
+
+    /**
+     * Сливает отсортированные порции в файл указателя
+     * @return количество записей
+     */
+    private static long merge(List<Path> runs, Path output, int maxPly, long games) throws IOException {
+
+        List<RunReader> readers = new ArrayList<>();
+        PriorityQueue<RunReader> queue = new PriorityQueue<>(Math.max(1, runs.size()),
+                (a, b) -> compare(a.key, a.occurrence, b.key, b.occurrence));
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Path run : runs) {
+                RunReader reader = new RunReader(FileChannel.open(run, StandardOpenOption.READ));
+                readers.add(reader);
+                if (reader.next())
+                    queue.add(reader);
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER);
+            buffer.position(HEADER);
+            long[] blockKeys = new long[16];
+            long entries = 0;
+            while (!queue.isEmpty()) {
+                RunReader reader = queue.poll();
+                if (entries % BLOCK == 0) {
+                    int block = (int) (entries / BLOCK);
+                    if (block == blockKeys.length)
+                        blockKeys = Arrays.copyOf(blockKeys, block * 2);
+                    blockKeys[block] = reader.key;
+                }
+                if (buffer.remaining() < ENTRY)
+                    drain(channel, buffer);
+                buffer.putLong(reader.key).putLong(reader.occurrence);
+                entries++;
+                if (reader.next())
+                    queue.add(reader);
+            }
+
+            int blocks = (int) ((entries + BLOCK - 1) / BLOCK);
+            for (int i = 0; i < blocks; i++) {
+                if (buffer.remaining() < Long.BYTES)
+                    drain(channel, buffer);
+                buffer.putLong(blockKeys[i]);
+            }
+            drain(channel, buffer);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            header.putInt(MAGIC).putInt(VERSION).putInt(maxPly).putInt(BLOCK).putLong(entries).putLong(games).flip();
+            while (header.hasRemaining())
+                channel.write(header, header.position());
+            channel.force(false);
+            return entries;
+        }
+        finally {
+            for (RunReader reader : readers)
+                reader.channel.close();
+        }
+    }
+
+    private static int compare(long keyA, long occurrenceA, long keyB, long occurrenceB) {
+        int order = Long.compare(keyA, keyB);
+        return order != 0 ? order : Long.compare(occurrenceA, occurrenceB);
+    }
+
+    /**
+     * Быстрая сортировка пар (ключ, значение) в двух массивах без упаковки в объекты
+     * Пары упорядочиваются по ключу, при равных ключах - по значению
+     * @param low первый сортируемый номер
+     * @param high последний сортируемый номер включительно
+     */
+    static void sort(long[] keys, long[] occurrences, int low, int high) {
+        while (high - low > 16) {
+            int middle = (low + high) >>> 1;
+            long pivotKey = keys[middle];
+            long pivotOccurrence = occurrences[middle];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (compare(keys[i], occurrences[i], pivotKey, pivotOccurrence) < 0)
+                    i++;
+                while (compare(keys[j], occurrences[j], pivotKey, pivotOccurrence) > 0)
+                    j--;
+                if (i <= j)
+                    swap(keys, occurrences, i++, j--);
+            }
+            // Рекурсия по меньшей части ограничивает глубину стека
+            if (j - low < high - i) {
+                sort(keys, occurrences, low, j);
+                low = i;
+            }
+            else {
+                sort(keys, occurrences, i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && compare(keys[j - 1], occurrences[j - 1], keys[j], occurrences[j]) > 0; j--)
+                swap(keys, occurrences, j - 1, j);
+        }
+    }
+
+    private static void swap(long[] keys, long[] occurrences, int i, int j) {
+        long key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        long occurrence = occurrences[i];
+        occurrences[i] = occurrences[j];
+        occurrences[j] = occurrence;
+    }
+
+    /**
+     * Ждет результата задачи, разворачивая ошибку задачи в исходное исключение
+     * @param worker задача
+     * @return результат задачи
+     * @throws IOException если задача завершилась ошибкой ввода-вывода или ожидание прервано
+     */
+    static <T> T await(Future<T> worker) throws IOException {
+        try {
+            return worker.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Построение указателя прервано.");
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+                throw (IOException) cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0)
+                throw new EOFException("Неожиданный конец файла указателя.");
+            position += read;
+        }
+    }
+
+    /**
+     * Последовательное чтение порции с буфером
+     */
+    private static final class RunReader {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER);
+        private long key;
+        private long occurrence;
+
+        RunReader(FileChannel channel) {
+            this.channel = channel;
+            buffer.flip();
+        }
+
+        boolean next() throws IOException {
+            if (buffer.remaining() < ENTRY) {
+                buffer.compact();
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0)
+                        break;
+                }
+                buffer.flip();
+                if (buffer.remaining() < ENTRY)
+                    return false;
+            }
+            key = buffer.getLong();
+            occurrence = buffer.getLong();
+            return true;
+        }
+    }
+}
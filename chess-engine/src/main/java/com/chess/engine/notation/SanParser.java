@@ -0,0 +1,250 @@
+package com.chess.engine.notation;
+
+import com.chess.engine.enums.BOARD;
+import com.chess.engine.enums.ID;
+import com.chess.engine.enums.MOVEGEN;
+import com.chess.engine.logic.Castling;
+import com.chess.engine.logic.Coordinate;
+import com.chess.engine.logic.MoveList;
+import com.chess.engine.logic.PackedMove;
+import com.chess.engine.logic.Pieces;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Класс для чтения ходов в короткой алгебраической нотации (SAN) варианта 10x10
+ * Понимает буквы всех фигур (K, Q, R, B, N, V, W, G), двузначные горизонтали,
+ * уточнение поля отправления, взятия, превращения ("c10=G" и "c10G"), рокировки и знаки "+", "#", "!", "?".
+ * Псевдолегальные ходы позиции строятся один раз в {@link #index(Pieces)} и раскладываются по полям назначения,
+ * после чего {@link #parse(CharSequence)} разбирает строку без создания объектов. Легальность проверяется
+ * только у ходов, подходящих под запись, поэтому разбор хода стоит одной-двух проверок, а не проверки всех ходов.
+ * Объект не потокобезопасен: на каждый поток чтения нужен свой разборщик.
+ */
+public class SanParser {
+
+    private static final int RANKS = Coordinate.SQUARES / Coordinate.WIDTH;
+
+    private final MoveList generated = new MoveList();
+    private Pieces pieces;
+    /** Первый ход в списке ходов на каждое поле назначения или -1 */
+    private final int[] firstByTarget = new int[Coordinate.SQUARES];
+    /** Следующий ход на то же поле назначения или -1 (по номеру хода в списке) */
+    private int[] nextByTarget = new int[0];
+
+    /**
+     * Строит указатель ходов стороны, чья очередь хода
+     * Вызывается один раз на позицию перед разбором ходов этой позиции; доска запоминается
+     * для проверки легальности и не должна меняться до следующего вызова
+     * @param pieces доска в текущей позиции
+     */
+    public void index(Pieces pieces) {
+
+        this.pieces = Objects.requireNonNull(pieces, "Доска не может быть null.");
+
+        pieces.generateMoves(pieces.getSideToMove(), MOVEGEN.ALL, generated);
+        if (nextByTarget.length < generated.size())
+            nextByTarget = new int[generated.size()];
+        Arrays.fill(firstByTarget, -1);
+        // Обход с конца сохраняет в цепочках порядок генерации
+        for (int i = generated.size() - 1; i >= 0; i--) {
+            int to = PackedMove.to(generated.get(i));
+            nextByTarget[i] = firstByTarget[to];
+            firstByTarget[to] = i;
+        }
+    }
+
+    /**
+     * Находит легальный ход, записанный строкой
+     * @param san запись хода
+     * @return упакованный ход или {@link PackedMove#NONE}, если запись не разобрана,
+     * не соответствует ни одному легальному ходу или соответствует нескольким
+     */
+    public int parse(CharSequence san) {
+        Objects.requireNonNull(san, "Запись хода не может быть null.");
+        return parse(san, 0, san.length());
+    }
+
+    /**
+     * Находит легальный ход, записанный в части строки (например, в буфере прочитанной партии)
+     * Превращение без указанной фигуры считается превращением в ферзя, знак взятия не обязателен
+     * @param san строка с записью хода
+     * @param start индекс первого символа записи
+     * @param end индекс после последнего символа записи
+     * @return упакованный ход или {@link PackedMove#NONE}
+     */
+    public int parse(CharSequence san, int start, int end) {
+
+        while (end > start && isSuffix(san.charAt(end - 1)))
+            end--;
+        if (end <= start)
+            return PackedMove.NONE;
+
+        char first = san.charAt(start);
+        if (first == 'O' || first == '0')
+            return parseCastling(san, start, end);
+
+        ID promotion = null;
+        ID letter = pieceLetter(san.charAt(end - 1));
+        if (letter != null && end - start > 2) {
+            promotion = letter;
+            end--;
+            if (san.charAt(end - 1) == '=')
+                end--;
+        }
+
+        // Поле назначения: вертикаль и одна или две цифры горизонтали
+        int rankEnd = end;
+        while (end > start && isDigit(san.charAt(end - 1)) && rankEnd - end < 2)
+            end--;
+        int toRank = readRank(san, end, rankEnd);
+        if (toRank < 0 || end <= start || !isFile(san.charAt(end - 1)))
+            return PackedMove.NONE;
+        end--;
+        int to = file(san.charAt(end)) + toRank * Coordinate.WIDTH;
+
+        ID piece = pieceLetter(first);
+        int pos = start;
+        if (piece != null)
+            pos++;
+        else
+            piece = ID.PAWN;
+
+        // Уточнение поля отправления: вертикаль и (или) горизонталь, затем необязательный знак взятия
+        int fromFile = -1;
+        int fromRank = -1;
+        if (pos < end && isFile(san.charAt(pos)))
+            fromFile = file(san.charAt(pos++));
+        int rankStart = pos;
+        while (pos < end && isDigit(san.charAt(pos)) && pos - rankStart < 2)
+            pos++;
+        if (pos > rankStart) {
+            fromRank = readRank(san, rankStart, pos);
+            if (fromRank < 0)
+                return PackedMove.NONE;
+        }
+        if (pos < end && (san.charAt(pos) == 'x' || san.charAt(pos) == ':'))
+            pos++;
+        if (pos != end)
+            return PackedMove.NONE;
+
+        if (pieces == null)
+            throw new IllegalStateException("Указатель ходов не построен: сначала вызовите index.");
+
+        int found = PackedMove.NONE;
+        for (int i = firstByTarget[to]; i >= 0; i = nextByTarget[i]) {
+            int move = generated.get(i);
+            int from = PackedMove.from(move);
+            if (PackedMove.piece(move) != piece || PackedMove.hasFlag(move, PackedMove.CASTLING)
+                    || (fromFile >= 0 && from % Coordinate.WIDTH != fromFile)
+                    || (fromRank >= 0 && from / Coordinate.WIDTH != fromRank))
+                continue;
+            if (PackedMove.isPromotion(move) && PackedMove.promotion(move) != (promotion == null ? ID.QUEEN : promotion))
+                continue;
+            if (!PackedMove.isPromotion(move) && promotion != null)
+                continue;
+            if (!pieces.isLegal(move))
+                continue;
+            if (found != PackedMove.NONE)
+                return PackedMove.NONE;
+            found = move;
+        }
+        return found;
+    }
+
+    /**
+     * Разбирает строку и сразу находит ход в позиции доски
+     * Удобен для одиночных ходов; для потока ходов одной партии выгоднее держать один разборщик
+     * @param pieces доска в текущей позиции
+     * @param san запись хода
+     * @return упакованный ход
+     * @throws IllegalArgumentException если запись не соответствует ровно одному легальному ходу
+     */
+    public static int toMove(Pieces pieces, String san) {
+        SanParser parser = new SanParser();
+        parser.index(pieces);
+        int move = parser.parse(san);
+        if (move == PackedMove.NONE)
+            throw new IllegalArgumentException("Ход " + san + " не найден в позиции.");
+        return move;
+    }
+
+    /**
+     * Разбирает рокировку "O-O" или "O-O-O" (допускаются нули)
+     * @param san строка с записью хода
+     * @param start индекс первого символа записи
+     * @param end индекс после последнего символа записи без знаков шаха
+     * @return упакованный ход рокировки или {@link PackedMove#NONE}
+     */
+    private int parseCastling(CharSequence san, int start, int end) {
+        int length = end - start;
+        if (length != 3 && length != 5)
+            return PackedMove.NONE;
+        for (int i = start; i < end; i++) {
+            char c = san.charAt(i);
+            boolean dash = (i - start) % 2 == 1;
+            if (dash ? c != '-' : c != 'O' && c != '0')
+                return PackedMove.NONE;
+        }
+        if (pieces == null)
+            throw new IllegalStateException("Указатель ходов не построен: сначала вызовите index.");
+        boolean kingSide = length == 3;
+        for (int i = 0; i < generated.size(); i++) {
+            int move = generated.get(i);
+            // Рокировка генерируется только без шаха и через небитые поля, поэтому всегда легальна
+            if (PackedMove.hasFlag(move, PackedMove.CASTLING)
+                    && Castling.isKingSide(PackedMove.from(move), PackedMove.to(move)) == kingSide)
+                return move;
+        }
+        return PackedMove.NONE;
+    }
+
+    /**
+     * Получает тип фигуры по заглавной букве записи
+     * @param c символ
+     * @return тип фигуры или null, если это не буква фигуры (пешка записывается без буквы)
+     */
+    private static ID pieceLetter(char c) {
+        switch (c) {
+            case 'K': return ID.KING;
+            case 'Q': return ID.QUEEN;
+            case 'R': return ID.ROOK;
+            case 'B': return ID.BISHOP;
+            case 'N': return ID.KNIGHT;
+            case 'V': return ID.VIZAR;
+            case 'W': return ID.WARCAR;
+            case 'G': return ID.GIRAFFE;
+            default: return null;
+        }
+    }
+
+    /**
+     * Читает номер горизонтали из одной или двух цифр
+     * @return номер горизонтали от 0 или -1, если горизонталь вне доски
+     */
+    private static int readRank(CharSequence san, int start, int end) {
+        if (end <= start)
+            return -1;
+        int rank = 0;
+        for (int i = start; i < end; i++)
+            rank = rank * 10 + san.charAt(i) - '0';
+        rank -= BOARD.FIRST_RANK.getRankVal();
+        return rank >= 0 && rank < RANKS ? rank : -1;
+    }
+
+    private static boolean isSuffix(char c) {
+        return c == '+' || c == '#' || c == '!' || c == '?';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isFile(char c) {
+        return c >= BOARD.FIRST_FILE.getFileVal() && c <= BOARD.LAST_FILE.getFileVal();
+    }
+
+    private static int file(char c) {
+        return c - BOARD.FIRST_FILE.getFileVal();
+    }
+}
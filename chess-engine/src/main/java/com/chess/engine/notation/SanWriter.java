@@ -0,0 +1,198 @@
+package com.chess.engine.notation;
+
+import com.chess.engine.enums.BOARD;
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.enums.ID;
+import com.chess.engine.logic.Attacks;
+import com.chess.engine.logic.Castling;
+import com.chess.engine.logic.Coordinate;
+import com.chess.engine.logic.MoveList;
+import com.chess.engine.logic.PackedMove;
+import com.chess.engine.logic.Pieces;
+import com.chess.engine.logic.Position;
+import com.chess.engine.logic.SquareSet;
+import com.chess.engine.pieces.PieceKind;
+
+import java.util.Objects;
+
+/**
+ * Класс для записи упакованных ходов в короткой алгебраической нотации (SAN)
+ * Ход записывается по позиции до хода, доска не копируется и карта фигур не меняется.
+ * Уточнение поля отправления строится по фигурам того же вида, которые бьют поле назначения,
+ * а знак шаха или мата - по проверке шаха без хода и поиску первого легального ответа.
+ */
+public class SanWriter {
+
+    private static final String nullPieces = "Доска не может быть null.";
+
+    /**
+     * Записывает ход в короткой алгебраической нотации
+     * @param pieces доска в позиции до хода
+     * @param move легальный упакованный ход в текущей позиции
+     * @return запись хода, например "Nxe5", "Rad1", "c10=G+" или "O-O-O"
+     * @throws IllegalArgumentException если на поле отправления нет фигуры
+     */
+    public static String toSan(Pieces pieces, int move) {
+
+        Objects.requireNonNull(pieces, nullPieces);
+
+        Position position = pieces.getPosition();
+        int from = PackedMove.from(move);
+        PieceKind kind = position.get(from);
+        if (kind == null)
+            throw new IllegalArgumentException("На поле " + PackedMove.fromCoordinate(move) + " нет фигуры.");
+
+        int to = PackedMove.to(move);
+        int rivals = 0;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        if (needsOrigin(kind.getName())) {
+            SquareSet attackers = Attacks.attackers(position, to, kind.getColour());
+            for (int square = attackers.next(0); square >= 0; square = attackers.next(square + 1)) {
+                if (square == from || position.get(square) != kind)
+                    continue;
+                // Связанная фигура не может пойти на поле, поэтому не требует уточнения
+                if (!pieces.isLegal(pieces.createMove(Coordinate.fromIndex(square), Coordinate.fromIndex(to))))
+                    continue;
+                rivals++;
+                sameFile |= square % Coordinate.WIDTH == from % Coordinate.WIDTH;
+                sameRank |= square / Coordinate.WIDTH == from / Coordinate.WIDTH;
+            }
+        }
+
+        StringBuilder str = new StringBuilder(8);
+        appendMove(str, move, rivals, sameFile, sameRank);
+        appendCheck(str, pieces, move, kind.getColour());
+        return str.toString();
+    }
+
+    /**
+     * Записывает все легальные ходы стороны, чья очередь хода, за один проход
+     * Уточнения полей отправления вычисляются по самому списку легальных ходов,
+     * поэтому поле назначения каждого хода не проверяется отдельно
+     * @param pieces доска в текущей позиции
+     * @param moves список, в который записываются легальные упакованные ходы (очищается)
+     * @return записи ходов в том же порядке, что и ходы в списке
+     */
+    public static String[] allToSan(Pieces pieces, MoveList moves) {
+
+        Objects.requireNonNull(pieces, nullPieces);
+        Objects.requireNonNull(moves, "Список ходов не может быть null.");
+
+        COLOUR colour = pieces.getSideToMove();
+        MoveList pseudoLegal = pieces.generateMoves(colour);
+        moves.clear();
+        for (int i = 0; i < pseudoLegal.size(); i++) {
+            int move = pseudoLegal.get(i);
+            if (pieces.isLegal(move))
+                moves.add(move);
+        }
+
+        String[] result = new String[moves.size()];
+        StringBuilder str = new StringBuilder(8);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int from = PackedMove.from(move);
+            int to = PackedMove.to(move);
+            int rivals = 0;
+            boolean sameFile = false;
+            boolean sameRank = false;
+            if (needsOrigin(PackedMove.piece(move))) {
+                for (int j = 0; j < moves.size(); j++) {
+                    int other = moves.get(j);
+                    int square = PackedMove.from(other);
+                    if (PackedMove.to(other) != to || square == from || PackedMove.piece(other) != PackedMove.piece(move))
+                        continue;
+                    rivals++;
+                    sameFile |= square % Coordinate.WIDTH == from % Coordinate.WIDTH;
+                    sameRank |= square / Coordinate.WIDTH == from / Coordinate.WIDTH;
+                }
+            }
+
+            str.setLength(0);
+            appendMove(str, move, rivals, sameFile, sameRank);
+            appendCheck(str, pieces, move, colour);
+            result[i] = str.toString();
+        }
+        return result;
+    }
+
+    /**
+     * Проверяет, может ли для фигуры этого типа понадобиться уточнение поля отправления
+     * Пешка при взятии всегда пишет вертикаль, а король на доске один
+     * @param name тип фигуры
+     * @return true для всех фигур, кроме пешки и короля
+     */
+    private static boolean needsOrigin(ID name) {
+        return name != ID.PAWN && name != ID.KING;
+    }
+
+    /**
+     * Дописывает ход без знака шаха
+     * @param str строка записи
+     * @param move упакованный ход
+     * @param rivals количество других фигур того же вида, которые могут пойти на то же поле
+     * @param sameFile стоит ли одна из них на той же вертикали
+     * @param sameRank стоит ли одна из них на той же горизонтали
+     */
+    private static void appendMove(StringBuilder str, int move, int rivals, boolean sameFile, boolean sameRank) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+
+        if (PackedMove.hasFlag(move, PackedMove.CASTLING)) {
+            str.append(Castling.isKingSide(from, to) ? "O-O" : "O-O-O");
+            return;
+        }
+
+        ID name = PackedMove.piece(move);
+        boolean capture = PackedMove.captured(move) != null;
+        str.append(name.toString());
+        if (name == ID.PAWN) {
+            if (capture)
+                appendFile(str, from);
+        }
+        else if (rivals > 0) {
+            if (!sameFile)
+                appendFile(str, from);
+            else if (!sameRank)
+                appendRank(str, from);
+            else {
+                appendFile(str, from);
+                appendRank(str, from);
+            }
+        }
+
+        if (capture)
+            str.append('x');
+        appendFile(str, to);
+        appendRank(str, to);
+
+        if (PackedMove.isPromotion(move))
+            str.append('=').append(PackedMove.promotion(move).toString());
+    }
+
+    /**
+     * Дописывает "+" для шаха и "#" для мата
+     * Ход выполняется на массивах позиции, только если он объявляет шах
+     * @param str строка записи
+     * @param pieces доска в позиции до хода
+     * @param move упакованный ход
+     * @param colour цвет стороны, делающей ход
+     */
+    private static void appendCheck(StringBuilder str, Pieces pieces, int move, COLOUR colour) {
+        if (!pieces.givesCheck(move))
+            return;
+        pieces.doMove(move);
+        boolean escapes = pieces.hasLegalMove(COLOUR.not(colour));
+        pieces.undoMove(move);
+        str.append(escapes ? '+' : '#');
+    }
+
+    private static void appendFile(StringBuilder str, int square) {
+        str.append((char) (BOARD.FIRST_FILE.getFileVal() + square % Coordinate.WIDTH));
+    }
+
+    private static void appendRank(StringBuilder str, int square) {
+        str.append(BOARD.FIRST_RANK.getRankVal() + square / Coordinate.WIDTH);
+    }
+}
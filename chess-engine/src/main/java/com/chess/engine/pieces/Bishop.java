@@ -1,13 +1,9 @@
 package com.chess.engine.pieces;
 
 import com.chess.engine.logic.Coordinate;
-import com.chess.engine.logic.Move;
-import com.chess.engine.logic.Pieces;
 import com.chess.engine.enums.COLOUR;
 import com.chess.engine.enums.ID;
 
-import java.util.ArrayList;
-
 /**
  * Класс, представляющий слона в шахматах
  */
@@ -35,18 +31,4 @@ public class Bishop extends Piece{
         return new Bishop(this);
     }
 
-    @Override
-    public ArrayList<Coordinate> getRawMoves(Pieces pieces) {
-        ArrayList<Coordinate> frontRDig = Move.frontRDigFree(pieces, this,dimension);
-        ArrayList<Coordinate> backRDig = Move.backRDigFree(pieces, this, dimension);
-        ArrayList<Coordinate> backLDig = Move.backLDigFree(pieces, this,dimension);
-        ArrayList<Coordinate> frontLDig = Move.frontLDigFree(pieces, this, dimension);
-
-        frontRDig.addAll(backRDig);
-        backLDig.addAll(frontLDig);
-        frontRDig.addAll(backLDig);
-
-        return frontRDig;
-    }
-
 }
\ No newline at end of file
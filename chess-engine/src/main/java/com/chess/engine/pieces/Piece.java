@@ -1,10 +1,13 @@
 package com.chess.engine.pieces;
 
 import com.chess.engine.logic.Coordinate;
+import com.chess.engine.logic.Movement;
+import com.chess.engine.logic.SquareSet;
 import com.chess.engine.logic.Pieces;
 import com.chess.engine.enums.BOARD;
 import com.chess.engine.enums.COLOUR;
 import com.chess.engine.enums.ID;
+import com.chess.engine.enums.MOVEGEN;
 
 import java.util.*;
 
@@ -17,7 +20,7 @@ public abstract class Piece{
     private Coordinate coords;
     private final Coordinate OGcoord;
     private final String pieceID;
-    private HashSet<Coordinate> potentialMoves = new HashSet<>();
+    private SquareSet potentialMoves = new SquareSet();
     public int dimension = BOARD.LAST_RANK.getRankVal();
     public int single = BOARD.FIRST_RANK.getRankVal();
     private boolean hasMoved = false;
@@ -53,11 +56,7 @@ public abstract class Piece{
         this.OGcoord = new Coordinate(original.OGcoord);
         this.coords = new Coordinate(original.coords);
         this.pieceID = original.pieceID;
-        this.potentialMoves = new HashSet<>();
-
-        for (Coordinate coord : original.getPotentialMoves()) {
-            this.potentialMoves.add(new Coordinate(coord));
-        }
+        this.potentialMoves = new SquareSet(original.potentialMoves);
 
         this.dimension = original.dimension;
         this.single = original.single;
@@ -144,7 +143,9 @@ public abstract class Piece{
      * @param someMoves список координат для добавления
      */
     public void addMoves(ArrayList<Coordinate> someMoves) {
-        potentialMoves.addAll(someMoves);
+        for (Coordinate move : someMoves) {
+            potentialMoves.add(move);
+        }
     }
 
     /**
@@ -156,14 +157,25 @@ public abstract class Piece{
 
     /**
      * Получает множество потенциальных ходов фигуры
+     * Множество строится заново при каждом вызове; для проверок без создания объектов
+     * используйте {@link #getPotentialSquares()}
      * @return множество координат возможных ходов
      */
     public HashSet<Coordinate> getPotentialMoves() {
+        return potentialMoves.toCoordinates();
+    }
+
+    /**
+     * Получает множество полей потенциальных ходов фигуры
+     * @return множество полей возможных ходов (изменения отражаются на фигуре)
+     */
+    public SquareSet getPotentialSquares() {
         return potentialMoves;
     }
 
     /**
      * Удаляет из списка возможных ходов те, которые оставляют короля под шахом
+     * Каждый ход временно делается на той же доске, после чего проверяется, бьют ли поле короля
      * @param pieces текущее состояние доски
      * @return список валидных ходов без шаха собственному королю
      */
@@ -174,15 +186,21 @@ public abstract class Piece{
         if (potentials.size() == 0)
             return potentials;
 
+        Coordinate from = pieces.getPieces().get(coords) == this ? coords : pieces.findPiece(this);
+        Coordinate kingPosition = name == ID.KING ? from : pieces.findKing(getColour());
+        if (from.equals(Coordinate.emptyCoordinate) || kingPosition.equals(Coordinate.emptyCoordinate))
+            return potentials;
+
         Iterator<Coordinate> it = potentials.iterator();
 
         while (it.hasNext()) {
             Coordinate nextMove = it.next();
-            Pieces p = new Pieces(pieces);
-            p.pieceMove(nextMove, this.makeCopy());
-            Coordinate kingPosition = p.findKing(getColour());
-            HashSet<Coordinate> dangerMoves = p.allColouredRaws(COLOUR.not(getColour()));
-            if (dangerMoves.contains(kingPosition))
+            int move = pieces.createMove(from, nextMove);
+            pieces.doMove(move);
+            Coordinate king = name == ID.KING ? nextMove : kingPosition;
+            boolean attacked = pieces.isSquareAttacked(king, COLOUR.not(getColour()));
+            pieces.undoMove(move);
+            if (attacked)
                 it.remove();
         }
 
@@ -204,7 +222,7 @@ public abstract class Piece{
      * @return true если ход валиден
      */
     public boolean isValidMove(Coordinate destination, COLOUR colour) {
-        return getPotentialMoves().contains(destination) && getColour() == colour;
+        return potentialMoves.contains(destination) && getColour() == colour;
     }
 
     @Override
@@ -233,7 +251,23 @@ public abstract class Piece{
      * @param pieces текущее состояние доски
      * @return список координат возможных ходов
      */
-    public abstract ArrayList<Coordinate> getRawMoves(Pieces pieces);
+    public ArrayList<Coordinate> getRawMoves(Pieces pieces) {
+        return getRawMoves(pieces, MOVEGEN.ALL);
+    }
+
+    /**
+     * Получает список возможных ходов фигуры указанного вида без учета шаха
+     * Режим уклонения от шаха на уровне одной фигуры совпадает с режимом всех ходов.
+     * Ходы строятся по описанию вида фигуры из таблицы {@link Movement}
+     * @param pieces текущее состояние доски
+     * @param mode режим генерации: взятия и превращения, тихие ходы или все ходы
+     * @return список координат возможных ходов
+     */
+    public final ArrayList<Coordinate> getRawMoves(Pieces pieces, MOVEGEN mode) {
+        ArrayList<Coordinate> moves = new ArrayList<>();
+        Movement.generate(pieces, this, mode, moves);
+        return moves;
+    }
 
     /**
      * Создает копию фигуры
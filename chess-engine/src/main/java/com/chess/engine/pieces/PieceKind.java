@@ -0,0 +1,136 @@
+package com.chess.engine.pieces;
+
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.enums.ID;
+import com.chess.engine.logic.Coordinate;
+
+import java.util.Objects;
+
+/**
+ * Класс неизменяемого вида фигуры: цвет и тип
+ * Для каждого сочетания цвета и типа существует ровно один объект,
+ * поэтому позиция хранит на полях ссылки на общие объекты, а виды сравниваются через ==.
+ * Положение фигуры и признак хода хранятся в позиции, а не в виде фигуры.
+ */
+public final class PieceKind {
+
+    private static final COLOUR[] COLOURS = COLOUR.values();
+    private static final ID[] IDS = ID.values();
+    private static final PieceKind[] KINDS = new PieceKind[COLOURS.length * IDS.length];
+
+    static {
+        for (COLOUR colour : COLOURS) {
+            for (ID name : IDS) {
+                int index = colour.ordinal() * IDS.length + name.ordinal();
+                KINDS[index] = new PieceKind(colour, name, index);
+            }
+        }
+    }
+
+    private final COLOUR colour;
+    private final ID name;
+    private final int index;
+
+    private PieceKind(COLOUR colour, ID name, int index) {
+        this.colour = colour;
+        this.name = name;
+        this.index = index;
+    }
+
+    /**
+     * Получает вид фигуры по цвету и типу
+     * @param colour цвет фигуры
+     * @param name тип фигуры
+     * @return общий объект вида фигуры
+     */
+    public static PieceKind of(COLOUR colour, ID name) {
+        Objects.requireNonNull(colour, "Цвет фигуры должен быть определен.");
+        Objects.requireNonNull(name, "Тип фигуры должен быть определен в enum ID");
+        return KINDS[colour.ordinal() * IDS.length + name.ordinal()];
+    }
+
+    /**
+     * Получает вид фигуры
+     * @param piece фигура
+     * @return общий объект вида фигуры
+     */
+    public static PieceKind of(Piece piece) {
+        Objects.requireNonNull(piece, "Фигура не может быть null.");
+        return of(piece.getColour(), piece.getName());
+    }
+
+    /**
+     * Получает вид фигуры по порядковому номеру
+     * @param index номер от 0 до {@link #count()} - 1
+     * @return общий объект вида фигуры
+     */
+    public static PieceKind byIndex(int index) {
+        return KINDS[index];
+    }
+
+    /**
+     * Получает количество видов фигур
+     * @return количество сочетаний цвета и типа
+     */
+    public static int count() {
+        return KINDS.length;
+    }
+
+    /**
+     * Получает цвет фигуры
+     * @return цвет фигуры
+     */
+    public COLOUR getColour() {
+        return colour;
+    }
+
+    /**
+     * Получает тип фигуры
+     * @return тип фигуры
+     */
+    public ID getName() {
+        return name;
+    }
+
+    /**
+     * Получает порядковый номер вида фигуры (для таблиц, индексируемых видом)
+     * @return номер от 0 до {@link #count()} - 1
+     */
+    public int index() {
+        return index;
+    }
+
+    /**
+     * Создает объект фигуры этого вида на указанном поле
+     * Используется там, где нужен объект {@link Piece}, например при превращении пешки
+     * @param coordinate поле фигуры
+     * @return новая фигура
+     */
+    public Piece newPiece(Coordinate coordinate) {
+        switch (name) {
+            case KING:
+                return new King(colour, coordinate);
+            case QUEEN:
+                return new Queen(colour, coordinate);
+            case ROOK:
+                return new Rook(colour, coordinate);
+            case BISHOP:
+                return new Bishop(colour, coordinate);
+            case KNIGHT:
+                return new Knight(colour, coordinate);
+            case PAWN:
+                return new Pawn(colour, coordinate);
+            case VIZAR:
+                return new Vizar(colour, coordinate);
+            case WARCAR:
+                return new WarCar(colour, coordinate);
+            default:
+                return new Giraffe(colour, coordinate);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return colour.toSmallString() + name.toFullString();
+    }
+}
@@ -1,13 +1,9 @@
 package com.chess.engine.pieces;
 
 import com.chess.engine.logic.Coordinate;
-import com.chess.engine.logic.Move;
-import com.chess.engine.logic.Pieces;
 import com.chess.engine.enums.COLOUR;
 import com.chess.engine.enums.ID;
 
-import java.util.ArrayList;
-
 /**
  * Класс, представляющий ферзя в шахматах
  */
@@ -35,29 +31,4 @@ public class Queen extends Piece{
         return new Queen(this);
     }
 
-    @Override
-    public ArrayList<Coordinate> getRawMoves(Pieces pieces) {
-
-        ArrayList<Coordinate> front = Move.frontFree(pieces,this,dimension);
-        ArrayList<Coordinate> right = Move.rightFree(pieces,this,dimension);
-        ArrayList<Coordinate> back = Move.backFree(pieces,this,dimension);
-        ArrayList<Coordinate> left = Move.leftFree(pieces,this,dimension);
-        ArrayList<Coordinate> frontRDig = Move.frontRDigFree(pieces, this,dimension);
-        ArrayList<Coordinate> backRDig = Move.backRDigFree(pieces, this, dimension);
-        ArrayList<Coordinate> backLDig = Move.backLDigFree(pieces, this,dimension);
-        ArrayList<Coordinate> frontLDig = Move.frontLDigFree(pieces, this, dimension);
-
-        front.addAll(right);
-        back.addAll(left);
-        front.addAll(back);
-
-        frontRDig.addAll(backRDig);
-        backLDig.addAll(frontLDig);
-        frontRDig.addAll(backLDig);
-
-        front.addAll(frontRDig);
-
-        return front;
-    }
-
 }
\ No newline at end of file
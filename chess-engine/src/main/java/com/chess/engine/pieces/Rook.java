@@ -1,21 +1,14 @@
 package com.chess.engine.pieces;
 
 import com.chess.engine.logic.Coordinate;
-import com.chess.engine.logic.Move;
-import com.chess.engine.logic.Pieces;
 import com.chess.engine.enums.COLOUR;
 import com.chess.engine.enums.ID;
 
-
-import java.util.ArrayList;
-
 /**
  * Класс, представляющий ладью в шахматах
  */
 public class Rook extends Piece {
 
-    private Coordinate castleCoordRook;
-
     /**
      * Конструктор ладьи
      * @param colour цвет ладьи
@@ -33,39 +26,9 @@ public class Rook extends Piece {
         super(original);
     }
 
-    /**
-     * Получает координату для рокировки
-     * @return координата для рокировки
-     */
-    public Coordinate getCastleCoordRook() {
-        return castleCoordRook;
-    }
-
-    /**
-     * Устанавливает координату для рокировки
-     * @param castleCoordRook координата для рокировки
-     */
-    public void setCastleCoordRook(Coordinate castleCoordRook) {
-        this.castleCoordRook = castleCoordRook;
-    }
-
     @Override
     public Rook makeCopy() {
         return new Rook(this);
     }
 
-    @Override
-    public ArrayList<Coordinate> getRawMoves(Pieces pieces) {
-        ArrayList<Coordinate> front = Move.frontFree(pieces,this,dimension);
-        ArrayList<Coordinate> right = Move.rightFree(pieces,this,dimension);
-        ArrayList<Coordinate> back = Move.backFree(pieces,this,dimension);
-        ArrayList<Coordinate> left = Move.leftFree(pieces,this,dimension);
-
-        front.addAll(right);
-        back.addAll(left);
-        front.addAll(back);
-
-        return front;
-    }
-
 }
\ No newline at end of file
@@ -1,13 +1,9 @@
 package com.chess.engine.pieces;
 
 import com.chess.engine.logic.Coordinate;
-import com.chess.engine.logic.Move;
-import com.chess.engine.logic.Pieces;
 import com.chess.engine.enums.COLOUR;
 import com.chess.engine.enums.ID;
 
-import java.util.ArrayList;
-
 /**
  * Класс, представляющий боевую машину в шахматах (специальная фигура)
  * Боевая машина ходит как ладья и конь одновременно
@@ -36,23 +32,4 @@ public class WarCar extends Piece {
         return new WarCar(this);
     }
 
-    @Override
-    public ArrayList<Coordinate> getRawMoves(Pieces pieces) {
-        ArrayList<Coordinate> rookMoves = Move.frontFree(pieces, this, dimension);
-        rookMoves.addAll(Move.rightFree(pieces, this, dimension));
-        rookMoves.addAll(Move.backFree(pieces, this, dimension));
-        rookMoves.addAll(Move.leftFree(pieces, this, dimension));
-
-        ArrayList<Coordinate> knightMoves = Move.frontKnight(pieces, this);
-        knightMoves.addAll(Move.backKnight(pieces, this));
-        knightMoves.addAll(Move.rightKnight(pieces, this));
-        knightMoves.addAll(Move.leftKnight(pieces, this));
-
-        ArrayList<Coordinate> giraffeMoves = new ArrayList<>();
-        giraffeMoves.addAll(rookMoves);
-        giraffeMoves.addAll(knightMoves);
-
-        return giraffeMoves;
-    }
-
 }
\ No newline at end of file
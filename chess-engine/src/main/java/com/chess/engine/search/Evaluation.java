@@ -0,0 +1,62 @@
+package com.chess.engine.search;
+
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.enums.ID;
+import com.chess.engine.logic.Pieces;
+import com.chess.engine.logic.Position;
+import com.chess.engine.logic.SquareSet;
+
+/**
+ * Класс с материальной оценкой фигур для поиска
+ * Стоимость сложных фигур примерно равна сумме стоимостей составляющих их ходов
+ */
+public class Evaluation {
+
+    /**
+     * Получает материальную стоимость фигуры в сотых долях пешки
+     * Король имеет нулевую стоимость: он всегда на доске и не может быть взят
+     * @param name тип фигуры
+     * @return стоимость фигуры
+     */
+    public static int pieceValue(ID name) {
+        switch (name) {
+            case PAWN:
+                return 100;
+            case KNIGHT:
+                return 300;
+            case BISHOP:
+                return 325;
+            case ROOK:
+                return 500;
+            case VIZAR:
+                return 700;
+            case WARCAR:
+                return 850;
+            case QUEEN:
+                return 950;
+            case GIRAFFE:
+                return 1300;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Оценивает позицию по материалу с точки зрения указанной стороны
+     * @param pieces текущее состояние доски
+     * @param colour цвет стороны, для которой ведется оценка
+     * @return разница материала в сотых долях пешки
+     */
+    public static int evaluate(Pieces pieces, COLOUR colour) {
+        Position position = pieces.getPosition();
+        int score = 0;
+        for (COLOUR side : COLOUR.values()) {
+            SquareSet own = position.occupied(side);
+            for (int square = own.next(0); square >= 0; square = own.next(square + 1)) {
+                int value = pieceValue(position.get(square).getName());
+                score += side == colour ? value : -value;
+            }
+        }
+        return score;
+    }
+}
@@ -0,0 +1,369 @@
+package com.chess.engine.search;
+
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.enums.MOVEGEN;
+import com.chess.engine.logic.MoveList;
+import com.chess.engine.logic.PackedMove;
+import com.chess.engine.logic.Pieces;
+
+import java.util.Objects;
+
+/**
+ * Класс для поэтапной выдачи ходов в поиске
+ * Ходы выдаются по одному: сначала ход из таблицы, затем выгодные взятия,
+ * ходы-убийцы, тихие ходы по истории и в конце невыгодные взятия.
+ * Каждый этап генерирует только свои ходы и начинается только тогда,
+ * когда предыдущий исчерпан, поэтому при раннем отсечении тихие ходы не генерируются.
+ * Выборщик можно переиспользовать на том же полуходе через методы reset:
+ * списки ходов и оценок при этом не создаются заново.
+ */
+public class MovePicker {
+
+    /**
+     * Этапы выдачи ходов
+     */
+    private enum Stage {
+        HASH_MOVE,
+        GENERATE_CAPTURES,
+        GOOD_CAPTURES,
+        KILLERS,
+        GENERATE_QUIETS,
+        QUIETS,
+        BAD_CAPTURES,
+        GENERATE_EVASIONS,
+        EVASIONS,
+        DONE
+    }
+
+    private static final int[] NO_KILLERS = new int[0];
+    private static final int CAPTURE_BONUS = 1 << 28;
+
+    private final Pieces pieces;
+    private final int[][] history;
+    private COLOUR colour;
+    private int hashMove;
+    private int[] killers;
+    private boolean inCheck;
+    private boolean capturesOnly;
+
+    private Stage stage;
+    private final MoveList moves = new MoveList();
+    private int[] scores = new int[64];
+    private int index;
+    private int killerIndex;
+    private final MoveList badCaptures = new MoveList();
+    private int badIndex;
+
+    /**
+     * Конструктор выборщика ходов для позиции без шаха
+     * @param pieces текущее состояние доски
+     * @param colour цвет стороны, делающей ход
+     * @param hashMove лучший ход из предыдущего поиска или {@link PackedMove#NONE}
+     * @param killers ходы-убийцы для текущей глубины или null
+     * @param history таблица истории [тип фигуры][поле назначения] или null
+     */
+    public MovePicker(Pieces pieces, COLOUR colour, int hashMove, int[] killers, int[][] history) {
+        this(pieces, colour, false, hashMove, killers, history);
+    }
+
+    /**
+     * Конструктор выборщика ходов
+     * Под шахом после хода из таблицы выдаются только уходы от шаха: сначала взятия, затем по истории
+     * @param pieces текущее состояние доски
+     * @param colour цвет стороны, делающей ход
+     * @param inCheck находится ли король стороны под шахом
+     * @param hashMove лучший ход из предыдущего поиска или {@link PackedMove#NONE}
+     * @param killers ходы-убийцы для текущей глубины или null
+     * @param history таблица истории [тип фигуры][поле назначения] или null
+     */
+    public MovePicker(Pieces pieces, COLOUR colour, boolean inCheck, int hashMove,
+                      int[] killers, int[][] history) {
+        this(pieces, history);
+        reset(colour, inCheck, hashMove, killers);
+    }
+
+    /**
+     * Конструктор выборщика для поиска взятий (форсированного варианта)
+     * Выдает только взятия и превращения с неотрицательным статическим разменом
+     * @param pieces текущее состояние доски
+     * @param colour цвет стороны, делающей ход
+     */
+    public MovePicker(Pieces pieces, COLOUR colour) {
+        this(pieces, (int[][]) null);
+        resetCaptures(colour);
+    }
+
+    /**
+     * Конструктор выборщика без позиции для заполнения методами reset
+     * @param pieces текущее состояние доски
+     * @param history таблица истории [тип фигуры][поле назначения] или null
+     */
+    MovePicker(Pieces pieces, int[][] history) {
+        Objects.requireNonNull(pieces, "Нельзя передать null объект в параметре pieces.");
+        this.pieces = pieces;
+        this.history = history;
+        this.stage = Stage.DONE;
+    }
+
+    /**
+     * Подготавливает выборщик к выдаче всех ходов новой позиции
+     * @param colour цвет стороны, делающей ход
+     * @param inCheck находится ли король стороны под шахом
+     * @param hashMove лучший ход из предыдущего поиска или {@link PackedMove#NONE}
+     * @param killers ходы-убийцы для текущей глубины или null
+     */
+    void reset(COLOUR colour, boolean inCheck, int hashMove, int[] killers) {
+        Objects.requireNonNull(colour, "Цвет фигуры должен быть определен.");
+        this.colour = colour;
+        this.inCheck = inCheck;
+        this.capturesOnly = false;
+        this.hashMove = hashMove;
+        this.killers = killers == null ? NO_KILLERS : killers;
+        clear(Stage.HASH_MOVE);
+    }
+
+    /**
+     * Подготавливает выборщик к выдаче только выгодных взятий новой позиции
+     * @param colour цвет стороны, делающей ход
+     */
+    void resetCaptures(COLOUR colour) {
+        Objects.requireNonNull(colour, "Цвет фигуры должен быть определен.");
+        this.colour = colour;
+        this.inCheck = false;
+        this.capturesOnly = true;
+        this.hashMove = PackedMove.NONE;
+        this.killers = NO_KILLERS;
+        clear(Stage.GENERATE_CAPTURES);
+    }
+
+    /**
+     * Очищает списки ходов и начинает выдачу с указанного этапа
+     * @param first первый этап выдачи
+     */
+    private void clear(Stage first) {
+        stage = first;
+        moves.clear();
+        badCaptures.clear();
+        index = 0;
+        killerIndex = 0;
+        badIndex = 0;
+    }
+
+    /**
+     * Получает следующий псевдолегальный ход
+     * @return следующий упакованный ход или {@link PackedMove#NONE}, если ходы закончились
+     */
+    public int next() {
+
+        while (true) {
+            switch (stage) {
+                case HASH_MOVE:
+                    stage = inCheck ? Stage.GENERATE_EVASIONS : Stage.GENERATE_CAPTURES;
+                    if (pieces.isPseudoLegal(colour, hashMove))
+                        return hashMove;
+                    break;
+
+                case GENERATE_CAPTURES:
+                    generateCaptures();
+                    stage = Stage.GOOD_CAPTURES;
+                    break;
+
+                case GOOD_CAPTURES:
+                    while (index < moves.size()) {
+                        int move = pickBest();
+                        if (move == hashMove)
+                            continue;
+                        if (isBadCapture(move)) {
+                            badCaptures.add(move);
+                            continue;
+                        }
+                        return move;
+                    }
+                    stage = capturesOnly ? Stage.DONE : Stage.KILLERS;
+                    break;
+
+                case KILLERS:
+                    while (killerIndex < killers.length) {
+                        int killer = killers[killerIndex];
+                        if (isNewKiller(killer, killerIndex++))
+                            return killer;
+                    }
+                    stage = Stage.GENERATE_QUIETS;
+                    break;
+
+                case GENERATE_QUIETS:
+                    generateQuiets();
+                    stage = Stage.QUIETS;
+                    break;
+
+                case QUIETS:
+                    while (index < moves.size()) {
+                        int move = pickBest();
+                        if (move == hashMove || isKiller(move))
+                            continue;
+                        return move;
+                    }
+                    stage = Stage.BAD_CAPTURES;
+                    break;
+
+                case BAD_CAPTURES:
+                    if (badIndex < badCaptures.size())
+                        return badCaptures.get(badIndex++);
+                    stage = Stage.DONE;
+                    break;
+
+                case GENERATE_EVASIONS:
+                    generateEvasions();
+                    stage = Stage.EVASIONS;
+                    break;
+
+                case EVASIONS:
+                    while (index < moves.size()) {
+                        int move = pickBest();
+                        if (move == hashMove)
+                            continue;
+                        return move;
+                    }
+                    stage = Stage.DONE;
+                    break;
+
+                default:
+                    return PackedMove.NONE;
+            }
+        }
+    }
+
+    /**
+     * Генерирует взятия и превращения и оценивает их
+     */
+    private void generateCaptures() {
+        pieces.generateMoves(colour, MOVEGEN.CAPTURES, moves);
+        prepareScores();
+        for (int i = 0; i < moves.size(); i++) {
+            scores[i] = captureScore(moves.get(i));
+        }
+    }
+
+    /**
+     * Генерирует тихие ходы и оценивает их по таблице истории
+     */
+    private void generateQuiets() {
+        pieces.generateMoves(colour, MOVEGEN.QUIETS, moves);
+        prepareScores();
+        for (int i = 0; i < moves.size(); i++) {
+            scores[i] = historyScore(moves.get(i));
+        }
+    }
+
+    /**
+     * Генерирует уходы от шаха: взятия ставятся впереди тихих ходов
+     */
+    private void generateEvasions() {
+        pieces.generateMoves(colour, MOVEGEN.EVASIONS, moves);
+        prepareScores();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            scores[i] = PackedMove.isTactical(move) ? CAPTURE_BONUS + captureScore(move) : historyScore(move);
+        }
+    }
+
+    /**
+     * Увеличивает массив оценок под сгенерированные ходы и начинает выдачу с первого хода
+     */
+    private void prepareScores() {
+        if (scores.length < moves.size())
+            scores = new int[Math.max(moves.size(), scores.length * 2)];
+        index = 0;
+    }
+
+    /**
+     * Выбирает ход с наибольшей оценкой среди оставшихся (частичная сортировка выбором)
+     * @return ход с наибольшей оценкой
+     */
+    private int pickBest() {
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best])
+                best = i;
+        }
+
+        int move = moves.get(best);
+        moves.swap(best, index);
+        int score = scores[best];
+        scores[best] = scores[index];
+        scores[index] = score;
+
+        index++;
+        return move;
+    }
+
+    /**
+     * Оценивает взятие по схеме "самая ценная жертва - наименее ценный нападающий"
+     * @param move взятие или превращение
+     * @return оценка хода
+     */
+    private static int captureScore(int move) {
+        int score = 0;
+        if (PackedMove.isCapture(move))
+            score += Evaluation.pieceValue(PackedMove.captured(move)) * 16
+                    - Evaluation.pieceValue(PackedMove.piece(move));
+        if (PackedMove.isPromotion(move))
+            score += Evaluation.pieceValue(PackedMove.promotion(move)) * 16;
+        return score;
+    }
+
+    /**
+     * Проверяет, проигрывает ли взятие материал по статическому размену
+     * Взятие не дешевле своей фигуры не может проиграть, поэтому размен для него не считается
+     * @param move взятие или превращение
+     * @return true если взятие следует отложить до конца
+     */
+    private boolean isBadCapture(int move) {
+        if (!PackedMove.isCapture(move) || PackedMove.isPromotion(move))
+            return false;
+        if (Evaluation.pieceValue(PackedMove.captured(move)) >= Evaluation.pieceValue(PackedMove.piece(move)))
+            return false;
+        return StaticExchange.see(pieces, move) < 0;
+    }
+
+    /**
+     * Получает оценку тихого хода по таблице истории
+     * @param move тихий ход
+     * @return оценка хода
+     */
+    private int historyScore(int move) {
+        if (history == null)
+            return 0;
+        return history[PackedMove.piece(move).ordinal()][PackedMove.to(move)];
+    }
+
+    /**
+     * Проверяет, можно ли выдать ход-убийцу в текущей позиции
+     * @param killer ход-убийца
+     * @param slot номер хода-убийцы в списке
+     * @return true если ход тихий, еще не выдавался и возможен в позиции
+     */
+    private boolean isNewKiller(int killer, int slot) {
+        for (int i = 0; i < slot; i++) {
+            if (killers[i] == killer)
+                return false;
+        }
+        return killer != PackedMove.NONE &&
+                killer != hashMove &&
+                !PackedMove.isTactical(killer) &&
+                pieces.isPseudoLegal(colour, killer);
+    }
+
+    /**
+     * Проверяет, совпадает ли ход с одним из ходов-убийц, уже выданных на этапе убийц
+     * @param move тихий ход
+     * @return true если ход уже был выдан
+     */
+    private boolean isKiller(int move) {
+        for (int killer : killers) {
+            if (move == killer)
+                return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,260 @@
+package com.chess.engine.search;
+
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.logic.MoveList;
+import com.chess.engine.logic.PackedMove;
+import com.chess.engine.logic.Pieces;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Класс дебютной книги в файле с отображением в память
+ * Файл книги - заголовок и записи по {@value #ENTRY} байт, отсортированные по ключу позиции и ходу:
+ * ключ Зобриста позиции, упакованный ход, вес хода (от 1 до 65535) и значение обучения
+ * (число со знаком, которое книга хранит для того, кто ее строит или дообучает).
+ * Файл отображается в память только для чтения, поэтому открытие не зависит от размера книги,
+ * а несколько процессов с одной книгой делят ее страницы в кеше файлов.
+ * Поиск хода - двоичный поиск по ключу и чтение соседних записей. Ходы книги проверяются
+ * на легальность в позиции доски, поэтому совпадение ключей разных позиций не приводит к неверному ходу.
+ * Открытая книга только читается и потокобезопасна.
+ */
+public class OpeningBook implements Closeable {
+
+    /** Размер записи книги в байтах */
+    public static final int ENTRY = 16;
+    /** Наибольший вес хода */
+    public static final int MAX_WEIGHT = 0xFFFF;
+
+    private static final int MAGIC = 0x4743424B;
+    private static final int VERSION = 1;
+    private static final int HEADER = 16;
+    private static final int MOVE_OFFSET = Long.BYTES;
+    private static final int WEIGHT_OFFSET = MOVE_OFFSET + Integer.BYTES;
+    private static final int LEARN_OFFSET = WEIGHT_OFFSET + Short.BYTES;
+    private static final int SEGMENT_SHIFT = 26;
+    private static final int SEGMENT_ENTRIES = 1 << SEGMENT_SHIFT;
+    private static final int IO_BUFFER = 1 << 16;
+
+    private final MappedByteBuffer[] segments;
+    private final long entries;
+
+    private OpeningBook(MappedByteBuffer[] segments, long entries) {
+        this.segments = segments;
+        this.entries = entries;
+    }
+
+    /**
+     * Открывает книгу, отображая файл в память
+     * @param file путь к файлу книги
+     * @return открытая книга
+     * @throws IOException если файл не удалось прочитать или он не является дебютной книгой
+     */
+    public static OpeningBook open(Path file) throws IOException {
+
+        Objects.requireNonNull(file, "Путь к файлу не может быть null.");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0)
+                    break;
+            }
+            header.flip();
+            if (header.remaining() < HEADER || header.getInt() != MAGIC || header.getInt() != VERSION)
+                throw new IOException("Файл не является дебютной книгой версии " + VERSION + ".");
+            long entries = header.getLong();
+            if (entries < 0 || HEADER + entries * ENTRY != channel.size())
+                throw new IOException("Дебютная книга повреждена.");
+
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((entries + SEGMENT_ENTRIES - 1) >> SEGMENT_SHIFT)];
+            for (int i = 0; i < segments.length; i++) {
+                long first = (long) i << SEGMENT_SHIFT;
+                long size = Math.min(SEGMENT_ENTRIES, entries - first) * ENTRY;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER + first * ENTRY, size);
+            }
+            return new OpeningBook(segments, entries);
+        }
+    }
+
+    /**
+     * Записывает книгу в файл
+     * @param file путь к файлу книги; существующий файл заменяется
+     * @param keys ключи позиций
+     * @param moves упакованные ходы
+     * @param weights веса ходов от 1 до {@value #MAX_WEIGHT}
+     * @param learn значения обучения от -32768 до 32767 или null для нулевых значений
+     * @param count количество записей; записи должны быть отсортированы по ключу, затем по ходу
+     * @throws IOException если файл не удалось записать
+     * @throws IllegalArgumentException если записи не отсортированы, повторяются или вес вне допустимых значений
+     */
+    public static void write(Path file, long[] keys, int[] moves, int[] weights, int[] learn, int count) throws IOException {
+
+        Objects.requireNonNull(file, "Путь к файлу не может быть null.");
+        for (int i = 0; i < count; i++) {
+            if (weights[i] < 1 || weights[i] > MAX_WEIGHT)
+                throw new IllegalArgumentException("Вес хода должен быть от 1 до " + MAX_WEIGHT + ": " + weights[i] + ".");
+            if (learn != null && learn[i] != (short) learn[i])
+                throw new IllegalArgumentException("Значение обучения не помещается в два байта: " + learn[i] + ".");
+            if (i > 0 && (keys[i - 1] > keys[i] || keys[i - 1] == keys[i] && moves[i - 1] >= moves[i]))
+                throw new IllegalArgumentException("Записи книги должны быть отсортированы по ключу и ходу без повторов.");
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(count);
+            for (int i = 0; i < count; i++) {
+                if (buffer.remaining() < ENTRY)
+                    drain(channel, buffer);
+                buffer.putLong(keys[i]).putInt(moves[i]).putShort((short) weights[i])
+                        .putShort((short) (learn == null ? 0 : learn[i]));
+            }
+            drain(channel, buffer);
+        }
+    }
+
+    /**
+     * Находит ходы книги в позиции доски
+     * @param pieces доска; ходит сторона, чья очередь хода
+     * @param moves список, в который записываются легальные ходы книги (очищается)
+     * @return веса найденных ходов в том же порядке
+     */
+    public int[] probe(Pieces pieces, MoveList moves) {
+
+        Objects.requireNonNull(pieces, "Доска не может быть null.");
+        Objects.requireNonNull(moves, "Список ходов не может быть null.");
+        moves.clear();
+        long key = pieces.getPosition().getKey();
+        long first = lowerBound(key);
+        long end = first;
+        while (end < entries && keyAt(end) == key)
+            end++;
+
+        int[] weights = new int[(int) (end - first)];
+        COLOUR colour = pieces.getSideToMove();
+        for (long entry = first; entry < end; entry++) {
+            int move = segment(entry).getInt(offset(entry) + MOVE_OFFSET);
+            if (pieces.isPseudoLegal(colour, move) && pieces.isLegal(move)) {
+                weights[moves.size()] = segment(entry).getShort(offset(entry) + WEIGHT_OFFSET) & MAX_WEIGHT;
+                moves.add(move);
+            }
+        }
+        return Arrays.copyOf(weights, moves.size());
+    }
+
+    /**
+     * Получает значение обучения хода книги
+     * @param pieces доска; ходит сторона, чья очередь хода
+     * @param move упакованный ход
+     * @return значение обучения или 0, если хода нет в книге
+     */
+    public int learn(Pieces pieces, int move) {
+        Objects.requireNonNull(pieces, "Доска не может быть null.");
+        long key = pieces.getPosition().getKey();
+        for (long entry = lowerBound(key); entry < entries && keyAt(entry) == key; entry++) {
+            if (segment(entry).getInt(offset(entry) + MOVE_OFFSET) == move)
+                return segment(entry).getShort(offset(entry) + LEARN_OFFSET);
+        }
+        return 0;
+    }
+
+    /**
+     * Выбирает ход книги с наибольшим весом (при равных весах - первый по порядку записей)
+     * @param pieces доска; ходит сторона, чья очередь хода
+     * @return упакованный ход или {@link PackedMove#NONE}, если позиции нет в книге
+     */
+    public int best(Pieces pieces) {
+        MoveList moves = new MoveList();
+        int[] weights = probe(pieces, moves);
+        int best = PackedMove.NONE;
+        int bestWeight = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] > bestWeight) {
+                best = moves.get(i);
+                bestWeight = weights[i];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Выбирает ход книги случайно с вероятностью, пропорциональной весу
+     * @param pieces доска; ходит сторона, чья очередь хода
+     * @param random генератор случайных чисел
+     * @return упакованный ход или {@link PackedMove#NONE}, если позиции нет в книге
+     */
+    public int pick(Pieces pieces, Random random) {
+        Objects.requireNonNull(random, "Генератор случайных чисел не может быть null.");
+        MoveList moves = new MoveList();
+        int[] weights = probe(pieces, moves);
+        long total = 0;
+        for (int weight : weights)
+            total += weight;
+        if (total == 0)
+            return PackedMove.NONE;
+        long target = (long) (random.nextDouble() * total);
+        for (int i = 0; i < weights.length; i++) {
+            target -= weights[i];
+            if (target < 0)
+                return moves.get(i);
+        }
+        return moves.get(weights.length - 1);
+    }
+
+    /**
+     * Получает количество записей книги
+     * @return количество пар (позиция, ход)
+     */
+    public long size() {
+        return entries;
+    }
+
+    /**
+     * Закрывает книгу; отображение файла освобождается сборщиком мусора
+     */
+    @Override
+    public void close() {
+        Arrays.fill(segments, null);
+    }
+
+    private long lowerBound(long key) {
+        long from = 0;
+        long to = entries;
+        while (from < to) {
+            long middle = (from + to) >>> 1;
+            if (keyAt(middle) < key)
+                from = middle + 1;
+            else
+                to = middle;
+        }
+        return from;
+    }
+
+    private long keyAt(long entry) {
+        return segment(entry).getLong(offset(entry));
+    }
+
+    private MappedByteBuffer segment(long entry) {
+        return segments[(int) (entry >>> SEGMENT_SHIFT)];
+    }
+
+    private static int offset(long entry) {
+        return (int) (entry & (SEGMENT_ENTRIES - 1)) * ENTRY;
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+}
@@ -0,0 +1,489 @@
+package com.chess.engine.search;
+
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.enums.ID;
+import com.chess.engine.logic.Attacks;
+import com.chess.engine.logic.Coordinate;
+import com.chess.engine.logic.MoveList;
+import com.chess.engine.logic.PackedMove;
+import com.chess.engine.logic.Pieces;
+import com.chess.engine.logic.Position;
+import com.chess.engine.logic.SquareSet;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Класс для поиска лучшего хода перебором с альфа-бета отсечением
+ * Глубина наращивается итеративно, лучший вариант предыдущей итерации
+ * просматривается первым. На концах вариантов доигрываются взятия
+ * (форсированный вариант), чтобы оценка не обрывалась посреди размена.
+ * Приемы выборочного поиска (нулевой ход, сокращения, окна) задаются в {@link SearchOptions}.
+ * Если задана дебютная книга и позиция в ней есть, ход берется из книги без перебора.
+ * Если заданы таблицы окончаний, позиции с малым числом фигур не перебираются,
+ * а получают точную оценку из таблиц (выигрыш и проигрыш - с расстоянием до мата).
+ */
+public class Search {
+
+    /** Оценка, превышающая любую достижимую */
+    public static final int INFINITY = 1_000_000;
+    /** Оценка мата на нулевом полуходе */
+    public static final int MATE = 100_000;
+
+    private static final int MAX_PLY = 64;
+    private static final int DELTA_MARGIN = 200;
+    private static final int SEE_PRUNING_DEPTH = 3;
+    private static final int HISTORY_LIMIT = 1 << 20;
+    private static final int ASPIRATION_WINDOW = 50;
+    private static final int NULL_MOVE_DEPTH = 2;
+    private static final int LMR_DEPTH = 3;
+    private static final int LMR_MOVES = 3;
+    private static final int LMR_LATE_MOVES = 8;
+    private static final int LMR_HISTORY = 256;
+    private static final int[] FUTILITY_MARGINS = {0, 200, 500};
+
+    private final Pieces pieces;
+    private final SearchOptions options;
+    private final int[][] killers = new int[MAX_PLY][2];
+    private final int[][] history = new int[ID.values().length][Coordinate.SQUARES];
+    private final int[][] pvTable = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY];
+    private OpeningBook book;
+    private Tablebases tablebases;
+    private int[] previousPv = new int[0];
+    private long nodes;
+    private long[] depthNodes = new long[0];
+    private int score;
+
+    /**
+     * Конструктор поиска со всеми приемами выборочного поиска
+     * @param pieces доска, на которой ведется поиск (после поиска позиция восстанавливается)
+     */
+    public Search(Pieces pieces) {
+        this(pieces, new SearchOptions());
+    }
+
+    /**
+     * Конструктор поиска с заданными настройками
+     * @param pieces доска, на которой ведется поиск (после поиска позиция восстанавливается)
+     * @param options включенные приемы выборочного поиска
+     */
+    public Search(Pieces pieces, SearchOptions options) {
+        Objects.requireNonNull(pieces, "Нельзя передать null объект в параметре pieces.");
+        Objects.requireNonNull(options, "Настройки поиска не могут быть null.");
+        this.pieces = pieces;
+        this.options = options;
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            pickers[ply] = new MovePicker(pieces, history);
+        }
+    }
+
+    /**
+     * Устанавливает дебютную книгу
+     * @param book книга или null, чтобы играть без книги
+     */
+    public void setBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    /**
+     * Устанавливает таблицы окончаний
+     * @param tablebases таблицы или null, чтобы играть без таблиц
+     */
+    public void setTablebases(Tablebases tablebases) {
+        this.tablebases = tablebases;
+    }
+
+    /**
+     * Ищет лучший ход для стороны, которая ходит в текущей позиции
+     * @param depth глубина поиска в полуходах
+     * @return лучший упакованный ход или {@link PackedMove#NONE}, если легальных ходов нет
+     */
+    public int search(int depth) {
+        return search(pieces.getSideToMove(), depth);
+    }
+
+    /**
+     * Ищет лучший ход для указанной стороны с итеративным углублением
+     * Ход из дебютной книги возвращается сразу с нулевой оценкой и без перебора
+     * @param colour цвет стороны, делающей ход
+     * @param depth глубина поиска в полуходах
+     * @return лучший упакованный ход или {@link PackedMove#NONE}, если легальных ходов нет
+     */
+    public int search(COLOUR colour, int depth) {
+
+        Objects.requireNonNull(colour, "Цвет фигуры должен быть определен.");
+
+        nodes = 0;
+        score = 0;
+        previousPv = new int[0];
+        depthNodes = new long[0];
+        int best = PackedMove.NONE;
+
+        if (book != null && colour == pieces.getSideToMove()) {
+            best = book.best(pieces);
+            if (best != PackedMove.NONE) {
+                previousPv = new int[] {best};
+                return best;
+            }
+        }
+
+        for (int currentDepth = 1; currentDepth <= depth; currentDepth++) {
+            int result = rootSearch(colour, currentDepth);
+            if (pvLength[0] == 0)
+                break;
+            score = result;
+            best = pvTable[0][0];
+            previousPv = Arrays.copyOf(pvTable[0], pvLength[0]);
+            depthNodes = Arrays.copyOf(depthNodes, currentDepth);
+            depthNodes[currentDepth - 1] = nodes;
+        }
+        return best;
+    }
+
+    /**
+     * Просматривает корень на заданную глубину
+     * С окнами стремления поиск начинается с узкого окна вокруг оценки прошлой итерации,
+     * а при выходе оценки за окно граница, за которую она вышла, расширяется
+     * @param colour цвет стороны, делающей ход
+     * @param depth глубина итерации
+     * @return оценка корня
+     */
+    private int rootSearch(COLOUR colour, int depth) {
+
+        if (!options.isAspirationWindows() || depth == 1 || Math.abs(score) >= MATE - MAX_PLY)
+            return alphaBeta(colour, depth, -INFINITY, INFINITY, 0, false);
+
+        int delta = ASPIRATION_WINDOW;
+        int alpha = score - delta;
+        int beta = score + delta;
+
+        while (true) {
+            int result = alphaBeta(colour, depth, alpha, beta, 0, false);
+            if (result <= alpha)
+                alpha = Math.max(-INFINITY, alpha - delta);
+            else if (result >= beta)
+                beta = Math.min(INFINITY, beta + delta);
+            else
+                return result;
+            delta *= 2;
+        }
+    }
+
+    /**
+     * Получает оценку последнего поиска с точки зрения стороны, делавшей ход
+     * @return оценка в сотых долях пешки
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Получает количество просмотренных позиций в последнем поиске
+     * @return количество позиций
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Получает количество позиций, просмотренных к концу каждой итерации последнего поиска
+     * Используется для сравнения настроек поиска по стоимости достижения глубины
+     * @return массив, где элемент i - число позиций до завершения глубины i + 1
+     */
+    public long[] getNodesPerDepth() {
+        return Arrays.copyOf(depthNodes, depthNodes.length);
+    }
+
+    /**
+     * Получает главный вариант последнего поиска
+     * @return список упакованных ходов главного варианта
+     */
+    public MoveList getPrincipalVariation() {
+        MoveList pv = new MoveList(Math.max(1, previousPv.length));
+        for (int move : previousPv) {
+            pv.add(move);
+        }
+        return pv;
+    }
+
+    /**
+     * Перебор с альфа-бета отсечением
+     * @param colour цвет стороны, делающей ход
+     * @param depth оставшаяся глубина
+     * @param alpha нижняя граница оценки
+     * @param beta верхняя граница оценки
+     * @param ply расстояние от корня в полуходах
+     * @param allowNull можно ли пропустить ход (запрещено сразу после нулевого хода)
+     * @return оценка позиции с точки зрения стороны, делающей ход
+     */
+    private int alphaBeta(COLOUR colour, int depth, int alpha, int beta, int ply, boolean allowNull) {
+
+        pvLength[ply] = 0;
+        if (ply >= MAX_PLY - 1)
+            return Evaluation.evaluate(pieces, colour);
+
+        // В корне ход все равно выбирается перебором, таблицы оценивают позиции после ходов
+        if (tablebases != null && ply > 0 && colour == pieces.getSideToMove()
+                && pieces.getPosition().size() <= tablebases.getMaxPieces()) {
+            int value = tablebases.probe(pieces.getPosition());
+            if (value != Tablebases.NONE) {
+                nodes++;
+                if (value == 0)
+                    return 0;
+                int plies = ply + Tablebases.plies(value);
+                return value > 0 ? MATE - plies : -MATE + plies;
+            }
+        }
+
+        boolean inCheck = isInCheck(colour);
+        if (inCheck && options.isCheckExtensions())
+            depth++;
+        if (depth <= 0)
+            return quiescence(colour, alpha, beta, ply);
+
+        nodes++;
+        boolean pvNode = beta - alpha > 1;
+        int staticEval = inCheck ? -INFINITY : Evaluation.evaluate(pieces, colour);
+
+        // Нулевой ход: если даже после пропуска хода оценка не ниже беты, позиция отсекается.
+        // В цугцванге пропуск хода выгоден, поэтому без фигур и под шахом он не делается
+        if (options.isNullMove() && allowNull && !pvNode && !inCheck && depth >= NULL_MOVE_DEPTH
+                && staticEval >= beta && hasPieces(colour)) {
+            int reduction = depth > 6 ? 3 : 2;
+            pieces.doNullMove();
+            int result = -alphaBeta(COLOUR.not(colour), depth - 1 - reduction, -beta, -beta + 1, ply + 1, false);
+            pieces.undoNullMove();
+            if (result >= beta)
+                return result >= MATE - MAX_PLY ? beta : result;
+        }
+
+        boolean futile = options.isFutilityPruning() && !pvNode && !inCheck && depth < FUTILITY_MARGINS.length
+                && Math.abs(alpha) < MATE - MAX_PLY && staticEval + FUTILITY_MARGINS[depth] <= alpha;
+
+        int hashMove = ply < previousPv.length ? previousPv[ply] : PackedMove.NONE;
+        MovePicker picker = pickers[ply];
+        picker.reset(colour, inCheck, hashMove, killers[ply]);
+
+        int bestScore = -INFINITY;
+        int legalMoves = 0;
+        int move;
+
+        while ((move = picker.next()) != PackedMove.NONE) {
+
+            if (!inCheck && legalMoves > 0 && depth <= SEE_PRUNING_DEPTH && PackedMove.isCapture(move)
+                    && !PackedMove.isPromotion(move) && StaticExchange.see(pieces, move) < 0)
+                continue;
+
+            boolean givesCheck = pieces.givesCheck(move);
+            pieces.doMove(move);
+            if (isInCheck(colour)) {
+                pieces.undoMove(move);
+                continue;
+            }
+            legalMoves++;
+
+            boolean quiet = !PackedMove.isTactical(move);
+            if (futile && quiet && legalMoves > 1 && !givesCheck) {
+                pieces.undoMove(move);
+                continue;
+            }
+
+            int result;
+            if (legalMoves == 1) {
+                result = -alphaBeta(COLOUR.not(colour), depth - 1, -beta, -alpha, ply + 1, true);
+            }
+            else {
+                int reduction = 0;
+                if (options.isLateMoveReductions() && depth >= LMR_DEPTH && legalMoves > LMR_MOVES
+                        && quiet && !inCheck && !givesCheck && !isKiller(move, ply))
+                    reduction = lateMoveReduction(move, legalMoves, depth);
+
+                int windowBeta = options.isPrincipalVariation() ? alpha + 1 : beta;
+                result = -alphaBeta(COLOUR.not(colour), depth - 1 - reduction, -windowBeta, -alpha, ply + 1, true);
+                if (reduction > 0 && result > alpha)
+                    result = -alphaBeta(COLOUR.not(colour), depth - 1, -windowBeta, -alpha, ply + 1, true);
+                if (windowBeta != beta && result > alpha && result < beta)
+                    result = -alphaBeta(COLOUR.not(colour), depth - 1, -beta, -alpha, ply + 1, true);
+            }
+            pieces.undoMove(move);
+
+            if (result > bestScore) {
+                bestScore = result;
+                if (result > alpha) {
+                    alpha = result;
+                    updatePv(ply, move);
+                    if (result >= beta) {
+                        if (quiet)
+                            updateQuietStats(move, depth, ply);
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (legalMoves == 0)
+            return inCheck ? -MATE + ply : 0;
+        return bestScore;
+    }
+
+    /**
+     * Поиск взятий на концах вариантов
+     * Сторона может отказаться от взятий и остаться при статической оценке (stand pat).
+     * Взятия, которые не поднимают оценку выше альфы даже с запасом, и взятия
+     * с проигрышным статическим разменом не рассматриваются. Под шахом перебираются все уходы
+     * @param colour цвет стороны, делающей ход
+     * @param alpha нижняя граница оценки
+     * @param beta верхняя граница оценки
+     * @param ply расстояние от корня в полуходах
+     * @return оценка позиции с точки зрения стороны, делающей ход
+     */
+    private int quiescence(COLOUR colour, int alpha, int beta, int ply) {
+
+        nodes++;
+        pvLength[ply] = 0;
+        if (ply >= MAX_PLY - 1)
+            return Evaluation.evaluate(pieces, colour);
+
+        boolean inCheck = isInCheck(colour);
+        int standPat = -INFINITY;
+        MovePicker picker = pickers[ply];
+
+        if (inCheck) {
+            picker.reset(colour, true, PackedMove.NONE, null);
+        }
+        else {
+            standPat = Evaluation.evaluate(pieces, colour);
+            if (standPat >= beta)
+                return standPat;
+            if (standPat > alpha)
+                alpha = standPat;
+            picker.resetCaptures(colour);
+        }
+
+        int bestScore = standPat;
+        int legalMoves = 0;
+        int move;
+
+        while ((move = picker.next()) != PackedMove.NONE) {
+
+            if (!inCheck && !PackedMove.isPromotion(move)
+                    && standPat + Evaluation.pieceValue(PackedMove.captured(move)) + DELTA_MARGIN <= alpha)
+                continue;
+
+            pieces.doMove(move);
+            if (isInCheck(colour)) {
+                pieces.undoMove(move);
+                continue;
+            }
+            legalMoves++;
+
+            int result = -quiescence(COLOUR.not(colour), -beta, -alpha, ply + 1);
+            pieces.undoMove(move);
+
+            if (result > bestScore) {
+                bestScore = result;
+                if (result > alpha) {
+                    alpha = result;
+                    if (result >= beta)
+                        break;
+                }
+            }
+        }
+
+        if (inCheck && legalMoves == 0)
+            return -MATE + ply;
+        return bestScore;
+    }
+
+    /**
+     * Проверяет, находится ли король указанного цвета под ударом
+     * @param colour цвет короля
+     * @return true если король атакован
+     */
+    private boolean isInCheck(COLOUR colour) {
+        int king = pieces.getPosition().kingSquare(colour);
+        return king >= 0 && Attacks.isSquareAttacked(pieces.getPosition(), king, COLOUR.not(colour));
+    }
+
+    /**
+     * Вычисляет сокращение глубины для позднего тихого хода
+     * Чем позже ход в очереди, тем сильнее сокращение; ходы, часто вызывавшие отсечения, сокращаются меньше
+     * @param move тихий ход
+     * @param moveNumber номер хода среди легальных
+     * @param depth оставшаяся глубина
+     * @return количество полуходов сокращения
+     */
+    private int lateMoveReduction(int move, int moveNumber, int depth) {
+        int reduction = moveNumber > LMR_LATE_MOVES ? 2 : 1;
+        if (history[PackedMove.piece(move).ordinal()][PackedMove.to(move)] >= LMR_HISTORY)
+            reduction--;
+        return Math.min(reduction, depth - 2);
+    }
+
+    /**
+     * Проверяет, является ли ход ходом-убийцей на данном полуходе
+     * @param move ход
+     * @param ply расстояние от корня в полуходах
+     * @return true если ход записан в ходы-убийцы
+     */
+    private boolean isKiller(int move, int ply) {
+        return move == killers[ply][0] || move == killers[ply][1];
+    }
+
+    /**
+     * Проверяет, есть ли у стороны фигуры кроме короля и пешек
+     * Без них пропуск хода ненадежен из-за цугцванга
+     * @param colour цвет стороны
+     * @return true если есть хотя бы одна фигура
+     */
+    private boolean hasPieces(COLOUR colour) {
+        Position position = pieces.getPosition();
+        SquareSet own = position.occupied(colour);
+        for (int square = own.next(0); square >= 0; square = own.next(square + 1)) {
+            ID name = position.get(square).getName();
+            if (name != ID.KING && name != ID.PAWN)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Записывает ход в главный вариант текущего полухода
+     * @param ply расстояние от корня в полуходах
+     * @param move лучший ход
+     */
+    private void updatePv(int ply, int move) {
+        pvTable[ply][0] = move;
+        int childLength = ply + 1 < MAX_PLY ? pvLength[ply + 1] : 0;
+        for (int i = 0; i < childLength; i++) {
+            pvTable[ply][i + 1] = pvTable[ply + 1][i];
+        }
+        pvLength[ply] = childLength + 1;
+    }
+
+    /**
+     * Запоминает тихий ход, вызвавший отсечение, как ход-убийцу и повышает его оценку в истории
+     * @param move тихий ход
+     * @param depth оставшаяся глубина
+     * @param ply расстояние от корня в полуходах
+     */
+    private void updateQuietStats(int move, int depth, int ply) {
+        if (move != killers[ply][0]) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+
+        int[] row = history[PackedMove.piece(move).ordinal()];
+        int to = PackedMove.to(move);
+        row[to] += depth * depth;
+        if (row[to] > HISTORY_LIMIT) {
+            for (int[] line : history) {
+                for (int i = 0; i < line.length; i++) {
+                    line[i] /= 2;
+                }
+            }
+        }
+    }
+}
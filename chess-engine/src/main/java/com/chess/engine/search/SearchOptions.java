@@ -0,0 +1,146 @@
+package com.chess.engine.search;
+
+/**
+ * Класс с настройками выборочного поиска
+ * Каждый прием сокращения перебора включается и выключается отдельно,
+ * чтобы можно было сравнивать количество позиций, нужное для достижения глубины.
+ * По умолчанию все приемы включены.
+ */
+public class SearchOptions {
+
+    private boolean principalVariation = true;
+    private boolean aspirationWindows = true;
+    private boolean nullMove = true;
+    private boolean lateMoveReductions = true;
+    private boolean futilityPruning = true;
+    private boolean checkExtensions = true;
+
+    /**
+     * Конструктор настроек со всеми включенными приемами
+     */
+    public SearchOptions() {
+    }
+
+    /**
+     * Создает настройки со всеми выключенными приемами (обычный альфа-бета перебор)
+     * @return настройки без выборочности
+     */
+    public static SearchOptions plain() {
+        SearchOptions options = new SearchOptions();
+        options.principalVariation = false;
+        options.aspirationWindows = false;
+        options.nullMove = false;
+        options.lateMoveReductions = false;
+        options.futilityPruning = false;
+        options.checkExtensions = false;
+        return options;
+    }
+
+    /**
+     * Проверяет, включен ли поиск главного варианта (PVS)
+     * @return true если ходы после первого проверяются нулевым окном
+     */
+    public boolean isPrincipalVariation() {
+        return principalVariation;
+    }
+
+    /**
+     * Включает или выключает поиск главного варианта (PVS)
+     * @param enabled true для включения
+     * @return эти же настройки
+     */
+    public SearchOptions setPrincipalVariation(boolean enabled) {
+        principalVariation = enabled;
+        return this;
+    }
+
+    /**
+     * Проверяет, включены ли окна стремления в корне
+     * @return true если итерация начинается с узкого окна вокруг прошлой оценки
+     */
+    public boolean isAspirationWindows() {
+        return aspirationWindows;
+    }
+
+    /**
+     * Включает или выключает окна стремления в корне
+     * @param enabled true для включения
+     * @return эти же настройки
+     */
+    public SearchOptions setAspirationWindows(boolean enabled) {
+        aspirationWindows = enabled;
+        return this;
+    }
+
+    /**
+     * Проверяет, включено ли отсечение нулевым ходом
+     * @return true если сторона может пропустить ход для проверки отсечения
+     */
+    public boolean isNullMove() {
+        return nullMove;
+    }
+
+    /**
+     * Включает или выключает отсечение нулевым ходом
+     * @param enabled true для включения
+     * @return эти же настройки
+     */
+    public SearchOptions setNullMove(boolean enabled) {
+        nullMove = enabled;
+        return this;
+    }
+
+    /**
+     * Проверяет, включено ли сокращение глубины для поздних ходов
+     * @return true если поздние тихие ходы просматриваются на меньшую глубину
+     */
+    public boolean isLateMoveReductions() {
+        return lateMoveReductions;
+    }
+
+    /**
+     * Включает или выключает сокращение глубины для поздних ходов
+     * @param enabled true для включения
+     * @return эти же настройки
+     */
+    public SearchOptions setLateMoveReductions(boolean enabled) {
+        lateMoveReductions = enabled;
+        return this;
+    }
+
+    /**
+     * Проверяет, включено ли отсечение бесперспективных ходов на малой глубине
+     * @return true если тихие ходы без шансов поднять оценку пропускаются
+     */
+    public boolean isFutilityPruning() {
+        return futilityPruning;
+    }
+
+    /**
+     * Включает или выключает отсечение бесперспективных ходов на малой глубине
+     * @param enabled true для включения
+     * @return эти же настройки
+     */
+    public SearchOptions setFutilityPruning(boolean enabled) {
+        futilityPruning = enabled;
+        return this;
+    }
+
+    /**
+     * Проверяет, включено ли продление поиска под шахом
+     * @return true если позиция под шахом просматривается на полуход глубже
+     */
+    public boolean isCheckExtensions() {
+        return checkExtensions;
+    }
+
+    /**
+     * Включает или выключает продление поиска под шахом
+     * @param enabled true для включения
+     * @return эти же настройки
+     */
+    public SearchOptions setCheckExtensions(boolean enabled) {
+        checkExtensions = enabled;
+        return this;
+    }
+}
@@ -0,0 +1,111 @@
+package com.chess.engine.search;
+
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.enums.ID;
+import com.chess.engine.logic.Attacks;
+import com.chess.engine.logic.Coordinate;
+import com.chess.engine.logic.PackedMove;
+import com.chess.engine.logic.Pieces;
+import com.chess.engine.logic.Position;
+import com.chess.engine.logic.SquareSet;
+import com.chess.engine.pieces.PieceKind;
+
+import java.util.Objects;
+
+/**
+ * Класс для статической оценки размена на одном поле (SEE)
+ * Стороны по очереди бьют на поле назначения самой дешевой фигурой.
+ * Побившая фигура снимается с доски, поэтому дальнобойные фигуры,
+ * стоявшие за ней на той же линии (рентген), вступают в размен следующими.
+ * Фигуры снимаются с копии позиции, поэтому доска не меняется и не восстанавливается.
+ */
+public class StaticExchange {
+
+    private static final int MAX_EXCHANGES = 64;
+
+    /**
+     * Вычисляет материальный итог размена, начатого указанным ходом
+     * Каждая сторона может прекратить размен, если продолжение ей невыгодно
+     * @param pieces текущее состояние доски (не меняется)
+     * @param move упакованное взятие или превращение
+     * @return выигрыш стороны, делающей ход, в сотых долях пешки
+     * @throws IllegalArgumentException если на поле отправления нет фигуры
+     */
+    public static int see(Pieces pieces, int move) {
+
+        Objects.requireNonNull(pieces, "Нельзя передать null объект в параметре pieces.");
+
+        Position position = new Position(pieces.getPosition());
+        int from = PackedMove.from(move);
+        int target = PackedMove.to(move);
+        PieceKind mover = position.get(from);
+        if (mover == null)
+            throw new IllegalArgumentException("На поле " + Coordinate.fromIndex(from) + " нет фигуры.");
+        int[] gain = new int[MAX_EXCHANGES];
+        int depth = 0;
+
+        gain[0] = PackedMove.isCapture(move) ? Evaluation.pieceValue(PackedMove.captured(move)) : 0;
+        int onSquare = Evaluation.pieceValue(PackedMove.piece(move));
+        if (PackedMove.isPromotion(move)) {
+            int promotionGain = Evaluation.pieceValue(PackedMove.promotion(move)) - Evaluation.pieceValue(ID.PAWN);
+            gain[0] += promotionGain;
+            onSquare += promotionGain;
+        }
+
+        position.remove(from);
+        COLOUR side = COLOUR.not(mover.getColour());
+
+        while (depth + 1 < MAX_EXCHANGES) {
+            int attacker = leastValuableAttacker(position, target, side);
+            if (attacker < 0)
+                break;
+
+            depth++;
+            gain[depth] = onSquare - gain[depth - 1];
+            if (Math.max(-gain[depth - 1], gain[depth]) < 0) {
+                depth--;
+                break;
+            }
+
+            onSquare = Evaluation.pieceValue(position.remove(attacker).getName());
+            side = COLOUR.not(side);
+        }
+
+        for (; depth > 0; depth--) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+        }
+        return gain[0];
+    }
+
+    /**
+     * Находит самую дешевую фигуру, которая может бить на поле
+     * Король бьет последним и только если поле больше никем не защищено
+     * @param position копия позиции, с которой сняты уже побившие фигуры
+     * @param target номер поля размена
+     * @param side цвет бьющей стороны
+     * @return номер поля фигуры или -1, если бить нечем
+     */
+    private static int leastValuableAttacker(Position position, int target, COLOUR side) {
+        SquareSet attackers = Attacks.attackers(position, target, side);
+        int best = -1;
+        int king = -1;
+        int bestValue = Integer.MAX_VALUE;
+
+        for (int square = attackers.next(0); square >= 0; square = attackers.next(square + 1)) {
+            ID name = position.get(square).getName();
+            if (name == ID.KING) {
+                king = square;
+                continue;
+            }
+            int value = Evaluation.pieceValue(name);
+            if (value < bestValue) {
+                bestValue = value;
+                best = square;
+            }
+        }
+
+        if (best < 0 && king >= 0 && !Attacks.isSquareAttacked(position, target, COLOUR.not(side)))
+            return king;
+        return best;
+    }
+}
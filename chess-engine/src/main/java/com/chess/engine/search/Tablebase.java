@@ -0,0 +1,490 @@
+package com.chess.engine.search;
+
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.enums.ID;
+import com.chess.engine.logic.Coordinate;
+import com.chess.engine.logic.Position;
+import com.chess.engine.pieces.PieceKind;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Класс таблицы окончаний для одного набора фигур без пешек
+ * Набор записывается строкой вида "KRvKN": фигуры белых, буква v и фигуры черных.
+ * Позиция нумеруется полями фигур в порядке набора: белый король, черный король, остальные
+ * белые и черные фигуры по порядку {@link ID}. Доска симметрична относительно восьми поворотов
+ * и отражений, а ходы фигур без пешек от них не меняются, поэтому белый король всегда переносится
+ * в треугольник a1-e1-e5 из {@value #KING_SQUARES} полей, а из нескольких подходящих преобразований
+ * (король на диагонали) берется то, что дает наименьший номер.
+ * Значение позиции - байт с точки зрения стороны, делающей ход: 0 - ничья, m &gt; 0 - выигрыш
+ * за m ходов, -(m + 1) - проигрыш за m ходов (-1 - мат на доске). Значения хранятся блоками
+ * по {@value #BLOCK} позиций, каждый блок сжат отдельно; файл отображается в память и при
+ * обращении распаковывается только нужный блок. Последние распакованные блоки кешируются.
+ * Таблица только читается и потокобезопасна.
+ */
+public class Tablebase implements Closeable {
+
+    /** Наибольшее количество фигур в таблице вместе с королями */
+    public static final int MAX_PIECES = 4;
+    /** Количество полей треугольника, в который переносится белый король */
+    public static final int KING_SQUARES = 15;
+    /** Количество позиций в блоке сжатия */
+    public static final int BLOCK = 1 << 14;
+
+    /** Значение еще не найдено (только при построении) */
+    static final int UNKNOWN = -127;
+    /** Номер не соответствует легальной или приведенной позиции */
+    static final int INVALID = -128;
+    /** Наибольшее расстояние до мата в ходах, которое помещается в байт */
+    static final int MAX_MOVES = 125;
+
+    private static final int MAGIC = 0x47435442;
+    private static final int VERSION = 1;
+    private static final int HEADER = 32;
+    private static final int MATERIAL = 8;
+    private static final int CACHE = 64;
+    private static final ID[] IDS = ID.values();
+    private static final int[][] TRANSFORMS = new int[8][Coordinate.SQUARES];
+    private static final int[] TRIANGLE = new int[Coordinate.SQUARES];
+    private static final int[] TRIANGLE_SQUARES = new int[KING_SQUARES];
+
+    static {
+        int half = Coordinate.WIDTH / 2;
+        Arrays.fill(TRIANGLE, -1);
+        for (int file = 0, next = 0; file < half; file++) {
+            for (int rank = 0; rank <= file; rank++) {
+                TRIANGLE[file + rank * Coordinate.WIDTH] = next;
+                TRIANGLE_SQUARES[next++] = file + rank * Coordinate.WIDTH;
+            }
+        }
+        // Биты преобразования: отражение вертикалей, отражение горизонталей, обмен вертикалей и горизонталей
+        for (int transform = 0; transform < TRANSFORMS.length; transform++) {
+            for (int square = 0; square < Coordinate.SQUARES; square++) {
+                int file = square % Coordinate.WIDTH;
+                int rank = square / Coordinate.WIDTH;
+                if ((transform & 1) != 0)
+                    file = Coordinate.WIDTH - 1 - file;
+                if ((transform & 2) != 0)
+                    rank = Coordinate.WIDTH - 1 - rank;
+                if ((transform & 4) != 0) {
+                    int swap = file;
+                    file = rank;
+                    rank = swap;
+                }
+                TRANSFORMS[transform][square] = file + rank * Coordinate.WIDTH;
+            }
+        }
+    }
+
+    private final PieceKind[] kinds;
+    private final String material;
+    private final int size;
+    private final byte[] values;
+    private final ByteBuffer data;
+    private final long[] offsets;
+    private final int[] cachedBlocks = new int[CACHE];
+    private final byte[][] cache = new byte[CACHE][];
+
+    /**
+     * Конструктор таблицы в памяти (результат построения)
+     * @param kinds фигуры набора в порядке нумерации
+     * @param values значения: сначала позиции с ходом белых, затем с ходом черных
+     */
+    Tablebase(PieceKind[] kinds, byte[] values) {
+        this.kinds = kinds;
+        this.material = name(kinds);
+        this.size = positions(kinds.length);
+        this.values = values;
+        this.data = null;
+        this.offsets = null;
+    }
+
+    private Tablebase(PieceKind[] kinds, ByteBuffer data, long[] offsets) {
+        this.kinds = kinds;
+        this.material = name(kinds);
+        this.size = positions(kinds.length);
+        this.values = null;
+        this.data = data;
+        this.offsets = offsets;
+        Arrays.fill(cachedBlocks, -1);
+    }
+
+    /**
+     * Открывает таблицу, отображая файл в память
+     * @param file путь к файлу таблицы
+     * @return открытая таблица
+     * @throws IOException если файл не удалось прочитать или он не является таблицей окончаний
+     */
+    public static Tablebase open(Path file) throws IOException {
+
+        Objects.requireNonNull(file, "Путь к файлу не может быть null.");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException("Таблица окончаний слишком велика для отображения в память.");
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.limit() < HEADER || mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION)
+                throw new IOException("Файл не является таблицей окончаний версии " + VERSION + ".");
+
+            byte[] name = new byte[MATERIAL];
+            mapped.position(16);
+            mapped.get(name);
+            PieceKind[] kinds;
+            try {
+                kinds = parse(new String(name, StandardCharsets.US_ASCII).trim());
+            }
+            catch (IllegalArgumentException e) {
+                throw new IOException("Таблица окончаний повреждена: " + e.getMessage());
+            }
+            long entries = mapped.getLong(24);
+            if (mapped.getInt(8) != BLOCK || mapped.getInt(12) != kinds.length || entries != 2L * positions(kinds.length))
+                throw new IOException("Таблица окончаний повреждена.");
+
+            int blocks = (int) ((entries + BLOCK - 1) / BLOCK);
+            long[] offsets = new long[blocks + 1];
+            int data = HEADER + offsets.length * Long.BYTES;
+            if (data > mapped.limit())
+                throw new IOException("Таблица окончаний повреждена.");
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = mapped.getLong(HEADER + i * Long.BYTES);
+                if (offsets[i] < 0 || i > 0 && offsets[i] < offsets[i - 1] || data + offsets[i] > mapped.limit())
+                    throw new IOException("Таблица окончаний повреждена.");
+            }
+            mapped.position(data);
+            return new Tablebase(kinds, mapped.slice(), offsets);
+        }
+    }
+
+    /**
+     * Записывает таблицу в файл, сжимая значения блоками
+     * @param file путь к файлу таблицы; существующий файл заменяется
+     * @throws IOException если файл не удалось записать
+     */
+    public void write(Path file) throws IOException {
+
+        Objects.requireNonNull(file, "Путь к файлу не может быть null.");
+
+        long entries = 2L * size;
+        int blocks = (int) ((entries + BLOCK - 1) / BLOCK);
+        List<byte[]> compressed = new ArrayList<>(blocks);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            byte[] buffer = new byte[BLOCK + BLOCK / 2];
+            for (int block = 0; block < blocks; block++) {
+                byte[] plain = block(block);
+                deflater.reset();
+                deflater.setInput(plain);
+                deflater.finish();
+                byte[] packed = new byte[0];
+                while (!deflater.finished()) {
+                    int length = deflater.deflate(buffer);
+                    packed = Arrays.copyOf(packed, packed.length + length);
+                    System.arraycopy(buffer, 0, packed, packed.length - length, length);
+                }
+                compressed.add(packed);
+            }
+        }
+        finally {
+            deflater.end();
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER + (blocks + 1) * Long.BYTES);
+            byte[] name = Arrays.copyOf(material.getBytes(StandardCharsets.US_ASCII), MATERIAL);
+            Arrays.fill(name, material.length(), MATERIAL, (byte) ' ');
+            header.putInt(MAGIC).putInt(VERSION).putInt(BLOCK).putInt(kinds.length).put(name).putLong(entries);
+            long offset = 0;
+            header.putLong(offset);
+            for (byte[] packed : compressed)
+                header.putLong(offset += packed.length);
+            header.flip();
+            while (header.hasRemaining())
+                channel.write(header);
+            for (byte[] packed : compressed) {
+                ByteBuffer buffer = ByteBuffer.wrap(packed);
+                while (buffer.hasRemaining())
+                    channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Получает набор фигур таблицы
+     * @return строка вида "KRvK"
+     */
+    public String getMaterial() {
+        return material;
+    }
+
+    /**
+     * Получает количество фигур таблицы вместе с королями
+     * @return количество фигур
+     */
+    public int getPieces() {
+        return kinds.length;
+    }
+
+    /**
+     * Получает количество номеров позиций таблицы для обеих сторон
+     * @return количество значений, включая номера нелегальных и неприведенных позиций
+     */
+    public long size() {
+        return 2L * size;
+    }
+
+    /**
+     * Закрывает таблицу; отображение файла освобождается сборщиком мусора
+     */
+    @Override
+    public void close() {
+        synchronized (cache) {
+            Arrays.fill(cache, null);
+            Arrays.fill(cachedBlocks, -1);
+        }
+    }
+
+    /**
+     * Находит значение позиции, фигуры которой совпадают с набором таблицы
+     * @param position позиция
+     * @param flipped поменять ли цвета: фигуры белых таблицы ищутся среди черных фигур позиции и наоборот
+     * @return значение с точки зрения стороны, делающей ход
+     */
+    int probe(Position position, boolean flipped) {
+        int[] squares = new int[kinds.length];
+        PieceKind previous = null;
+        for (int i = 0; i < kinds.length; i++) {
+            PieceKind kind = flipped ? PieceKind.of(COLOUR.not(kinds[i].getColour()), kinds[i].getName()) : kinds[i];
+            squares[i] = position.pieces(kind).next(kind == previous ? squares[i - 1] + 1 : 0);
+            previous = kind;
+        }
+        int side = (position.getSideToMove() == COLOUR.W) != flipped ? 0 : 1;
+        return value(code(side, index(squares)));
+    }
+
+    /**
+     * Получает значение по номеру позиции вместе со стороной
+     * @param code номер из {@link #code}
+     * @return значение с точки зрения стороны, делающей ход
+     */
+    int value(int code) {
+        if (values != null)
+            return values[code];
+        return block(code / BLOCK)[code % BLOCK];
+    }
+
+    /**
+     * Получает номер позиции вместе со стороной, делающей ход
+     * @param side 0 - ход белых, 1 - ход черных
+     * @param index номер расстановки из {@link #index}
+     * @return номер значения в таблице
+     */
+    int code(int side, int index) {
+        return side * size + index;
+    }
+
+    /**
+     * Нумерует расстановку с приведением по симметрии
+     * @param squares поля фигур в порядке набора
+     * @return наименьший номер среди преобразований, переносящих белого короля в треугольник
+     */
+    int index(int[] squares) {
+        int best = Integer.MAX_VALUE;
+        for (int[] transform : TRANSFORMS) {
+            int index = TRIANGLE[transform[squares[0]]];
+            if (index < 0)
+                continue;
+            for (int i = 1; i < squares.length; i++)
+                index = index * Coordinate.SQUARES + transform[squares[i]];
+            best = Math.min(best, index);
+        }
+        return best;
+    }
+
+    /**
+     * Раскладывает номер расстановки на поля фигур
+     * @param index номер расстановки
+     * @param squares массив, в который записываются поля фигур в порядке набора
+     */
+    void squares(int index, int[] squares) {
+        for (int i = squares.length - 1; i > 0; i--) {
+            squares[i] = index % Coordinate.SQUARES;
+            index /= Coordinate.SQUARES;
+        }
+        squares[0] = TRIANGLE_SQUARES[index];
+    }
+
+    /**
+     * Получает фигуры набора в порядке нумерации
+     * @return массив видов фигур (не копируется)
+     */
+    PieceKind[] kinds() {
+        return kinds;
+    }
+
+    /**
+     * Получает признак набора фигур, по которому таблица находится для позиции
+     * @param flipped поменять ли цвета фигур
+     * @return сумма признаков фигур без королей
+     */
+    long signature(boolean flipped) {
+        return signature(kinds, flipped);
+    }
+
+    /**
+     * Получает признак набора фигур
+     * @param kinds фигуры набора
+     * @param flipped поменять ли цвета фигур
+     * @return сумма признаков фигур без королей
+     */
+    static long signature(PieceKind[] kinds, boolean flipped) {
+        long signature = 0;
+        for (PieceKind kind : kinds)
+            signature += signature(flipped ? COLOUR.not(kind.getColour()) : kind.getColour(), kind.getName());
+        return signature;
+    }
+
+    /**
+     * Получает признак фигуры: по три бита на вид фигуры каждого цвета
+     * @param colour цвет фигуры
+     * @param name тип фигуры
+     * @return признак фигуры; у короля - 0
+     */
+    static long signature(COLOUR colour, ID name) {
+        if (name == ID.KING)
+            return 0;
+        return 1L << (3 * (name.ordinal() + (colour == COLOUR.W ? 0 : IDS.length)));
+    }
+
+    /**
+     * Разбирает строку набора фигур
+     * @param material строка вида "KRvKN"; фигуры одной стороны могут идти в любом порядке
+     * @return фигуры в порядке нумерации таблицы
+     * @throws IllegalArgumentException если строка не описывает набор без пешек с королями и не более
+     * {@value #MAX_PIECES} фигурами
+     */
+    static PieceKind[] parse(String material) {
+
+        Objects.requireNonNull(material, "Набор фигур не может быть null.");
+        String[] sides = material.split("v", -1);
+        if (sides.length != 2)
+            throw new IllegalArgumentException("Набор фигур должен иметь вид KRvK: " + material + ".");
+
+        List<PieceKind> white = side(COLOUR.W, sides[0], material);
+        List<PieceKind> black = side(COLOUR.B, sides[1], material);
+        if (white.size() + black.size() + 2 > MAX_PIECES)
+            throw new IllegalArgumentException("Таблицы строятся не более чем для " + MAX_PIECES + " фигур: " + material + ".");
+
+        List<PieceKind> kinds = new ArrayList<>();
+        kinds.add(PieceKind.of(COLOUR.W, ID.KING));
+        kinds.add(PieceKind.of(COLOUR.B, ID.KING));
+        kinds.addAll(white);
+        kinds.addAll(black);
+        return kinds.toArray(new PieceKind[0]);
+    }
+
+    /**
+     * Записывает фигуры набора строкой
+     * @param kinds фигуры в порядке нумерации таблицы
+     * @return строка вида "KRvKN"
+     */
+    static String name(PieceKind[] kinds) {
+        StringBuilder white = new StringBuilder("K");
+        StringBuilder black = new StringBuilder("K");
+        for (int i = 2; i < kinds.length; i++)
+            (kinds[i].getColour() == COLOUR.W ? white : black).append(kinds[i].getName());
+        return white + "v" + black;
+    }
+
+    private static List<PieceKind> side(COLOUR colour, String letters, String material) {
+        if (!letters.startsWith("K"))
+            throw new IllegalArgumentException("У каждой стороны должен быть один король: " + material + ".");
+        List<PieceKind> kinds = new ArrayList<>();
+        for (int i = 1; i < letters.length(); i++) {
+            ID name = null;
+            for (ID candidate : IDS) {
+                if (candidate != ID.KING && candidate != ID.PAWN && candidate.toString().charAt(0) == letters.charAt(i))
+                    name = candidate;
+            }
+            if (name == null)
+                throw new IllegalArgumentException("Неизвестная фигура набора '" + letters.charAt(i) + "': " + material + ".");
+            kinds.add(PieceKind.of(colour, name));
+        }
+        kinds.sort((first, second) -> first.getName().compareTo(second.getName()));
+        return kinds;
+    }
+
+    /**
+     * Получает количество номеров расстановок для одной стороны, делающей ход
+     * @param pieces количество фигур вместе с королями
+     * @return {@value #KING_SQUARES} * 100^(pieces - 1)
+     */
+    static int positions(int pieces) {
+        int size = KING_SQUARES;
+        for (int i = 1; i < pieces; i++)
+            size *= Coordinate.SQUARES;
+        return size;
+    }
+
+    /**
+     * Получает распакованный блок значений
+     * @param block номер блока
+     * @return значения блока; последний блок может быть короче
+     */
+    private byte[] block(int block) {
+
+        if (values != null) {
+            int from = block * BLOCK;
+            return Arrays.copyOfRange(values, from, Math.min(values.length, from + BLOCK));
+        }
+
+        int slot = block % CACHE;
+        synchronized (cache) {
+            if (cachedBlocks[slot] == block)
+                return cache[slot];
+        }
+
+        ByteBuffer input = data.duplicate();
+        input.position((int) offsets[block]).limit((int) offsets[block + 1]);
+        byte[] plain = new byte[(int) Math.min(BLOCK, 2L * size - (long) block * BLOCK)];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            int length = 0;
+            while (length < plain.length && !inflater.finished()) {
+                int inflated = inflater.inflate(plain, length, plain.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    break;
+                length += inflated;
+            }
+            if (length != plain.length)
+                throw new IllegalStateException("Блок " + block + " таблицы " + material + " поврежден.");
+        }
+        catch (DataFormatException e) {
+            throw new IllegalStateException("Блок " + block + " таблицы " + material + " поврежден.", e);
+        }
+        finally {
+            inflater.end();
+        }
+
+        synchronized (cache) {
+            cachedBlocks[slot] = block;
+            cache[slot] = plain;
+        }
+        return plain;
+    }
+}
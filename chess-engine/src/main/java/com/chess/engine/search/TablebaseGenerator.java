@@ -0,0 +1,560 @@
+package com.chess.engine.search;
+
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.enums.ID;
+import com.chess.engine.enums.MOVEGEN;
+import com.chess.engine.logic.Coordinate;
+import com.chess.engine.logic.Movement;
+import com.chess.engine.logic.Position;
+import com.chess.engine.logic.SquareSet;
+import com.chess.engine.pieces.PieceKind;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Класс ретроградного построения таблиц окончаний без пешек
+ * Сначала каждая позиция проверяется отдельно: нелегальные и неприведенные номера помечаются,
+ * маты и паты получают значение сразу, а взятия переводят в уже построенные таблицы меньшего
+ * набора (они строятся заранее рекурсивно). Затем позиции с найденным значением разбираются
+ * по возрастанию расстояния до мата в полуходах: для каждой перебираются обратные тихие ходы.
+ * Предшественник проигранной позиции выигран на полуход дальше; предшественник выигранной
+ * проигран, только если выиграны все его ходы, и тогда на полуход дальше самого долгого из них
+ * (включая взятия, которые ведут в меньшую таблицу и могут быть выиграны намного дальше).
+ * Позиции, не получившие значения, - ничьи. Проверка позиций и обратные ходы выполняются
+ * параллельно, а значения записываются между проходами в одном потоке, поэтому каждый проход
+ * видит таблицу без гонок.
+ */
+public class TablebaseGenerator {
+
+    /** Количество отрезков работы на один поток, чтобы потоки заканчивали проход примерно вместе */
+    private static final int SEGMENTS_PER_THREAD = 4;
+    /** Наименьшее количество позиций отрезка */
+    private static final int MIN_SEGMENT = 1 << 10;
+
+    private final Tablebases tables = new Tablebases();
+    private final int threads;
+
+    /**
+     * Конструктор построителя
+     * @param threads количество потоков
+     * @throws IllegalArgumentException если количество потоков не положительно
+     */
+    public TablebaseGenerator(int threads) {
+        if (threads <= 0)
+            throw new IllegalArgumentException("Количество потоков должно быть положительным.");
+        this.threads = threads;
+    }
+
+    /**
+     * Строит таблицу набора и все таблицы, в которые из него ведут взятия
+     * Уже построенные таблицы (в любом расположении цветов) не строятся повторно.
+     * @param material строка вида "KRvKN", не более {@value Tablebase#MAX_PIECES} фигур без пешек
+     * @return таблица набора
+     * @throws IllegalArgumentException если строка не описывает допустимый набор
+     * @throws IllegalStateException если расстояние до мата не помещается в таблицу или построение прервано
+     */
+    public Tablebase generate(String material) {
+
+        PieceKind[] kinds = Tablebase.parse(material);
+        Tablebase existing = tables.get(material);
+        if (existing != null)
+            return existing;
+
+        // Взятие любой фигуры, кроме короля, ведет в набор на одну фигуру меньше
+        for (int i = 2; i < kinds.length && kinds.length > 3; i++) {
+            PieceKind[] smaller = new PieceKind[kinds.length - 1];
+            System.arraycopy(kinds, 0, smaller, 0, i);
+            System.arraycopy(kinds, i + 1, smaller, i, kinds.length - i - 1);
+            generate(Tablebase.name(smaller));
+        }
+
+        Tablebase table = new Job(kinds).run();
+        tables.add(table);
+        return table;
+    }
+
+    /**
+     * Записывает все построенные таблицы в каталог
+     * @param directory каталог; файлы называются по набору фигур с расширением {@value Tablebases#EXTENSION}
+     * @throws IOException если каталог или файл не удалось записать
+     */
+    public void write(Path directory) throws IOException {
+        Objects.requireNonNull(directory, "Путь к каталогу не может быть null.");
+        Files.createDirectories(directory);
+        for (Tablebase table : tables.getTables())
+            table.write(directory.resolve(table.getMaterial() + Tablebases.EXTENSION));
+    }
+
+    /**
+     * Получает построенные таблицы
+     * @return набор таблиц, в который добавляется каждая построенная таблица
+     */
+    public Tablebases getTablebases() {
+        return tables;
+    }
+
+    /**
+     * Построение одной таблицы
+     */
+    private class Job {
+
+        /** Оценка по всем ходам */
+        private static final int EXACT = 0;
+        /** Только проверка проигрыша: перебор прекращается на первом ходе, который не ведет к выигрышу соперника */
+        private static final int LOSS = 1;
+        /** Оценка до проходов: значения тихих ходов еще не известны, важны взятия и наличие ходов */
+        private static final int CAPTURES = 2;
+
+        private final PieceKind[] kinds;
+        private final Movement[] movements;
+        private final Tablebase layout;
+        private final byte[] values;
+        private final int size;
+
+        Job(PieceKind[] kinds) {
+            this.kinds = kinds;
+            this.movements = new Movement[kinds.length];
+            for (int i = 0; i < kinds.length; i++)
+                movements[i] = Movement.of(kinds[i].getName());
+            this.values = new byte[2 * Tablebase.positions(kinds.length)];
+            this.layout = new Tablebase(kinds, values);
+            this.size = values.length / 2;
+        }
+
+        Tablebase run() {
+
+            Arrays.fill(values, (byte) Tablebase.UNKNOWN);
+            List<Codes> buckets = new ArrayList<>();
+            BitSet candidates = new BitSet(values.length);
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                queue(buckets, split(pool, values.length, Board::initialize));
+
+                for (int plies = 0; plies < buckets.size(); plies++) {
+                    Codes fresh = new Codes();
+                    int value = value(plies);
+                    Codes bucket = buckets.get(plies);
+                    for (int i = 0; i < bucket.size(); i++) {
+                        int code = bucket.get(i);
+                        if (values[code] == Tablebase.UNKNOWN) {
+                            values[code] = (byte) value;
+                            fresh.add(code);
+                        }
+                    }
+                    buckets.set(plies, null);
+                    if (fresh.isEmpty())
+                        continue;
+
+                    Codes predecessors = split(pool, fresh.size(), (board, from, to) -> board.predecessors(fresh, from, to));
+                    if (value < 0) {
+                        // Предшественник проигранной позиции выигран на следующем полуходе
+                        Codes wins = new Codes();
+                        for (int i = 0; i < predecessors.size(); i++) {
+                            wins.add(predecessors.get(i));
+                            wins.add(value(plies + 1));
+                        }
+                        queue(buckets, wins);
+                    }
+                    else {
+                        // Предшественник, к которому ведут несколько позиций прохода, проверяется один раз
+                        Codes unique = new Codes();
+                        candidates.clear();
+                        for (int i = 0; i < predecessors.size(); i++) {
+                            int code = predecessors.get(i);
+                            if (!candidates.get(code)) {
+                                candidates.set(code);
+                                unique.add(code);
+                            }
+                        }
+                        queue(buckets, split(pool, unique.size(), (board, from, to) -> board.losses(unique, from, to)));
+                    }
+                }
+            }
+            finally {
+                pool.shutdownNow();
+            }
+
+            for (int code = 0; code < values.length; code++) {
+                if (values[code] == Tablebase.UNKNOWN)
+                    values[code] = 0;
+            }
+            return layout;
+        }
+
+        /**
+         * Делит работу прохода на отрезки и выполняет их параллельно, у каждого отрезка своя доска
+         * @param count количество элементов работы
+         * @param pass работа над отрезком элементов
+         * @return результаты отрезков подряд
+         */
+        private Codes split(ExecutorService pool, int count, Pass pass) {
+            int segment = Math.max(MIN_SEGMENT, count / (threads * SEGMENTS_PER_THREAD) + 1);
+            List<Future<Codes>> parts = new ArrayList<>();
+            for (int first = 0; first < count; first += segment) {
+                int from = first;
+                int to = Math.min(count, first + segment);
+                parts.add(pool.submit(() -> pass.run(new Board(), from, to)));
+            }
+            Codes found = new Codes();
+            for (Future<Codes> part : parts)
+                found.addAll(await(part));
+            return found;
+        }
+
+        /**
+         * Раскладывает найденные позиции по расстоянию до мата
+         * @param found пары (номер, значение)
+         */
+        private void queue(List<Codes> buckets, Codes found) {
+            for (int i = 0; i < found.size(); i += 2) {
+                int plies = Tablebases.plies(found.get(i + 1));
+                while (buckets.size() <= plies)
+                    buckets.add(new Codes());
+                buckets.get(plies).add(found.get(i));
+            }
+        }
+
+        /**
+         * Доска одного потока: позиция собирается по номеру и разбирается перед следующим
+         * Позиция нужна для генерации ходов и обращения к меньшим таблицам, а ходы и обратные ходы
+         * делаются в простом массиве полей: их миллионы, и пересчет ключа и множеств позиции заметен.
+         */
+        private class Board {
+
+            private final Position position = new Position();
+            private final PieceKind[] board = new PieceKind[Coordinate.SQUARES];
+            private final int[] squares = new int[kinds.length];
+            private final SquareSet targets = new SquareSet();
+            private final SquareSet moves = new SquareSet();
+            private boolean placed;
+
+            /**
+             * Проверяет позиции отрезка номеров
+             * @return пары (номер, значение) для матов и позиций, значение которых определили взятия
+             */
+            Codes initialize(int from, int to) {
+                Codes found = new Codes();
+                for (int code = from; code < to; code++) {
+                    int side = code / size;
+                    if (!setup(side, code % size)) {
+                        values[code] = (byte) Tablebase.INVALID;
+                        continue;
+                    }
+                    int value = evaluate(side, CAPTURES);
+                    if (value == 0)
+                        values[code] = 0;
+                    else if (value != Tablebase.UNKNOWN) {
+                        found.add(code);
+                        found.add(value);
+                    }
+                }
+                clear();
+                return found;
+            }
+
+            /**
+             * Перебирает обратные ходы из позиций, получивших значение в этом проходе
+             * @param fresh номера позиций прохода
+             * @return номера предшественников, значение которых еще не найдено (возможны повторы)
+             */
+            Codes predecessors(Codes fresh, int from, int to) {
+                Codes found = new Codes();
+                for (int i = from; i < to; i++) {
+                    int code = fresh.get(i);
+                    int side = code / size;
+                    setup(side, code % size);
+                    COLOUR mover = COLOUR.not(colour(side));
+                    position.setSideToMove(mover);
+
+                    for (int piece = 0; piece < kinds.length; piece++) {
+                        if (kinds[piece].getColour() != mover)
+                            continue;
+                        int current = squares[piece];
+                        targets.clear();
+                        Movement.generate(position, current, kinds[piece], MOVEGEN.QUIETS, targets);
+                        for (int back = targets.next(0); back >= 0; back = targets.next(back + 1)) {
+                            move(piece, current, back);
+                            // Предшественник, где под шахом сторона, которая не ходит, помечен как нелегальный
+                            int predecessor = layout.code(1 - side, layout.index(squares));
+                            if (values[predecessor] == Tablebase.UNKNOWN)
+                                found.add(predecessor);
+                            move(piece, back, current);
+                        }
+                    }
+                }
+                clear();
+                return found;
+            }
+
+            /**
+             * Проверяет предшественников выигранных позиций: позиция проиграна, если выиграны все ее ходы
+             * Самая долгая защита может быть взятием в меньшую таблицу, выигранным соперником намного
+             * позже этого прохода, поэтому значение считается по всем ходам, а не по проходу
+             * @param candidates номера предшественников без повторов
+             * @return пары (номер, значение) для проигранных позиций
+             */
+            Codes losses(Codes candidates, int from, int to) {
+                Codes found = new Codes();
+                for (int i = from; i < to; i++) {
+                    int code = candidates.get(i);
+                    int side = code / size;
+                    setup(side, code % size);
+                    if (evaluate(side, LOSS) != Tablebase.UNKNOWN) {
+                        found.add(code);
+                        found.add(evaluate(side, EXACT));
+                    }
+                }
+                clear();
+                return found;
+            }
+
+            /**
+             * Собирает позицию по номеру
+             * @return false если номер не соответствует легальной приведенной позиции
+             */
+            private boolean setup(int side, int index) {
+                clear();
+                layout.squares(index, squares);
+                for (int i = 0; i < squares.length; i++) {
+                    for (int j = 0; j < i; j++) {
+                        if (squares[i] == squares[j])
+                            return false;
+                    }
+                }
+                if (layout.index(squares) != index)
+                    return false;
+                for (int i = 0; i < squares.length; i++) {
+                    position.put(squares[i], kinds[i], false);
+                    board[squares[i]] = kinds[i];
+                }
+                placed = true;
+                COLOUR colour = colour(side);
+                position.setSideToMove(colour);
+                return !attacked(squares[1 - side], colour);
+            }
+
+            /**
+             * Проверяет, бьет ли поле фигура указанного цвета
+             * Фигур в таблице не больше {@value Tablebase#MAX_PIECES}, поэтому проверить каждую из них
+             * дешевле, чем обходить лучи от поля, как это делает {@link com.chess.engine.logic.Attacks}
+             * @param square номер поля
+             * @param by цвет нападающих фигур
+             * @return true если поле атаковано
+             */
+            private boolean attacked(int square, COLOUR by) {
+                int file = square % Coordinate.WIDTH;
+                int rank = square / Coordinate.WIDTH;
+                for (int piece = 0; piece < kinds.length; piece++) {
+                    int from = squares[piece];
+                    // Взятая фигура остается в squares, но на ее поле уже стоит другая
+                    if (kinds[piece].getColour() != by || board[from] != kinds[piece])
+                        continue;
+                    int dx = file - from % Coordinate.WIDTH;
+                    int dy = rank - from / Coordinate.WIDTH;
+                    Movement movement = movements[piece];
+                    if (kinds[piece].getName() == ID.KING) {
+                        if (Math.max(Math.abs(dx), Math.abs(dy)) == 1)
+                            return true;
+                        continue;
+                    }
+                    if (movement.leapsAsKnight() && Math.abs(dx * dy) == 2)
+                        return true;
+                    boolean line = (dx == 0) != (dy == 0);
+                    boolean diagonal = dx != 0 && Math.abs(dx) == Math.abs(dy);
+                    if (line && movement.slidesOnLines() || diagonal && movement.slidesOnDiagonals()) {
+                        int step = Integer.signum(dx) + Integer.signum(dy) * Coordinate.WIDTH;
+                        int between = from + step;
+                        while (between != square && board[between] == null)
+                            between += step;
+                        if (between == square)
+                            return true;
+                    }
+                }
+                return false;
+            }
+
+            /**
+             * Переставляет фигуру на доске потока; позиция для генерации ходов не меняется
+             */
+            private void move(int piece, int from, int to) {
+                board[from] = null;
+                board[to] = kinds[piece];
+                squares[piece] = to;
+            }
+
+            /**
+             * Находит значение позиции после взятия в таблице меньшего набора
+             * @return значение с точки зрения соперника, который ходит после взятия
+             */
+            private int probeCapture(int from, int to, int piece, COLOUR opponent) {
+                PieceKind captured = position.remove(to);
+                position.remove(from);
+                position.put(to, kinds[piece], false);
+                position.setSideToMove(opponent);
+                int child = tables.probe(position);
+                position.setSideToMove(COLOUR.not(opponent));
+                position.remove(to);
+                position.put(from, kinds[piece], false);
+                position.put(to, captured, false);
+                if (child == Tablebases.NONE)
+                    throw new IllegalStateException("Нет таблицы для позиции после взятия: " + position + ".");
+                return child;
+            }
+
+            private void clear() {
+                if (!placed)
+                    return;
+                for (int square : squares) {
+                    position.remove(square);
+                    board[square] = null;
+                }
+                placed = false;
+            }
+
+            /**
+             * Оценивает собранную позицию по значениям позиций после каждого легального хода
+             * @param side сторона, делающая ход
+             * @param mode {@link #EXACT}, {@link #LOSS} или {@link #CAPTURES}
+             * @return мат, пат, выигрыш (есть ход в проигранную позицию), проигрыш (все ходы ведут
+             * в выигранные позиции) или {@link Tablebase#UNKNOWN}
+             */
+            private int evaluate(int side, int mode) {
+
+                COLOUR colour = colour(side);
+                COLOUR opponent = COLOUR.not(colour);
+                int bestLoss = 0;
+                int longestWin = 0;
+                boolean allWins = true;
+                boolean anyMove = false;
+
+                for (int piece = 0; piece < kinds.length; piece++) {
+                    if (kinds[piece].getColour() != colour)
+                        continue;
+                    int current = squares[piece];
+                    moves.clear();
+                    Movement.generate(position, current, kinds[piece], MOVEGEN.ALL, moves);
+                    for (int to = moves.next(0); to >= 0; to = moves.next(to + 1)) {
+                        PieceKind captured = board[to];
+                        // До проходов тихий ход ведет в позицию без значения: достаточно одного легального
+                        if (captured == null && mode == CAPTURES && !allWins)
+                            continue;
+                        move(piece, current, to);
+                        int child;
+                        if (attacked(squares[side], opponent))
+                            child = Tablebase.INVALID;
+                        else if (captured != null)
+                            child = probeCapture(current, to, piece, opponent);
+                        else
+                            child = mode == CAPTURES ? Tablebase.UNKNOWN : values[layout.code(1 - side, layout.index(squares))];
+                        move(piece, to, current);
+                        board[to] = captured;
+                        if (child == Tablebase.INVALID)
+                            continue;
+
+                        anyMove = true;
+                        if (child > 0)
+                            longestWin = Math.max(longestWin, child);
+                        else {
+                            allWins = false;
+                            if (mode == LOSS)
+                                return Tablebase.UNKNOWN;
+                            if (child < 0 && child != Tablebase.UNKNOWN && (bestLoss == 0 || child > bestLoss))
+                                bestLoss = child;
+                        }
+                    }
+                }
+
+                if (!anyMove)
+                    return attacked(squares[side], opponent) ? -1 : 0;
+                if (bestLoss != 0)
+                    return -bestLoss;
+                if (allWins) {
+                    if (longestWin > Tablebase.MAX_MOVES)
+                        throw new IllegalStateException("Расстояние до мата в таблице " + layout.getMaterial()
+                                + " не помещается в байт.");
+                    return -(longestWin + 1);
+                }
+                return Tablebase.UNKNOWN;
+            }
+        }
+    }
+
+    private static COLOUR colour(int side) {
+        return side == 0 ? COLOUR.W : COLOUR.B;
+    }
+
+    /**
+     * Переводит расстояние до мата в полуходах в значение таблицы
+     * @param plies полуходы: нечетные - выигрыш стороны, делающей ход, четные - проигрыш
+     * @return значение таблицы
+     */
+    private static int value(int plies) {
+        return plies % 2 == 1 ? (plies + 1) / 2 : -(plies / 2 + 1);
+    }
+
+    /**
+     * Работа над отрезком элементов прохода
+     */
+    private interface Pass {
+        Codes run(Job.Board board, int from, int to);
+    }
+
+    /**
+     * Растущий список номеров позиций
+     */
+    private static class Codes {
+
+        private int[] codes = new int[16];
+        private int size;
+
+        void add(int code) {
+            if (size == codes.length)
+                codes = Arrays.copyOf(codes, size * 2);
+            codes[size++] = code;
+        }
+
+        void addAll(Codes other) {
+            for (int i = 0; i < other.size; i++)
+                add(other.codes[i]);
+        }
+
+        int get(int index) {
+            return codes[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+
+    private static <T> T await(Future<T> worker) {
+        try {
+            return worker.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Построение таблицы прервано.", e);
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.chess.engine.search;
+
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.logic.Position;
+import com.chess.engine.logic.SquareSet;
+import com.chess.engine.pieces.PieceKind;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Класс набора таблиц окончаний, к которому обращается поиск
+ * Таблица для позиции выбирается по фигурам на доске. Таблица строится для одного расположения
+ * цветов ("KRvK"), а позиция с теми же фигурами другого цвета ("KvKR") находится по ней же:
+ * без пешек ходы фигур от цвета не зависят, поэтому достаточно поменять цвета и очередь хода.
+ * Позиция с одними королями - всегда ничья. Позиции с правом рокировки в таблицах не учитываются.
+ */
+public class Tablebases implements Closeable {
+
+    /** Расширение файлов таблиц */
+    public static final String EXTENSION = ".gtb";
+    /** Результат обращения, если для позиции нет таблицы */
+    public static final int NONE = Integer.MIN_VALUE;
+
+    private final Map<Long, Tablebase> tables = new HashMap<>();
+    private final Map<Long, Tablebase> flippedTables = new HashMap<>();
+    private final List<Tablebase> all = new ArrayList<>();
+    private int maxPieces = 2;
+
+    /**
+     * Открывает все таблицы каталога
+     * @param directory каталог с файлами {@value #EXTENSION}
+     * @return набор открытых таблиц
+     * @throws IOException если каталог или одну из таблиц не удалось прочитать
+     */
+    public static Tablebases open(Path directory) throws IOException {
+
+        Objects.requireNonNull(directory, "Путь к каталогу не может быть null.");
+
+        Tablebases tablebases = new Tablebases();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : files)
+                tablebases.add(Tablebase.open(file));
+        }
+        return tablebases;
+    }
+
+    /**
+     * Добавляет таблицу в набор; таблица с тем же набором фигур заменяется
+     * @param table таблица
+     */
+    public void add(Tablebase table) {
+        Objects.requireNonNull(table, "Таблица не может быть null.");
+        Tablebase previous = tables.put(table.signature(false), table);
+        if (previous != null)
+            all.remove(previous);
+        all.add(table);
+        flippedTables.put(table.signature(true), table);
+        maxPieces = Math.max(maxPieces, table.getPieces());
+    }
+
+    /**
+     * Находит таблицу для набора фигур в любом расположении цветов
+     * @param material строка вида "KRvK"
+     * @return таблица или null, если ее нет в наборе
+     */
+    public Tablebase get(String material) {
+        long signature = Tablebase.signature(Tablebase.parse(material), false);
+        Tablebase found = tables.get(signature);
+        return found != null ? found : flippedTables.get(signature);
+    }
+
+    /**
+     * Получает все таблицы набора
+     * @return таблицы в порядке добавления
+     */
+    public List<Tablebase> getTables() {
+        return new ArrayList<>(all);
+    }
+
+    /**
+     * Получает наибольшее количество фигур, для которого в наборе есть таблицы
+     * @return количество фигур вместе с королями
+     */
+    public int getMaxPieces() {
+        return maxPieces;
+    }
+
+    /**
+     * Находит значение позиции в таблицах
+     * @param position позиция; сторона, не делающая ход, не должна быть под шахом
+     * @return 0 - ничья, m &gt; 0 - выигрыш стороны, делающей ход, за m ходов, -(m + 1) - проигрыш за m ходов;
+     * {@link #NONE}, если таблицы для позиции нет
+     */
+    public int probe(Position position) {
+
+        Objects.requireNonNull(position, "Позиция не может быть null.");
+        if (position.size() > maxPieces || position.getCastlingRights() != 0)
+            return NONE;
+        if (position.kingSquare(COLOUR.W) < 0 || position.kingSquare(COLOUR.B) < 0)
+            return NONE;
+        if (position.size() == 2)
+            return 0;
+
+        long signature = 0;
+        for (COLOUR colour : COLOUR.values()) {
+            SquareSet own = position.occupied(colour);
+            for (int square = own.next(0); square >= 0; square = own.next(square + 1)) {
+                PieceKind kind = position.get(square);
+                signature += Tablebase.signature(colour, kind.getName());
+            }
+        }
+
+        int value;
+        Tablebase table = tables.get(signature);
+        if (table != null)
+            value = table.probe(position, false);
+        else if ((table = flippedTables.get(signature)) != null)
+            value = table.probe(position, true);
+        else
+            return NONE;
+        return value == Tablebase.INVALID || value == Tablebase.UNKNOWN ? NONE : value;
+    }
+
+    /**
+     * Переводит значение таблицы в расстояние до мата в полуходах
+     * @param value значение из {@link #probe}, отличное от ничьей
+     * @return количество полуходов до мата: 2m - 1 для выигрыша за m ходов, 2m для проигрыша за m ходов
+     */
+    public static int plies(int value) {
+        return value > 0 ? 2 * value - 1 : -2 * value - 2;
+    }
+
+    /**
+     * Закрывает все таблицы набора
+     */
+    @Override
+    public void close() {
+        for (Tablebase table : all)
+            table.close();
+        tables.clear();
+        flippedTables.clear();
+        all.clear();
+        maxPieces = 2;
+    }
+}
@@ -41,11 +41,15 @@ class CoordinateTest {
     }
 
     @Test
-    @DisplayName("Проверка строкового конструктора с трехзначной строкой")
+    @DisplayName("Проверка строкового конструктора с двузначной горизонталью")
     void testStringConstructorThreeChars() {
         Coordinate coord = new Coordinate("j10");
-        assertEquals(0, coord.getFile());
-        assertEquals(0, coord.getRank());
+        assertEquals('j', coord.getFile());
+        assertEquals(10, coord.getRank());
+
+        Coordinate invalid = new Coordinate("j1a");
+        assertEquals(0, invalid.getFile());
+        assertEquals(0, invalid.getRank());
     }
 
     @Test
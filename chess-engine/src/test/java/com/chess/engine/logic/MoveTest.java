@@ -2,6 +2,7 @@ package com.chess.engine.logic;
 
 import com.chess.engine.enums.COLOUR;
 import com.chess.engine.enums.ID;
+import com.chess.engine.enums.MOVEGEN;
 import com.chess.engine.pieces.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,6 +10,7 @@ import org.junit.jupiter.api.DisplayName;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -116,6 +118,23 @@ class MoveTest {
         assertTrue(frontRightMoves.size() > 0 || frontLeftMoves.size() > 0);
     }
 
+    @Test
+    @DisplayName("Проверка генерации только взятий и только тихих ходов")
+    void testGenerationModes() {
+        ArrayList<Coordinate> captures = Move.frontFree(pieces, whitePawn, 9, MOVEGEN.CAPTURES);
+        assertEquals(1, captures.size());
+        assertTrue(captures.contains(blackPawnCoord));
+
+        ArrayList<Coordinate> quiets = Move.frontFree(pieces, whitePawn, 9, MOVEGEN.QUIETS);
+        assertEquals(4, quiets.size());
+        assertFalse(quiets.contains(blackPawnCoord));
+
+        assertEquals(0, Move.rightFree(pieces, whiteRook, 9, MOVEGEN.CAPTURES).size());
+        assertEquals(Move.frontKnight(pieces, whiteKnight).size(),
+                Move.frontKnight(pieces, whiteKnight, MOVEGEN.QUIETS).size());
+        assertEquals(0, Move.frontKnight(pieces, whiteKnight, MOVEGEN.CAPTURES).size());
+    }
+
     @Test
     @DisplayName("Проверка ходов коня")
     void testKnightMoves() {
@@ -430,4 +449,49 @@ class MoveTest {
         String pieceString = whitePawn.toString();
         assertTrue(pieceString.contains("e2"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Проверка совпадения табличной генерации с ходами по направлениям")
+    void testTableDrivenGeneration() {
+        HashMap<Coordinate, Piece> withoutPawns = Boards.getChessBoard();
+        withoutPawns.values().removeIf(piece -> piece.getName() == ID.PAWN);
+
+        for (Pieces board : new Pieces[] {new Pieces(), new Pieces(withoutPawns)}) {
+            for (Piece piece : board.getPieces().values()) {
+                if (piece.getName() == ID.PAWN)
+                    continue;
+                Movement movement = Movement.of(piece.getName());
+                int limit = piece.getName() == ID.KING ? piece.single : piece.dimension;
+                HashSet<Coordinate> expected = new HashSet<>();
+
+                if (movement.slidesOnLines() || piece.getName() == ID.KING) {
+                    expected.addAll(Move.frontFree(board, piece, limit));
+                    expected.addAll(Move.backFree(board, piece, limit));
+                    expected.addAll(Move.rightFree(board, piece, limit));
+                    expected.addAll(Move.leftFree(board, piece, limit));
+                }
+                if (movement.slidesOnDiagonals() || piece.getName() == ID.KING) {
+                    expected.addAll(Move.frontRDigFree(board, piece, limit));
+                    expected.addAll(Move.backRDigFree(board, piece, limit));
+                    expected.addAll(Move.frontLDigFree(board, piece, limit));
+                    expected.addAll(Move.backLDigFree(board, piece, limit));
+                }
+                if (movement.leapsAsKnight()) {
+                    expected.addAll(Move.frontKnight(board, piece));
+                    expected.addAll(Move.backKnight(board, piece));
+                    expected.addAll(Move.rightKnight(board, piece));
+                    expected.addAll(Move.leftKnight(board, piece));
+                }
+
+                ArrayList<Coordinate> generated = piece.getRawMoves(board);
+                assertEquals(expected.size(), generated.size(), piece.toString());
+                assertEquals(expected, new HashSet<>(generated), piece.toString());
+            }
+        }
+
+        assertTrue(Movement.of(ID.GIRAFFE).slidesOnLines() && Movement.of(ID.GIRAFFE).slidesOnDiagonals()
+                && Movement.of(ID.GIRAFFE).leapsAsKnight());
+        assertFalse(Movement.of(ID.KING).slidesOnLines() || Movement.of(ID.KING).leapsAsKnight());
+        assertFalse(Movement.of(ID.PAWN).slidesOnDiagonals());
+    }
+}
@@ -0,0 +1,83 @@
+package com.chess.engine.logic;
+
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.enums.ID;
+import com.chess.engine.pieces.King;
+import com.chess.engine.pieces.Pawn;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Rook;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedMoveTest {
+
+    @Test
+    @DisplayName("Проверка упаковки и распаковки всех полей хода")
+    void testRoundTrip() {
+        for (ID piece : ID.values()) {
+            for (int from : new int[] {0, 45, 99}) {
+                int to = 99 - from;
+                int move = PackedMove.of(from, to, piece, ID.GIRAFFE, ID.KING,
+                        PackedMove.CASTLING | PackedMove.DOUBLE_PUSH);
+
+                assertEquals(from, PackedMove.from(move));
+                assertEquals(to, PackedMove.to(move));
+                assertEquals(piece, PackedMove.piece(move));
+                assertEquals(ID.GIRAFFE, PackedMove.captured(move));
+                assertEquals(ID.KING, PackedMove.promotion(move));
+                assertTrue(PackedMove.hasFlag(move, PackedMove.CASTLING));
+                assertFalse(PackedMove.hasFlag(move, PackedMove.EN_PASSANT));
+                assertTrue(PackedMove.hasFlag(move, PackedMove.DOUBLE_PUSH));
+            }
+        }
+
+        int quiet = PackedMove.of(new Coordinate('e', 3).toIndex(), new Coordinate('e', 4).toIndex(),
+                ID.KING, null, null);
+        assertNotEquals(PackedMove.NONE, quiet);
+        assertNull(PackedMove.captured(quiet));
+        assertNull(PackedMove.promotion(quiet));
+        assertFalse(PackedMove.isTactical(quiet));
+        assertEquals(0, PackedMove.flags(quiet));
+        assertEquals("e3e4", PackedMove.toString(quiet));
+        assertEquals(new Coordinate('e', 4), PackedMove.toCoordinate(quiet));
+    }
+
+    @Test
+    @DisplayName("Проверка записи ходов партии и списка ходов")
+    void testMoveHistory() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+        board.put(new Coordinate('a', 1), new King(COLOUR.W, new Coordinate('a', 1)));
+        board.put(new Coordinate('j', 10), new King(COLOUR.B, new Coordinate('j', 10)));
+        board.put(new Coordinate('c', 9), new Pawn(COLOUR.W, new Coordinate('c', 9)));
+        board.put(new Coordinate('d', 10), new Rook(COLOUR.B, new Coordinate('d', 10)));
+        Pieces pieces = new Pieces(board);
+
+        int promotion = pieces.createMove(new Coordinate('c', 9), new Coordinate('d', 10));
+        assertEquals(ID.PAWN, PackedMove.piece(promotion));
+        assertEquals(ID.ROOK, PackedMove.captured(promotion));
+        assertEquals(ID.QUEEN, PackedMove.promotion(promotion));
+        assertEquals("c9d10Q", PackedMove.toString(promotion));
+
+        pieces.makeMove(new Coordinate('d', 10), board.get(new Coordinate('c', 9)));
+        assertEquals(1, pieces.getMoveHistory().size());
+        assertEquals(promotion, pieces.getMoveHistory().get(0));
+        assertEquals(pieces.getMoveHistory(), new Pieces(pieces).getMoveHistory());
+
+        MoveList moves = new MoveList(1);
+        for (int i = 1; i <= 200; i++) {
+            moves.add(i);
+        }
+        moves.swap(0, 199);
+        assertEquals(200, moves.size());
+        assertEquals(200, moves.get(0));
+        assertEquals(199, moves.indexOf(1));
+        assertEquals(1, moves.removeLast());
+        moves.clear();
+        assertTrue(moves.isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> moves.get(0));
+    }
+}
@@ -1,14 +1,18 @@
 package com.chess.engine.logic;
 
 import com.chess.engine.enums.COLOUR;
+import com.chess.engine.enums.ID;
+import com.chess.engine.enums.MOVEGEN;
 import com.chess.engine.pieces.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -62,6 +66,25 @@ class PiecesTest {
         assertEquals(pieces.getPieces().size(), copyPieces.getPieces().size());
         assertNotSame(pieces, copyPieces);
 
+        // Копия строит свои фигуры по позиции, ход копии не меняет оригинал
+        Pieces start = new Pieces();
+        Pieces copyStart = new Pieces(start);
+        assertEquals(start.getPosition(), copyStart.getPosition());
+        int move = copyStart.generateMoves(COLOUR.W).get(0);
+        Coordinate from = PackedMove.fromCoordinate(move);
+        assertNotSame(start.getPiece(from), copyStart.getPiece(from));
+        copyStart.makeMove(move);
+        assertEquals(COLOUR.B, copyStart.getSideToMove());
+        assertEquals(COLOUR.W, start.getSideToMove());
+        assertNotNull(start.getPosition().get(from.toIndex()));
+        assertEquals(start.getGameProgress().size() + 1, copyStart.getGameProgress().size());
+
+        // Доска по позиции сохраняет очередь хода
+        copyStart.getPosition().setSideToMove(COLOUR.B);
+        Pieces fromPosition = new Pieces(copyStart.getPosition());
+        assertEquals(COLOUR.B, fromPosition.getSideToMove());
+        assertEquals(copyStart.getPieces().size(), fromPosition.getPieces().size());
+
         Pieces customPieces = new Pieces(new HashMap<>());
         assertNotNull(customPieces);
     }
@@ -75,8 +98,6 @@ class PiecesTest {
 
         pieces.setIsCapture(true);
         assertTrue(pieces.getIsCapture());
-
-        pieces.setGUIGame(true);
     }
 
     @Test
@@ -217,6 +238,80 @@ class PiecesTest {
         assertTrue(pieces.getGameProgress().size() > initialProgressSize);
     }
 
+    @Test
+    @DisplayName("Проверка очереди хода и пересчета ходов только для стороны, которая ходит")
+    void testSideToMove() {
+        assertEquals(COLOUR.W, pieces.getSideToMove());
+
+        pieces.makeMove(new Coordinate('e', 3), whitePawn);
+        assertEquals(COLOUR.B, pieces.getSideToMove());
+        assertEquals(COLOUR.B, pieces.getPosition().getSideToMove());
+        assertTrue(whiteRook.getPotentialMoves().isEmpty());
+        assertFalse(blackKing.getPotentialMoves().isEmpty());
+        assertTrue(pieces.allColouredPotentials(COLOUR.W).contains(new Coordinate('a', 5)));
+
+        MoveList moves = pieces.generateMoves(MOVEGEN.ALL);
+        assertFalse(moves.isEmpty());
+        for (int i = 0; i < moves.size(); i++) {
+            assertEquals(COLOUR.B, pieces.getPosition().get(PackedMove.from(moves.get(i))).getColour());
+        }
+
+        pieces.doNullMove();
+        assertEquals(COLOUR.W, pieces.getSideToMove());
+        pieces.undoNullMove();
+        assertEquals(COLOUR.B, pieces.getSideToMove());
+
+        // Ход не в очередь отклоняется; очередь передается только явно
+        pieces.setSideToMove(COLOUR.W);
+        assertFalse(whiteRook.getPotentialMoves().isEmpty());
+        Coordinate blackPawnCoord = pieces.findPiece(blackPawn);
+        assertThrows(IllegalStateException.class, () -> pieces.makeMove(new Coordinate('e', 6), blackPawn));
+        assertEquals(blackPawnCoord, pieces.findPiece(blackPawn));
+        assertEquals(COLOUR.W, pieces.getSideToMove());
+        pieces.setSideToMove(COLOUR.B);
+        pieces.makeMove(new Coordinate('e', 6), blackPawn);
+        assertEquals(new Coordinate('e', 6), pieces.findPiece(blackPawn));
+        assertEquals(COLOUR.W, pieces.getSideToMove());
+    }
+
+    @Test
+    @DisplayName("Проверка прав рокировки и рокировки одним ходом")
+    void testCastling() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+        Piece king = new King(COLOUR.W, new Coordinate('f', 1));
+        Piece kingRook = new Rook(COLOUR.W, new Coordinate('j', 1));
+        board.put(new Coordinate('f', 1), king);
+        board.put(new Coordinate('j', 1), kingRook);
+        board.put(new Coordinate('a', 1), new Rook(COLOUR.W, new Coordinate('a', 1)));
+        board.put(new Coordinate('f', 10), new King(COLOUR.B, new Coordinate('f', 10)));
+        board.put(new Coordinate('d', 9), new Rook(COLOUR.B, new Coordinate('d', 9)));
+        Pieces castlePieces = new Pieces(board);
+
+        assertEquals(Castling.WHITE_KING_SIDE | Castling.WHITE_QUEEN_SIDE, castlePieces.getPosition().getCastlingRights());
+        assertTrue(castlePieces.canCastle(COLOUR.W, true));
+        // Ладья d9 бьет поле d1, на которое встает король
+        assertFalse(castlePieces.canCastle(COLOUR.W, false));
+
+        int castle = castlePieces.createMove(new Coordinate('f', 1), new Coordinate('h', 1));
+        assertTrue(PackedMove.hasFlag(castle, PackedMove.CASTLING));
+        assertTrue(castlePieces.generateMoves(COLOUR.W, MOVEGEN.QUIETS).contains(castle));
+        assertFalse(castlePieces.generateMoves(COLOUR.W, MOVEGEN.CAPTURES).contains(castle));
+
+        Position before = new Position(castlePieces.getPosition());
+        castlePieces.doMove(castle);
+        assertEquals(PieceKind.of(COLOUR.W, ID.ROOK), castlePieces.getPosition().get(new Coordinate('g', 1)));
+        assertEquals(0, castlePieces.getPosition().getCastlingRights());
+        castlePieces.undoMove(castle);
+        assertEquals(before, castlePieces.getPosition());
+
+        castlePieces.makeMove(new Coordinate('h', 1), king);
+        assertEquals(new Coordinate('h', 1), castlePieces.findPiece(king));
+        assertEquals(new Coordinate('g', 1), castlePieces.findPiece(kingRook));
+        assertEquals(castle, castlePieces.getMoveHistory().get(0));
+        assertEquals(0, castlePieces.getPosition().getCastlingRights());
+        assertEquals(COLOUR.B, castlePieces.getSideToMove());
+    }
+
     @Test
     @DisplayName("Проверка обновления потенциальных ходов")
     void testUpdatePotentials() {
@@ -228,17 +323,36 @@ class PiecesTest {
     }
 
     @Test
-    @DisplayName("Проверка обновления предыдущих координат пешек")
-    void testUpdatePreviousMovePawns() {
-        pieces.updatePreviousMovePawns();
-
-        // Проверяем, что у всех пешек установлены предыдущие координаты
-        for (Piece piece : pieces.getPieces().values()) {
-            if (piece.getName() == com.chess.engine.enums.ID.PAWN) {
-                Pawn pawn = (Pawn) piece;
-                assertNotNull(pawn.getPreviousCoordinate());
-            }
-        }
+    @DisplayName("Проверка поля взятия на проходе в doMove/undoMove")
+    void testEnPassant() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+        board.put(new Coordinate('a', 1), new King(COLOUR.W, new Coordinate('a', 1)));
+        board.put(new Coordinate('j', 10), new King(COLOUR.B, new Coordinate('j', 10)));
+        board.put(new Coordinate('d', 7), new Pawn(COLOUR.B, new Coordinate('d', 7)));
+        board.put(new Coordinate('e', 5), new Pawn(COLOUR.W, new Coordinate('e', 5)));
+        Pieces passantPieces = new Pieces(board);
+        Position start = new Position(passantPieces.getPosition());
+        assertEquals(-1, start.getEnPassant());
+
+        int push = passantPieces.createMove(new Coordinate('d', 7), new Coordinate('d', 5));
+        assertTrue(PackedMove.hasFlag(push, PackedMove.DOUBLE_PUSH));
+        passantPieces.doMove(push);
+        assertEquals(new Coordinate('d', 6).toIndex(), passantPieces.getPosition().getEnPassant());
+
+        int capture = passantPieces.createMove(new Coordinate('e', 5), new Coordinate('d', 6));
+        assertTrue(PackedMove.hasFlag(capture, PackedMove.EN_PASSANT));
+        assertEquals(ID.PAWN, PackedMove.captured(capture));
+        assertTrue(passantPieces.generateMoves(COLOUR.W, MOVEGEN.CAPTURES).contains(capture));
+
+        Position beforeCapture = new Position(passantPieces.getPosition());
+        passantPieces.doMove(capture);
+        assertNull(passantPieces.getPosition().get(new Coordinate('d', 5)));
+        assertEquals(-1, passantPieces.getPosition().getEnPassant());
+        passantPieces.undoMove(capture);
+        assertEquals(beforeCapture, passantPieces.getPosition());
+
+        passantPieces.undoMove(push);
+        assertEquals(start, passantPieces.getPosition());
     }
 
     @Test
@@ -271,13 +385,13 @@ class PiecesTest {
     @Test
     @DisplayName("Проверка истории игры")
     void testGameProgress() {
-        ArrayList<HashMap<Coordinate, Piece>> progress = pieces.getGameProgress();
+        ArrayList<Position> progress = pieces.getGameProgress();
         assertNotNull(progress);
         assertTrue(progress.size() > 0);
 
-        pieces.setPreviousPieces(pieces.getPieces());
-        assertNotNull(pieces.getPreviousPieces());
-        assertEquals(pieces.getPieces().size(), pieces.getPreviousPieces().size());
+        pieces.setPreviousPosition(pieces.getPosition());
+        assertEquals(pieces.getPosition(), pieces.getPreviousPosition());
+        assertNotSame(pieces.getPosition(), pieces.getPreviousPosition());
     }
 
     @Test
@@ -379,4 +493,251 @@ class PiecesTest {
         assertNotNull(emptyPieces.allColouredPotentials(COLOUR.W));
         assertNotNull(emptyPieces.allColouredRaws(COLOUR.W));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Проверка разделения ходов на взятия и тихие ходы")
+    void testGenerationModes() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+        board.put(new Coordinate('a', 1), new King(COLOUR.W, new Coordinate('a', 1)));
+        board.put(new Coordinate('j', 10), new King(COLOUR.B, new Coordinate('j', 10)));
+        board.put(new Coordinate('c', 9), new Pawn(COLOUR.W, new Coordinate('c', 9)));
+        board.put(new Coordinate('d', 10), new Rook(COLOUR.B, new Coordinate('d', 10)));
+        board.put(new Coordinate('e', 4), new Giraffe(COLOUR.W, new Coordinate('e', 4)));
+        board.put(new Coordinate('e', 8), new Knight(COLOUR.B, new Coordinate('e', 8)));
+        Pieces modePieces = new Pieces(board);
+
+        MoveList all = modePieces.generateMoves(COLOUR.W, MOVEGEN.ALL);
+        MoveList captures = modePieces.generateMoves(COLOUR.W, MOVEGEN.CAPTURES);
+        MoveList quiets = modePieces.generateMoves(COLOUR.W, MOVEGEN.QUIETS);
+
+        assertEquals(all.size(), captures.size() + quiets.size());
+        MoveList union = new MoveList(captures);
+        union.addAll(quiets);
+        for (int i = 0; i < all.size(); i++)
+            assertTrue(union.contains(all.get(i)), PackedMove.toString(all.get(i)));
+
+        int promotions = 0;
+        for (int i = 0; i < captures.size(); i++) {
+            assertTrue(PackedMove.isTactical(captures.get(i)));
+            if (PackedMove.isPromotion(captures.get(i)))
+                promotions++;
+        }
+        for (int i = 0; i < quiets.size(); i++)
+            assertFalse(PackedMove.isTactical(quiets.get(i)));
+
+        // Превращение без взятия (c10) и взятие с превращением (d10) относятся к взятиям,
+        // каждое дает по ходу на семь фигур превращения
+        assertEquals(2 * 7, promotions);
+        assertTrue(captures.contains(modePieces.createMove(new Coordinate('e', 4), new Coordinate('e', 8))));
+    }
+
+    @Test
+    @DisplayName("Проверка генерации уходов от шаха")
+    void testEvasions() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+        board.put(new Coordinate('e', 1), new King(COLOUR.W, new Coordinate('e', 1)));
+        board.put(new Coordinate('a', 10), new King(COLOUR.B, new Coordinate('a', 10)));
+        board.put(new Coordinate('e', 9), new Giraffe(COLOUR.B, new Coordinate('e', 9)));
+        board.put(new Coordinate('b', 5), new Rook(COLOUR.W, new Coordinate('b', 5)));
+        board.put(new Coordinate('g', 8), new Knight(COLOUR.W, new Coordinate('g', 8)));
+        board.put(new Coordinate('i', 1), new Bishop(COLOUR.W, new Coordinate('i', 1)));
+        board.put(new Coordinate('d', 3), new Pawn(COLOUR.W, new Coordinate('d', 3)));
+        Pieces checkPieces = new Pieces(board);
+
+        assertTrue(checkPieces.isCheck(COLOUR.W));
+        MoveList evasions = checkPieces.generateMoves(COLOUR.W, MOVEGEN.EVASIONS);
+
+        // Каждый легальный ход должен быть среди уходов от шаха
+        MoveList all = checkPieces.generateMoves(COLOUR.W, MOVEGEN.ALL);
+        for (int i = 0; i < all.size(); i++) {
+            int move = all.get(i);
+            Piece piece = board.get(PackedMove.fromCoordinate(move));
+            if (piece.getPotentialMoves().contains(PackedMove.toCoordinate(move)))
+                assertTrue(evasions.contains(move), PackedMove.toString(move));
+        }
+
+        // Ходы других фигур только берут шахующую фигуру или перекрывают линию
+        int captures = 0;
+        int blocks = 0;
+        for (int i = 0; i < evasions.size(); i++) {
+            int move = evasions.get(i);
+            assertNotEquals(ID.PAWN, PackedMove.piece(move));
+            if (PackedMove.piece(move) != ID.KING) {
+                Coordinate to = PackedMove.toCoordinate(move);
+                assertTrue(to.getFile() == 'e' && to.getRank() > 1 && to.getRank() <= 9, PackedMove.toString(move));
+            }
+            if (PackedMove.toCoordinate(move).equals(new Coordinate('e', 9)))
+                captures++;
+            if (PackedMove.toCoordinate(move).equals(new Coordinate('e', 5)))
+                blocks++;
+        }
+        assertTrue(captures > 0);
+        assertEquals(2, blocks);
+    }
+
+    @Test
+    @DisplayName("Проверка превращений пешки при уходе от шаха")
+    void testEvasionPromotions() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+        board.put(new Coordinate('a', 10), new King(COLOUR.W, new Coordinate('a', 10)));
+        board.put(new Coordinate('j', 1), new King(COLOUR.B, new Coordinate('j', 1)));
+        board.put(new Coordinate('j', 10), new Rook(COLOUR.B, new Coordinate('j', 10)));
+        board.put(new Coordinate('e', 9), new Pawn(COLOUR.W, new Coordinate('e', 9)));
+        board.put(new Coordinate('i', 9), new Pawn(COLOUR.W, new Coordinate('i', 9)));
+        Pieces checkPieces = new Pieces(board);
+        assertTrue(checkPieces.isCheck(COLOUR.W));
+
+        // Перекрытия на e10 и i10 и взятие на j10 дают все семь фигур превращения, как и полная генерация
+        Set<Integer> evasions = new HashSet<>();
+        for (int move : checkPieces.generateMoves(COLOUR.W, MOVEGEN.EVASIONS).toArray()) {
+            if (checkPieces.isLegal(move))
+                evasions.add(move);
+        }
+        Set<Integer> all = new HashSet<>();
+        for (int move : checkPieces.generateMoves(COLOUR.W, MOVEGEN.ALL).toArray()) {
+            if (checkPieces.isLegal(move))
+                all.add(move);
+        }
+        assertEquals(all, evasions);
+        assertEquals(3 * 7, evasions.stream().filter(PackedMove::isPromotion).count());
+    }
+
+    @Test
+    @DisplayName("Проверка мата, защиты от шаха и пата без построения множеств ходов")
+    void testMateAndStalemate() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+        board.put(new Coordinate('a', 10), new King(COLOUR.B, new Coordinate('a', 10)));
+        board.put(new Coordinate('a', 8), new King(COLOUR.W, new Coordinate('a', 8)));
+        board.put(new Coordinate('h', 10), new Rook(COLOUR.W, new Coordinate('h', 10)));
+        Pieces matePieces = new Pieces(board);
+
+        assertTrue(matePieces.isCheck(COLOUR.B));
+        assertFalse(matePieces.hasLegalMove(COLOUR.B));
+        assertTrue(matePieces.isMate(COLOUR.B));
+        assertTrue(matePieces.hasLegalMove(COLOUR.W));
+
+        // Конь может закрыться от шаха на b10
+        board.put(new Coordinate('c', 8), new Knight(COLOUR.B, new Coordinate('c', 8)));
+        Pieces coveredPieces = new Pieces(board);
+        HashMap<Coordinate, Piece> before = new HashMap<>(coveredPieces.getPieces());
+
+        assertTrue(coveredPieces.hasLegalMove(COLOUR.B));
+        assertFalse(coveredPieces.isMate(COLOUR.B));
+        assertEquals(before, coveredPieces.getPieces());
+
+        HashMap<Coordinate, Piece> staleBoard = new HashMap<>();
+        staleBoard.put(new Coordinate('a', 10), new King(COLOUR.B, new Coordinate('a', 10)));
+        staleBoard.put(new Coordinate('b', 8), new King(COLOUR.W, new Coordinate('b', 8)));
+        staleBoard.put(new Coordinate('c', 9), new Queen(COLOUR.W, new Coordinate('c', 9)));
+        Pieces stalePieces = new Pieces(staleBoard);
+
+        assertFalse(stalePieces.isCheck(COLOUR.B));
+        assertFalse(stalePieces.hasLegalMove(COLOUR.B));
+        assertTrue(stalePieces.isStalemate(COLOUR.W));
+        assertFalse(stalePieces.isMate(COLOUR.B));
+    }
+
+    @Test
+    @DisplayName("Проверка атаки поля лучами от него")
+    void testSquareAttacked() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+        board.put(new Coordinate('a', 1), new King(COLOUR.W, new Coordinate('a', 1)));
+        board.put(new Coordinate('j', 10), new King(COLOUR.B, new Coordinate('j', 10)));
+        board.put(new Coordinate('c', 3), new WarCar(COLOUR.B, new Coordinate('c', 3)));
+        board.put(new Coordinate('h', 8), new Vizar(COLOUR.B, new Coordinate('h', 8)));
+        board.put(new Coordinate('f', 6), new Pawn(COLOUR.W, new Coordinate('f', 6)));
+        board.put(new Coordinate('e', 5), new Pawn(COLOUR.B, new Coordinate('e', 5)));
+        Pieces attackPieces = new Pieces(board);
+
+        // Боевая машина бьет прыжком коня и по линиям
+        assertTrue(attackPieces.isSquareAttacked(new Coordinate('d', 5), COLOUR.B));
+        assertTrue(attackPieces.isSquareAttacked(new Coordinate('c', 9), COLOUR.B));
+        assertFalse(attackPieces.isSquareAttacked(new Coordinate('d', 4), COLOUR.W));
+        // Диагональ визиря перекрыта белой пешкой на f6
+        assertTrue(attackPieces.isSquareAttacked(new Coordinate('f', 6), COLOUR.B));
+        assertFalse(attackPieces.isSquareAttacked(new Coordinate('e', 5), COLOUR.B));
+        assertTrue(attackPieces.isSquareAttacked(new Coordinate('g', 6), COLOUR.B));
+        // Пешки бьют только вперед по диагонали
+        assertTrue(attackPieces.isSquareAttacked(new Coordinate('e', 7), COLOUR.W));
+        assertFalse(attackPieces.isSquareAttacked(new Coordinate('f', 7), COLOUR.W));
+        assertTrue(attackPieces.isSquareAttacked(new Coordinate('d', 4), COLOUR.B));
+        assertFalse(attackPieces.isSquareAttacked(new Coordinate('e', 6), COLOUR.B));
+        // Король бьет только соседние поля
+        assertTrue(attackPieces.isSquareAttacked(new Coordinate('b', 2), COLOUR.W));
+        assertFalse(attackPieces.isSquareAttacked(new Coordinate('a', 3), COLOUR.W));
+    }
+
+    @Test
+    @DisplayName("Проверка прямых и вскрытых шахов без выполнения хода")
+    void testGivesCheck() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+        board.put(new Coordinate('e', 10), new King(COLOUR.B, new Coordinate('e', 10)));
+        board.put(new Coordinate('a', 1), new King(COLOUR.W, new Coordinate('a', 1)));
+        board.put(new Coordinate('e', 2), new Rook(COLOUR.W, new Coordinate('e', 2)));
+        board.put(new Coordinate('e', 5), new Knight(COLOUR.W, new Coordinate('e', 5)));
+        board.put(new Coordinate('b', 7), new Bishop(COLOUR.W, new Coordinate('b', 7)));
+        board.put(new Coordinate('h', 4), new Giraffe(COLOUR.W, new Coordinate('h', 4)));
+        board.put(new Coordinate('c', 3), new WarCar(COLOUR.W, new Coordinate('c', 3)));
+        board.put(new Coordinate('j', 6), new Vizar(COLOUR.W, new Coordinate('j', 6)));
+        board.put(new Coordinate('g', 9), new Pawn(COLOUR.W, new Coordinate('g', 9)));
+        board.put(new Coordinate('c', 8), new Pawn(COLOUR.B, new Coordinate('c', 8)));
+        Pieces checkPieces = new Pieces(board);
+
+        // Конь e5 закрывает ладью e2: любой его уход с вертикали открывает шах
+        int knightMove = checkPieces.createMove(new Coordinate('e', 5), new Coordinate('c', 4));
+        assertTrue(checkPieces.givesCheck(knightMove));
+
+        for (COLOUR colour : COLOUR.values()) {
+            Coordinate enemyKing = checkPieces.findKing(COLOUR.not(colour));
+            MoveList moves = checkPieces.generateMoves(colour);
+            for (int i = 0; i < moves.size(); i++) {
+                int move = moves.get(i);
+                if (PackedMove.toCoordinate(move).equals(enemyKing))
+                    continue;
+                boolean predicted = checkPieces.givesCheck(move);
+                checkPieces.doMove(move);
+                boolean actual = checkPieces.isSquareAttacked(enemyKing, colour);
+                checkPieces.undoMove(move);
+                assertEquals(actual, predicted, "Ход " + PackedMove.toString(move));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка генерации ходов для каждой фигуры превращения и выполнения выбранного превращения")
+    void testPromotionChoices() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+        board.put(new Coordinate('a', 1), new King(COLOUR.W, new Coordinate('a', 1)));
+        board.put(new Coordinate('j', 1), new King(COLOUR.B, new Coordinate('j', 1)));
+        board.put(new Coordinate('c', 9), new Pawn(COLOUR.W, new Coordinate('c', 9)));
+        board.put(new Coordinate('d', 10), new Rook(COLOUR.B, new Coordinate('d', 10)));
+        Pieces promotionPieces = new Pieces(board);
+
+        // Ход на c10 и взятие на d10 дают по одному ходу на каждую фигуру превращения
+        MoveList moves = promotionPieces.generateMoves(COLOUR.W);
+        Set<ID> quiet = EnumSet.noneOf(ID.class);
+        int promotions = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (PackedMove.isPromotion(move)) {
+                promotions++;
+                assertTrue(promotionPieces.isPseudoLegal(COLOUR.W, move));
+                if (PackedMove.captured(move) == null)
+                    quiet.add(PackedMove.promotion(move));
+            }
+        }
+        assertEquals(14, promotions);
+        assertEquals(EnumSet.of(ID.QUEEN, ID.ROOK, ID.BISHOP, ID.KNIGHT, ID.VIZAR, ID.WARCAR, ID.GIRAFFE), quiet);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> promotionPieces.createMove(new Coordinate('c', 9), new Coordinate('c', 10), ID.KING));
+
+        int giraffe = promotionPieces.createMove(new Coordinate('c', 9), new Coordinate('d', 10), ID.GIRAFFE);
+        promotionPieces.makeMove(giraffe);
+        Piece promoted = promotionPieces.getPiece(new Coordinate('d', 10));
+        assertEquals(ID.GIRAFFE, promoted.getName());
+        assertEquals(COLOUR.W, promoted.getColour());
+        assertEquals(ID.GIRAFFE, promotionPieces.getPosition().get(new Coordinate('d', 10)).getName());
+        assertEquals(COLOUR.B, promotionPieces.getSideToMove());
+    }
+}
@@ -0,0 +1,103 @@
+package com.chess.engine.logic;
+
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.enums.ID;
+import com.chess.engine.pieces.PieceKind;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionTest {
+
+    @Test
+    @DisplayName("Проверка общих видов фигур, полей королей и копирования позиции")
+    void testKindsAndCopy() {
+        assertSame(PieceKind.of(COLOUR.W, ID.GIRAFFE), PieceKind.of(COLOUR.W, ID.GIRAFFE));
+        assertNotSame(PieceKind.of(COLOUR.W, ID.PAWN), PieceKind.of(COLOUR.B, ID.PAWN));
+        assertEquals(ID.values().length * COLOUR.values().length, PieceKind.count());
+        assertSame(PieceKind.of(COLOUR.B, ID.VIZAR), PieceKind.byIndex(PieceKind.of(COLOUR.B, ID.VIZAR).index()));
+
+        Position position = Position.of(Boards.getChessBoard());
+        int whiteKing = position.kingSquare(COLOUR.W);
+        assertEquals(ID.KING, position.get(whiteKing).getName());
+        assertEquals(position.size(), position.occupied(COLOUR.W).size() + position.occupied(COLOUR.B).size());
+        assertFalse(position.hasMoved(whiteKing));
+
+        Position copy = new Position(position);
+        assertEquals(position, copy);
+        assertSame(position.get(whiteKing), copy.get(whiteKing));
+
+        assertEquals(PieceKind.of(COLOUR.W, ID.KING), copy.remove(whiteKing));
+        assertEquals(-1, copy.kingSquare(COLOUR.W));
+        assertNotEquals(position, copy);
+        assertEquals(whiteKing, position.kingSquare(COLOUR.W));
+
+        copy.put(whiteKing, PieceKind.of(COLOUR.W, ID.KING), true);
+        assertEquals(position, copy);
+        assertTrue(copy.hasMoved(whiteKing));
+        assertNull(copy.get(Coordinate.emptyCoordinate));
+    }
+
+    @Test
+    @DisplayName("Проверка, что doMove и undoMove меняют только массивы позиции")
+    void testDoUndoKeepsFacade() {
+        Pieces pieces = new Pieces();
+        Position before = new Position(pieces.getPosition());
+        Coordinate from = new Coordinate('e', 3);
+        Coordinate to = new Coordinate('e', 4);
+
+        int move = pieces.createMove(from, to);
+        pieces.doMove(move);
+        assertNull(pieces.getPosition().get(from));
+        assertTrue(pieces.getPosition().hasMoved(to.toIndex()));
+        assertNotNull(pieces.getPieces().get(from));
+
+        pieces.undoMove(move);
+        assertEquals(before, pieces.getPosition());
+        assertFalse(pieces.getPosition().hasMoved(from.toIndex()));
+    }
+
+    @Test
+    @DisplayName("Проверка ключа Зобриста при ходах, отмене и перестановке ходов")
+    void testZobristKey() {
+        Pieces pieces = new Pieces();
+        long start = pieces.getPosition().getKey();
+        assertEquals(Zobrist.compute(pieces.getPosition()), start);
+
+        MoveList played = new MoveList();
+        for (int ply = 0; ply < 40; ply++) {
+            MoveList moves = pieces.generateMoves(pieces.getSideToMove());
+            int move = moves.get((ply * 7) % moves.size());
+            if (!pieces.isLegal(move))
+                continue;
+            pieces.doMove(move);
+            played.add(move);
+            assertEquals(Zobrist.compute(pieces.getPosition()), pieces.getPosition().getKey());
+        }
+        for (int i = played.size() - 1; i >= 0; i--)
+            pieces.undoMove(played.get(i));
+        assertEquals(start, pieces.getPosition().getKey());
+
+        // Одна позиция, полученная разным порядком ходов, имеет один ключ
+        Pieces other = new Pieces();
+        int[] first = {other.createMove(new Coordinate('e', 3), new Coordinate('e', 4)),
+                other.createMove(new Coordinate('e', 8), new Coordinate('e', 7)),
+                other.createMove(new Coordinate('a', 2), new Coordinate('a', 3))};
+        for (int move : first)
+            other.doMove(move);
+        pieces.doMove(first[2]);
+        pieces.doMove(first[1]);
+        pieces.doMove(first[0]);
+        assertEquals(other.getPosition(), pieces.getPosition());
+        assertEquals(other.getPosition().getKey(), pieces.getPosition().getKey());
+        assertNotEquals(start, other.getPosition().getKey());
+
+        Position copy = new Position(other.getPosition());
+        assertEquals(other.getPosition().getKey(), copy.getKey());
+        copy.switchSide();
+        assertNotEquals(other.getPosition().getKey(), copy.getKey());
+        copy.setSideToMove(other.getPosition().getSideToMove());
+        assertEquals(other.getPosition().getKey(), copy.getKey());
+    }
+}
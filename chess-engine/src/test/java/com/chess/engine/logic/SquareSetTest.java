@@ -0,0 +1,136 @@
+package com.chess.engine.logic;
+
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.pieces.Piece;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.PrimitiveIterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SquareSetTest {
+
+    @Test
+    @DisplayName("Проверка добавления, удаления и размера на границе слов")
+    void testAddContainsRemove() {
+        SquareSet set = new SquareSet();
+        assertTrue(set.isEmpty());
+
+        for (int square : new int[] {0, 63, 64, 99}) {
+            set.add(square);
+        }
+        set.add(new Coordinate('e', 5));
+        set.add(63);
+
+        assertEquals(5, set.size());
+        assertTrue(set.contains(64));
+        assertTrue(set.contains(new Coordinate('j', 10)));
+        assertTrue(set.contains(new Coordinate('a', 1)));
+        assertFalse(set.contains(new Coordinate('b', 1)));
+        assertFalse(set.contains(Coordinate.emptyCoordinate));
+        assertFalse(set.contains(100));
+
+        set.remove(64);
+        set.remove(new Coordinate('a', 1));
+        assertEquals(3, set.size());
+        assertFalse(set.contains(64));
+
+        assertThrows(IllegalArgumentException.class, () -> set.add(100));
+        assertThrows(IllegalArgumentException.class, () -> set.add(-1));
+    }
+
+    @Test
+    @DisplayName("Проверка объединения, пересечения и разности")
+    void testSetOperations() {
+        SquareSet first = SquareSet.of(Arrays.asList(new Coordinate('a', 1), new Coordinate('j', 9), new Coordinate('c', 7)));
+        SquareSet second = SquareSet.of(Arrays.asList(new Coordinate('j', 9), new Coordinate('d', 2)));
+
+        SquareSet union = new SquareSet(first);
+        union.addAll(second);
+        assertEquals(4, union.size());
+
+        SquareSet intersection = new SquareSet(first);
+        intersection.retainAll(second);
+        assertEquals(1, intersection.size());
+        assertTrue(intersection.contains(new Coordinate('j', 9)));
+        assertTrue(first.intersects(second));
+
+        SquareSet difference = new SquareSet(first);
+        difference.removeAll(second);
+        assertEquals(2, difference.size());
+        assertFalse(difference.intersects(second));
+
+        assertEquals(3, first.size());
+        assertNotEquals(first, union);
+        union.clear();
+        assertEquals(new SquareSet(), union);
+    }
+
+    @Test
+    @DisplayName("Проверка обхода полей по возрастанию")
+    void testIteration() {
+        SquareSet set = new SquareSet();
+        int[] squares = {5, 40, 63, 64, 77, 99};
+        for (int square : squares) {
+            set.add(square);
+        }
+
+        ArrayList<Integer> visited = new ArrayList<>();
+        PrimitiveIterator.OfInt it = set.iterator();
+        while (it.hasNext()) {
+            visited.add(it.nextInt());
+        }
+        assertEquals(Arrays.asList(5, 40, 63, 64, 77, 99), visited);
+
+        int count = 0;
+        for (int square = set.next(0); square >= 0; square = set.next(square + 1)) {
+            count++;
+        }
+        assertEquals(squares.length, count);
+        assertEquals(64, set.next(64));
+        assertEquals(-1, set.next(100));
+        assertEquals(-1, new SquareSet().next(0));
+
+        HashSet<Coordinate> coordinates = set.toCoordinates();
+        assertEquals(squares.length, coordinates.size());
+        assertTrue(coordinates.contains(Coordinate.fromIndex(77)));
+    }
+
+    @Test
+    @DisplayName("Проверка совпадения множеств полей с множествами координат")
+    void testPiecesSquareSets() {
+        Pieces pieces = new Pieces();
+
+        assertEquals(pieces.allColouredPotentials(COLOUR.W), pieces.allColouredPotentialSquares(COLOUR.W).toCoordinates());
+        assertEquals(pieces.allColouredRaws(COLOUR.B).size(), pieces.allColouredRawSquares(COLOUR.B).size());
+        for (Piece piece : pieces.getPieces().values()) {
+            assertEquals(piece.getPotentialMoves(), piece.getPotentialSquares().toCoordinates());
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка множеств горизонтали и вертикали и проверки подмножества")
+    void testRankFileContainsAll() {
+        SquareSet rank = SquareSet.rank(10);
+        SquareSet file = SquareSet.file('e');
+        assertEquals(Coordinate.WIDTH, rank.size());
+        assertEquals(Coordinate.SQUARES / Coordinate.WIDTH, file.size());
+        assertTrue(rank.contains(new Coordinate('j', 10)));
+        assertTrue(file.contains(new Coordinate('e', 1)));
+
+        SquareSet corner = new SquareSet(rank);
+        corner.retainAll(file);
+        assertEquals(SquareSet.of(Arrays.asList(new Coordinate('e', 10))), corner);
+        assertTrue(rank.containsAll(corner));
+        assertTrue(file.containsAll(corner));
+        assertFalse(corner.containsAll(rank));
+        assertTrue(corner.containsAll(new SquareSet()));
+
+        assertThrows(IllegalArgumentException.class, () -> SquareSet.rank(11));
+        assertThrows(IllegalArgumentException.class, () -> SquareSet.file('k'));
+    }
+}
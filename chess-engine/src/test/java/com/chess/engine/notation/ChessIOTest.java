@@ -1,7 +1,7 @@
 package com.chess.engine.notation;
 
 import com.chess.engine.enums.COLOUR;
-
+import com.chess.engine.enums.ID;
 import com.chess.engine.logic.Coordinate;
 import com.chess.engine.logic.Pieces;
 import com.chess.engine.pieces.*;
@@ -39,7 +39,6 @@ class ChessIOTest {
 
         Pieces pieces = new Pieces(board);
         pieces.updatePotentials();
-        pieces.setPreviousPieces(pieces.getPieces());
 
         Coordinate moveCoord = new Coordinate('a', 4);
         String move = ChessIO.moveString(pieces, moveCoord, rook);
@@ -70,9 +69,7 @@ class ChessIOTest {
 
         Pieces pieces = new Pieces(board);
         pieces.updatePotentials();
-        pieces.setPreviousPieces(pieces.getPieces());
 
-        pieces.setIsCapture(true);
         Coordinate moveCoord = new Coordinate('d', 3);
         String move = ChessIO.moveString(pieces, moveCoord, pawn);
 
@@ -140,7 +137,6 @@ class ChessIOTest {
 
         Pieces pieces = new Pieces(board);
         pieces.updatePotentials();
-        pieces.setPreviousPieces(pieces.getPieces());
 
         Coordinate moveCoord = new Coordinate('f', 3);
         String move = ChessIO.moveString(pieces, moveCoord, knight);
@@ -148,6 +144,69 @@ class ChessIOTest {
         assertEquals("Nf3", move);
     }
 
+    @Test
+    @DisplayName("Проверка записи рокировки")
+    void testMoveStringCastling() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+
+        Coordinate kingCoord = new Coordinate('f', 1);
+        King king = new King(COLOUR.W, kingCoord);
+        board.put(kingCoord, king);
+
+        Coordinate rookCoord = new Coordinate('a', 1);
+        Rook rook = new Rook(COLOUR.W, rookCoord);
+        board.put(rookCoord, rook);
+
+        Coordinate blackKingCoord = new Coordinate('i', 8);
+        King blackKing = new King(COLOUR.B, blackKingCoord);
+        board.put(blackKingCoord, blackKing);
+
+        Pieces pieces = new Pieces(board);
+        Coordinate moveCoord = new Coordinate('d', 1);
+        pieces.makeMove(moveCoord, king);
+
+        assertEquals(new Coordinate('e', 1), pieces.findPiece(rook));
+        assertEquals("O-O-O", ChessIO.moveString(pieces, moveCoord, king));
+    }
+
+    @Test
+    @DisplayName("Проверка записи сделанного превращения в выбранную фигуру")
+    void testMoveStringPromotion() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+        Pawn pawn = new Pawn(COLOUR.W, new Coordinate('c', 9));
+        board.put(new Coordinate('c', 9), pawn);
+        board.put(new Coordinate('a', 1), new King(COLOUR.W, new Coordinate('a', 1)));
+        board.put(new Coordinate('j', 5), new King(COLOUR.B, new Coordinate('j', 5)));
+
+        Pieces pieces = new Pieces(board);
+        Coordinate moveCoord = new Coordinate('c', 10);
+        pieces.makeMove(moveCoord, pawn, ID.ROOK);
+
+        assertEquals("c10=R", ChessIO.moveString(pieces, moveCoord, pawn));
+    }
+
+    @Test
+    @DisplayName("Проверка записи сделанного хода по позиции до хода")
+    void testMoveStringAfterMove() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+        Rook rook = new Rook(COLOUR.W, new Coordinate('a', 2));
+        board.put(new Coordinate('a', 2), rook);
+        board.put(new Coordinate('j', 2), new Rook(COLOUR.W, new Coordinate('j', 2)));
+        board.put(new Coordinate('a', 10), new King(COLOUR.W, new Coordinate('a', 10)));
+        board.put(new Coordinate('j', 10), new King(COLOUR.B, new Coordinate('j', 10)));
+
+        Pieces pieces = new Pieces(board);
+        Coordinate moveCoord = new Coordinate('e', 2);
+        pieces.makeMove(moveCoord, rook);
+
+        // Вторая ладья могла пойти на то же поле, поэтому указывается вертикаль
+        assertEquals("Rae2", ChessIO.moveString(pieces, moveCoord, rook));
+        assertThrows(IllegalArgumentException.class,
+                () -> ChessIO.moveString(new Pieces(board), moveCoord, new Rook(COLOUR.W, moveCoord)));
+        assertNotNull(pieces.getPreviousPosition().get(new Coordinate('a', 2).toIndex()));
+        assertNull(pieces.getPosition().get(new Coordinate('a', 2).toIndex()));
+    }
+
     @Test
     @DisplayName("Проверка форматирования хода слона")
     void testMoveStringBishop() {
@@ -167,7 +226,6 @@ class ChessIOTest {
 
         Pieces pieces = new Pieces(board);
         pieces.updatePotentials();
-        pieces.setPreviousPieces(pieces.getPieces());
 
         Coordinate moveCoord = new Coordinate('c', 4);
         String move = ChessIO.moveString(pieces, moveCoord, bishop);
@@ -194,7 +252,6 @@ class ChessIOTest {
 
         Pieces pieces = new Pieces(board);
         pieces.updatePotentials();
-        pieces.setPreviousPieces(pieces.getPieces());
 
         Coordinate moveCoord = new Coordinate('d', 4);
         String move = ChessIO.moveString(pieces, moveCoord, queen);
@@ -202,4 +259,30 @@ class ChessIOTest {
         assertEquals("Qd4", move);
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("Проверка форматирования хода с шахом")
+    void testMoveStringCheck() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+
+        Coordinate rookCoord = new Coordinate('a', 1);
+        Rook rook = new Rook(COLOUR.W, rookCoord);
+        board.put(rookCoord, rook);
+
+        Coordinate kingCoord = new Coordinate('e', 1);
+        King king = new King(COLOUR.W, kingCoord);
+        board.put(kingCoord, king);
+
+        Coordinate blackKingCoord = new Coordinate('e', 8);
+        King blackKing = new King(COLOUR.B, blackKingCoord);
+        board.put(blackKingCoord, blackKing);
+
+        Pieces pieces = new Pieces(board);
+        pieces.updatePotentials();
+
+        Coordinate moveCoord = new Coordinate('a', 8);
+        String move = ChessIO.moveString(pieces, moveCoord, rook);
+
+        assertEquals("Ra8+", move);
+    }
+
+}
@@ -0,0 +1,176 @@
+package com.chess.engine.notation;
+
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.enums.ID;
+import com.chess.engine.logic.Coordinate;
+import com.chess.engine.logic.MoveList;
+import com.chess.engine.logic.Pieces;
+import com.chess.engine.pieces.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameArchiveTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Создает запись партии с тегами турнира и результата
+     */
+    private static GameRecord game(int plies, int shift, String result) {
+        MoveList moves = Games.game(plies, shift);
+        LinkedHashMap<String, String> tags = new LinkedHashMap<>();
+        tags.put("Event", "Турнир " + shift);
+        tags.put("Result", result);
+        return new GameRecord(tags, moves, result);
+    }
+
+    @Test
+    @DisplayName("Проверка дозаписи, чтения по номеру и повторного открытия архива")
+    void testAppendAndRead() throws IOException {
+        Path file = tempDir.resolve("games.gca");
+        GameRecord first = game(12, 0, "1-0");
+        GameRecord second = game(0, 1, "*");
+        GameRecord third = game(9, 5, "1/2-1/2");
+
+        try (GameArchive archive = GameArchive.open(file)) {
+            assertEquals(0, archive.append(first));
+            assertEquals(1, archive.append(second));
+            assertEquals(2, archive.append(third));
+            assertEquals(third, archive.read(2));
+            assertEquals(first, archive.read(0));
+
+            // Чтение только первых ходов
+            MoveList prefix = archive.read(0, 5).getMoves();
+            assertEquals(5, prefix.size());
+            for (int i = 0; i < prefix.size(); i++)
+                assertEquals(first.getMoves().get(i), prefix.get(i));
+            assertEquals(third, archive.read(2, 100));
+            assertThrows(IllegalArgumentException.class, () -> archive.read(0, -1));
+        }
+        assertTrue(Files.exists(GameArchive.indexPath(file)));
+
+        try (GameArchive archive = GameArchive.open(file)) {
+            assertEquals(3, archive.size());
+            assertEquals(second, archive.read(1));
+            assertEquals(3, archive.append(first));
+            assertEquals(first, archive.read(3));
+            assertThrows(IndexOutOfBoundsException.class, () -> archive.read(4));
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка отбрасывания недописанной партии и чужого файла")
+    void testRecovery() throws IOException {
+        Path file = tempDir.resolve("games.gca");
+        try (GameArchive archive = GameArchive.open(file)) {
+            archive.append(game(6, 2, "0-1"));
+        }
+        long size = Files.size(file);
+        // Запись данных без записи в указатель, как при сбое между двумя записями
+        Files.write(file, new byte[] {1, 2, 3, 4, 5}, StandardOpenOption.APPEND);
+
+        try (GameArchive archive = GameArchive.open(file)) {
+            assertEquals(1, archive.size());
+            assertEquals(size, Files.size(file));
+            assertEquals(game(6, 2, "0-1"), archive.read(0));
+        }
+
+        Path other = tempDir.resolve("other.txt");
+        Files.write(other, "not an archive".getBytes());
+        assertThrows(IOException.class, () -> GameArchive.open(other));
+        assertThrows(IllegalArgumentException.class,
+                () -> new GameRecord(new LinkedHashMap<>(), new MoveList(), "2-0"));
+    }
+
+    @Test
+    @DisplayName("Проверка открытия только для чтения во время дозаписи")
+    void testReadOnly() throws IOException {
+        Path file = tempDir.resolve("games.gca");
+        assertThrows(IOException.class, () -> GameArchive.openReadOnly(file));
+        GameRecord first = game(7, 3, "1-0");
+        try (GameArchive writer = GameArchive.open(file)) {
+            writer.append(first);
+
+            // Запись партии дописана в файл данных, а в указатель еще нет
+            long dataSize = Files.size(file);
+            Files.write(file, new byte[] {5, 0, 1}, StandardOpenOption.APPEND);
+            Files.write(GameArchive.indexPath(file), new byte[] {0, 0}, StandardOpenOption.APPEND);
+            long indexSize = Files.size(GameArchive.indexPath(file));
+            try (GameArchive reader = GameArchive.openReadOnly(file)) {
+                assertEquals(1, reader.size());
+                assertEquals(first, reader.read(0));
+                assertThrows(IllegalStateException.class, () -> reader.append(first));
+            }
+            assertEquals(dataSize + 3, Files.size(file));
+            assertEquals(indexSize, Files.size(GameArchive.indexPath(file)));
+
+            // Открытый на чтение архив не мешает дозаписи и не видит новых партий
+            try (GameArchive reader = GameArchive.openReadOnly(file)) {
+                GameRecord second = game(5, 2, "*");
+                assertEquals(1, writer.append(second));
+                assertEquals(1, reader.size());
+                assertEquals(second, writer.read(1));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка чтения и дозаписи архива версии 1 с двухбайтовыми кодами ходов")
+    void testVersionOne() throws IOException {
+        Path file = tempDir.resolve("old.gca");
+        GameRecord old = game(3, 4, "0-1");
+        ByteBuffer record = ByteBuffer.allocate(2 + 1 + 2 + 2 * old.getMoves().size());
+        record.putShort((short) 0).put((byte) 2).putShort((short) old.getMoves().size());
+        for (int i = 0; i < old.getMoves().size(); i++)
+            record.putShort((short) GameArchive.encodeMove(old.getMoves().get(i)));
+        ByteBuffer data = ByteBuffer.allocate(8 + record.capacity());
+        data.putInt(0x47434841).putInt(1).put(record.array());
+        Files.write(file, data.array());
+        Files.write(GameArchive.indexPath(file), ByteBuffer.allocate(12).putLong(8).putInt(record.capacity()).array());
+
+        GameRecord appended = game(8, 1, "*");
+        try (GameArchive archive = GameArchive.open(file)) {
+            assertEquals(new GameRecord(new LinkedHashMap<>(), old.getMoves(), "0-1"), archive.read(0));
+            archive.append(appended);
+        }
+        try (GameArchive archive = GameArchive.open(file)) {
+            assertEquals(appended, archive.read(1));
+        }
+        // Архив остается в своей версии
+        assertEquals(1, ByteBuffer.wrap(Files.readAllBytes(file)).getInt(4));
+    }
+
+    @Test
+    @DisplayName("Проверка двухбайтового кода хода, в том числе превращения")
+    void testMoveCode() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+        board.put(new Coordinate('a', 1), new King(COLOUR.W, new Coordinate('a', 1)));
+        board.put(new Coordinate('j', 5), new King(COLOUR.B, new Coordinate('j', 5)));
+        board.put(new Coordinate('c', 9), new Pawn(COLOUR.W, new Coordinate('c', 9)));
+        board.put(new Coordinate('d', 10), new Rook(COLOUR.B, new Coordinate('d', 10)));
+        board.put(new Coordinate('h', 2), new Pawn(COLOUR.B, new Coordinate('h', 2)));
+        Pieces pieces = new Pieces(board);
+
+        MoveList moves = pieces.generateMoves(COLOUR.W);
+        moves.addAll(pieces.generateMoves(COLOUR.B));
+        for (int i = 0; i < moves.size(); i++) {
+            int code = GameArchive.encodeMove(moves.get(i));
+            assertTrue(code >= 0 && code < 1 << 15);
+            assertEquals(moves.get(i), GameArchive.decodeMove(pieces, code));
+        }
+        int giraffe = pieces.createMove(new Coordinate('h', 2), new Coordinate('h', 1), ID.GIRAFFE);
+        assertEquals(giraffe, GameArchive.decodeMove(pieces, GameArchive.encodeMove(giraffe)));
+    }
+}
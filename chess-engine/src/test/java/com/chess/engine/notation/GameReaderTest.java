@@ -0,0 +1,155 @@
+package com.chess.engine.notation;
+
+import com.chess.engine.logic.MoveList;
+import com.chess.engine.logic.Pieces;
+import com.chess.engine.logic.Position;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Записывает несколько первых легальных ходов из начальной позиции с номерами ходов
+     */
+    private static String movetext(int plies) {
+        Pieces pieces = new Pieces();
+        MoveList moves = new MoveList();
+        StringBuilder str = new StringBuilder();
+        for (int ply = 0; ply < plies; ply++) {
+            String[] san = SanWriter.allToSan(pieces, moves);
+            if (ply % 2 == 0)
+                str.append(ply / 2 + 1).append(". ");
+            str.append(san[ply]).append(' ');
+            pieces.makeMove(moves.get(ply));
+        }
+        return str.toString();
+    }
+
+    private static class Recorder implements GameReader.Handler {
+        final List<String> tags = new ArrayList<>();
+        final List<String> games = new ArrayList<>();
+        final List<String> invalid = new ArrayList<>();
+        final List<Position> firstPositions = new ArrayList<>();
+        int moves;
+
+        @Override
+        public void tag(CharSequence name, CharSequence value) {
+            tags.add(name + "=" + value);
+        }
+
+        @Override
+        public void move(Pieces pieces, int move) {
+            if (moves++ == 0)
+                firstPositions.add(new Position(pieces.getPosition()));
+        }
+
+        @Override
+        public void invalid(CharSequence token, int ply) {
+            invalid.add(token + "@" + ply);
+        }
+
+        @Override
+        public void game(CharSequence result, int plies, boolean valid) {
+            games.add(result + " " + plies + " " + valid);
+            moves = 0;
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка чтения нескольких партий с заголовками, комментариями и вариантами")
+    void testReadGames() throws IOException {
+        String text = "[Event \"Cup\"]\n[White \"A \\\"B\\\" C\"]\n\n"
+                + movetext(6) + "{комментарий (с ходами e4)} ( 3... e9 ) $1 ; до конца строки 1-0\n1-0\n\n"
+                + "[Event \"Second\"]\n1. e4 e7 2. Xz9 e6 0-1\n"
+                + movetext(3).replace("1. ", "1.") + "*";
+        byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+
+        // Маленький кусок чтения проверяет лексемы на границах кусков
+        Recorder recorder = new Recorder();
+        long count = new GameReader(7).read(Channels.newChannel(new ByteArrayInputStream(bytes)), recorder);
+
+        assertEquals(3, count);
+        assertEquals(List.of("1-0 6 true", "0-1 2 false", "* 3 true"), recorder.games);
+        assertEquals(List.of("Xz9@2"), recorder.invalid);
+        assertEquals("Event=Cup", recorder.tags.get(0));
+        assertEquals("White=A \"B\" C", recorder.tags.get(1));
+        assertEquals(3, recorder.tags.size());
+
+        // Каждая партия начинается с начальной позиции
+        Position start = new Pieces().getPosition();
+        for (Position position : recorder.firstPositions)
+            assertEquals(start, position);
+    }
+
+    @Test
+    @DisplayName("Проверка чтения файла и партии без результата в конце")
+    void testReadFile() throws IOException {
+        Path file = tempDir.resolve("games.txt");
+        Files.write(file, ("[Event \"Файл\"]\n" + movetext(4) + "\n[Event \"Следующая\"]\n" + movetext(2))
+                .getBytes(StandardCharsets.UTF_8));
+
+        Recorder recorder = new Recorder();
+        GameReader reader = new GameReader();
+        assertEquals(2, reader.read(file, recorder));
+        assertEquals(List.of("* 4 true", "* 2 true"), recorder.games);
+
+        // Повторное чтение тем же объектом дает тот же результат
+        Recorder again = new Recorder();
+        assertEquals(2, reader.read(file, again));
+        assertEquals(recorder.games, again.games);
+
+        assertThrows(IllegalArgumentException.class, () -> new GameReader(0));
+    }
+
+    @Test
+    @DisplayName("Проверка заголовков не в Latin-1 при чтении файла и записи в архив")
+    void testUtf8Tags() throws IOException {
+        Path file = tempDir.resolve("games.txt");
+        Files.write(file, ("[Event \"Кубок «Ферзя» ♕\"]\n[Site \"Zürich\"]\n" + movetext(4) + "1-0\n")
+                .getBytes(StandardCharsets.UTF_8));
+
+        LinkedHashMap<String, String> tags = new LinkedHashMap<>();
+        MoveList moves = new MoveList();
+        new GameReader(5).read(file, new GameReader.Handler() {
+            @Override
+            public void tag(CharSequence name, CharSequence value) {
+                tags.put(name.toString(), value.toString());
+            }
+
+            @Override
+            public void move(Pieces pieces, int move) {
+                moves.add(move);
+            }
+
+            @Override
+            public void game(CharSequence result, int plies, boolean valid) {
+                assertTrue(valid);
+            }
+        });
+        assertEquals("Кубок «Ферзя» ♕", tags.get("Event"));
+        assertEquals("Zürich", tags.get("Site"));
+
+        // Архив хранит заголовки в UTF-8, и прочитанная запись совпадает с исходной
+        GameRecord record = new GameRecord(tags, moves, "1-0");
+        try (GameArchive archive = GameArchive.open(tempDir.resolve("games.gca"))) {
+            archive.append(record);
+            assertEquals(record, archive.read(0));
+        }
+    }
+}
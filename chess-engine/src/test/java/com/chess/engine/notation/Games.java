@@ -0,0 +1,34 @@
+package com.chess.engine.notation;
+
+import com.chess.engine.logic.MoveList;
+import com.chess.engine.logic.Pieces;
+
+/**
+ * Партии для тестов архива и построенных по нему указателей
+ */
+final class Games {
+
+    private Games() {
+    }
+
+    /**
+     * Создает партию из легальных ходов начальной позиции со сдвигом выбора хода
+     * Партии с одинаковым сдвигом повторяют друг друга, более короткая - начало более длинной.
+     * @param plies наибольшее количество полуходов
+     * @param shift сдвиг выбора хода в списке сгенерированных ходов
+     * @return ходы партии; партия обрывается на первом нелегальном ходе
+     */
+    static MoveList game(int plies, int shift) {
+        Pieces pieces = new Pieces();
+        MoveList moves = new MoveList();
+        for (int ply = 0; ply < plies; ply++) {
+            MoveList legal = pieces.generateMoves(pieces.getSideToMove());
+            int move = legal.get((ply * shift + shift) % legal.size());
+            if (!pieces.isLegal(move))
+                break;
+            moves.add(move);
+            pieces.makeMove(move);
+        }
+        return moves;
+    }
+}
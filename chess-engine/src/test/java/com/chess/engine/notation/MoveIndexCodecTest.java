@@ -0,0 +1,108 @@
+package com.chess.engine.notation;
+
+import com.chess.engine.logic.MoveList;
+import com.chess.engine.logic.Pieces;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveIndexCodecTest {
+
+    /**
+     * Создает партию из легальных ходов начальной позиции с псевдослучайным выбором хода
+     */
+    private static MoveList game(int plies, long seed) {
+        Pieces pieces = new Pieces();
+        MoveList moves = new MoveList();
+        MoveList legal = new MoveList();
+        long state = seed;
+        for (int ply = 0; ply < plies; ply++) {
+            legal.clear();
+            for (int move : pieces.generateMoves(pieces.getSideToMove()).toArray()) {
+                if (pieces.isLegal(move))
+                    legal.add(move);
+            }
+            if (legal.isEmpty())
+                break;
+            state = state * 6364136223846793005L + 1442695040888963407L;
+            // Чаще выбираются первые ходы, как в настоящих партиях с сильными ходами
+            int bound = (int) ((state >>> 33) % 3) == 0 ? legal.size() : Math.min(4, legal.size());
+            int move = legal.get((int) ((state >>> 40) % bound));
+            moves.add(move);
+            pieces.makeMove(move);
+        }
+        return moves;
+    }
+
+    @Test
+    @DisplayName("Проверка сжатия и восстановления партий")
+    void testRoundTrip() {
+        MoveIndexCodec codec = new MoveIndexCodec();
+        assertEquals(0, codec.decode(codec.encode(new MoveList())).size());
+        for (long seed = 1; seed <= 10; seed++) {
+            MoveList moves = game(60, seed);
+            byte[] data = codec.encode(moves);
+            assertEquals(moves, codec.decode(data));
+
+            // Часть массива со сдвигом
+            byte[] shifted = new byte[data.length + 3];
+            System.arraycopy(data, 0, shifted, 2, data.length);
+            MoveList decoded = new MoveList();
+            codec.decode(shifted, 2, data.length, decoded);
+            assertEquals(moves, decoded);
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка модели по частотам своих партий и длин кодов")
+    void testTrainedModel() {
+        long[] counts = new long[MoveIndexCodec.SYMBOLS];
+        MoveIndexCodec counter = new MoveIndexCodec();
+        long plies = 0;
+        for (long seed = 1; seed <= 20; seed++) {
+            MoveList moves = game(60, seed);
+            counter.countIndices(moves, counts);
+            plies += moves.size();
+        }
+        assertEquals(plies, Arrays.stream(counts).sum());
+
+        MoveIndexCodec trained = new MoveIndexCodec(counts);
+        long bytes = 0;
+        for (long seed = 1; seed <= 20; seed++) {
+            MoveList moves = game(60, seed);
+            byte[] data = trained.encode(moves);
+            assertEquals(moves, trained.decode(data));
+            bytes += data.length;
+        }
+        assertTrue(bytes < plies * 2, "В среднем меньше двух байт на полуход: " + bytes + " на " + plies);
+
+        // Частый номер получает код не длиннее редкого
+        assertTrue(trained.codeLength(0) <= trained.codeLength(MoveIndexCodec.SYMBOLS - 1));
+        assertTrue(new MoveIndexCodec().codeLength(0) < 8);
+        assertThrows(IllegalArgumentException.class, () -> new MoveIndexCodec(new long[3]));
+        long[] negative = new long[MoveIndexCodec.SYMBOLS];
+        negative[5] = -1;
+        assertThrows(IllegalArgumentException.class, () -> new MoveIndexCodec(negative));
+    }
+
+    @Test
+    @DisplayName("Проверка нелегального хода и поврежденных данных")
+    void testInvalidData() {
+        MoveIndexCodec codec = new MoveIndexCodec();
+        MoveList moves = game(20, 7);
+        byte[] data = codec.encode(moves);
+
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(Arrays.copyOf(data, data.length / 2)));
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(new byte[] {(byte) 0x80}));
+
+        MoveList illegal = new MoveList();
+        illegal.add(moves.get(1));
+        assertThrows(IllegalArgumentException.class, () -> codec.encode(illegal));
+
+        // После ошибок доска кодека возвращается в начальную позицию
+        assertEquals(moves, codec.decode(data));
+    }
+}
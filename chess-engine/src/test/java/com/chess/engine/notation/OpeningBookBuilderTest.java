@@ -0,0 +1,70 @@
+package com.chess.engine.notation;
+
+import com.chess.engine.logic.MoveList;
+import com.chess.engine.logic.Pieces;
+import com.chess.engine.search.OpeningBook;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpeningBookBuilderTest {
+
+    private static final String[] RESULTS = {"1-0", "0-1", "1/2-1/2", "1-0", "*"};
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Проверка построения книги по архиву и весов ходов начальной позиции")
+    void testBuild() throws IOException {
+        Path archivePath = tempDir.resolve("games.gca");
+        // Очки белых за первый ход: 2 за победу, 1 за ничью
+        Map<Integer, Integer> scores = new HashMap<>();
+        Map<Integer, Integer> finished = new HashMap<>();
+        try (GameArchive archive = GameArchive.open(archivePath)) {
+            for (int i = 0; i < 30; i++) {
+                MoveList moves = Games.game(8, i % 3 + 1);
+                String result = RESULTS[i % RESULTS.length];
+                archive.append(new GameRecord(new LinkedHashMap<>(), moves, result));
+                int score = result.equals("1-0") ? 2 : result.equals("1/2-1/2") ? 1 : 0;
+                scores.merge(moves.get(0), score, Integer::sum);
+                finished.merge(moves.get(0), result.equals("*") ? 0 : 1, Integer::sum);
+            }
+        }
+
+        Path bookPath = tempDir.resolve("book.bin");
+        int entries = OpeningBookBuilder.build(archivePath, bookPath, 6, 2, 2);
+        assertTrue(entries > 0);
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(0, files.filter(file -> file.toString().endsWith(".tmp")).count());
+        }
+
+        try (OpeningBook book = OpeningBook.open(bookPath)) {
+            assertEquals(entries, book.size());
+            Pieces pieces = new Pieces();
+            MoveList moves = new MoveList();
+            int[] weights = book.probe(pieces, moves);
+            assertEquals(scores.values().stream().filter(s -> s > 0).count(), moves.size());
+            for (int i = 0; i < moves.size(); i++) {
+                int move = moves.get(i);
+                assertEquals((int) scores.get(move), weights[i]);
+                assertEquals(scores.get(move) * 500 / finished.get(move), book.learn(pieces, move));
+            }
+
+            // Книга продолжается ходами черных после хода из книги
+            pieces.doMove(book.best(pieces));
+            assertTrue(book.probe(pieces, moves).length > 0);
+        }
+        assertThrows(IllegalArgumentException.class, () -> OpeningBookBuilder.build(archivePath, bookPath, 6, 0, 2));
+    }
+}
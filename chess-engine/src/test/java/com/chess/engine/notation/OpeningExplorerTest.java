@@ -0,0 +1,103 @@
+package com.chess.engine.notation;
+
+import com.chess.engine.logic.MoveList;
+import com.chess.engine.logic.Pieces;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpeningExplorerTest {
+
+    private static final String[] RESULTS = {"1-0", "0-1", "1/2-1/2", "*"};
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Проверка построения дебютной таблицы и статистики ходов позиции")
+    void testBuildAndChildren() throws IOException {
+        Path archivePath = tempDir.resolve("games.gca");
+        int maxPly = 6;
+        // Счетчики перебором: ключ позиции и ход -> партии с каждым результатом
+        Map<String, int[]> expected = new HashMap<>();
+        try (GameArchive archive = GameArchive.open(archivePath)) {
+            for (int i = 0; i < 40; i++) {
+                MoveList moves = Games.game(4 + i % 7, i % 4 + 1);
+                String result = RESULTS[i % RESULTS.length];
+                archive.append(new GameRecord(new LinkedHashMap<>(), moves, result));
+
+                Pieces pieces = new Pieces();
+                for (int ply = 0; ply < Math.min(moves.size(), maxPly); ply++) {
+                    String key = pieces.getPosition().getKey() + " " + moves.get(ply);
+                    expected.computeIfAbsent(key, k -> new int[4])[GameRecord.resultCode(result)]++;
+                    pieces.doMove(moves.get(ply));
+                }
+            }
+        }
+
+        Path tablePath = tempDir.resolve("openings.tbl");
+        // Маленькие задачи проверяют деление отрезков и слияние таблиц
+        assertEquals(expected.size(), OpeningExplorer.build(archivePath, tablePath, maxPly, 3, 3));
+
+        OpeningExplorer explorer = OpeningExplorer.open(tablePath);
+        assertEquals(expected.size(), explorer.size());
+        assertEquals(40, explorer.games());
+        assertEquals(maxPly, explorer.getMaxPly());
+
+        List<OpeningExplorer.Child> first = explorer.children(new Pieces().getPosition());
+        assertEquals(40, first.stream().mapToLong(OpeningExplorer.Child::getGames).sum());
+        for (int i = 1; i < first.size(); i++)
+            assertTrue(first.get(i - 1).getGames() >= first.get(i).getGames());
+
+        OpeningExplorer.Child top = first.get(0);
+        int[] counts = expected.get(new Pieces().getPosition().getKey() + " " + top.getMove());
+        assertEquals(counts[1], top.getWhiteWins());
+        assertEquals(counts[2], top.getBlackWins());
+        assertEquals(counts[3], top.getDraws());
+        long finished = top.getGames() - counts[0];
+        assertEquals(100.0 * counts[1] / finished, top.whitePercent(), 1e-9);
+        assertEquals(100.0, top.whitePercent() + top.drawPercent() + top.blackPercent(), 1e-9);
+
+        // Продолжение самого частого хода
+        Pieces pieces = new Pieces();
+        pieces.doMove(top.getMove());
+        for (OpeningExplorer.Child child : explorer.children(pieces.getPosition())) {
+            int[] replies = expected.get(pieces.getPosition().getKey() + " " + child.getMove());
+            assertNotNull(replies);
+            assertEquals(replies[0] + replies[1] + replies[2] + replies[3], child.getGames());
+        }
+        assertTrue(explorer.children(0x55L).isEmpty());
+
+        // Результат не зависит от деления на задачи
+        Path single = tempDir.resolve("single.tbl");
+        OpeningExplorer.build(archivePath, single, maxPly, 1);
+        assertArrayEquals(Files.readAllBytes(tablePath), Files.readAllBytes(single));
+    }
+
+    @Test
+    @DisplayName("Проверка ошибок построения и открытия дебютной таблицы")
+    void testInvalid() throws IOException {
+        Path missing = tempDir.resolve("missing.gca");
+        Path output = tempDir.resolve("openings.tbl");
+        assertThrows(IOException.class, () -> OpeningExplorer.build(missing, output, 10, 2));
+        assertThrows(IllegalArgumentException.class, () -> OpeningExplorer.build(missing, output, -1, 2));
+
+        Files.write(output, new byte[10]);
+        assertThrows(IOException.class, () -> OpeningExplorer.open(output));
+
+        Path empty = tempDir.resolve("empty.gca");
+        GameArchive.open(empty).close();
+        assertEquals(0, OpeningExplorer.build(empty, output, 10, 2));
+        assertTrue(OpeningExplorer.open(output).children(new Pieces().getPosition()).isEmpty());
+    }
+}
@@ -0,0 +1,95 @@
+package com.chess.engine.notation;
+
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.enums.ID;
+import com.chess.engine.logic.Coordinate;
+import com.chess.engine.logic.MoveList;
+import com.chess.engine.logic.Pieces;
+import com.chess.engine.logic.Position;
+import com.chess.engine.logic.SquareSet;
+import com.chess.engine.pieces.PieceKind;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatternSearchTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Проверка условий запроса на поле и на множество полей")
+    void testMatches() {
+        Position start = new Pieces().getPosition();
+        assertTrue(new PatternQuery().matches(start));
+        assertTrue(new PatternQuery()
+                .require(ID.GIRAFFE, COLOUR.W, new Coordinate('e', 1))
+                .require(ID.KING, COLOUR.W, new Coordinate('f', 1))
+                .requireAny(ID.KING, COLOUR.B, SquareSet.rank(10))
+                .matches(start));
+        assertFalse(new PatternQuery().require(ID.GIRAFFE, COLOUR.W, new Coordinate('e', 5)).matches(start));
+        // Поле занято, но фигурой другого вида
+        assertFalse(new PatternQuery().require(ID.QUEEN, COLOUR.W, new Coordinate('f', 1)).matches(start));
+        assertFalse(new PatternQuery().requireAny(ID.KING, COLOUR.B, SquareSet.rank(1)).matches(start));
+        assertTrue(new PatternQuery().requireAny(ID.PAWN, COLOUR.B, SquareSet.file('e')).matches(start));
+
+        assertThrows(IllegalArgumentException.class, () -> new PatternQuery().requireAny(ID.KING, COLOUR.B, new SquareSet()));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PatternQuery().require(ID.KING, COLOUR.B, Coordinate.emptyCoordinate));
+    }
+
+    @Test
+    @DisplayName("Проверка параллельного поиска по архиву в сравнении с перебором позиций")
+    void testSearch() throws IOException {
+        Path archivePath = tempDir.resolve("games.gca");
+        List<MoveList> games = new ArrayList<>();
+        try (GameArchive archive = GameArchive.open(archivePath)) {
+            for (int i = 0; i < 15; i++) {
+                MoveList moves = Games.game(12 + i, i % 6 + 1);
+                games.add(moves);
+                archive.append(new GameRecord(new LinkedHashMap<>(), moves, "*"));
+            }
+        }
+
+        Coordinate e4 = new Coordinate('e', 4);
+        PatternQuery query = new PatternQuery()
+                .require(ID.PAWN, COLOUR.W, e4)
+                .requireAny(ID.KING, COLOUR.B, SquareSet.rank(10));
+
+        // Перебор позиций с проверкой полей напрямую, без множеств полей
+        List<Long> expected = new ArrayList<>();
+        PieceKind whitePawn = PieceKind.of(COLOUR.W, ID.PAWN);
+        for (int id = 0; id < games.size(); id++) {
+            Pieces pieces = new Pieces();
+            MoveList moves = games.get(id);
+            for (int ply = 0; ply <= moves.size(); ply++) {
+                Position position = pieces.getPosition();
+                int king = position.kingSquare(COLOUR.B);
+                if (position.get(e4) == whitePawn && king >= 90)
+                    expected.add(PositionIndex.occurrence(id, ply));
+                if (ply < moves.size())
+                    pieces.doMove(moves.get(ply));
+            }
+        }
+        assertFalse(expected.isEmpty());
+
+        for (int threads : new int[] {1, 3}) {
+            long[] found = PatternSearch.search(archivePath, query, threads);
+            assertEquals(expected.size(), found.length);
+            for (int i = 0; i < found.length; i++)
+                assertEquals((long) expected.get(i), found[i]);
+        }
+
+        long[] all = PatternSearch.search(archivePath, new PatternQuery(), 2);
+        assertEquals(PositionIndex.occurrence(games.size() - 1, games.get(games.size() - 1).size()), all[all.length - 1]);
+        assertThrows(IllegalArgumentException.class, () -> PatternSearch.search(archivePath, query, 0));
+    }
+}
@@ -0,0 +1,106 @@
+package com.chess.engine.notation;
+
+import com.chess.engine.logic.MoveList;
+import com.chess.engine.logic.Pieces;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Проверка построения указателя позиций и поиска всех вхождений позиции")
+    void testBuildAndFind() throws IOException {
+        Path archivePath = tempDir.resolve("games.gca");
+        List<MoveList> games = new ArrayList<>();
+        try (GameArchive archive = GameArchive.open(archivePath)) {
+            for (int i = 0; i < 12; i++) {
+                // Партии с одинаковым сдвигом повторяют друг друга
+                MoveList moves = Games.game(10 + i, i % 5 + 1);
+                games.add(moves);
+                archive.append(new GameRecord(new LinkedHashMap<>(), moves, "*"));
+            }
+        }
+
+        int maxPly = 8;
+        Path indexPath = tempDir.resolve("positions.idx");
+        // Маленькие порции дают много временных файлов и проверяют слияние
+        long entries = PositionIndex.build(archivePath, indexPath, maxPly, 3, 7);
+        long expected = 0;
+        for (MoveList moves : games)
+            expected += Math.min(moves.size(), maxPly) + 1;
+        assertEquals(expected, entries);
+
+        try (PositionIndex index = PositionIndex.open(indexPath)) {
+            assertEquals(entries, index.size());
+            assertEquals(games.size(), index.games());
+            assertEquals(maxPly, index.getMaxPly());
+
+            long[] start = index.find(new Pieces().getPosition());
+            assertEquals(games.size(), start.length);
+            for (int id = 0; id < start.length; id++) {
+                assertEquals(id, PositionIndex.game(start[id]));
+                assertEquals(0, PositionIndex.ply(start[id]));
+            }
+
+            for (int id = 0; id < games.size(); id++) {
+                Pieces pieces = new Pieces();
+                MoveList moves = games.get(id);
+                for (int ply = 1; ply <= Math.min(moves.size(), maxPly); ply++) {
+                    pieces.doMove(moves.get(ply - 1));
+                    long[] found = index.find(pieces.getPosition().getKey());
+                    boolean contains = false;
+                    for (int i = 0; i < found.length; i++) {
+                        contains |= PositionIndex.game(found[i]) == id && PositionIndex.ply(found[i]) == ply;
+                        if (i > 0)
+                            assertTrue(found[i - 1] < found[i]);
+                    }
+                    assertTrue(contains, "Партия " + id + ", полуход " + ply);
+                }
+            }
+            assertEquals(0, index.find(0x123456789L).length);
+        }
+
+        // Результат не зависит от числа потоков и размера порций
+        Path single = tempDir.resolve("single.idx");
+        PositionIndex.build(archivePath, single, maxPly, 1);
+        assertArrayEquals(Files.readAllBytes(indexPath), Files.readAllBytes(single));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(4, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка ошибок построения и открытия указателя")
+    void testInvalid() throws IOException {
+        Path missing = tempDir.resolve("missing.gca");
+        Path output = tempDir.resolve("positions.idx");
+        assertThrows(IOException.class, () -> PositionIndex.build(missing, output, 10, 2));
+        assertFalse(Files.exists(missing));
+        assertThrows(IllegalArgumentException.class, () -> PositionIndex.build(missing, output, -1, 2));
+        assertThrows(IllegalArgumentException.class, () -> PositionIndex.build(missing, output, 10, 0));
+
+        Files.write(output, new byte[40]);
+        assertThrows(IOException.class, () -> PositionIndex.open(output));
+
+        Path empty = tempDir.resolve("empty.gca");
+        GameArchive.open(empty).close();
+        assertEquals(0, PositionIndex.build(empty, output, 10, 2));
+        try (PositionIndex index = PositionIndex.open(output)) {
+            assertEquals(0, index.find(new Pieces().getPosition()).length);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.chess.engine.notation;
+
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.enums.ID;
+import com.chess.engine.logic.Coordinate;
+import com.chess.engine.logic.MoveList;
+import com.chess.engine.logic.PackedMove;
+import com.chess.engine.logic.Pieces;
+import com.chess.engine.pieces.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SanParserTest {
+
+    private static void put(HashMap<Coordinate, Piece> board, Piece piece) {
+        board.put(piece.getCoords(), piece);
+    }
+
+    @Test
+    @DisplayName("Проверка, что каждая запись SanWriter читается обратно в тот же ход")
+    void testRoundTrip() {
+        Pieces pieces = new Pieces();
+        SanParser parser = new SanParser();
+        MoveList moves = new MoveList();
+
+        // Несколько ходов из начальной позиции: на каждом шаге проверяются все легальные ходы
+        for (int ply = 0; ply < 6; ply++) {
+            String[] san = SanWriter.allToSan(pieces, moves);
+            parser.index(pieces);
+            for (int i = 0; i < moves.size(); i++)
+                assertEquals(moves.get(i), parser.parse(san[i]), san[i]);
+            pieces.makeMove(moves.get(ply % moves.size()));
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка букв фигур варианта, двузначных горизонталей, превращений и рокировки")
+    void testVariantNotation() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+        put(board, new King(COLOUR.W, new Coordinate('f', 1)));
+        put(board, new Rook(COLOUR.W, new Coordinate('a', 1)));
+        put(board, new King(COLOUR.B, new Coordinate('j', 5)));
+        put(board, new Vizar(COLOUR.W, new Coordinate('c', 5)));
+        put(board, new WarCar(COLOUR.W, new Coordinate('h', 2)));
+        put(board, new Giraffe(COLOUR.W, new Coordinate('e', 6)));
+        put(board, new Pawn(COLOUR.W, new Coordinate('b', 9)));
+        put(board, new Rook(COLOUR.B, new Coordinate('c', 10)));
+        Pieces pieces = new Pieces(board);
+        SanParser parser = new SanParser();
+        parser.index(pieces);
+
+        assertEquals(pieces.createMove(new Coordinate('e', 6), new Coordinate('e', 10)), parser.parse("Ge10"));
+        assertEquals(pieces.createMove(new Coordinate('c', 5), new Coordinate('d', 7)), parser.parse("Vd7!?"));
+        assertEquals(pieces.createMove(new Coordinate('h', 2), new Coordinate('h', 9)), parser.parse("Wh9"));
+        assertEquals(pieces.createMove(new Coordinate('b', 9), new Coordinate('c', 10), ID.GIRAFFE),
+                parser.parse("bxc10=G+"));
+        assertEquals(pieces.createMove(new Coordinate('b', 9), new Coordinate('b', 10), ID.WARCAR), parser.parse("b10W"));
+        assertEquals(pieces.createMove(new Coordinate('b', 9), new Coordinate('b', 10), ID.QUEEN), parser.parse("b10"));
+        assertTrue(PackedMove.hasFlag(parser.parse("O-O-O"), PackedMove.CASTLING));
+        assertEquals(new Coordinate('d', 1), PackedMove.toCoordinate(parser.parse("0-0-0")));
+
+        // Записи без легального хода, с полем вне доски или с лишними символами
+        assertEquals(PackedMove.NONE, parser.parse("O-O"));
+        assertEquals(PackedMove.NONE, parser.parse("Gk10"));
+        assertEquals(PackedMove.NONE, parser.parse("Ge11"));
+        assertEquals(PackedMove.NONE, parser.parse("Qe10"));
+        assertEquals(PackedMove.NONE, parser.parse("b10=K"));
+        assertEquals(PackedMove.NONE, parser.parse("Ge6e10e"));
+        assertEquals(PackedMove.NONE, parser.parse(""));
+
+        assertThrows(IllegalArgumentException.class, () -> SanParser.toMove(pieces, "Ke3"));
+        assertEquals(pieces.createMove(new Coordinate('f', 1), new Coordinate('g', 2)), SanParser.toMove(pieces, "Kg2"));
+    }
+
+    @Test
+    @DisplayName("Проверка неоднозначной записи и уточнения по вертикали и горизонтали")
+    void testDisambiguation() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+        put(board, new King(COLOUR.W, new Coordinate('f', 1)));
+        put(board, new King(COLOUR.B, new Coordinate('f', 10)));
+        put(board, new Rook(COLOUR.W, new Coordinate('a', 10)));
+        put(board, new Rook(COLOUR.W, new Coordinate('a', 2)));
+        put(board, new Rook(COLOUR.W, new Coordinate('j', 2)));
+        Pieces pieces = new Pieces(board);
+        SanParser parser = new SanParser();
+        parser.index(pieces);
+
+        assertEquals(PackedMove.NONE, parser.parse("Ra5"));
+        assertEquals(pieces.createMove(new Coordinate('a', 10), new Coordinate('a', 5)), parser.parse("R10a5"));
+        assertEquals(pieces.createMove(new Coordinate('a', 2), new Coordinate('a', 5)), parser.parse("R2a5"));
+        assertEquals(PackedMove.NONE, parser.parse("Re2"));
+        assertEquals(pieces.createMove(new Coordinate('j', 2), new Coordinate('e', 2)), parser.parse("Rje2"));
+        assertEquals(pieces.createMove(new Coordinate('a', 2), new Coordinate('e', 2)), parser.parse("Ra2e2"));
+    }
+}
@@ -0,0 +1,94 @@
+package com.chess.engine.notation;
+
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.enums.ID;
+import com.chess.engine.logic.Coordinate;
+import com.chess.engine.logic.MoveList;
+import com.chess.engine.logic.Pieces;
+import com.chess.engine.pieces.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SanWriterTest {
+
+    private static void put(HashMap<Coordinate, Piece> board, Piece piece) {
+        board.put(piece.getCoords(), piece);
+    }
+
+    @Test
+    @DisplayName("Проверка уточнения поля отправления по фигурам, бьющим поле назначения")
+    void testDisambiguation() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+        put(board, new King(COLOUR.W, new Coordinate('f', 1)));
+        put(board, new King(COLOUR.B, new Coordinate('f', 10)));
+        put(board, new Rook(COLOUR.W, new Coordinate('a', 4)));
+        put(board, new Rook(COLOUR.W, new Coordinate('h', 4)));
+        put(board, new Knight(COLOUR.W, new Coordinate('b', 1)));
+        put(board, new Knight(COLOUR.W, new Coordinate('b', 5)));
+        put(board, new Knight(COLOUR.W, new Coordinate('d', 5)));
+        Pieces pieces = new Pieces(board);
+
+        assertEquals("Rad4", SanWriter.toSan(pieces, pieces.createMove(new Coordinate('a', 4), new Coordinate('d', 4))));
+        // Три коня идут на c3: b1 и b5 на одной вертикали, b5 и d5 на одной горизонтали
+        assertEquals("Nb5c3", SanWriter.toSan(pieces, pieces.createMove(new Coordinate('b', 5), new Coordinate('c', 3))));
+        assertEquals("N1c3", SanWriter.toSan(pieces, pieces.createMove(new Coordinate('b', 1), new Coordinate('c', 3))));
+        assertEquals("Ndc3", SanWriter.toSan(pieces, pieces.createMove(new Coordinate('d', 5), new Coordinate('c', 3))));
+        assertEquals("Ra5", SanWriter.toSan(pieces, pieces.createMove(new Coordinate('a', 4), new Coordinate('a', 5))));
+    }
+
+    @Test
+    @DisplayName("Проверка связанной фигуры, превращения, шаха и мата")
+    void testSuffixes() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+        put(board, new King(COLOUR.W, new Coordinate('a', 1)));
+        put(board, new King(COLOUR.B, new Coordinate('j', 10)));
+        put(board, new Rook(COLOUR.W, new Coordinate('a', 3)));
+        put(board, new Rook(COLOUR.W, new Coordinate('b', 2)));
+        put(board, new Rook(COLOUR.W, new Coordinate('h', 9)));
+        put(board, new Pawn(COLOUR.W, new Coordinate('c', 9)));
+        put(board, new Bishop(COLOUR.B, new Coordinate('d', 4)));
+        put(board, new Knight(COLOUR.B, new Coordinate('e', 3)));
+        Pieces pieces = new Pieces(board);
+
+        // Ладья b2 связана слоном d4 и не создает неоднозначности для a3
+        assertEquals("Rb3", SanWriter.toSan(pieces, pieces.createMove(new Coordinate('a', 3), new Coordinate('b', 3))));
+        assertEquals("Rxe3", SanWriter.toSan(pieces, pieces.createMove(new Coordinate('a', 3), new Coordinate('e', 3))));
+        assertEquals("Ra10#", SanWriter.toSan(pieces, pieces.createMove(new Coordinate('a', 3), new Coordinate('a', 10))));
+        assertEquals("Rh10+", SanWriter.toSan(pieces, pieces.createMove(new Coordinate('h', 9), new Coordinate('h', 10))));
+        assertEquals("c10=N", SanWriter.toSan(pieces,
+                pieces.createMove(new Coordinate('c', 9), new Coordinate('c', 10), ID.KNIGHT)));
+        // Жираф бьет по десятой горизонтали, а девятую держит ладья h9
+        assertEquals("c10=G#", SanWriter.toSan(pieces,
+                pieces.createMove(new Coordinate('c', 9), new Coordinate('c', 10), ID.GIRAFFE)));
+    }
+
+    @Test
+    @DisplayName("Проверка записи всех легальных ходов за один проход")
+    void testAllToSan() {
+        Pieces pieces = new Pieces();
+        MoveList moves = new MoveList();
+        String[] san = SanWriter.allToSan(pieces, moves);
+
+        assertEquals(moves.size(), san.length);
+        assertEquals(san.length, new HashSet<>(Arrays.asList(san)).size());
+        for (int i = 0; i < moves.size(); i++)
+            assertEquals(SanWriter.toSan(pieces, moves.get(i)), san[i]);
+
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+        put(board, new King(COLOUR.W, new Coordinate('f', 1)));
+        put(board, new Rook(COLOUR.W, new Coordinate('a', 1)));
+        put(board, new King(COLOUR.B, new Coordinate('i', 8)));
+        Pieces castlePieces = new Pieces(board);
+        List<String> castleSan = Arrays.asList(SanWriter.allToSan(castlePieces, moves));
+        assertTrue(castleSan.contains("O-O-O"));
+        assertTrue(castleSan.contains("Kg2"));
+        assertFalse(castleSan.contains("Ka1"));
+    }
+}
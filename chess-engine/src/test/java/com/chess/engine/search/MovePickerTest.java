@@ -0,0 +1,152 @@
+package com.chess.engine.search;
+
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.enums.ID;
+import com.chess.engine.logic.Coordinate;
+import com.chess.engine.logic.MoveList;
+import com.chess.engine.logic.PackedMove;
+import com.chess.engine.logic.Pieces;
+import com.chess.engine.pieces.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovePickerTest {
+
+    private Pieces pieces;
+    private Piece whiteKing;
+    private Piece whiteRook;
+    private Piece whiteQueen;
+
+    @BeforeEach
+    void setUp() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+
+        Coordinate whiteKingCoord = new Coordinate('a', 1);
+        whiteKing = new King(COLOUR.W, whiteKingCoord);
+        board.put(whiteKingCoord, whiteKing);
+
+        Coordinate whiteRookCoord = new Coordinate('d', 1);
+        whiteRook = new Rook(COLOUR.W, whiteRookCoord);
+        board.put(whiteRookCoord, whiteRook);
+
+        Coordinate whiteQueenCoord = new Coordinate('h', 3);
+        whiteQueen = new Queen(COLOUR.W, whiteQueenCoord);
+        board.put(whiteQueenCoord, whiteQueen);
+
+        Coordinate blackKingCoord = new Coordinate('j', 10);
+        board.put(blackKingCoord, new King(COLOUR.B, blackKingCoord));
+
+        Coordinate blackQueenCoord = new Coordinate('d', 5);
+        board.put(blackQueenCoord, new Queen(COLOUR.B, blackQueenCoord));
+
+        Coordinate blackPawnCoord = new Coordinate('h', 7);
+        board.put(blackPawnCoord, new Pawn(COLOUR.B, blackPawnCoord));
+
+        Coordinate blackGuardCoord = new Coordinate('g', 8);
+        board.put(blackGuardCoord, new Pawn(COLOUR.B, blackGuardCoord));
+
+        pieces = new Pieces(board);
+    }
+
+    private MoveList drain(MovePicker picker) {
+        MoveList picked = new MoveList();
+        int move;
+        while ((move = picker.next()) != PackedMove.NONE) {
+            picked.add(move);
+        }
+        return picked;
+    }
+
+    private int findMove(Piece piece, Coordinate to) {
+        int move = pieces.createMove(piece.getCoords(), to);
+        if (!pieces.generateMoves(piece.getColour()).contains(move))
+            fail("Ход " + to + " не найден");
+        return move;
+    }
+
+    private int count(MoveList moves, int move) {
+        int count = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            if (moves.get(i) == move)
+                count++;
+        }
+        return count;
+    }
+
+    private HashSet<Integer> asSet(MoveList moves) {
+        HashSet<Integer> set = new HashSet<>();
+        for (int i = 0; i < moves.size(); i++) {
+            set.add(moves.get(i));
+        }
+        return set;
+    }
+
+    @Test
+    @DisplayName("Проверка выдачи каждого хода ровно один раз")
+    void testAllMovesOnce() {
+        MoveList picked = drain(new MovePicker(pieces, COLOUR.W, PackedMove.NONE, null, null));
+
+        HashSet<Integer> generated = asSet(pieces.generateMoves(COLOUR.W));
+        assertEquals(generated.size(), picked.size());
+        assertEquals(generated, asSet(picked));
+    }
+
+    @Test
+    @DisplayName("Проверка порядка: выгодные взятия первыми, невыгодные последними")
+    void testCaptureOrder() {
+        MoveList picked = drain(new MovePicker(pieces, COLOUR.W, PackedMove.NONE, null, null));
+
+        assertEquals(findMove(whiteRook, new Coordinate('d', 5)), picked.get(0));
+        assertEquals(findMove(whiteQueen, new Coordinate('h', 7)), picked.get(picked.size() - 1));
+    }
+
+    @Test
+    @DisplayName("Проверка выдачи хода из таблицы первым без повторения")
+    void testHashMoveFirst() {
+        int hashMove = findMove(whiteKing, new Coordinate('a', 2));
+        MoveList picked = drain(new MovePicker(pieces, COLOUR.W, hashMove, null, null));
+
+        assertEquals(hashMove, picked.get(0));
+        assertEquals(1, count(picked, hashMove));
+    }
+
+    @Test
+    @DisplayName("Проверка пропуска невозможного хода из таблицы")
+    void testIllegalHashMoveSkipped() {
+        int hashMove = PackedMove.of(new Coordinate('d', 1).toIndex(), new Coordinate('d', 9).toIndex(),
+                ID.ROOK, null, null);
+        MoveList picked = drain(new MovePicker(pieces, COLOUR.W, hashMove, null, null));
+
+        assertFalse(picked.contains(hashMove));
+        assertEquals(pieces.generateMoves(COLOUR.W).size(), picked.size());
+    }
+
+    @Test
+    @DisplayName("Проверка выдачи ходов-убийц после выгодных взятий")
+    void testKillersAfterGoodCaptures() {
+        int killer = findMove(whiteQueen, new Coordinate('c', 8));
+        int[] killers = {killer, killer};
+        MoveList picked = drain(new MovePicker(pieces, COLOUR.W, PackedMove.NONE, killers, null));
+
+        assertEquals(killer, picked.get(1));
+        assertEquals(1, count(picked, killer));
+    }
+
+    @Test
+    @DisplayName("Проверка сортировки тихих ходов по таблице истории")
+    void testHistoryOrder() {
+        int quiet = findMove(whiteKing, new Coordinate('b', 2));
+        int[][] history = new int[ID.values().length][Coordinate.SQUARES];
+        history[PackedMove.piece(quiet).ordinal()][PackedMove.to(quiet)] = 1000;
+
+        MoveList picked = drain(new MovePicker(pieces, COLOUR.W, PackedMove.NONE, null, history));
+
+        assertEquals(quiet, picked.get(1));
+    }
+}
@@ -0,0 +1,119 @@
+package com.chess.engine.search;
+
+import com.chess.engine.logic.Coordinate;
+import com.chess.engine.logic.MoveList;
+import com.chess.engine.logic.PackedMove;
+import com.chess.engine.logic.Pieces;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpeningBookTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Записывает книгу с двумя ходами начальной позиции и ходом черных после первого из них
+     */
+    private Path writeBook(Pieces start, int first, int second) throws IOException {
+        Pieces after = new Pieces();
+        after.doMove(first);
+        int reply = after.createMove(new Coordinate('e', 8), new Coordinate('e', 7));
+
+        long startKey = start.getPosition().getKey();
+        long afterKey = after.getPosition().getKey();
+        // Ход черных под ключом начальной позиции нелегален и должен отбрасываться
+        long[][] rows = {{startKey, first, 10, -5}, {startKey, second, 30, 400},
+                {startKey, reply, 50, 0}, {afterKey, reply, 7, 12}};
+        Arrays.sort(rows, Comparator.<long[]>comparingLong(row -> row[0]).thenComparingLong(row -> row[1]));
+        long[] sortedKeys = new long[rows.length];
+        int[] sortedMoves = new int[rows.length];
+        int[] sortedWeights = new int[rows.length];
+        int[] sortedLearn = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            sortedKeys[i] = rows[i][0];
+            sortedMoves[i] = (int) rows[i][1];
+            sortedWeights[i] = (int) rows[i][2];
+            sortedLearn[i] = (int) rows[i][3];
+        }
+        Path file = tempDir.resolve("book.bin");
+        OpeningBook.write(file, sortedKeys, sortedMoves, sortedWeights, sortedLearn, rows.length);
+        return file;
+    }
+
+    @Test
+    @DisplayName("Проверка поиска ходов книги, выбора по весу и отбрасывания нелегальных ходов")
+    void testProbe() throws IOException {
+        Pieces pieces = new Pieces();
+        int first = pieces.createMove(new Coordinate('e', 3), new Coordinate('e', 4));
+        int second = pieces.createMove(new Coordinate('a', 2), new Coordinate('a', 3));
+        Path file = writeBook(pieces, first, second);
+        assertEquals(16 + 4 * OpeningBook.ENTRY, Files.size(file));
+
+        try (OpeningBook book = OpeningBook.open(file)) {
+            assertEquals(4, book.size());
+            MoveList moves = new MoveList();
+            int[] weights = book.probe(pieces, moves);
+            assertEquals(2, moves.size());
+            assertEquals(weights[moves.indexOf(first)], 10);
+            assertEquals(weights[moves.indexOf(second)], 30);
+            assertEquals(second, book.best(pieces));
+            assertEquals(400, book.learn(pieces, second));
+            assertEquals(-5, book.learn(pieces, first));
+
+            Random random = new Random(1);
+            int firstCount = 0;
+            for (int i = 0; i < 400; i++) {
+                int move = book.pick(pieces, random);
+                assertTrue(move == first || move == second);
+                if (move == first)
+                    firstCount++;
+            }
+            assertTrue(firstCount > 50 && firstCount < 150, "Ход с весом 10 из 40 выбран " + firstCount + " раз");
+
+            pieces.doMove(first);
+            assertEquals(1, book.probe(pieces, moves).length);
+            pieces.doMove(moves.get(0));
+            assertEquals(PackedMove.NONE, book.best(pieces));
+            assertEquals(PackedMove.NONE, book.pick(pieces, random));
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка хода из книги в поиске и ошибок формата книги")
+    void testSearchAndInvalid() throws IOException {
+        Pieces pieces = new Pieces();
+        int first = pieces.createMove(new Coordinate('e', 3), new Coordinate('e', 4));
+        int second = pieces.createMove(new Coordinate('a', 2), new Coordinate('a', 3));
+        Path file = writeBook(pieces, first, second);
+
+        Search search = new Search(pieces);
+        try (OpeningBook book = OpeningBook.open(file)) {
+            search.setBook(book);
+            assertEquals(second, search.search(4));
+            assertEquals(0, search.getNodes());
+            assertEquals(second, search.getPrincipalVariation().get(0));
+        }
+        search.setBook(null);
+        assertNotEquals(PackedMove.NONE, search.search(1));
+        assertTrue(search.getNodes() > 0);
+
+        Path unsorted = tempDir.resolve("unsorted.bin");
+        assertThrows(IllegalArgumentException.class,
+                () -> OpeningBook.write(unsorted, new long[] {2, 1}, new int[] {first, first}, new int[] {1, 1}, null, 2));
+        assertThrows(IllegalArgumentException.class,
+                () -> OpeningBook.write(unsorted, new long[] {1}, new int[] {first}, new int[] {0}, null, 1));
+        Files.write(unsorted, new byte[20]);
+        assertThrows(IOException.class, () -> OpeningBook.open(unsorted));
+    }
+}
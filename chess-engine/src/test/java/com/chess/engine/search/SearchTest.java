@@ -0,0 +1,186 @@
+package com.chess.engine.search;
+
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.logic.Coordinate;
+import com.chess.engine.logic.PackedMove;
+import com.chess.engine.logic.Pieces;
+import com.chess.engine.pieces.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchTest {
+
+    private void put(HashMap<Coordinate, Piece> board, Piece piece) {
+        board.put(piece.getCoords(), piece);
+    }
+
+    @Test
+    @DisplayName("Проверка взятия незащищенного ферзя")
+    void testWinsHangingQueen() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+        put(board, new King(COLOUR.W, new Coordinate('a', 1)));
+        put(board, new King(COLOUR.B, new Coordinate('j', 10)));
+        put(board, new Rook(COLOUR.W, new Coordinate('d', 1)));
+        put(board, new Queen(COLOUR.B, new Coordinate('d', 6)));
+        Pieces pieces = new Pieces(board);
+
+        int best = new Search(pieces).search(COLOUR.W, 2);
+
+        assertEquals(new Coordinate('d', 6), PackedMove.toCoordinate(best));
+    }
+
+    @Test
+    @DisplayName("Проверка нахождения мата в один ход")
+    void testMateInOne() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+        put(board, new King(COLOUR.W, new Coordinate('a', 8)));
+        put(board, new King(COLOUR.B, new Coordinate('a', 10)));
+        put(board, new Rook(COLOUR.W, new Coordinate('h', 1)));
+        Pieces pieces = new Pieces(board);
+
+        Search search = new Search(pieces);
+        int best = search.search(COLOUR.W, 2);
+
+        assertEquals(new Coordinate('h', 10), PackedMove.toCoordinate(best));
+        assertEquals(Search.MATE - 1, search.getScore());
+    }
+
+    @Test
+    @DisplayName("Проверка отказа от взятия защищенной пешки ферзем")
+    void testQuiescenceAvoidsHorizon() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+        put(board, new King(COLOUR.W, new Coordinate('a', 1)));
+        put(board, new King(COLOUR.B, new Coordinate('j', 10)));
+        put(board, new Queen(COLOUR.W, new Coordinate('d', 1)));
+        put(board, new Pawn(COLOUR.B, new Coordinate('d', 7)));
+        put(board, new Pawn(COLOUR.B, new Coordinate('e', 8)));
+        Pieces pieces = new Pieces(board);
+
+        Search search = new Search(pieces);
+        int best = search.search(COLOUR.W, 1);
+
+        assertNotEquals(new Coordinate('d', 7), PackedMove.toCoordinate(best));
+        assertTrue(search.getScore() <= 950 - 200);
+    }
+
+    @Test
+    @DisplayName("Проверка восстановления позиции после поиска")
+    void testBoardRestored() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+        put(board, new King(COLOUR.W, new Coordinate('a', 1)));
+        put(board, new King(COLOUR.B, new Coordinate('j', 10)));
+        put(board, new Giraffe(COLOUR.W, new Coordinate('e', 4)));
+        put(board, new WarCar(COLOUR.B, new Coordinate('e', 8)));
+        put(board, new Pawn(COLOUR.W, new Coordinate('c', 9)));
+        Pieces pieces = new Pieces(board);
+        HashMap<Coordinate, Piece> before = new HashMap<>(pieces.getPieces());
+
+        new Search(pieces).search(COLOUR.W, 3);
+
+        assertEquals(before, pieces.getPieces());
+        for (Coordinate coordinate : before.keySet())
+            assertEquals(coordinate, pieces.getPieces().get(coordinate).getCoords());
+    }
+
+    @Test
+    @DisplayName("Проверка отсутствия хода при мате")
+    void testNoMoveWhenMated() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+        put(board, new King(COLOUR.W, new Coordinate('a', 8)));
+        put(board, new King(COLOUR.B, new Coordinate('a', 10)));
+        put(board, new Rook(COLOUR.W, new Coordinate('h', 10)));
+        Pieces pieces = new Pieces(board);
+
+        assertEquals(PackedMove.NONE, new Search(pieces).search(COLOUR.B, 2));
+    }
+
+    private Pieces middlegame() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+        put(board, new King(COLOUR.W, new Coordinate('b', 1)));
+        put(board, new King(COLOUR.B, new Coordinate('i', 10)));
+        put(board, new Rook(COLOUR.W, new Coordinate('d', 1)));
+        put(board, new Vizar(COLOUR.W, new Coordinate('e', 3)));
+        put(board, new Pawn(COLOUR.W, new Coordinate('a', 2)));
+        put(board, new Pawn(COLOUR.W, new Coordinate('b', 2)));
+        put(board, new Pawn(COLOUR.W, new Coordinate('f', 4)));
+        put(board, new WarCar(COLOUR.B, new Coordinate('g', 8)));
+        put(board, new Bishop(COLOUR.B, new Coordinate('c', 8)));
+        put(board, new Pawn(COLOUR.B, new Coordinate('h', 9)));
+        put(board, new Pawn(COLOUR.B, new Coordinate('i', 9)));
+        put(board, new Pawn(COLOUR.B, new Coordinate('e', 7)));
+        return new Pieces(board);
+    }
+
+    @Test
+    @DisplayName("Проверка отчета о количестве позиций по глубинам")
+    void testNodesPerDepth() {
+        Search search = new Search(middlegame());
+        search.search(COLOUR.W, 3);
+
+        long[] report = search.getNodesPerDepth();
+        assertEquals(3, report.length);
+        assertTrue(report[0] > 0);
+        assertTrue(report[1] > report[0]);
+        assertTrue(report[2] > report[1]);
+        assertEquals(search.getNodes(), report[2]);
+    }
+
+    @Test
+    @DisplayName("Проверка сокращения перебора выборочным поиском")
+    void testSelectiveSearchSavesNodes() {
+        Search plain = new Search(middlegame(), SearchOptions.plain());
+        plain.search(COLOUR.W, 4);
+        Search selective = new Search(middlegame());
+        selective.search(COLOUR.W, 4);
+
+        assertTrue(selective.getNodes() < plain.getNodes());
+    }
+
+    @Test
+    @DisplayName("Проверка нахождения мата при отключении каждого приема по отдельности")
+    void testEachOptionSwitchable() {
+        SearchOptions[] variants = {
+                SearchOptions.plain(),
+                new SearchOptions().setPrincipalVariation(false),
+                new SearchOptions().setAspirationWindows(false),
+                new SearchOptions().setNullMove(false),
+                new SearchOptions().setLateMoveReductions(false),
+                new SearchOptions().setFutilityPruning(false),
+                new SearchOptions().setCheckExtensions(false)
+        };
+
+        for (SearchOptions options : variants) {
+            HashMap<Coordinate, Piece> board = new HashMap<>();
+            put(board, new King(COLOUR.W, new Coordinate('a', 8)));
+            put(board, new King(COLOUR.B, new Coordinate('a', 10)));
+            put(board, new Rook(COLOUR.W, new Coordinate('h', 1)));
+            put(board, new Pawn(COLOUR.B, new Coordinate('e', 7)));
+            Search search = new Search(new Pieces(board), options);
+
+            assertEquals(new Coordinate('h', 10), PackedMove.toCoordinate(search.search(COLOUR.W, 3)));
+            assertEquals(Search.MATE - 1, search.getScore());
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка отказа от нулевого хода в пешечном окончании")
+    void testNullMoveZugzwangGuard() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+        put(board, new King(COLOUR.W, new Coordinate('e', 6)));
+        put(board, new Pawn(COLOUR.W, new Coordinate('e', 7)));
+        put(board, new King(COLOUR.B, new Coordinate('e', 9)));
+        Pieces pieces = new Pieces(board);
+
+        Search plain = new Search(new Pieces(pieces), SearchOptions.plain());
+        plain.search(COLOUR.B, 4);
+        Search selective = new Search(new Pieces(pieces), new SearchOptions().setLateMoveReductions(false)
+                .setFutilityPruning(false));
+        selective.search(COLOUR.B, 4);
+
+        assertEquals(plain.getScore(), selective.getScore());
+    }
+}
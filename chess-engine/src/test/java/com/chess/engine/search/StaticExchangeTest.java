@@ -0,0 +1,100 @@
+package com.chess.engine.search;
+
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.logic.Coordinate;
+import com.chess.engine.logic.Pieces;
+import com.chess.engine.pieces.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StaticExchangeTest {
+
+    private HashMap<Coordinate, Piece> kings() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+        board.put(new Coordinate('a', 1), new King(COLOUR.W, new Coordinate('a', 1)));
+        board.put(new Coordinate('j', 10), new King(COLOUR.B, new Coordinate('j', 10)));
+        return board;
+    }
+
+    private void put(HashMap<Coordinate, Piece> board, Piece piece) {
+        board.put(piece.getCoords(), piece);
+    }
+
+    private int capture(Pieces pieces, Piece piece, Coordinate to) {
+        return pieces.createMove(piece.getCoords(), to);
+    }
+
+    @Test
+    @DisplayName("Проверка взятия незащищенной пешки")
+    void testUndefendedCapture() {
+        HashMap<Coordinate, Piece> board = kings();
+        Rook rook = new Rook(COLOUR.W, new Coordinate('d', 1));
+        put(board, rook);
+        put(board, new Pawn(COLOUR.B, new Coordinate('d', 7)));
+        Pieces pieces = new Pieces(board);
+
+        assertEquals(100, StaticExchange.see(pieces, capture(pieces, rook, new Coordinate('d', 7))));
+    }
+
+    @Test
+    @DisplayName("Проверка взятия пешки, защищенной пешкой")
+    void testDefendedCapture() {
+        HashMap<Coordinate, Piece> board = kings();
+        Rook rook = new Rook(COLOUR.W, new Coordinate('d', 1));
+        put(board, rook);
+        put(board, new Pawn(COLOUR.B, new Coordinate('d', 7)));
+        put(board, new Pawn(COLOUR.B, new Coordinate('e', 8)));
+        Pieces pieces = new Pieces(board);
+
+        assertEquals(-400, StaticExchange.see(pieces, capture(pieces, rook, new Coordinate('d', 7))));
+    }
+
+    @Test
+    @DisplayName("Проверка рентгеновской атаки сдвоенных ладей")
+    void testXRayAttacker() {
+        HashMap<Coordinate, Piece> board = kings();
+        Rook front = new Rook(COLOUR.W, new Coordinate('d', 2));
+        put(board, front);
+        put(board, new Rook(COLOUR.W, new Coordinate('d', 1)));
+        put(board, new Pawn(COLOUR.B, new Coordinate('d', 7)));
+        put(board, new Rook(COLOUR.B, new Coordinate('d', 10)));
+        Pieces pieces = new Pieces(board);
+
+        assertEquals(100, StaticExchange.see(pieces, capture(pieces, front, new Coordinate('d', 7))));
+        assertEquals(2, pieces.getPieces().values().stream().filter(p -> p instanceof Rook && p.getColour() == COLOUR.W).count());
+    }
+
+    @Test
+    @DisplayName("Проверка рентгена через сложную фигуру")
+    void testFairyExchange() {
+        HashMap<Coordinate, Piece> board = kings();
+        Vizar vizar = new Vizar(COLOUR.W, new Coordinate('c', 3));
+        put(board, vizar);
+        put(board, new Queen(COLOUR.W, new Coordinate('b', 2)));
+        put(board, new Rook(COLOUR.B, new Coordinate('f', 6)));
+        put(board, new Knight(COLOUR.B, new Coordinate('g', 8)));
+        Pieces pieces = new Pieces(board);
+
+        // Vxf6 Nxf6 Qxf6: 500 - 700 + 300
+        assertEquals(100, StaticExchange.see(pieces, capture(pieces, vizar, new Coordinate('f', 6))));
+    }
+
+    @Test
+    @DisplayName("Проверка запрета взятия королем защищенной фигуры")
+    void testKingCannotRecaptureDefended() {
+        HashMap<Coordinate, Piece> board = new HashMap<>();
+        board.put(new Coordinate('a', 1), new King(COLOUR.W, new Coordinate('a', 1)));
+        board.put(new Coordinate('e', 6), new King(COLOUR.B, new Coordinate('e', 6)));
+        Rook rook = new Rook(COLOUR.W, new Coordinate('e', 1));
+        put(board, rook);
+        put(board, new Rook(COLOUR.W, new Coordinate('h', 5)));
+        put(board, new Knight(COLOUR.B, new Coordinate('e', 5)));
+        Pieces pieces = new Pieces(board);
+
+        assertEquals(300, StaticExchange.see(pieces, capture(pieces, rook, new Coordinate('e', 5))));
+    }
+}
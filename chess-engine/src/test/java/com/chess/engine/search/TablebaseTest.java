@@ -0,0 +1,223 @@
+package com.chess.engine.search;
+
+import com.chess.engine.enums.COLOUR;
+import com.chess.engine.enums.ID;
+import com.chess.engine.logic.Attacks;
+import com.chess.engine.logic.Coordinate;
+import com.chess.engine.logic.PackedMove;
+import com.chess.engine.logic.Pieces;
+import com.chess.engine.logic.Position;
+import com.chess.engine.pieces.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TablebaseTest {
+
+    private static Tablebases tables;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    static void generate() {
+        TablebaseGenerator generator = new TablebaseGenerator(2);
+        generator.generate("KRvK");
+        tables = generator.getTablebases();
+    }
+
+    private Position position(COLOUR sideToMove, String... placements) {
+        Position position = new Position();
+        for (String placement : placements) {
+            COLOUR colour = placement.charAt(0) == 'w' ? COLOUR.W : COLOUR.B;
+            ID name = placement.charAt(1) == 'K' ? ID.KING : ID.ROOK;
+            Coordinate coordinate = new Coordinate(placement.charAt(2), Integer.parseInt(placement.substring(3)));
+            position.put(coordinate.toIndex(), PieceKind.of(colour, name), true);
+        }
+        position.setSideToMove(sideToMove);
+        return position;
+    }
+
+    /**
+     * Находит случайную легальную позицию KRvK с ходом белых, значение которой удовлетворяет условию
+     */
+    private Pieces find(Random random, IntPredicate condition) {
+        while (true) {
+            int king = random.nextInt(Coordinate.SQUARES);
+            int enemy = random.nextInt(Coordinate.SQUARES);
+            int rook = random.nextInt(Coordinate.SQUARES);
+            if (king == enemy || king == rook || enemy == rook)
+                continue;
+            HashMap<Coordinate, Piece> board = new HashMap<>();
+            board.put(Coordinate.fromIndex(king), new King(COLOUR.W, Coordinate.fromIndex(king)));
+            board.put(Coordinate.fromIndex(enemy), new King(COLOUR.B, Coordinate.fromIndex(enemy)));
+            board.put(Coordinate.fromIndex(rook), new Rook(COLOUR.W, Coordinate.fromIndex(rook)));
+            Pieces pieces = new Pieces(board);
+            if (Attacks.isSquareAttacked(pieces.getPosition(), enemy, COLOUR.W))
+                continue;
+            int value = tables.probe(pieces.getPosition());
+            if (value != Tablebases.NONE && condition.test(value))
+                return pieces;
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка значений таблицы KRvK, симметрии доски и обмена цветов")
+    void testValues() {
+        Position mateInOne = position(COLOUR.W, "wKa8", "bKa10", "wRh1");
+        assertEquals(1, tables.probe(mateInOne));
+        assertEquals(-1, tables.probe(position(COLOUR.B, "wKa8", "bKa10", "wRh10")));
+        // Отражение доски и поворот не меняют значение
+        assertEquals(1, tables.probe(position(COLOUR.W, "wKj8", "bKj10", "wRc1")));
+        assertEquals(1, tables.probe(position(COLOUR.W, "wKh1", "bKj1", "wRa8")));
+        // Те же фигуры другого цвета находятся по той же таблице
+        assertEquals(1, tables.probe(position(COLOUR.B, "bKa8", "wKa10", "bRh1")));
+        // Черные берут незащищенную ладью - ничья
+        assertEquals(0, tables.probe(position(COLOUR.B, "wKa1", "bKe6", "wRe5")));
+        assertEquals(0, tables.probe(position(COLOUR.W, "wKa1", "bKe6")));
+
+        assertEquals(Tablebases.NONE, tables.probe(position(COLOUR.W, "wKa1", "bKe6", "bRe5", "wRj5")));
+        assertEquals(3, tables.getMaxPieces());
+        assertSame(tables.get("KRvK"), tables.get("KvKR"));
+
+        assertThrows(IllegalArgumentException.class, () -> new TablebaseGenerator(1).generate("KPvK"));
+        assertThrows(IllegalArgumentException.class, () -> new TablebaseGenerator(1).generate("KQRvKR"));
+    }
+
+    /**
+     * Пересчитывает значение позиции на один полуход по значениям позиций после легальных ходов
+     */
+    private int recompute(Tablebases tablebases, Pieces pieces) {
+        COLOUR colour = pieces.getSideToMove();
+        int bestLoss = 0;
+        int longestWin = 0;
+        boolean allWins = true;
+        boolean anyMove = false;
+        for (int move : pieces.generateMoves(colour).toArray()) {
+            if (!pieces.isLegal(move))
+                continue;
+            pieces.doMove(move);
+            int child = tablebases.probe(pieces.getPosition());
+            pieces.undoMove(move);
+            assertNotEquals(Tablebases.NONE, child);
+            anyMove = true;
+            if (child > 0)
+                longestWin = Math.max(longestWin, child);
+            else
+                allWins = false;
+            if (child < 0 && (bestLoss == 0 || child > bestLoss))
+                bestLoss = child;
+        }
+        if (!anyMove) {
+            int king = pieces.getPosition().kingSquare(colour);
+            return Attacks.isSquareAttacked(pieces.getPosition(), king, COLOUR.not(colour)) ? -1 : 0;
+        }
+        if (bestLoss != 0)
+            return -bestLoss;
+        return allWins ? -(longestWin + 1) : 0;
+    }
+
+    @Test
+    @DisplayName("Проверка значений KRRvK пересчетом по ходам, включая долгую защиту взятием")
+    void testConsistentWithChildren() {
+        TablebaseGenerator generator = new TablebaseGenerator(Runtime.getRuntime().availableProcessors());
+        generator.generate("KRRvK");
+        Tablebases generated = generator.getTablebases();
+
+        // Взятие ладьи ведет в долгое окончание KRvK, и это самая долгая защита черных
+        Position capture = position(COLOUR.B, "wKd2", "wRg5", "wRj6", "bKh6");
+        assertEquals(-18, generated.probe(capture));
+
+        Random random = new Random(3);
+        int checked = 0;
+        while (checked < 2000) {
+            int[] squares = new int[4];
+            for (int i = 0; i < squares.length; i++)
+                squares[i] = random.nextInt(Coordinate.SQUARES);
+            if (squares[0] == squares[1] || squares[0] == squares[2] || squares[0] == squares[3]
+                    || squares[1] == squares[2] || squares[1] == squares[3] || squares[2] == squares[3])
+                continue;
+            HashMap<Coordinate, Piece> board = new HashMap<>();
+            board.put(Coordinate.fromIndex(squares[0]), new King(COLOUR.W, Coordinate.fromIndex(squares[0])));
+            board.put(Coordinate.fromIndex(squares[1]), new King(COLOUR.B, Coordinate.fromIndex(squares[1])));
+            board.put(Coordinate.fromIndex(squares[2]), new Rook(COLOUR.W, Coordinate.fromIndex(squares[2])));
+            board.put(Coordinate.fromIndex(squares[3]), new Rook(COLOUR.W, Coordinate.fromIndex(squares[3])));
+            Pieces pieces = new Pieces(board);
+            if (checked % 2 == 1)
+                pieces.setSideToMove(COLOUR.B);
+            COLOUR waiting = COLOUR.not(pieces.getSideToMove());
+            int waitingKing = pieces.getPosition().kingSquare(waiting);
+            if (pieces.getPosition().getCastlingRights() != 0
+                    || Attacks.isSquareAttacked(pieces.getPosition(), waitingKing, pieces.getSideToMove()))
+                continue;
+            assertEquals(recompute(generated, pieces), generated.probe(pieces.getPosition()), pieces.getPosition().toString());
+            checked++;
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка совпадения расстояния до мата из таблицы с перебором")
+    void testAgreesWithSearch() {
+        Random random = new Random(7);
+        for (int moves = 1; moves <= 2; moves++) {
+            int expected = moves;
+            for (int i = 0; i < 5; i++) {
+                Pieces pieces = find(random, value -> value == expected);
+                // Без выборочных приемов перебор на 2m полуходов точно находит мат за m ходов
+                Search search = new Search(pieces, SearchOptions.plain());
+                int best = search.search(COLOUR.W, 2 * moves);
+                assertNotEquals(PackedMove.NONE, best);
+                assertEquals(Search.MATE - Tablebases.plies(expected), search.getScore());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка записи таблицы в сжатый файл и обращения к нему")
+    void testWriteAndOpen() throws IOException {
+        TablebaseGenerator generator = new TablebaseGenerator(1);
+        Tablebase generated = generator.generate("KRvK");
+        generator.write(tempDir);
+        assertTrue(Files.size(tempDir.resolve("KRvK" + Tablebases.EXTENSION)) < generated.size());
+
+        try (Tablebases opened = Tablebases.open(tempDir)) {
+            Tablebase mapped = opened.get("KRvK");
+            assertEquals("KRvK", mapped.getMaterial());
+            assertEquals(generated.size(), mapped.size());
+            for (int code = 0; code < generated.size(); code++)
+                assertEquals(generated.value(code), mapped.value(code));
+            // Таблица, построенная в двух потоках, совпадает с построенной в одном
+            Tablebase parallel = tables.get("KRvK");
+            for (int code = 0; code < generated.size(); code++)
+                assertEquals(parallel.value(code), generated.value(code));
+        }
+
+        Files.write(tempDir.resolve("broken" + Tablebases.EXTENSION), new byte[] {1, 2, 3});
+        assertThrows(IOException.class, () -> Tablebases.open(tempDir));
+    }
+
+    @Test
+    @DisplayName("Проверка оценки поиска по таблице за горизонтом перебора")
+    void testSearchProbes() {
+        Pieces pieces = find(new Random(11), value -> value >= 8);
+        int value = tables.probe(pieces.getPosition());
+
+        Search search = new Search(pieces);
+        search.setTablebases(tables);
+        int best = search.search(COLOUR.W, 2);
+
+        assertEquals(Search.MATE - Tablebases.plies(value), search.getScore());
+        pieces.doMove(best);
+        assertEquals(-value, tables.probe(pieces.getPosition()));
+    }
+}